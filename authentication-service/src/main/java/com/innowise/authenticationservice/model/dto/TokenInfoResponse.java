@@ -1,6 +1,6 @@
 package com.innowise.authenticationservice.model.dto;
 
-import com.innowise.authenticationservice.model.RoleEnum;
+import com.innowise.jwt.verification.RoleEnum;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -1,8 +1,8 @@
 package com.innowise.authenticationservice.model.dto;
 
-import com.innowise.authenticationservice.model.RoleEnum;
 import com.innowise.authenticationservice.model.entity.Role;
 import com.innowise.authenticationservice.model.entity.User;
+import com.innowise.jwt.verification.RoleEnum;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
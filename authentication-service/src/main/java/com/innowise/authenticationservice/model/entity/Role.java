@@ -1,6 +1,6 @@
 package com.innowise.authenticationservice.model.entity;
 
-import com.innowise.authenticationservice.model.RoleEnum;
+import com.innowise.jwt.verification.RoleEnum;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
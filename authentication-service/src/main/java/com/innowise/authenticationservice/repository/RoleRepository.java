@@ -1,7 +1,7 @@
 package com.innowise.authenticationservice.repository;
 
-import com.innowise.authenticationservice.model.RoleEnum;
 import com.innowise.authenticationservice.model.entity.Role;
+import com.innowise.jwt.verification.RoleEnum;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
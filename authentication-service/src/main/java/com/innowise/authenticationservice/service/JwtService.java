@@ -1,13 +1,11 @@
 package com.innowise.authenticationservice.service;
 
-import com.innowise.authenticationservice.model.RoleEnum;
 import com.innowise.authenticationservice.model.dto.UserDto;
-
-import java.util.List;
+import com.innowise.jwt.verification.VerifiedClaims;
 
 /**
  * Service interface for JWT token operations.
- * Defines the contract for generating, validating, and extracting claims from JWT tokens.
+ * Defines the contract for generating and verifying JWT tokens.
  */
 public interface JwtService {
 
@@ -28,43 +26,12 @@ public interface JwtService {
     String generateRefreshToken(UserDto user);
 
     /**
-     * Extracts the user ID from the JWT token.
-     *
-     * @param token The JWT token.
-     * @return The user ID extracted from the token.
-     */
-    Long extractUserId(String token);
-
-    /**
-     * Extracts the list of roles from the JWT token.
+     * Parses the JWT token once, validates its signature and expiration and returns its claims.
      *
      * @param token The JWT token.
-     * @return The list of roles extracted from the token.
-     */
-    List<RoleEnum> extractRoles(String token);
-
-    /**
-     * Extracts the token type from the JWT token.
-     *
-     * @param token The JWT token.
-     * @return The token type (access or refresh) extracted from the token.
-     */
-    String extractTokenType(String token);
-
-    /**
-     * Validates the JWT token by checking its expiration.
-     *
-     * @param token The JWT token to validate.
-     * @return {@code true} if the token is valid, {@code false} otherwise.
-     */
-    boolean isTokenValid(String token);
-
-    /**
-     * Validates the refresh JWT token by checking its expiration and type.
-     *
-     * @param token The JWT token to validate.
-     * @return {@code true} if the refresh token is valid, {@code false} otherwise.
+     * @return The {@link VerifiedClaims} of the token.
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, expired or has an invalid signature.
      */
-    boolean isRefreshTokenValid(String token);
+    VerifiedClaims verify(String token);
 
 }
@@ -11,6 +11,7 @@ import com.innowise.authenticationservice.repository.UserRepository;
 import com.innowise.authenticationservice.service.JwtService;
 import com.innowise.authenticationservice.service.TokenService;
 import com.innowise.authenticationservice.util.ExceptionMessageGenerator;
+import com.innowise.jwt.verification.VerifiedClaims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -19,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import static com.innowise.authenticationservice.config.SecurityConstant.AUTHORIZATION_BEARER_PREFIX;
 import static com.innowise.authenticationservice.config.SecurityConstant.AUTHORIZATION_TOKEN_POSITION;
+import static com.innowise.authenticationservice.config.SecurityConstant.TOKEN_REFRESH_TYPE;
 
 @Service
 @RequiredArgsConstructor
@@ -56,12 +58,12 @@ public class TokenServiceImpl implements TokenService {
         validateAuthorizationHeader(authHeader);
 
         String token = authHeader.substring(AUTHORIZATION_TOKEN_POSITION);
-        Long userId = jwtService.extractUserId(token);
+        VerifiedClaims claims = jwtService.verify(token);
 
-        User user = userRepository.findById(userId)
+        User user = userRepository.findById(claims.getUserId())
                 .orElseThrow(() -> new BadCredentialsException(ExceptionMessageGenerator.userBadCredentials()));
 
-        if (!jwtService.isRefreshTokenValid(token)) {
+        if (claims.isExpired() || !TOKEN_REFRESH_TYPE.equals(claims.getTokenType())) {
             throw new TokenException(ExceptionMessageGenerator.tokenInvalid());
         }
 
@@ -81,14 +83,15 @@ public class TokenServiceImpl implements TokenService {
         validateAuthorizationHeader(authHeader);
 
         String token = authHeader.substring(AUTHORIZATION_TOKEN_POSITION);
+        VerifiedClaims claims = jwtService.verify(token);
 
-        if (!jwtService.isTokenValid(token)) {
+        if (claims.isExpired()) {
             throw new TokenException(ExceptionMessageGenerator.tokenInvalid());
         }
 
         return TokenInfoResponse.builder()
-                .userId(jwtService.extractUserId(token))
-                .roles(jwtService.extractRoles(token))
+                .userId(claims.getUserId())
+                .roles(claims.getRoles())
                 .build();
     }
 
@@ -2,7 +2,6 @@ package com.innowise.authenticationservice.service.impl;
 
 import com.innowise.authenticationservice.exception.ResourceAlreadyExistsException;
 import com.innowise.authenticationservice.exception.ResourceNotFoundException;
-import com.innowise.authenticationservice.model.RoleEnum;
 import com.innowise.authenticationservice.model.dto.RegistrationRequest;
 import com.innowise.authenticationservice.model.dto.UserDto;
 import com.innowise.authenticationservice.model.entity.Role;
@@ -12,6 +11,7 @@ import com.innowise.authenticationservice.repository.UserRepository;
 import com.innowise.authenticationservice.service.UserService;
 import com.innowise.authenticationservice.service.UserServiceRestClient;
 import com.innowise.authenticationservice.util.ExceptionMessageGenerator;
+import com.innowise.jwt.verification.RoleEnum;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -1,6 +1,6 @@
 package com.innowise.authenticationservice.util;
 
-import com.innowise.authenticationservice.model.RoleEnum;
+import com.innowise.jwt.verification.RoleEnum;
 
 /**
  * Utility class responsible for generating formatted exception messages.
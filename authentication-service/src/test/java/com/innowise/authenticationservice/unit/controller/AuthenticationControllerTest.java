@@ -6,7 +6,6 @@ import com.innowise.authenticationservice.config.ServiceConfig;
 import com.innowise.authenticationservice.controller.AuthenticationController;
 import com.innowise.authenticationservice.exception.HeaderException;
 import com.innowise.authenticationservice.exception.ResourceAlreadyExistsException;
-import com.innowise.authenticationservice.model.RoleEnum;
 import com.innowise.authenticationservice.model.dto.AuthRequest;
 import com.innowise.authenticationservice.model.dto.RegistrationRequest;
 import com.innowise.authenticationservice.model.dto.TokenInfoResponse;
@@ -15,6 +14,7 @@ import com.innowise.authenticationservice.model.dto.UserDto;
 import com.innowise.authenticationservice.service.TokenService;
 import com.innowise.authenticationservice.service.UserService;
 import com.innowise.authenticationservice.util.ExceptionMessageGenerator;
+import com.innowise.jwt.verification.RoleEnum;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -1,11 +1,11 @@
 package com.innowise.authenticationservice.unit.util;
 
-import com.innowise.authenticationservice.model.RoleEnum;
 import com.innowise.authenticationservice.model.dto.AuthRequest;
 import com.innowise.authenticationservice.model.dto.RegistrationRequest;
 import com.innowise.authenticationservice.model.dto.TokenInfoResponse;
 import com.innowise.authenticationservice.model.dto.TokenResponse;
 import com.innowise.authenticationservice.model.dto.UserDto;
+import com.innowise.jwt.verification.RoleEnum;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -0,0 +1,44 @@
+package com.innowise.events;
+
+import com.google.protobuf.ByteString;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Utility class converting between {@link BigDecimal} and the {@link EventProtos.Decimal} message.
+ */
+public class EventDecimals {
+
+    private EventDecimals() {
+    }
+
+    /**
+     * Converts a decimal to its message.
+     *
+     * @param value The decimal to convert.
+     * @return The message of the decimal.
+     */
+    public static EventProtos.Decimal toMessage(BigDecimal value) {
+        return EventProtos.Decimal.newBuilder()
+                .setScale(value.scale())
+                .setUnscaledValue(ByteString.copyFrom(value.unscaledValue().toByteArray()))
+                .build();
+    }
+
+    /**
+     * Converts a message to its decimal.
+     *
+     * @param message The message to convert.
+     * @return The decimal of the message.
+     * @throws IllegalArgumentException if the message has no unscaled value.
+     */
+    public static BigDecimal fromMessage(EventProtos.Decimal message) {
+        if (message.getUnscaledValue().isEmpty()) {
+            throw new IllegalArgumentException("Decimal has no unscaled value");
+        }
+
+        return new BigDecimal(new BigInteger(message.getUnscaledValue().toByteArray()), message.getScale());
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.innowise.events;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventDecimalsTest {
+
+    @Test
+    @DisplayName("Should keep the scale and sign of a decimal")
+    void toMessage_ShouldRoundTrip() {
+        BigDecimal value = new BigDecimal("-1999.90");
+
+        BigDecimal result = EventDecimals.fromMessage(EventDecimals.toMessage(value));
+
+        assertThat(result).isEqualTo(value);
+        assertThat(result.scale()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should reject a decimal without an unscaled value")
+    void fromMessage_WithoutUnscaledValue_ShouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> EventDecimals.fromMessage(EventProtos.Decimal.getDefaultInstance()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unscaled value");
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.innowise.gatewayservice.config;
+
+import com.innowise.jwt.verification.RoleEnum;
+import com.innowise.jwt.verification.VerifiedClaims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+import static com.innowise.gatewayservice.config.SecurityConstant.IDENTITY_FIELD_DELIMITER;
+import static com.innowise.gatewayservice.config.SecurityConstant.IDENTITY_MAC_ALGORITHM;
+import static com.innowise.gatewayservice.config.SecurityConstant.IDENTITY_ROLE_DELIMITER;
+
+/**
+ * Produces the signed identity headers forwarded to downstream services in trusted-edge mode.
+ * <p>
+ * The identity is encoded as {@code userId;ROLE_A,ROLE_B;expEpochSeconds} and signed with HMAC-SHA256
+ * using a key shared only between the gateway and the downstream services, so they can authenticate
+ * the request without parsing the JWT again.
+ */
+@Component
+public class IdentityHeaderSigner {
+
+    private final boolean enabled;
+
+    private final ThreadLocal<Mac> mac;
+
+    public IdentityHeaderSigner(@Value("${security.edge.enabled}") boolean enabled,
+                                @Value("${security.edge.secret_key}") String secretKey) {
+        if (enabled && secretKey.isBlank()) {
+            throw new IllegalStateException("security.edge.secret_key must be set when security.edge.enabled is true");
+        }
+
+        this.enabled = enabled;
+        this.mac = ThreadLocal.withInitial(() -> initMac(secretKey));
+    }
+
+    /**
+     * Checks if trusted-edge mode is enabled.
+     *
+     * @return {@code true} if identity headers should be forwarded, {@code false} otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Encodes the verified claims into the compact identity header value.
+     *
+     * @param claims The {@link VerifiedClaims} of the request's JWT token.
+     * @return The identity header value.
+     */
+    public String encode(VerifiedClaims claims) {
+        String roles = claims.getRoles().stream()
+                .map(RoleEnum::name)
+                .collect(Collectors.joining(IDENTITY_ROLE_DELIMITER));
+        long expiration = claims.getExpiration() != null ? claims.getExpiration().getEpochSecond() : 0;
+
+        return claims.getUserId() + IDENTITY_FIELD_DELIMITER + roles + IDENTITY_FIELD_DELIMITER + expiration;
+    }
+
+    /**
+     * Signs the identity header value.
+     *
+     * @param identity The identity header value.
+     * @return The Base64URL-encoded HMAC of the identity.
+     */
+    public String sign(String identity) {
+        byte[] signature = mac.get().doFinal(identity.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private static Mac initMac(String secretKey) {
+        try {
+            Mac mac = Mac.getInstance(IDENTITY_MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), IDENTITY_MAC_ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.innowise.gatewayservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.innowise.jwt.verification.JwtVerifier;
+import com.innowise.jwt.verification.VerifiedClaims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Bounded, concurrent cache of JWT verification results.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the token, so raw tokens are never held in memory,
+ * and expire no later than the token's {@code exp} claim (capped by {@code security.jwt.cache.max_ttl}).
+ * Only successful verifications are cached; a token that fails verification is re-checked on every request.
+ * Hit, miss and eviction counts are published under the {@code jwt.verification} cache metrics.
+ */
+@Component
+public class JwtVerificationCache {
+
+    private static final String CACHE_NAME = "jwt.verification";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final JwtVerifier jwtVerifier;
+
+    private final Cache<String, VerifiedClaims> cache;
+
+    public JwtVerificationCache(JwtVerifier jwtVerifier,
+                                MeterRegistry meterRegistry,
+                                @Value("${security.jwt.cache.maximum_size}") long maximumSize,
+                                @Value("${security.jwt.cache.max_ttl}") Duration maxTtl) {
+        this.jwtVerifier = jwtVerifier;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(maxTtl))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the verified claims of the token, verifying it via {@link JwtVerifier} only on a cache miss.
+     *
+     * @param token The JWT token to verify.
+     * @return The {@link VerifiedClaims} of the token.
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, expired or has an invalid signature.
+     */
+    public VerifiedClaims verify(String token) {
+        return cache.get(digest(token), key -> jwtVerifier.verify(token));
+    }
+
+    /**
+     * Computes the hex-encoded SHA-256 digest of the token used as the cache key.
+     *
+     * @param token The JWT token.
+     * @return The hex-encoded digest.
+     */
+    private String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Expires each entry at the token's expiration time, or after the maximum TTL, whichever comes first.
+     */
+    @RequiredArgsConstructor
+    private static class TokenExpiry implements Expiry<String, VerifiedClaims> {
+
+        private final Duration maxTtl;
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedClaims claims, long currentTime) {
+            long maxTtlNanos = maxTtl.toNanos();
+
+            if (claims.getExpiration() == null) {
+                return maxTtlNanos;
+            }
+
+            long untilExpirationNanos = Duration.between(Instant.now(), claims.getExpiration()).toNanos();
+            return Math.max(0, Math.min(untilExpirationNanos, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
@@ -8,7 +8,10 @@ public class SecurityConstant {
     public static final String AUTHORIZATION_BEARER_PREFIX = "Bearer ";
     public static final int AUTHORIZATION_TOKEN_POSITION = 7;
 
-    public static final String TOKEN_CLAIM_USER_ID = "userId";
-    public static final String TOKEN_CLAIM_ROLES = "roles";
+    public static final String IDENTITY_HEADER = "X-Auth-Identity";
+    public static final String IDENTITY_SIGNATURE_HEADER = "X-Auth-Identity-Signature";
+    public static final String IDENTITY_FIELD_DELIMITER = ";";
+    public static final String IDENTITY_ROLE_DELIMITER = ",";
+    public static final String IDENTITY_MAC_ALGORITHM = "HmacSHA256";
 
 }
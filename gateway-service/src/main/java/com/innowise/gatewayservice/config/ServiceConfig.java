@@ -0,0 +1,26 @@
+package com.innowise.gatewayservice.config;
+
+import com.innowise.jwt.verification.JwtVerifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for service-level beans.
+ * Creates the verifier of the JWT tokens of incoming requests.
+ */
+@Configuration
+public class ServiceConfig {
+
+    /**
+     * Creates the {@link JwtVerifier} of the tokens issued by the Authentication Service.
+     *
+     * @param secretKey The Base64URL-encoded key the tokens are signed with.
+     * @return The configured {@link JwtVerifier}.
+     */
+    @Bean
+    public JwtVerifier jwtVerifier(@Value("${security.jwt.secret_key}") String secretKey) {
+        return new JwtVerifier(secretKey);
+    }
+
+}
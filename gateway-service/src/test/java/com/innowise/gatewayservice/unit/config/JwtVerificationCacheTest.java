@@ -0,0 +1,148 @@
+package com.innowise.gatewayservice.unit.config;
+
+import com.innowise.gatewayservice.config.JwtVerificationCache;
+import com.innowise.jwt.verification.JwtVerifier;
+import com.innowise.jwt.verification.RoleEnum;
+import com.innowise.jwt.verification.VerifiedClaims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static com.innowise.jwt.verification.JwtVerifier.TOKEN_CLAIM_ROLES;
+import static com.innowise.jwt.verification.JwtVerifier.TOKEN_CLAIM_USER_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class JwtVerificationCacheTest {
+
+    private static final String SECRET_KEY = "test-jwt-secret-key-for-unit-tests-must-be-at-least-512-bits-long-for-HS512-algorithm-security";
+    private static final String OTHER_SECRET_KEY = "different-secret-key-for-testing-invalid-signature-must-be-512-bits-long-for-HS512-security";
+    private static final Long TEST_USER_ID = 1L;
+    private static final Long OTHER_USER_ID = 2L;
+    private static final List<RoleEnum> TEST_ROLES = List.of(RoleEnum.ROLE_USER);
+    private static final long MAXIMUM_SIZE = 100;
+    private static final Duration MAX_TTL = Duration.ofMinutes(15);
+    private static final Duration EXPIRATION_MARGIN = Duration.ofMillis(200);
+
+    private JwtVerifier jwtVerifier;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private JwtVerificationCache jwtVerificationCache;
+
+    @BeforeEach
+    void setUp() {
+        String encodedKey = Base64.getUrlEncoder().encodeToString(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        jwtVerifier = spy(new JwtVerifier(encodedKey));
+        meterRegistry = new SimpleMeterRegistry();
+        jwtVerificationCache = new JwtVerificationCache(jwtVerifier, meterRegistry, MAXIMUM_SIZE, MAX_TTL);
+    }
+
+    @Test
+    @DisplayName("Should verify a token once and answer repeated requests from the cache")
+    void verify_ShouldReturnCachedClaims_WhenTokenVerifiedBefore() {
+        String token = generateToken(TEST_USER_ID, Duration.ofHours(1), SECRET_KEY);
+
+        VerifiedClaims first = jwtVerificationCache.verify(token);
+        VerifiedClaims second = jwtVerificationCache.verify(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getUserId()).isEqualTo(TEST_USER_ID);
+        verify(jwtVerifier, times(1)).verify(token);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt.verification").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should expire a cached token at its exp claim and verify it again")
+    void verify_ShouldReverifyToken_WhenExpirationReached() throws InterruptedException {
+        String token = generateToken(TEST_USER_ID, Duration.ofSeconds(2), SECRET_KEY);
+        VerifiedClaims claims = jwtVerificationCache.verify(token);
+
+        sleepUntil(claims.getExpiration().plus(EXPIRATION_MARGIN));
+
+        assertThatThrownBy(() -> jwtVerificationCache.verify(token))
+                .isInstanceOf(ExpiredJwtException.class);
+        verify(jwtVerifier, times(2)).verify(token);
+    }
+
+    @Test
+    @DisplayName("Should expire a cached token after the maximum TTL even if its exp claim is later")
+    void verify_ShouldReverifyToken_WhenMaxTtlReached() throws InterruptedException {
+        JwtVerificationCache shortLivedCache = new JwtVerificationCache(jwtVerifier, new SimpleMeterRegistry(),
+                MAXIMUM_SIZE, EXPIRATION_MARGIN);
+        String token = generateToken(TEST_USER_ID, Duration.ofHours(1), SECRET_KEY);
+        shortLivedCache.verify(token);
+
+        sleepUntil(Instant.now().plus(EXPIRATION_MARGIN.multipliedBy(2)));
+        shortLivedCache.verify(token);
+
+        verify(jwtVerifier, times(2)).verify(token);
+    }
+
+    @Test
+    @DisplayName("Should not cache a token with an invalid signature, so it is re-checked on every request")
+    void verify_ShouldNotCacheToken_WhenSignatureInvalid() {
+        String token = generateToken(TEST_USER_ID, Duration.ofHours(1), OTHER_SECRET_KEY);
+
+        assertThatThrownBy(() -> jwtVerificationCache.verify(token)).isInstanceOf(SignatureException.class);
+        assertThatThrownBy(() -> jwtVerificationCache.verify(token)).isInstanceOf(SignatureException.class);
+
+        verify(jwtVerifier, times(2)).verify(token);
+    }
+
+    @Test
+    @DisplayName("Should reject a tampered copy of a cached token instead of serving the cached claims")
+    void verify_ShouldRejectTamperedToken_WhenOriginalIsCached() {
+        String token = generateToken(TEST_USER_ID, Duration.ofHours(1), SECRET_KEY);
+        String otherToken = generateToken(OTHER_USER_ID, Duration.ofHours(1), SECRET_KEY);
+        String[] parts = token.split("\\.");
+        String tamperedToken = parts[0] + "." + otherToken.split("\\.")[1] + "." + parts[2];
+        jwtVerificationCache.verify(token);
+
+        assertThatThrownBy(() -> jwtVerificationCache.verify(tamperedToken)).isInstanceOf(SignatureException.class);
+        assertThatThrownBy(() -> jwtVerificationCache.verify(tamperedToken)).isInstanceOf(SignatureException.class);
+
+        verify(jwtVerifier, times(2)).verify(tamperedToken);
+        assertThat(jwtVerificationCache.verify(token).getUserId()).isEqualTo(TEST_USER_ID);
+        verify(jwtVerifier, times(1)).verify(token);
+    }
+
+    private void sleepUntil(Instant instant) throws InterruptedException {
+        long millis = Duration.between(Instant.now(), instant).toMillis();
+
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private String generateToken(Long userId, Duration expiresIn, String secret) {
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        Date now = new Date();
+
+        return Jwts.builder()
+                .claim(TOKEN_CLAIM_USER_ID, userId)
+                .claim(TOKEN_CLAIM_ROLES, TEST_ROLES.stream().map(RoleEnum::name).toList())
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + expiresIn.toMillis()))
+                .signWith(key)
+                .compact();
+    }
+
+}
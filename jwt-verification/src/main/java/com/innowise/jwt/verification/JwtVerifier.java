@@ -0,0 +1,74 @@
+package com.innowise.jwt.verification;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Verifies JWT tokens issued by the Authentication Service.
+ * <p>
+ * The signing key and the {@link JwtParser} are built once, when the verifier is created, and reused for every
+ * request, and each token is parsed and its signature checked exactly once. The services create a single verifier
+ * from their {@code security.jwt.secret_key} property.
+ */
+public class JwtVerifier {
+
+    public static final String TOKEN_CLAIM_TYPE = "type";
+    public static final String TOKEN_CLAIM_USER_ID = "userId";
+    public static final String TOKEN_CLAIM_ROLES = "roles";
+
+    private final JwtParser jwtParser;
+
+    public JwtVerifier(String secretKey) {
+        SecretKey signingKey = Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(secretKey));
+
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
+    /**
+     * Parses the JWT token, validates its signature and expiration and extracts its claims.
+     *
+     * @param token The JWT token to verify.
+     * @return The {@link VerifiedClaims} of the token.
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, expired or has an invalid signature.
+     */
+    public VerifiedClaims verify(String token) {
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+
+        return VerifiedClaims.builder()
+                .userId(claims.get(TOKEN_CLAIM_USER_ID, Long.class))
+                .roles(extractRoles(claims))
+                .tokenType(claims.get(TOKEN_CLAIM_TYPE, String.class))
+                .expiration(expiration != null ? expiration.toInstant() : null)
+                .build();
+    }
+
+    /**
+     * Extracts the list of roles from the token claims.
+     *
+     * @param claims The verified token claims.
+     * @return The list of {@link RoleEnum}, empty if the token has no roles.
+     */
+    private List<RoleEnum> extractRoles(Claims claims) {
+        List<?> rawRoles = claims.get(TOKEN_CLAIM_ROLES, List.class);
+
+        if (rawRoles == null || rawRoles.isEmpty()) {
+            return List.of();
+        }
+
+        return rawRoles.stream()
+                .map(Object::toString)
+                .map(RoleEnum::valueOf)
+                .toList();
+    }
+
+}
@@ -1,4 +1,4 @@
-package com.innowise.userservice.model;
+package com.innowise.jwt.verification;
 
 public enum RoleEnum {
     ROLE_USER,
@@ -0,0 +1,50 @@
+package com.innowise.jwt.verification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable view of the claims of a JWT token whose signature has already been verified.
+ * Produced by a single parse of the token, so callers never need to parse the same token twice.
+ */
+@Getter
+@Builder
+@ToString
+@AllArgsConstructor
+public class VerifiedClaims {
+
+    /**
+     * The unique identifier of the user the token was issued to.
+     */
+    private final Long userId;
+
+    /**
+     * The roles granted to the user.
+     */
+    private final List<RoleEnum> roles;
+
+    /**
+     * The token type (access or refresh), or {@code null} if the token has no type claim.
+     */
+    private final String tokenType;
+
+    /**
+     * The expiration time of the token, or {@code null} if the token has no expiration claim.
+     */
+    private final Instant expiration;
+
+    /**
+     * Checks if the token is expired at the current moment.
+     *
+     * @return {@code true} if the token is expired, {@code false} otherwise.
+     */
+    public boolean isExpired() {
+        return expiration != null && expiration.isBefore(Instant.now());
+    }
+
+}
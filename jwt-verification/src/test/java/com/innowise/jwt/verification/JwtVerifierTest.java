@@ -0,0 +1,95 @@
+package com.innowise.jwt.verification;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static com.innowise.jwt.verification.JwtVerifier.TOKEN_CLAIM_ROLES;
+import static com.innowise.jwt.verification.JwtVerifier.TOKEN_CLAIM_TYPE;
+import static com.innowise.jwt.verification.JwtVerifier.TOKEN_CLAIM_USER_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtVerifierTest {
+
+    private static final String SECRET_KEY = "test-jwt-secret-key-for-unit-tests-must-be-at-least-512-bits-long-for-HS512-algorithm-security";
+    private static final Long TEST_USER_ID = 1L;
+    private static final List<RoleEnum> TEST_ROLES = List.of(RoleEnum.ROLE_USER, RoleEnum.ROLE_ADMIN);
+
+    private JwtVerifier jwtVerifier;
+
+    @BeforeEach
+    void setUp() {
+        String encodedKey = Base64.getUrlEncoder().encodeToString(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        jwtVerifier = new JwtVerifier(encodedKey);
+    }
+
+    @Test
+    @DisplayName("Should return user ID, roles, type and expiration from a single parse of a valid token")
+    void verify_WithValidToken_ShouldReturnClaims() {
+        String validToken = generateToken(TEST_USER_ID, TEST_ROLES, 3600000, SECRET_KEY);
+
+        VerifiedClaims claims = jwtVerifier.verify(validToken);
+
+        assertThat(claims.getUserId()).isEqualTo(TEST_USER_ID);
+        assertThat(claims.getRoles()).containsExactlyInAnyOrder(RoleEnum.ROLE_USER, RoleEnum.ROLE_ADMIN);
+        assertThat(claims.getTokenType()).isEqualTo("access");
+        assertThat(claims.getExpiration()).isNotNull();
+        assertThat(claims.isExpired()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should return empty roles when JWT token has no roles")
+    void verify_WithEmptyRoles_ShouldReturnEmptyList() {
+        String validToken = generateToken(TEST_USER_ID, List.of(), 3600000, SECRET_KEY);
+
+        VerifiedClaims claims = jwtVerifier.verify(validToken);
+
+        assertThat(claims.getRoles()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should throw ExpiredJwtException when JWT token is expired")
+    void verify_WithExpiredToken_ShouldThrowExpiredJwtException() {
+        String expiredToken = generateToken(TEST_USER_ID, TEST_ROLES, -3600000, SECRET_KEY);
+
+        assertThatThrownBy(() -> jwtVerifier.verify(expiredToken))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    @DisplayName("Should throw JwtException when JWT token has invalid signature")
+    void verify_WithInvalidSignature_ShouldThrowJwtException() {
+        String differentKey = "different-secret-key-for-testing-invalid-signature-must-be-512-bits-long-for-HS512-security";
+        String token = generateToken(TEST_USER_ID, TEST_ROLES, 3600000, differentKey);
+
+        assertThatThrownBy(() -> jwtVerifier.verify(token))
+                .isInstanceOf(JwtException.class);
+    }
+
+    private String generateToken(Long userId, List<RoleEnum> roles, long expirationOffset, String secret) {
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        Date now = new Date();
+        Date expiration = new Date(now.getTime() + expirationOffset);
+
+        return Jwts.builder()
+                .claim(TOKEN_CLAIM_TYPE, "access")
+                .claim(TOKEN_CLAIM_USER_ID, userId)
+                .claim(TOKEN_CLAIM_ROLES, roles.stream().map(RoleEnum::name).toList())
+                .issuedAt(now)
+                .expiration(expiration)
+                .signWith(key)
+                .compact();
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.innowise.kafka.retry;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.kafka.config.ContainerCustomizer;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerPartitionPausingBackOffManager;
+import org.springframework.kafka.listener.ContainerPausingBackOffHandler;
+import org.springframework.kafka.listener.KafkaConsumerBackoffManager;
+import org.springframework.kafka.listener.ListenerContainerPauseService;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.listener.SeekUtils;
+import org.springframework.kafka.listener.adapter.KafkaBackoffAwareMessageListenerAdapter;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.math.BigInteger;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tiered non-blocking retry pipeline of a consumed topic.
+ * <p>
+ * A record that fails on the main topic is republished to the first retry topic, and a record that fails
+ * on a retry topic to the next one. A record that fails on the last retry topic, or fails with a non-retryable
+ * exception, goes to the dead letter topic. A record republished to a retry topic carries the
+ * {@value #DUE_AT_HEADER} header, the time its tier delay has passed. Every retry topic is consumed by its own
+ * container and consumer group; a record read before it is due pauses its partition until then and is sought
+ * back, so the consumer keeps polling and failing records are retried out of band while the main topic keeps flowing.
+ */
+public class RetryTopicPipeline {
+
+    public static final String DUE_AT_HEADER = "retry-due-at";
+
+    private final Map<String, Duration> retryTopicDelays;
+    private final List<String> retryTopics;
+    private final String dltTopic;
+    private final Set<Class<? extends Throwable>> notRetryableExceptions;
+    private final Clock clock;
+
+    /**
+     * Creates the retry pipeline of a consumed topic.
+     *
+     * @param retryTopicDelays The retry topics in the order they are tried, mapped to their delays.
+     * @param dltTopic The dead letter topic records end up in once all retries are exhausted.
+     * @param notRetryableExceptions The exceptions sending a record straight to the dead letter topic.
+     */
+    public RetryTopicPipeline(LinkedHashMap<String, Duration> retryTopicDelays,
+                              String dltTopic,
+                              Set<Class<? extends Throwable>> notRetryableExceptions) {
+        this(retryTopicDelays, dltTopic, notRetryableExceptions, Clock.systemUTC());
+    }
+
+    /**
+     * Creates the retry pipeline of a consumed topic with the clock its due times are computed by.
+     *
+     * @param retryTopicDelays The retry topics in the order they are tried, mapped to their delays.
+     * @param dltTopic The dead letter topic records end up in once all retries are exhausted.
+     * @param notRetryableExceptions The exceptions sending a record straight to the dead letter topic.
+     * @param clock The clock of the due times.
+     */
+    public RetryTopicPipeline(LinkedHashMap<String, Duration> retryTopicDelays,
+                              String dltTopic,
+                              Set<Class<? extends Throwable>> notRetryableExceptions,
+                              Clock clock) {
+        this.retryTopicDelays = retryTopicDelays;
+        this.retryTopics = new ArrayList<>(retryTopicDelays.keySet());
+        this.dltTopic = dltTopic;
+        this.notRetryableExceptions = notRetryableExceptions;
+        this.clock = clock;
+    }
+
+    /**
+     * Resolves where a failed record is republished: the next retry topic, or the dead letter topic.
+     * The partition of the record is kept.
+     * <p>
+     * A record that is only backing off until it is due has not failed: its exception is rethrown,
+     * so the error handler seeks the record back instead of republishing it.
+     *
+     * @param consumerRecord The failed record.
+     * @param exception The exception the record failed with.
+     * @return The {@link TopicPartition} to republish the record to.
+     */
+    public TopicPartition resolveDestination(ConsumerRecord<?, ?> consumerRecord, Exception exception) {
+        if (SeekUtils.isBackoffException(exception)) {
+            throw (NestedRuntimeException) exception;
+        }
+
+        if (isNotRetryable(exception)) {
+            return new TopicPartition(dltTopic, consumerRecord.partition());
+        }
+
+        return resolveRetryDestination(consumerRecord);
+    }
+
+    /**
+     * Resolves the next retry topic of a record regardless of the exception it failed with,
+     * or the dead letter topic if the record comes from the last retry topic. The partition of the record is kept.
+     *
+     * @param consumerRecord The record to retry.
+     * @return The {@link TopicPartition} to republish the record to.
+     */
+    public TopicPartition resolveRetryDestination(ConsumerRecord<?, ?> consumerRecord) {
+        int nextTier = retryTopics.indexOf(consumerRecord.topic()) + 1;
+
+        if (nextTier == retryTopics.size()) {
+            return new TopicPartition(dltTopic, consumerRecord.partition());
+        }
+
+        return new TopicPartition(retryTopics.get(nextTier), consumerRecord.partition());
+    }
+
+    /**
+     * Creates the headers of a record republished to a destination: the {@value #DUE_AT_HEADER} header
+     * when the destination is a retry topic, none when it is the dead letter topic.
+     *
+     * @param destination The {@link TopicPartition} the record is republished to.
+     * @return The headers to add to the republished record.
+     */
+    public Headers retryHeaders(TopicPartition destination) {
+        RecordHeaders headers = new RecordHeaders();
+        Duration delay = retryTopicDelays.get(destination.topic());
+
+        if (delay != null) {
+            long dueAt = clock.millis() + delay.toMillis();
+            headers.add(DUE_AT_HEADER, BigInteger.valueOf(dueAt).toByteArray());
+        }
+
+        return headers;
+    }
+
+    /**
+     * Creates the customizer of the retry topic containers that wraps their listener in a
+     * {@link KafkaBackoffAwareMessageListenerAdapter}: a record read before its {@value #DUE_AT_HEADER}
+     * pauses its partition and is sought back instead of blocking the consumer thread.
+     *
+     * @param backoffManager The manager pausing and resuming the partitions of records not yet due.
+     * @return The customizer to set on the container factory of the retry topics.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> ContainerCustomizer<K, V, ConcurrentMessageListenerContainer<K, V>> backoffCustomizer(
+            KafkaConsumerBackoffManager backoffManager) {
+        return container -> container.setupMessageListener(new KafkaBackoffAwareMessageListenerAdapter<>(
+                (MessageListener<K, V>) container.getContainerProperties().getMessageListener(),
+                backoffManager, container.getListenerId(), DUE_AT_HEADER, clock));
+    }
+
+    /**
+     * Creates the backoff manager that pauses the partition of a record not yet due and resumes it once due.
+     *
+     * @param registry The registry of the listener containers.
+     * @param scheduler The scheduler resuming the paused partitions.
+     * @return The {@link KafkaConsumerBackoffManager}.
+     */
+    public static KafkaConsumerBackoffManager partitionPausingBackoffManager(ListenerContainerRegistry registry,
+                                                                             TaskScheduler scheduler) {
+        return new ContainerPartitionPausingBackOffManager(registry,
+                new ContainerPausingBackOffHandler(new ListenerContainerPauseService(registry, scheduler)));
+    }
+
+    private boolean isNotRetryable(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            Class<? extends Throwable> causeClass = cause.getClass();
+
+            if (notRetryableExceptions.stream().anyMatch(type -> type.isAssignableFrom(causeClass))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+}
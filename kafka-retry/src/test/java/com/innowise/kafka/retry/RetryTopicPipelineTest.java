@@ -0,0 +1,201 @@
+package com.innowise.kafka.retry;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaBackoffException;
+import org.springframework.kafka.listener.KafkaConsumerBackoffManager;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.listener.adapter.KafkaBackoffAwareMessageListenerAdapter;
+
+import java.math.BigInteger;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class RetryTopicPipelineTest {
+
+    private static final String MAIN_TOPIC = "topic";
+    private static final String RETRY_SHORT_TOPIC = "topic.retry-short";
+    private static final String RETRY_LONG_TOPIC = "topic.retry-long";
+    private static final String DLT_TOPIC = "topic.DLT";
+    private static final Duration LONG_DELAY = Duration.ofSeconds(60);
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Mock
+    private KafkaConsumerBackoffManager backoffManager;
+
+    @Mock
+    private ConsumerFactory<String, String> consumerFactory;
+
+    @Mock
+    private MessageListener<String, String> listener;
+
+    private final RetryTopicPipeline retryTopicPipeline = createPipeline();
+
+    @Test
+    @DisplayName("Should republish a record failed on the main topic to the first retry topic")
+    void resolveDestination_ShouldReturnFirstRetryTopic_WhenMainTopicFails() {
+        TopicPartition destination = retryTopicPipeline.resolveDestination(
+                createRecord(MAIN_TOPIC, 2, new RecordHeaders()), new IllegalStateException("Database unavailable"));
+
+        assertThat(destination).isEqualTo(new TopicPartition(RETRY_SHORT_TOPIC, 2));
+    }
+
+    @Test
+    @DisplayName("Should republish a record failed on a retry topic to the next retry topic")
+    void resolveDestination_ShouldReturnNextRetryTopic_WhenRetryTopicFails() {
+        TopicPartition destination = retryTopicPipeline.resolveDestination(
+                createRecord(RETRY_SHORT_TOPIC, 1, new RecordHeaders()), new IllegalStateException("Database unavailable"));
+
+        assertThat(destination).isEqualTo(new TopicPartition(RETRY_LONG_TOPIC, 1));
+    }
+
+    @Test
+    @DisplayName("Should republish a record failed on the last retry topic to the DLT")
+    void resolveDestination_ShouldReturnDlt_WhenLastRetryTopicFails() {
+        TopicPartition destination = retryTopicPipeline.resolveDestination(
+                createRecord(RETRY_LONG_TOPIC, 0, new RecordHeaders()), new IllegalStateException("Database unavailable"));
+
+        assertThat(destination).isEqualTo(new TopicPartition(DLT_TOPIC, 0));
+    }
+
+    @Test
+    @DisplayName("Should send a record failed with a non-retryable exception straight to the DLT")
+    void resolveDestination_ShouldReturnDlt_WhenExceptionNotRetryable() {
+        ListenerExecutionFailedException exception = new ListenerExecutionFailedException(
+                "Listener failed", new IllegalArgumentException("Invalid event"));
+
+        TopicPartition destination = retryTopicPipeline.resolveDestination(
+                createRecord(MAIN_TOPIC, 0, new RecordHeaders()), exception);
+
+        assertThat(destination).isEqualTo(new TopicPartition(DLT_TOPIC, 0));
+    }
+
+    @Test
+    @DisplayName("Should rethrow the exception of a record backing off so it is sought back, not republished")
+    void resolveDestination_ShouldRethrow_WhenRecordBacksOff() {
+        ListenerExecutionFailedException exception = new ListenerExecutionFailedException("Listener failed",
+                new KafkaBackoffException("Not due", new TopicPartition(RETRY_SHORT_TOPIC, 0), "listener", 0L));
+
+        assertThatThrownBy(() -> retryTopicPipeline.resolveDestination(
+                createRecord(RETRY_SHORT_TOPIC, 0, new RecordHeaders()), exception))
+                .isSameAs(exception);
+    }
+
+    @Test
+    @DisplayName("Should retry a record on the next retry topic regardless of the exception of its batch")
+    void resolveRetryDestination_ShouldReturnNextRetryTopic() {
+        assertThat(retryTopicPipeline.resolveRetryDestination(createRecord(MAIN_TOPIC, 1, new RecordHeaders())))
+                .isEqualTo(new TopicPartition(RETRY_SHORT_TOPIC, 1));
+        assertThat(retryTopicPipeline.resolveRetryDestination(createRecord(RETRY_LONG_TOPIC, 1, new RecordHeaders())))
+                .isEqualTo(new TopicPartition(DLT_TOPIC, 1));
+    }
+
+    @Test
+    @DisplayName("Should mark a record republished to a retry topic as due once its tier delay has passed")
+    void retryHeaders_ShouldAddDueAt_WhenDestinationIsRetryTopic() {
+        Headers headers = retryTopicPipeline.retryHeaders(new TopicPartition(RETRY_LONG_TOPIC, 0));
+
+        Header dueAt = headers.lastHeader(RetryTopicPipeline.DUE_AT_HEADER);
+        assertThat(new BigInteger(dueAt.value()).longValue()).isEqualTo(NOW.plus(LONG_DELAY).toEpochMilli());
+    }
+
+    @Test
+    @DisplayName("Should not mark a record republished to the DLT as due")
+    void retryHeaders_ShouldBeEmpty_WhenDestinationIsDlt() {
+        Headers headers = retryTopicPipeline.retryHeaders(new TopicPartition(DLT_TOPIC, 0));
+
+        assertThat(headers.toArray()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should back off a retry record before passing it to the listener")
+    void backoffCustomizer_ShouldBackOff_WhenRecordHasDueAt() {
+        ConcurrentMessageListenerContainer<String, String> container = createContainer();
+        doCallRealMethod().when(backoffManager).createContext(anyLong(), anyString(), any(), any());
+        ConsumerRecord<String, String> consumerRecord = createRecord(RETRY_LONG_TOPIC, 0,
+                retryTopicPipeline.retryHeaders(new TopicPartition(RETRY_LONG_TOPIC, 0)));
+
+        retryTopicPipeline.<String, String>backoffCustomizer(backoffManager).configure(container);
+        ((MessageListener<String, String>) container.getContainerProperties().getMessageListener())
+                .onMessage(consumerRecord);
+
+        ArgumentCaptor<KafkaConsumerBackoffManager.Context> context =
+                ArgumentCaptor.forClass(KafkaConsumerBackoffManager.Context.class);
+        verify(backoffManager).backOffIfNecessary(context.capture());
+        assertThat(context.getValue().getDueTimestamp()).isEqualTo(NOW.plus(LONG_DELAY).toEpochMilli());
+        assertThat(context.getValue().getTopicPartition()).isEqualTo(new TopicPartition(RETRY_LONG_TOPIC, 0));
+        verify(listener).onMessage(consumerRecord);
+    }
+
+    @Test
+    @DisplayName("Should pass a record without a due time straight to the listener")
+    void backoffCustomizer_ShouldNotBackOff_WhenRecordHasNoDueAt() {
+        ConcurrentMessageListenerContainer<String, String> container = createContainer();
+        ConsumerRecord<String, String> consumerRecord = createRecord(RETRY_LONG_TOPIC, 0, new RecordHeaders());
+
+        retryTopicPipeline.<String, String>backoffCustomizer(backoffManager).configure(container);
+
+        assertThat(container.getContainerProperties().getMessageListener())
+                .isInstanceOf(KafkaBackoffAwareMessageListenerAdapter.class);
+        ((MessageListener<String, String>) container.getContainerProperties().getMessageListener())
+                .onMessage(consumerRecord);
+
+        verifyNoInteractions(backoffManager);
+        verify(listener).onMessage(consumerRecord);
+    }
+
+    private RetryTopicPipeline createPipeline() {
+        LinkedHashMap<String, Duration> retryTopicDelays = new LinkedHashMap<>();
+        retryTopicDelays.put(RETRY_SHORT_TOPIC, Duration.ofSeconds(1));
+        retryTopicDelays.put(RETRY_LONG_TOPIC, LONG_DELAY);
+
+        return new RetryTopicPipeline(retryTopicDelays, DLT_TOPIC, Set.of(IllegalArgumentException.class),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private ConcurrentMessageListenerContainer<String, String> createContainer() {
+        ContainerProperties containerProperties = new ContainerProperties(RETRY_LONG_TOPIC);
+        containerProperties.setMessageListener(listener);
+
+        ConcurrentMessageListenerContainer<String, String> container =
+                new ConcurrentMessageListenerContainer<>(consumerFactory, containerProperties);
+        container.setBeanName("retry-listener");
+
+        return container;
+    }
+
+    private ConsumerRecord<String, String> createRecord(String topic, int partition, Headers headers) {
+        return new ConsumerRecord<>(topic, partition, 0L, 0L, TimestampType.CREATE_TIME, 0, 0,
+                "key", "value", headers, Optional.empty());
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.innowise.orderservice.config;
+
+import com.innowise.orderservice.model.EventEncoding;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Deserializes an event in the encoding announced by the {@link KafkaConfig#EVENT_ENCODING_HEADER} record header.
+ * <p>
+ * Records without the header, or with the {@link EventEncoding#JSON} value, are decoded as JSON,
+ * so messages produced before the binary encoding was introduced still decode during a rollout.
+ * The last header wins, letting a republished record override the encoding of the original one.
+ *
+ * @param <T> The type of the event.
+ */
+public class EventEncodingDeserializer<T> implements Deserializer<T> {
+
+    private static final byte[] BINARY = EventEncoding.BINARY.name().getBytes(StandardCharsets.UTF_8);
+
+    private final Deserializer<T> jsonDeserializer;
+    private final Function<byte[], T> binaryDecoder;
+
+    /**
+     * Creates the deserializer.
+     *
+     * @param jsonDeserializer The deserializer of JSON encoded events.
+     * @param binaryDecoder The decoder of binary encoded events.
+     */
+    public EventEncodingDeserializer(Deserializer<T> jsonDeserializer, Function<byte[], T> binaryDecoder) {
+        this.jsonDeserializer = jsonDeserializer;
+        this.binaryDecoder = binaryDecoder;
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        Header encoding = headers.lastHeader(KafkaConfig.EVENT_ENCODING_HEADER);
+
+        if (data != null && encoding != null && Arrays.equals(BINARY, encoding.value())) {
+            return binaryDecoder.apply(data);
+        }
+
+        return jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+
+}
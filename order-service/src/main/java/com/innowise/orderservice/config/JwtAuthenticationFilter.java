@@ -1,20 +1,15 @@
 package com.innowise.orderservice.config;
 
-
+import com.innowise.jwt.verification.JwtVerifier;
+import com.innowise.jwt.verification.RoleEnum;
+import com.innowise.jwt.verification.VerifiedClaims;
 import com.innowise.orderservice.model.AuthUser;
-import com.innowise.orderservice.model.RoleEnum;
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.JwtParserBuilder;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -22,17 +17,15 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
-import java.util.Date;
 import java.util.List;
-import java.util.function.Function;
+import java.util.Optional;
 
 import static com.innowise.orderservice.config.SecurityConstant.AUTHORIZATION_BEARER_PREFIX;
 import static com.innowise.orderservice.config.SecurityConstant.AUTHORIZATION_HEADER;
 import static com.innowise.orderservice.config.SecurityConstant.AUTHORIZATION_TOKEN_POSITION;
-import static com.innowise.orderservice.config.SecurityConstant.TOKEN_CLAIM_ROLES;
-import static com.innowise.orderservice.config.SecurityConstant.TOKEN_CLAIM_USER_ID;
+import static com.innowise.orderservice.config.SecurityConstant.IDENTITY_HEADER;
+import static com.innowise.orderservice.config.SecurityConstant.IDENTITY_SIGNATURE_HEADER;
 
 
 /**
@@ -45,12 +38,17 @@ import static com.innowise.orderservice.config.SecurityConstant.TOKEN_CLAIM_USER
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    @Value("${security.jwt.secret_key}")
-    private String secretKey;
+    private final JwtVerifier jwtVerifier;
+
+    private final IdentityHeaderVerifier identityHeaderVerifier;
 
     private final HandlerExceptionResolver exceptionResolver;
 
-    public JwtAuthenticationFilter(@Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+    public JwtAuthenticationFilter(JwtVerifier jwtVerifier,
+                                   IdentityHeaderVerifier identityHeaderVerifier,
+                                   @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.jwtVerifier = jwtVerifier;
+        this.identityHeaderVerifier = identityHeaderVerifier;
         this.exceptionResolver = exceptionResolver;
     }
 
@@ -59,11 +57,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      * <p>
      * Process flow:
      * 1. Extracts the Authorization header
-     * 2. Validates the Bearer token format
-     * 3. Parses and validates the JWT token
-     * 4. Extracts user information (userId, email, roles) from token claims
-     * 5. Creates an AuthUser object and sets it in the SecurityContext
-     * 6. Continues the filter chain
+     * 2. Takes user information (userId, roles) from the gateway-signed identity headers if they are valid
+     * 3. Otherwise validates the Bearer token format and parses the JWT token once via {@link JwtVerifier}
+     * 4. Creates an AuthUser object and sets it in the SecurityContext
+     * 5. Continues the filter chain
      *
      * @param request The HTTP request to filter.
      * @param response The HTTP response.
@@ -74,30 +71,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader(AUTHORIZATION_HEADER);
+        String token = authHeader != null && authHeader.startsWith(AUTHORIZATION_BEARER_PREFIX)
+                ? authHeader.substring(AUTHORIZATION_TOKEN_POSITION)
+                : null;
 
-        if (authHeader != null && authHeader.startsWith(AUTHORIZATION_BEARER_PREFIX)) {
-            String token = authHeader.substring(AUTHORIZATION_TOKEN_POSITION);
+        Optional<VerifiedClaims> edgeClaims = identityHeaderVerifier.verify(
+                request.getHeader(IDENTITY_HEADER), request.getHeader(IDENTITY_SIGNATURE_HEADER));
 
+        if (edgeClaims.isPresent()) {
+            authenticate(edgeClaims.get(), token);
+        } else if (token != null) {
             try {
-                if (isTokenValid(token) && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    Long userId = extractUserId(token);
-                    List<RoleEnum> roles = extractRoles(token);
-
-                    List<SimpleGrantedAuthority> authorities = roles.stream()
-                            .map(RoleEnum::name)
-                            .map(SimpleGrantedAuthority::new)
-                            .toList();
-
-                    AuthUser authUser = AuthUser.builder()
-                            .id(userId)
-                            .authorities(authorities)
-                            .build();
-
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(authUser, token, authorities);
-
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                }
+                authenticate(jwtVerifier.verify(token), token);
             } catch (JwtException ex) {
                 exceptionResolver.resolveException(request, response, null, ex);
                 return;
@@ -108,104 +93,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     /**
-     * Retrieves the signing key used for JWT token validation.
-     * Decodes the Base64URL encoded secret key and creates an HMAC SHA key.
-     *
-     * @return The {@link SecretKey} for JWT validation.
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64URL.decode(secretKey);
-
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    /**
-     * Extracts a specific claim from the JWT token.
-     *
-     * @param token The JWT token.
-     * @param resolver A function to extract the desired claim from the Claims object.
-     * @param <T> The type of the claim to extract.
-     * @return The extracted claim value.
-     */
-    private <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        Claims claims = extractAllClaims(token);
-
-        return resolver.apply(claims);
-    }
-
-    /**
-     * Extracts all claims from the JWT token.
-     * Parses and validates the token signature using the signing key.
-     *
-     * @param token The JWT token to parse.
-     * @return The {@link Claims} object containing all token claims.
-     */
-    private Claims extractAllClaims(String token) {
-        JwtParserBuilder parser = Jwts.parser();
-        parser.verifyWith(getSigningKey());
-
-        return parser.build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    /**
-     * Extracts the user ID from the JWT token.
+     * Creates an AuthUser from the verified claims and sets it in the SecurityContext.
+     * The raw token is kept as credentials so it can be propagated to other services.
      *
-     * @param token The JWT token.
-     * @return The user ID extracted from the token.
+     * @param claims The {@link VerifiedClaims} of the request.
+     * @param token The raw JWT token, or {@code null} if the request has none.
      */
-    public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get(TOKEN_CLAIM_USER_ID, Long.class));
-    }
-
-    /**
-     * Extracts the list of roles from the JWT token.
-     *
-     * @param token The JWT token.
-     * @return The list of {@link RoleEnum} extracted from the token.
-     */
-    public List<RoleEnum> extractRoles(String token) {
-        List<?> rawRoles = extractClaim(token, claims -> claims.get(TOKEN_CLAIM_ROLES, List.class));
-
-        if (rawRoles == null || rawRoles.isEmpty()) {
-            return List.of();
+    private void authenticate(VerifiedClaims claims, String token) {
+        if (claims.isExpired() || SecurityContextHolder.getContext().getAuthentication() != null) {
+            return;
         }
 
-        return rawRoles.stream()
-                .map(Object::toString)
-                .map(RoleEnum::valueOf)
+        List<SimpleGrantedAuthority> authorities = claims.getRoles().stream()
+                .map(RoleEnum::name)
+                .map(SimpleGrantedAuthority::new)
                 .toList();
-    }
 
-    /**
-     * Extracts the expiration date from the JWT token.
-     *
-     * @param token The JWT token.
-     * @return The expiration {@link Date} of the token.
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
+        AuthUser authUser = AuthUser.builder()
+                .id(claims.getUserId())
+                .authorities(authorities)
+                .build();
 
-    /**
-     * Validates the JWT token by checking if it's not expired.
-     *
-     * @param token The JWT token to validate.
-     * @return {@code true} if the token is valid, {@code false} otherwise.
-     */
-    public boolean isTokenValid(String token) {
-        return !isTokenExpired(token);
-    }
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(authUser, token, authorities);
 
-    /**
-     * Checks if the JWT token is expired.
-     *
-     * @param token The JWT token.
-     * @return {@code true} if the token is expired, {@code false} otherwise.
-     */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
     }
 
 }
@@ -1,13 +1,19 @@
 package com.innowise.orderservice.config;
 
+import com.innowise.kafka.retry.RetryTopicPipeline;
+import com.innowise.orderservice.model.EventEncoding;
 import com.innowise.orderservice.model.dto.CreateOrderEvent;
 import com.innowise.orderservice.model.dto.CreatePaymentEvent;
+import com.innowise.orderservice.util.BinaryEventCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,23 +30,33 @@ import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.KafkaConsumerBackoffManager;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
-import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.backoff.FixedBackOff;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Configuration class for Apache Kafka integration in the Payment Service.
  * <p>
  * This configuration defines:
  * <ul>
- *     <li>Kafka Producer for sending {@link CreateOrderEvent} messages to the order-created topic</li>
- *     <li>Kafka Consumer for receiving {@link CreatePaymentEvent} messages from the payment-created topic</li>
+ *     <li>Kafka Producer for sending {@link CreateOrderEvent} messages, pre-serialized by the outbox, to the order-created topic</li>
+ *     <li>Event encoding negotiated by the {@value #EVENT_ENCODING_HEADER} record header, binary or JSON</li>
+ *     <li>Kafka batch Consumer for receiving {@link CreatePaymentEvent} messages from the payment-created topic,
+ *     committing offsets once per polled batch and reading only committed records of transactional producers</li>
  *     <li>Producer idempotence and retry configurations for reliable message delivery</li>
- *     <li>Consumer error handling with exponential backoff strategy</li>
+ *     <li>Consumer error handling with non-blocking retry topics delayed by 1s, 10s and 60s before the DLT,
+ *     each consumed by its own consumer group that pauses a partition until its next record is due</li>
  * </ul>
  * <p>
  */
@@ -50,9 +66,17 @@ public class KafkaConfig {
 
     public static final String ORDER_CREATED_TOPIC = "order-service.orders.created";
     public static final String PAYMENT_CREATED_TOPIC = "payment-service.payments.created";
+    public static final String PAYMENT_CREATED_RETRY_1S_TOPIC = "payment-service.payments.created.retry-1s";
+    public static final String PAYMENT_CREATED_RETRY_10S_TOPIC = "payment-service.payments.created.retry-10s";
+    public static final String PAYMENT_CREATED_RETRY_60S_TOPIC = "payment-service.payments.created.retry-60s";
     public static final String PAYMENT_CREATED_DLT_TOPIC = "payment-service.payments.created.DLT";
 
+    public static final String EVENT_ENCODING_HEADER = "event-encoding";
+
     public static final String ORDER_SERVICE_PAYMENT_CONSUMER_GROUP = "order-service-payment-events-consumer";
+    public static final String ORDER_SERVICE_PAYMENT_RETRY_1S_CONSUMER_GROUP = "order-service-payment-events-retry-1s-consumer";
+    public static final String ORDER_SERVICE_PAYMENT_RETRY_10S_CONSUMER_GROUP = "order-service-payment-events-retry-10s-consumer";
+    public static final String ORDER_SERVICE_PAYMENT_RETRY_60S_CONSUMER_GROUP = "order-service-payment-events-retry-60s-consumer";
 
     @Value(value = "${spring.kafka.bootstrap-servers}")
     private String bootstrapAddress;
@@ -73,6 +97,14 @@ public class KafkaConfig {
                 .build();
     }
 
+    @Bean
+    public KafkaAdmin.NewTopics paymentRetryTopics() {
+        return new KafkaAdmin.NewTopics(
+                TopicBuilder.name(PAYMENT_CREATED_RETRY_1S_TOPIC).partitions(3).replicas(1).build(),
+                TopicBuilder.name(PAYMENT_CREATED_RETRY_10S_TOPIC).partitions(3).replicas(1).build(),
+                TopicBuilder.name(PAYMENT_CREATED_RETRY_60S_TOPIC).partitions(3).replicas(1).build());
+    }
+
     @Bean
     public NewTopic paymentDltTopic() {
         return TopicBuilder.name(PAYMENT_CREATED_DLT_TOPIC)
@@ -82,13 +114,15 @@ public class KafkaConfig {
     }
 
     @Bean
-    public ProducerFactory<String, CreateOrderEvent> producerFactory() {
+    public ProducerFactory<String, byte[]> producerFactory() {
         Map<String, Object> props = getCommonProducerProperties();
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
         props.put(ProducerConfig.RETRIES_CONFIG, 10);
         props.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 100);
         props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120000);
         props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 30000);
         props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
 
         return new DefaultKafkaProducerFactory<>(props);
     }
@@ -114,7 +148,7 @@ public class KafkaConfig {
     }
 
     @Bean
-    public KafkaTemplate<String, CreateOrderEvent> kafkaTemplate() {
+    public KafkaTemplate<String, byte[]> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
 
@@ -131,26 +165,38 @@ public class KafkaConfig {
         props.put(ConsumerConfig.GROUP_ID_CONFIG, ORDER_SERVICE_PAYMENT_CONSUMER_GROUP);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, false);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
 
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        JsonDeserializer<CreatePaymentEvent> jsonDeserializer = new JsonDeserializer<>(CreatePaymentEvent.class, false);
+        EventEncodingDeserializer<CreatePaymentEvent> valueDeserializer =
+                new EventEncodingDeserializer<>(jsonDeserializer, BinaryEventCodec::decodeCreatePaymentEvent);
 
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, CreatePaymentEvent.class);
+        return new DefaultKafkaConsumerFactory<>(props,
+                new ErrorHandlingDeserializer<>(new StringDeserializer()),
+                new ErrorHandlingDeserializer<>(valueDeserializer));
+    }
 
-        return new DefaultKafkaConsumerFactory<>(props);
+    @Bean
+    public RetryTopicPipeline paymentRetryTopicPipeline() {
+        LinkedHashMap<String, Duration> retryTopicDelays = new LinkedHashMap<>();
+        retryTopicDelays.put(PAYMENT_CREATED_RETRY_1S_TOPIC, Duration.ofSeconds(1));
+        retryTopicDelays.put(PAYMENT_CREATED_RETRY_10S_TOPIC, Duration.ofSeconds(10));
+        retryTopicDelays.put(PAYMENT_CREATED_RETRY_60S_TOPIC, Duration.ofSeconds(60));
+
+        return new RetryTopicPipeline(retryTopicDelays, PAYMENT_CREATED_DLT_TOPIC, Set.of(IllegalArgumentException.class));
     }
 
     @Bean
     public DefaultErrorHandler kafkaErrorHandler() {
+        RetryTopicPipeline retryTopicPipeline = paymentRetryTopicPipeline();
         DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
                 dltKafkaTemplate(),
                 (consumerRecord, exception) -> {
-                    log.error("Message processing failed after all retries. Sending to DLT. " +
+                    TopicPartition destination = retryTopicPipeline.resolveDestination(consumerRecord, exception);
+
+                    log.error("Message processing failed. Republishing to {}. " +
                                     "Topic: {}, Partition: {}, Offset: {}, Key: {}, Error: {}",
+                            destination.topic(),
                             consumerRecord.topic(),
                             consumerRecord.partition(),
                             consumerRecord.offset(),
@@ -158,19 +204,27 @@ public class KafkaConfig {
                             exception.getMessage(),
                             exception);
 
-                    return new TopicPartition(PAYMENT_CREATED_DLT_TOPIC, consumerRecord.partition());
+                    return destination;
                 });
+        recoverer.setHeadersFunction((consumerRecord, exception) -> republishHeaders(
+                consumerRecord, retryTopicPipeline.resolveDestination(consumerRecord, exception)));
 
-        ExponentialBackOff backOff = new ExponentialBackOff();
-        backOff.setInitialInterval(1000L);
-        backOff.setMultiplier(2.0);
-        backOff.setMaxInterval(10000L);
-        backOff.setMaxElapsedTime(60000L);
+        return new DefaultErrorHandler(recoverer, new FixedBackOff(0L, 0L));
+    }
 
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
-        errorHandler.addNotRetryableExceptions(IllegalArgumentException.class);
+    /**
+     * Marks a republished record as JSON, since the DLT template re-serializes the deserialized event as JSON,
+     * and a record republished to a retry topic with the time it is due.
+     * Records that failed deserialization are republished with their original bytes and headers.
+     */
+    private Headers republishHeaders(ConsumerRecord<?, ?> consumerRecord, TopicPartition destination) {
+        Headers headers = paymentRetryTopicPipeline().retryHeaders(destination);
 
-        return errorHandler;
+        if (consumerRecord.value() != null) {
+            headers.add(EVENT_ENCODING_HEADER, EventEncoding.JSON.name().getBytes(StandardCharsets.UTF_8));
+        }
+
+        return headers;
     }
 
     @Bean
@@ -179,6 +233,26 @@ public class KafkaConfig {
         factory.setConsumerFactory(consumerFactory());
         factory.setCommonErrorHandler(kafkaErrorHandler());
         factory.getContainerProperties().setMissingTopicsFatal(false);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+
+        return factory;
+    }
+
+    @Bean
+    public KafkaConsumerBackoffManager retryBackoffManager(ListenerContainerRegistry listenerContainerRegistry,
+                                                           TaskScheduler taskScheduler) {
+        return RetryTopicPipeline.partitionPausingBackoffManager(listenerContainerRegistry, taskScheduler);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, CreatePaymentEvent> retryKafkaListenerContainerFactory(
+            KafkaConsumerBackoffManager retryBackoffManager) {
+        ConcurrentKafkaListenerContainerFactory<String, CreatePaymentEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setCommonErrorHandler(kafkaErrorHandler());
+        factory.setContainerCustomizer(paymentRetryTopicPipeline().backoffCustomizer(retryBackoffManager));
+        factory.getContainerProperties().setMissingTopicsFatal(false);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
 
         return factory;
@@ -1,16 +1,20 @@
 package com.innowise.orderservice.config;
 
+import com.innowise.jwt.verification.JwtVerifier;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Collections;
 
 /**
  * Configuration class for service-level beans.
- * Configures REST template for inter-service communication with JWT authentication.
+ * Configures REST template for inter-service communication with JWT authentication,
+ * the verifier of incoming JWT tokens and the worker pool of the outbox relay.
  */
 @Configuration
 @EnableScheduling
@@ -34,4 +38,32 @@ public class ServiceConfig {
         return restTemplate;
     }
 
+    /**
+     * Creates the worker pool used by the outbox relay to drain claimed batches in parallel.
+     *
+     * @param workers The number of relay workers per instance.
+     * @return The configured {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor outboxRelayExecutor(@Value("${outbox.relay.workers}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("outbox-relay-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+
+        return executor;
+    }
+
+    /**
+     * Creates the {@link JwtVerifier} of the tokens issued by the Authentication Service.
+     *
+     * @param secretKey The Base64URL-encoded key the tokens are signed with.
+     * @return The configured {@link JwtVerifier}.
+     */
+    @Bean
+    public JwtVerifier jwtVerifier(@Value("${security.jwt.secret_key}") String secretKey) {
+        return new JwtVerifier(secretKey);
+    }
+
 }
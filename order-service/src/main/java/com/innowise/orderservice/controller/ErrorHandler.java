@@ -1,6 +1,7 @@
 package com.innowise.orderservice.controller;
 
 import com.innowise.orderservice.exception.ExternalServiceException;
+import com.innowise.orderservice.exception.InvalidCursorException;
 import com.innowise.orderservice.exception.ResourceNotFoundException;
 import com.innowise.orderservice.model.dto.ErrorApiDto;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
@@ -139,6 +140,27 @@ public class ErrorHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorApiDto);
     }
 
+    /**
+     * Handles exceptions when a pagination cursor cannot be decoded.
+     *
+     * @param ex The {@link RuntimeException} ({@link InvalidCursorException}).
+     * @param request The current {@link HttpServletRequest}.
+     * @return A {@link ResponseEntity} containing an {@link ErrorApiDto} with a
+     * BAD_REQUEST status (400).
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorApiDto> handleInvalidCursorException(RuntimeException ex, HttpServletRequest request) {
+        ErrorApiDto errorApiDto = ErrorApiDto.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorApiDto);
+    }
+
     /**
      * Handles exceptions when a requested resource is not found.
      * Catches the {@link ResourceNotFoundException}
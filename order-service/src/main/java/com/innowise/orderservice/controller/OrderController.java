@@ -6,8 +6,10 @@ import com.innowise.orderservice.model.dto.OrderRequest;
 import com.innowise.orderservice.model.dto.OrderResponse;
 import com.innowise.orderservice.model.dto.PageableRequest;
 import com.innowise.orderservice.service.OrderService;
+import com.innowise.orderservice.util.CursorCodec;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -22,6 +24,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
 
+import static com.innowise.orderservice.util.CursorCodec.NEXT_CURSOR_HEADER;
 import static org.springframework.http.HttpStatus.CREATED;
 
 /**
@@ -66,19 +69,26 @@ public class OrderController {
     }
 
     /**
-     * Retrieves a list of orders based on filter criteria.
+     * Retrieves a list of orders based on filter criteria, ordered by ID.
      * This endpoint is restricted to administrators only.
+     * If more orders are available, the {@code X-Next-Cursor} header contains the cursor
+     * to pass as {@code after} to fetch the next page without an offset.
      *
      * @param filterRequest the filter criteria
-     * @param pageableRequest the pagination parameters
+     * @param pageableRequest the pagination parameters (offset page or {@code after} cursor)
      * @return ResponseEntity containing the list of orders
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<OrderResponse>> findByFilter(FilterRequest filterRequest, @Valid PageableRequest pageableRequest) {
-        List<OrderResponse> orders = orderService.findByFilter(filterRequest, pageableRequest);
+        Slice<OrderResponse> orders = orderService.findByFilter(filterRequest, pageableRequest);
 
-        return ResponseEntity.ok(orders);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (orders.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, CursorCodec.encode(orders.getContent().getLast().getId()));
+        }
+
+        return response.body(orders.getContent());
     }
 
     /**
@@ -0,0 +1,14 @@
+package com.innowise.orderservice.exception;
+
+import java.io.Serial;
+
+public class InvalidCursorException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 4630119853390714215L;
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,6 @@
+package com.innowise.orderservice.model;
+
+public enum EventEncoding {
+    JSON,
+    BINARY
+}
@@ -0,0 +1,19 @@
+package com.innowise.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Application event published when an outbox event is saved.
+ * Delivered after the saving transaction commits, to wake up the outbox relay.
+ */
+@Getter
+@AllArgsConstructor
+public class OutboxEventSavedEvent {
+
+    /**
+     * The ID of the order the saved outbox event belongs to.
+     */
+    private final Long orderId;
+
+}
@@ -1,6 +0,0 @@
-package com.innowise.orderservice.model;
-
-public enum RoleEnum {
-    ROLE_USER,
-    ROLE_ADMIN
-}
@@ -1,5 +1,6 @@
 package com.innowise.orderservice.model.entity;
 
+import com.innowise.orderservice.model.EventEncoding;
 import com.innowise.orderservice.model.EventStatus;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -34,7 +35,10 @@ public class OutboxEvent {
     @Column(nullable = false, unique = true)
     private Long orderId;
 
-    private String payload;
+    private byte[] payload;
+
+    @Enumerated(EnumType.STRING)
+    private EventEncoding encoding;
 
     @Builder.Default
     private Integer retryCount = 0;
@@ -45,4 +49,8 @@ public class OutboxEvent {
     @CreationTimestamp
     private LocalDateTime createdAt;
 
+    private String lockedBy;
+
+    private LocalDateTime lockedUntil;
+
 }
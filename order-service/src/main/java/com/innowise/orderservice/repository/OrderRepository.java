@@ -1,21 +1,26 @@
 package com.innowise.orderservice.repository;
 
+import com.innowise.orderservice.model.OrderStatus;
 import com.innowise.orderservice.model.entity.Order;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository interface for managing {@link Order} entities.
  * Provides standard CRUD operations and custom query methods with entity graph support.
+ * Paginated queries are split into an ID page query ({@link OrderRepositoryCustom}) and an entity graph fetch.
  */
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
 
     /**
      * Saves a given order.
@@ -66,14 +71,31 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findByIdAndUserId(Long id, Long userId);
 
     /**
-     * Finds all orders matching the given specification with pagination support.
-     * Uses {@link EntityGraph} to eagerly load order items and associated items.
+     * Finds orders by a list of IDs with eagerly loaded order items and associated items, ordered by ID.
+     * Used as the second phase of paginated queries after {@link #findIdsBy(Specification, Pageable)},
+     * so the collection fetch never has to be combined with a page request.
      *
-     * @param spec The specification to filter orders.
-     * @param pageable The pagination information.
-     * @return A {@link List} of orders matching the specification.
+     * @param ids The list of order IDs to search for.
+     * @return A {@link List} of orders with the specified IDs.
      */
     @EntityGraph(attributePaths = {"orderItems", "orderItems.item"})
-    List<Order> findAll(Specification<Order> spec, Pageable pageable);
+    List<Order> findByIdInOrderById(List<Long> ids);
+
+    /**
+     * Moves the orders with the given IDs from {@link OrderStatus#NEW} to the target status in a single statement.
+     * Orders that do not exist or are no longer {@code NEW} are left untouched,
+     * so the status is never overwritten by a late or duplicate event.
+     *
+     * @param ids The IDs of the orders to update.
+     * @param status The target status.
+     * @return The number of updated orders.
+     */
+    @Modifying
+    @Query("""
+        UPDATE Order o
+        SET o.status = :status
+        WHERE o.id IN :ids AND o.status = com.innowise.orderservice.model.OrderStatus.NEW
+        """)
+    int updateStatusIfNew(Collection<Long> ids, OrderStatus status);
 
 }
@@ -0,0 +1,25 @@
+package com.innowise.orderservice.repository;
+
+import com.innowise.orderservice.model.entity.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Custom repository fragment for {@link Order} queries that cannot be expressed as query methods.
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Finds a page of order IDs matching the given specification, ordered by ID.
+     * Pagination is applied in SQL because no collection is fetched, so the result can be used
+     * to load the full orders with their items afterwards. No count query is issued: one extra row
+     * is fetched to determine whether a next page exists.
+     *
+     * @param spec The specification to filter orders.
+     * @param pageable The pagination information.
+     * @return A {@link Slice} of order IDs of the requested page.
+     */
+    Slice<Long> findIdsBy(Specification<Order> spec, Pageable pageable);
+
+}
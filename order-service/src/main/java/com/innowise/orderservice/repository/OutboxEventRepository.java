@@ -1,25 +1,104 @@
 package com.innowise.orderservice.repository;
 
 
-import com.innowise.orderservice.model.EventStatus;
 import com.innowise.orderservice.model.entity.OutboxEvent;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
 
     /**
-     * Retrieves a list of outbox events filtered by their status, ordered by creation time.
+     * Claims up to {@code batchSize} of the oldest pending outbox events for the given owner.
+     * <p>
+     * Candidate rows are locked with {@code FOR UPDATE SKIP LOCKED}, so concurrent claimers never wait on
+     * each other and always receive disjoint rows. Claimed rows are leased until the database time plus
+     * {@code leaseSeconds}; rows whose lease has expired are claimable again, so events held by a crashed
+     * or stalled worker are reclaimed automatically.
      *
-     * @param eventStatus the status of events to retrieve (e.g., PENDING, SENT, FAILED)
-     * @param pageable    pagination parameters to limit the number of results
-     * @return a list of {@link OutboxEvent} entities matching the given status,
-     *         ordered by creation timestamp in ascending order (oldest first)
+     * @param owner        the identifier of the claiming worker
+     * @param batchSize    the maximum number of events to claim
+     * @param leaseSeconds the lease duration in seconds
+     * @return the claimed {@link OutboxEvent} entities, in no particular order
      */
-    List<OutboxEvent> findByEventStatusOrderByCreatedAt(EventStatus eventStatus, Pageable pageable);
+    @Query(value = """
+        UPDATE outbox_events
+        SET locked_by = :owner, locked_until = LOCALTIMESTAMP + make_interval(secs => :leaseSeconds)
+        WHERE id IN (
+            SELECT id FROM outbox_events
+            WHERE event_status = 'PENDING' AND (locked_until IS NULL OR locked_until < LOCALTIMESTAMP)
+            ORDER BY created_at
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING *
+        """, nativeQuery = true)
+    List<OutboxEvent> claimPending(String owner, int batchSize, double leaseSeconds);
+
+    /**
+     * Marks claimed outbox events as sent and releases their leases in a single statement.
+     * Events whose lease is no longer held by the given owner are left untouched.
+     *
+     * @param ids   the IDs of the outbox events
+     * @param owner the identifier of the worker holding the leases
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query("""
+        UPDATE OutboxEvent e
+        SET e.eventStatus = com.innowise.orderservice.model.EventStatus.SENT, e.lockedBy = NULL, e.lockedUntil = NULL
+        WHERE e.id IN :ids AND e.lockedBy = :owner
+        """)
+    int markAsSent(Collection<Long> ids, String owner);
+
+    /**
+     * Records a failed publish attempt of claimed outbox events and releases their leases in a single statement.
+     * Events reaching {@code maxRetryCount} are moved to {@code FAILED}, the others stay {@code PENDING}.
+     * Events whose lease is no longer held by the given owner are left untouched.
+     *
+     * @param ids           the IDs of the outbox events
+     * @param owner         the identifier of the worker holding the leases
+     * @param maxRetryCount the retry count at which an event is given up
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE outbox_events
+        SET retry_count = retry_count + 1,
+            event_status = CASE WHEN retry_count + 1 >= :maxRetryCount THEN 'FAILED' ELSE 'PENDING' END,
+            locked_by = NULL,
+            locked_until = NULL
+        WHERE id IN (:ids) AND locked_by = :owner
+        """, nativeQuery = true)
+    int recordFailures(Collection<Long> ids, String owner, int maxRetryCount);
+
+    /**
+     * Creates the daily partitions of the outbox table from yesterday up to {@code daysAhead} days ahead.
+     * Rows that landed in the default partition for those days are moved into the new partitions.
+     *
+     * @param daysAhead the number of days ahead to create partitions for
+     * @return the number of created partitions
+     */
+    @Query(value = "SELECT outbox_events_create_partitions(:daysAhead)", nativeQuery = true)
+    int createPartitions(int daysAhead);
+
+    /**
+     * Drops the daily partitions older than {@code retentionDays} that hold no pending events,
+     * and deletes the processed events of the same age from the default partition. The order keys of the
+     * removed events are released with them.
+     * <p>
+     * A partition whose drop cannot lock the outbox table within two seconds is kept for the next run,
+     * and the call returns {@code 0} while another instance maintains the partitions.
+     *
+     * @param retentionDays the number of days processed events are kept for
+     * @return the number of dropped partitions
+     */
+    @Query(value = "SELECT outbox_events_drop_partitions(:retentionDays)", nativeQuery = true)
+    int dropPartitions(int retentionDays);
 
 }
@@ -0,0 +1,20 @@
+package com.innowise.orderservice.service;
+
+/**
+ * Controller pausing the Kafka listener containers while the database they write to is saturated.
+ */
+public interface ConsumerBackpressureController {
+
+    /**
+     * Samples the database connection pool and pauses or resumes the listener containers accordingly.
+     */
+    void checkDownstream();
+
+    /**
+     * Checks if the listener containers are currently paused by the controller.
+     *
+     * @return {@code true} if the listener containers are paused, {@code false} otherwise.
+     */
+    boolean isPaused();
+
+}
@@ -1,8 +1,13 @@
 package com.innowise.orderservice.service;
 
+import com.innowise.orderservice.model.EventEncoding;
 import com.innowise.orderservice.model.dto.CreateOrderEvent;
 import com.innowise.orderservice.model.dto.CreatePaymentEvent;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service interface for Kafka message operations in Order Service.
@@ -10,18 +15,35 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 public interface KafkaService {
 
     /**
-     * Consumes CREATE_PAYMENT event from Kafka topic and updates order status accordingly.
+     * Consumes a batch of CREATE_PAYMENT events from Kafka topic and updates order statuses accordingly.
+     * The statuses of the whole batch are applied with set-based updates in a single transaction;
+     * if an order appears more than once, its first payment result wins.
+     *
+     * @param consumerRecords The Kafka {@link ConsumerRecord}s containing {@link CreatePaymentEvent} with payment details.
+     * @throws org.springframework.kafka.listener.BatchListenerFailedException if an event is invalid;
+     * the events before it are applied and the failed one is handed to the error handler.
+     */
+    void consumeCreatePaymentEvents(List<ConsumerRecord<String, CreatePaymentEvent>> consumerRecords);
+
+    /**
+     * Retries a CREATE_PAYMENT event that failed on the payment-created topic or on an earlier retry topic.
+     * The event is consumed from its retry topic only after the tier delay has passed.
      *
      * @param consumerRecord The Kafka {@link ConsumerRecord} containing {@link CreatePaymentEvent} with payment details.
+     * @throws IllegalArgumentException if the event is invalid.
      */
-    void consumeCreatePaymentEvent(ConsumerRecord<String, CreatePaymentEvent> consumerRecord);
+    void retryCreatePaymentEvent(ConsumerRecord<String, CreatePaymentEvent> consumerRecord);
 
     /**
      * Sends CREATE_ORDER event to Kafka topic for Payment Service to process.
+     * Does not block, so the producer can batch events sent in quick succession.
      *
-     *
-     * @param event The {@link CreateOrderEvent} containing order information.
+     * @param orderId The ID of the order, used as the record key.
+     * @param payload The {@link CreateOrderEvent} already serialized to its wire bytes.
+     * @param encoding The {@link EventEncoding} of the payload, announced in the record header.
+     * @return A future completed when the broker acknowledges the event,
+     * or completed exceptionally with a {@link org.springframework.kafka.KafkaException} if sending fails.
      */
-    void sendCreateOrderEvent(CreateOrderEvent event);
+    CompletableFuture<SendResult<String, byte[]>> sendCreateOrderEvent(Long orderId, byte[] payload, EventEncoding encoding);
 
 }
@@ -1,11 +1,13 @@
 package com.innowise.orderservice.service;
 
+import com.innowise.orderservice.model.PaymentStatus;
 import com.innowise.orderservice.model.dto.FilterRequest;
 import com.innowise.orderservice.model.dto.OrderRequest;
 import com.innowise.orderservice.model.dto.OrderResponse;
 import com.innowise.orderservice.model.dto.PageableRequest;
+import org.springframework.data.domain.Slice;
 
-import java.util.List;
+import java.util.Map;
 
 /**
  * Service interface for managing order-related business logic.
@@ -36,14 +38,15 @@ public interface OrderService {
     OrderResponse findByIdAndUserId(Long id, Long userId);
 
     /**
-     * Retrieves a filtered and paginated list of orders.
+     * Retrieves a filtered and paginated slice of orders ordered by ID.
      * Supports filtering by order IDs and statuses, includes user information for all orders.
+     * If {@code after} cursor is set, keyset pagination is used and {@code page} is ignored.
      *
      * @param filterRequest The DTO containing filter criteria (IDs and statuses).
      * @param pageableRequest The DTO containing pagination parameters.
-     * @return A {@link List} of {@link OrderResponse} containing filtered orders with user information.
+     * @return A {@link Slice} of {@link OrderResponse} containing filtered orders with user information.
      */
-    List<OrderResponse> findByFilter(FilterRequest filterRequest, PageableRequest pageableRequest);
+    Slice<OrderResponse> findByFilter(FilterRequest filterRequest, PageableRequest pageableRequest);
 
     /**
      * Updates an existing order by its ID.
@@ -64,4 +67,13 @@ public interface OrderService {
      */
     void deleteById(Long id);
 
+    /**
+     * Applies a batch of payment results to the orders still in {@code NEW} status within one transaction.
+     * Orders with a successful payment become {@code PREPARED}, the rest become {@code CANCELED};
+     * orders that do not exist or were already processed are skipped.
+     *
+     * @param paymentStatuses The payment status of each order, keyed by order ID.
+     */
+    void applyPaymentResults(Map<Long, PaymentStatus> paymentStatuses);
+
 }
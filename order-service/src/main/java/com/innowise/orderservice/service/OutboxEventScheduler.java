@@ -8,7 +8,15 @@ public interface OutboxEventScheduler {
 
     /**
      * Processes pending outbox events by attempting to publish them to Kafka.
+     *
+     * @return {@code true} if a full batch was claimed and all of it was sent, so more events are likely pending
+     * and the broker accepts them.
      */
-    void processOutboxEvents();
+    boolean processOutboxEvents();
+
+    /**
+     * Wakes up the relay, so newly saved events are published without waiting for the next poll.
+     */
+    void wakeUp();
 
 }
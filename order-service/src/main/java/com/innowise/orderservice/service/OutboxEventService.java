@@ -2,6 +2,10 @@ package com.innowise.orderservice.service;
 
 
 import com.innowise.orderservice.model.dto.CreateOrderEvent;
+import com.innowise.orderservice.model.entity.OutboxEvent;
+
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Service interface for managing Outbox Event operations.
@@ -14,6 +18,9 @@ public interface OutboxEventService {
 
     /**
      * Saves a order event to the outbox table with PENDING status.
+     * The event is stored as its final JSON wire bytes, so the relay can publish it without re-serializing.
+     * Publishes an {@link com.innowise.orderservice.model.OutboxEventSavedEvent}
+     * so the relay picks the event up as soon as the transaction commits.
      *
      * @param event the order event to be saved and eventually published
      * @throws com.innowise.orderservice.exception.OutboxEventSerializationException
@@ -21,4 +28,36 @@ public interface OutboxEventService {
      */
     void save(CreateOrderEvent event);
 
+    /**
+     * Claims a batch of pending outbox events for exclusive processing by the given owner.
+     * <p>
+     * The claim is committed before this method returns, so the events can be published
+     * outside the transaction while other workers skip them until the lease expires.
+     * </p>
+     *
+     * @param owner     the identifier of the claiming worker
+     * @param batchSize the maximum number of events to claim
+     * @param lease     how long the events stay reserved for the owner
+     * @return the claimed events, oldest first
+     */
+    List<OutboxEvent> claimBatch(String owner, int batchSize, Duration lease);
+
+    /**
+     * Marks claimed events as sent and releases their leases.
+     *
+     * @param ids   the IDs of the claimed events
+     * @param owner the identifier of the worker holding the leases
+     */
+    void markAsSent(List<Long> ids, String owner);
+
+    /**
+     * Records a failed publish attempt of claimed events and releases their leases.
+     * Events reaching {@code maxRetryCount} are moved to {@code FAILED}.
+     *
+     * @param ids           the IDs of the claimed events
+     * @param owner         the identifier of the worker holding the leases
+     * @param maxRetryCount the retry count at which an event is given up
+     */
+    void recordFailures(List<Long> ids, String owner, int maxRetryCount);
+
 }
@@ -0,0 +1,14 @@
+package com.innowise.orderservice.service;
+
+/**
+ * Scheduler service for maintaining the partitions of the Outbox Events table.
+ * Processed events are removed by dropping whole partitions instead of row-by-row deletes.
+ */
+public interface OutboxRetentionScheduler {
+
+    /**
+     * Creates the partitions for the upcoming days and drops the partitions past the retention period.
+     */
+    void maintainPartitions();
+
+}
@@ -0,0 +1,77 @@
+package com.innowise.orderservice.service.impl;
+
+import com.innowise.orderservice.service.ConsumerBackpressureController;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pauses the Kafka listener containers while the Hikari pool has too many threads awaiting a connection,
+ * and resumes them once the backlog has drained to {@code kafka.consumer.backpressure.resume_pending_connections}.
+ * <p>
+ * Paused containers keep polling without fetching records, so the consumers stay in the group and
+ * no rebalance is triggered, while the pool is left to the requests already in flight.
+ * The pause state is published as the {@code kafka.consumer.backpressure.paused} gauge.
+ */
+@Slf4j
+@Service
+public class ConsumerBackpressureControllerImpl implements ConsumerBackpressureController {
+
+    private static final String PAUSED_METRIC = "kafka.consumer.backpressure.paused";
+
+    private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+    private final HikariDataSource dataSource;
+
+    private final int pausePendingConnections;
+    private final int resumePendingConnections;
+
+    private volatile boolean paused;
+
+    public ConsumerBackpressureControllerImpl(KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry,
+                                              HikariDataSource dataSource,
+                                              MeterRegistry meterRegistry,
+                                              @Value("${kafka.consumer.backpressure.pause_pending_connections}") int pausePendingConnections,
+                                              @Value("${kafka.consumer.backpressure.resume_pending_connections}") int resumePendingConnections) {
+        this.kafkaListenerEndpointRegistry = kafkaListenerEndpointRegistry;
+        this.dataSource = dataSource;
+        this.pausePendingConnections = pausePendingConnections;
+        this.resumePendingConnections = resumePendingConnections;
+
+        Gauge.builder(PAUSED_METRIC, this, controller -> controller.isPaused() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${kafka.consumer.backpressure.check_interval}")
+    public void checkDownstream() {
+        int pendingConnections = getPendingConnections();
+
+        if (!paused && pendingConnections >= pausePendingConnections) {
+            log.warn("Pausing Kafka listeners, {} threads are awaiting a database connection", pendingConnections);
+            kafkaListenerEndpointRegistry.getListenerContainers().forEach(MessageListenerContainer::pause);
+            paused = true;
+        } else if (paused && pendingConnections <= resumePendingConnections) {
+            log.info("Resuming Kafka listeners, {} threads are awaiting a database connection", pendingConnections);
+            kafkaListenerEndpointRegistry.getListenerContainers().forEach(MessageListenerContainer::resume);
+            paused = false;
+        }
+    }
+
+    @Override
+    public boolean isPaused() {
+        return paused;
+    }
+
+    private int getPendingConnections() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+    }
+
+}
@@ -1,93 +1,89 @@
 package com.innowise.orderservice.service.impl;
 
 import com.innowise.orderservice.config.KafkaConfig;
-import com.innowise.orderservice.model.OrderStatus;
+import com.innowise.orderservice.model.EventEncoding;
 import com.innowise.orderservice.model.PaymentStatus;
-import com.innowise.orderservice.model.dto.CreateOrderEvent;
 import com.innowise.orderservice.model.dto.CreatePaymentEvent;
-import com.innowise.orderservice.model.entity.Order;
-import com.innowise.orderservice.repository.OrderRepository;
 import com.innowise.orderservice.service.KafkaService;
+import com.innowise.orderservice.service.OrderService;
 import com.innowise.orderservice.util.EventValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class KafkaServiceImpl implements KafkaService {
 
-    private final KafkaTemplate<String, CreateOrderEvent> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
 
-    private final OrderRepository orderRepository;
+    private final OrderService orderService;
     private final EventValidator eventValidator;
 
     @Override
     @KafkaListener(topics = KafkaConfig.PAYMENT_CREATED_TOPIC, groupId = KafkaConfig.ORDER_SERVICE_PAYMENT_CONSUMER_GROUP)
-    public void consumeCreatePaymentEvent(ConsumerRecord<String, CreatePaymentEvent> consumerRecord) {
-        CreatePaymentEvent event = consumerRecord.value();
-        eventValidator.validate(event);
+    public void consumeCreatePaymentEvents(List<ConsumerRecord<String, CreatePaymentEvent>> consumerRecords) {
+        Map<Long, PaymentStatus> paymentStatuses = new LinkedHashMap<>();
 
-        Order order = findOrderOrSkip(event.getOrderId(), event.getStatus());
-        if (order == null) {
-            return;
-        }
+        for (int i = 0; i < consumerRecords.size(); i++) {
+            CreatePaymentEvent event = consumerRecords.get(i).value();
 
-        if (isOrderAlreadyProcessed(order)) {
-            return;
+            try {
+                eventValidator.validate(event);
+            } catch (IllegalArgumentException e) {
+                applyPaymentResults(paymentStatuses);
+                throw new BatchListenerFailedException(e.getMessage(), e, i);
+            }
+
+            paymentStatuses.putIfAbsent(event.getOrderId(), event.getStatus());
         }
 
-        updateOrderStatus(order, event.getStatus());
-        orderRepository.save(order);
+        applyPaymentResults(paymentStatuses);
     }
 
-    private Order findOrderOrSkip(Long orderId, PaymentStatus paymentStatus) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        
-        if (orderOpt.isEmpty()) {
-            log.error("Order not found for payment event. OrderId: {}, PaymentStatus: {}.",
-                    orderId, paymentStatus);
-            return null;
-        }
-        
-        return orderOpt.get();
-    }
+    @Override
+    @KafkaListener(topics = KafkaConfig.PAYMENT_CREATED_RETRY_1S_TOPIC, groupId = KafkaConfig.ORDER_SERVICE_PAYMENT_RETRY_1S_CONSUMER_GROUP,
+            containerFactory = "retryKafkaListenerContainerFactory")
+    @KafkaListener(topics = KafkaConfig.PAYMENT_CREATED_RETRY_10S_TOPIC, groupId = KafkaConfig.ORDER_SERVICE_PAYMENT_RETRY_10S_CONSUMER_GROUP,
+            containerFactory = "retryKafkaListenerContainerFactory")
+    @KafkaListener(topics = KafkaConfig.PAYMENT_CREATED_RETRY_60S_TOPIC, groupId = KafkaConfig.ORDER_SERVICE_PAYMENT_RETRY_60S_CONSUMER_GROUP,
+            containerFactory = "retryKafkaListenerContainerFactory")
+    public void retryCreatePaymentEvent(ConsumerRecord<String, CreatePaymentEvent> consumerRecord) {
+        CreatePaymentEvent event = consumerRecord.value();
+        eventValidator.validate(event);
 
-    private boolean isOrderAlreadyProcessed(Order order) {
-        if (!OrderStatus.NEW.equals(order.getStatus())) {
-            log.info("Order already processed {}, skipping", order.getId());
-            return true;
-        }
-        return false;
+        orderService.applyPaymentResults(Map.of(event.getOrderId(), event.getStatus()));
     }
 
-    private void updateOrderStatus(Order order, PaymentStatus paymentStatus) {
-        if (PaymentStatus.SUCCESS.equals(paymentStatus)) {
-            order.setStatus(OrderStatus.PREPARED);
-        } else {
-            order.setStatus(OrderStatus.CANCELED);
+    private void applyPaymentResults(Map<Long, PaymentStatus> paymentStatuses) {
+        if (!paymentStatuses.isEmpty()) {
+            orderService.applyPaymentResults(paymentStatuses);
         }
     }
 
     @Override
-    public void sendCreateOrderEvent(CreateOrderEvent event) {
-        try {
-            kafkaTemplate.send(KafkaConfig.ORDER_CREATED_TOPIC, event.getOrderId().toString(), event)
-                    .get(5, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new KafkaException("Thread interrupted while sending CREATE_ORDER for order " + event.getOrderId(), e);
-        } catch (Exception e) {
-            throw new KafkaException("Failed to send CREATE_ORDER for order " + event.getOrderId(), e);
-        }
+    public CompletableFuture<SendResult<String, byte[]>> sendCreateOrderEvent(Long orderId, byte[] payload, EventEncoding encoding) {
+        ProducerRecord<String, byte[]> producerRecord =
+                new ProducerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, orderId.toString(), payload);
+        producerRecord.headers().add(KafkaConfig.EVENT_ENCODING_HEADER, encoding.name().getBytes(StandardCharsets.UTF_8));
+
+        return kafkaTemplate.send(producerRecord)
+                .exceptionallyCompose(e -> CompletableFuture.failedFuture(
+                        new KafkaException("Failed to send CREATE_ORDER for order " + orderId, e)));
     }
 
 }
@@ -2,6 +2,8 @@ package com.innowise.orderservice.service.impl;
 
 import com.innowise.orderservice.exception.ResourceNotFoundException;
 import com.innowise.orderservice.mapper.OrderMapper;
+import com.innowise.orderservice.model.OrderStatus;
+import com.innowise.orderservice.model.PaymentStatus;
 import com.innowise.orderservice.model.dto.CreateOrderEvent;
 import com.innowise.orderservice.model.dto.FilterRequest;
 import com.innowise.orderservice.model.dto.OrderItemRequest;
@@ -18,9 +20,13 @@ import com.innowise.orderservice.service.OrderService;
 import com.innowise.orderservice.service.OutboxEventService;
 import com.innowise.orderservice.service.UserServiceRestClient;
 import com.innowise.orderservice.specification.OrderSpecification;
+import com.innowise.orderservice.util.CursorCodec;
 import com.innowise.orderservice.util.ExceptionMessageGenerator;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,6 +37,7 @@ import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
@@ -83,10 +90,15 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<OrderResponse> findByFilter(FilterRequest filterRequest, PageableRequest pageableRequest) {
+    public Slice<OrderResponse> findByFilter(FilterRequest filterRequest, PageableRequest pageableRequest) {
         PageRequest pageRequest = PageRequest.of(pageableRequest.getPage(), pageableRequest.getSize());
         Specification<Order> specification = Specification.unrestricted();
 
+        if (pageableRequest.getAfter() != null) {
+            pageRequest = PageRequest.of(0, pageableRequest.getSize());
+            specification = specification.and(OrderSpecification.idGreaterThan(CursorCodec.decode(pageableRequest.getAfter())));
+        }
+
         if (filterRequest.getIds() != null && !filterRequest.getIds().isEmpty()) {
             specification = specification.and(OrderSpecification.idIn(filterRequest.getIds()));
         }
@@ -94,7 +106,8 @@ public class OrderServiceImpl implements OrderService {
             specification = specification.and(OrderSpecification.statusIn(filterRequest.getStatuses()));
         }
 
-        List<Order> orders = orderRepository.findAll(specification, pageRequest);
+        Slice<Long> orderIds = orderRepository.findIdsBy(specification, pageRequest);
+        List<Order> orders = orderIds.isEmpty() ? List.of() : orderRepository.findByIdInOrderById(orderIds.getContent());
 
         List<UserResponse> usersResponse = userServiceRestClient.findUsersByIds(orders.stream()
                 .map(Order::getUserId)
@@ -104,7 +117,7 @@ public class OrderServiceImpl implements OrderService {
         Map<Long, UserResponse> userMap = usersResponse.stream()
                 .collect(Collectors.toMap(UserResponse::getId, Function.identity()));
 
-        return orderMapper.ordersToOrdersResponse(orders, userMap);
+        return new SliceImpl<>(orderMapper.ordersToOrdersResponse(orders, userMap), pageRequest, orderIds.hasNext());
     }
 
     @Override
@@ -131,6 +144,31 @@ public class OrderServiceImpl implements OrderService {
         orderRepository.deleteById(id);
     }
 
+    @Override
+    @Transactional
+    public void applyPaymentResults(Map<Long, PaymentStatus> paymentStatuses) {
+        Map<Boolean, List<Long>> orderIdsBySuccess = paymentStatuses.entrySet().stream()
+                .collect(Collectors.partitioningBy(
+                        entry -> PaymentStatus.SUCCESS.equals(entry.getValue()),
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+
+        int updated = updateStatusIfNew(orderIdsBySuccess.get(true), OrderStatus.PREPARED)
+                + updateStatusIfNew(orderIdsBySuccess.get(false), OrderStatus.CANCELED);
+
+        if (updated < paymentStatuses.size()) {
+            log.info("Skipped {} of {} payment results for orders that were not found or already processed",
+                    paymentStatuses.size() - updated, paymentStatuses.size());
+        }
+    }
+
+    private int updateStatusIfNew(List<Long> orderIds, OrderStatus status) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        return orderRepository.updateStatusIfNew(orderIds, status);
+    }
+
     private void updateOrderItems(Order order, OrderRequest orderRequest) {
         Map<Long, Item> itemMap = validateAndGetItems(orderRequest);
 
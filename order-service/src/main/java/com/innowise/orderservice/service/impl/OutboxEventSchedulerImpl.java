@@ -1,82 +1,277 @@
 package com.innowise.orderservice.service.impl;
 
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.innowise.orderservice.model.EventStatus;
-import com.innowise.orderservice.model.dto.CreateOrderEvent;
-import com.innowise.orderservice.model.dto.CreatePaymentEvent;
+import com.innowise.orderservice.model.OutboxEventSavedEvent;
 import com.innowise.orderservice.model.entity.OutboxEvent;
-import com.innowise.orderservice.repository.OutboxEventRepository;
 import com.innowise.orderservice.service.KafkaService;
 import com.innowise.orderservice.service.OutboxEventScheduler;
-import lombok.RequiredArgsConstructor;
+import com.innowise.orderservice.service.OutboxEventService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
+/**
+ * Relays pending outbox events to Kafka.
+ * <p>
+ * Every worker of every instance claims its own batch with {@code FOR UPDATE SKIP LOCKED} and a lease,
+ * so workers drain disjoint slices of the outbox in parallel. The stored payload bytes are sent as they are,
+ * without a deserialize/serialize round trip. The whole batch is sent without blocking, letting the producer
+ * group the records into few broker requests, and the outcome is written back with
+ * one update for the sent events and one for the failed ones. Sends still unacknowledged when the lease
+ * runs out are left for the next worker that finds the lease expired.
+ * <p>
+ * The relay runs on its own dispatcher thread. It drains back-to-back while any worker claims a full batch
+ * and sends all of it. It backs off exponentially from {@code outbox.relay.min_backoff} to
+ * {@code outbox.relay.max_backoff} while the outbox is idle or sends fail, so failing batches are not retried
+ * in a tight loop, and is woken up right after a transaction that saved an outbox event commits.
+ * <p>
+ * Publishes {@code outbox.relay.events} counters tagged by {@code outcome} and an {@code outbox.relay.batch} timer.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-public class OutboxEventSchedulerImpl implements OutboxEventScheduler {
+public class OutboxEventSchedulerImpl implements OutboxEventScheduler, SmartLifecycle {
 
-    private static final int BATCH_SIZE = 100;
     private static final int MAX_RETRY_COUNT = 5;
-    private static final long FIXED_DELAY = 3000;
+    private static final String DISPATCHER_THREAD_NAME = "outbox-relay-dispatcher";
+
+    private static final String EVENTS_METRIC = "outbox.relay.events";
+    private static final String BATCH_METRIC = "outbox.relay.batch";
+    private static final String OUTCOME_TAG = "outcome";
 
     private final KafkaService kafkaService;
-    private final OutboxEventRepository outboxEventRepository;
-    private final ObjectMapper objectMapper;
+    private final OutboxEventService outboxEventService;
+    private final Executor outboxRelayExecutor;
+
+    private final List<String> workerIds;
+    private final int batchSize;
+    private final Duration lease;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter expiredCounter;
+    private final Timer batchTimer;
+
+    public OutboxEventSchedulerImpl(KafkaService kafkaService,
+                                    OutboxEventService outboxEventService,
+                                    MeterRegistry meterRegistry,
+                                    @Qualifier("outboxRelayExecutor") Executor outboxRelayExecutor,
+                                    @Value("${outbox.relay.workers}") int workers,
+                                    @Value("${outbox.relay.batch_size}") int batchSize,
+                                    @Value("${outbox.relay.lease}") Duration lease,
+                                    @Value("${outbox.relay.min_backoff}") Duration minBackoff,
+                                    @Value("${outbox.relay.max_backoff}") Duration maxBackoff) {
+        this.kafkaService = kafkaService;
+        this.outboxEventService = outboxEventService;
+        this.outboxRelayExecutor = outboxRelayExecutor;
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+
+        String instanceId = UUID.randomUUID().toString();
+        this.workerIds = IntStream.range(0, workers)
+                .mapToObj(worker -> instanceId + "-" + worker)
+                .toList();
+
+        this.sentCounter = eventCounter(meterRegistry, "sent");
+        this.failedCounter = eventCounter(meterRegistry, "failed");
+        this.expiredCounter = eventCounter(meterRegistry, "expired");
+        this.batchTimer = Timer.builder(BATCH_METRIC)
+                .description("Time to publish a claimed outbox batch and record its outcome")
+                .register(meterRegistry);
+    }
 
     @Override
-    @Scheduled(fixedDelay = FIXED_DELAY)
-    public void processOutboxEvents() {
-        List<OutboxEvent> events = outboxEventRepository.findByEventStatusOrderByCreatedAt(
-                EventStatus.PENDING,
-                PageRequest.of(0, BATCH_SIZE)
-        );
+    public boolean processOutboxEvents() {
+        List<CompletableFuture<Boolean>> batches = workerIds.stream()
+                .map(workerId -> CompletableFuture.supplyAsync(() -> processBatch(workerId), outboxRelayExecutor))
+                .toList();
 
-        if (events.isEmpty()) {
-            return;
+        return batches.stream().map(CompletableFuture::join).reduce(false, Boolean::logicalOr);
+    }
+
+    @Override
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
         }
+    }
 
-        events.forEach(this::processEvent);
+    @TransactionalEventListener
+    public void onOutboxEventSaved(OutboxEventSavedEvent event) {
+        wakeUp();
     }
 
-    private void processEvent(OutboxEvent event) {
+    @Override
+    public void start() {
+        running = true;
+        dispatcher = Thread.ofPlatform().name(DISPATCHER_THREAD_NAME).start(this::relay);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        wakeUp();
+
         try {
-            CreateOrderEvent createOrderEvent = deserializeEvent(event);
-            kafkaService.sendCreateOrderEvent(createOrderEvent);
+            dispatcher.join(lease.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            markAsSent(event);
-        } catch (Exception e) {
-            handleEventFailure(event, e);
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Drains the outbox until the relay is stopped, adapting the polling delay to the backlog.
+     */
+    private void relay() {
+        Duration backoff = minBackoff;
+
+        while (running) {
+            boolean fullBatch;
+
+            try {
+                fullBatch = processOutboxEvents();
+            } catch (Exception e) {
+                log.error("Outbox relay round failed: {}", e.getMessage(), e);
+                fullBatch = false;
+            }
+
+            if (fullBatch) {
+                backoff = minBackoff;
+                continue;
+            }
+
+            try {
+                if (wakeUps.tryAcquire(backoff.toNanos(), TimeUnit.NANOSECONDS)) {
+                    wakeUps.drainPermits();
+                    backoff = minBackoff;
+                } else {
+                    Duration doubled = backoff.multipliedBy(2);
+                    backoff = doubled.compareTo(maxBackoff) < 0 ? doubled : maxBackoff;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
         }
     }
 
-    private CreateOrderEvent deserializeEvent(OutboxEvent event) throws JsonProcessingException {
-        return objectMapper.readValue(event.getPayload(), CreateOrderEvent.class);
+    private boolean processBatch(String workerId) {
+        long leaseDeadline = System.nanoTime() + lease.toNanos();
+        List<OutboxEvent> events;
+
+        try {
+            events = outboxEventService.claimBatch(workerId, batchSize, lease);
+        } catch (Exception e) {
+            log.error("Outbox relay worker {} failed to claim events: {}", workerId, e.getMessage(), e);
+            return false;
+        }
+
+        if (events.isEmpty()) {
+            return false;
+        }
+
+        Timer.Sample sample = Timer.start();
+        boolean allSent = publishBatch(events, workerId, leaseDeadline);
+        sample.stop(batchTimer);
+
+        return allSent && events.size() >= batchSize;
     }
 
-    private void markAsSent(OutboxEvent event) {
-        event.setEventStatus(EventStatus.SENT);
-        outboxEventRepository.save(event);
+    /**
+     * Publishes a claimed batch and records its outcome.
+     *
+     * @return {@code true} if every event of the batch was sent and marked as sent.
+     */
+    private boolean publishBatch(List<OutboxEvent> events, String workerId, long leaseDeadline) {
+        List<CompletableFuture<?>> sends = events.stream()
+                .map(this::publishEvent)
+                .toList();
+
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                .handle((result, e) -> null)
+                .completeOnTimeout(null, leaseDeadline - System.nanoTime(), TimeUnit.NANOSECONDS)
+                .join();
+
+        List<Long> sentIds = new ArrayList<>();
+        List<Long> failedIds = new ArrayList<>();
+
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            CompletableFuture<?> send = sends.get(i);
+
+            switch (send.state()) {
+                case SUCCESS -> sentIds.add(event.getId());
+                case FAILED -> {
+                    failedIds.add(event.getId());
+                    logFailure(event, send.exceptionNow());
+                }
+                default -> expiredCounter.increment();
+            }
+        }
+
+        try {
+            outboxEventService.markAsSent(sentIds, workerId);
+            outboxEventService.recordFailures(failedIds, workerId, MAX_RETRY_COUNT);
+        } catch (Exception e) {
+            log.error("Outbox relay worker {} failed to record the outcome of its batch: {}",
+                    workerId, e.getMessage(), e);
+            return false;
+        }
+
+        sentCounter.increment(sentIds.size());
+        failedCounter.increment(failedIds.size());
+
+        return sentIds.size() == events.size();
     }
 
-    private void handleEventFailure(OutboxEvent event, Exception e) {
-        int retryCount = event.getRetryCount() + 1;
-        event.setRetryCount(retryCount);
+    private CompletableFuture<?> publishEvent(OutboxEvent event) {
+        try {
+            return kafkaService.sendCreateOrderEvent(event.getOrderId(), event.getPayload(), event.getEncoding());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-        if (retryCount >= MAX_RETRY_COUNT) {
-            event.setEventStatus(EventStatus.FAILED);
+    private void logFailure(OutboxEvent event, Throwable e) {
+        if (event.getRetryCount() + 1 >= MAX_RETRY_COUNT) {
             log.error("CREATE_ORDER for order {} FAILED after {} retries: {}",
                     event.getOrderId(), MAX_RETRY_COUNT, e.getMessage(), e);
         }
+    }
 
-        outboxEventRepository.save(event);
+    private static Counter eventCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(EVENTS_METRIC)
+                .description("Outbox events processed by the relay")
+                .tag(OUTCOME_TAG, outcome)
+                .register(meterRegistry);
     }
 
 }
@@ -4,42 +4,107 @@ package com.innowise.orderservice.service.impl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.innowise.orderservice.exception.OutboxEventSerializationException;
+import com.innowise.orderservice.model.EventEncoding;
 import com.innowise.orderservice.model.EventStatus;
+import com.innowise.orderservice.model.OutboxEventSavedEvent;
 import com.innowise.orderservice.model.dto.CreateOrderEvent;
 import com.innowise.orderservice.model.entity.OutboxEvent;
 import com.innowise.orderservice.repository.OutboxEventRepository;
 import com.innowise.orderservice.service.OutboxEventService;
-import lombok.RequiredArgsConstructor;
+import com.innowise.orderservice.util.BinaryEventCodec;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class OutboxEventServiceImpl implements OutboxEventService {
 
     private final OutboxEventRepository outboxEventRepository;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final EventEncoding eventEncoding;
+
+    public OutboxEventServiceImpl(OutboxEventRepository outboxEventRepository,
+                                  ObjectMapper objectMapper,
+                                  ApplicationEventPublisher applicationEventPublisher,
+                                  @Value("${kafka.producer.event_encoding}") EventEncoding eventEncoding) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.eventEncoding = eventEncoding;
+    }
 
     @Override
     @Transactional(propagation = Propagation.MANDATORY)
     public void save(CreateOrderEvent event) {
-        String payload = serializeEvent(event);
+        byte[] payload = serializeEvent(event);
         
         OutboxEvent outboxEvent = OutboxEvent.builder()
                 .orderId(event.getOrderId())
                 .payload(payload)
+                .encoding(eventEncoding)
                 .eventStatus(EventStatus.PENDING)
                 .build();
 
         outboxEventRepository.save(outboxEvent);
+        applicationEventPublisher.publishEvent(new OutboxEventSavedEvent(event.getOrderId()));
+    }
+
+    @Override
+    @Transactional
+    public List<OutboxEvent> claimBatch(String owner, int batchSize, Duration lease) {
+        double leaseSeconds = lease.toMillis() / 1000.0;
+
+        return outboxEventRepository.claimPending(owner, batchSize, leaseSeconds).stream()
+                .sorted(Comparator.comparing(OutboxEvent::getCreatedAt))
+                .toList();
     }
 
-    private String serializeEvent(CreateOrderEvent event) {
+    @Override
+    @Transactional
+    public void markAsSent(List<Long> ids, String owner) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        int updated = outboxEventRepository.markAsSent(ids, owner);
+        warnOnLostLeases(ids.size(), updated, owner);
+    }
+
+    @Override
+    @Transactional
+    public void recordFailures(List<Long> ids, String owner, int maxRetryCount) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        int updated = outboxEventRepository.recordFailures(ids, owner, maxRetryCount);
+        warnOnLostLeases(ids.size(), updated, owner);
+    }
+
+    private void warnOnLostLeases(int expected, int updated, String owner) {
+        if (updated < expected) {
+            log.warn("Outbox relay worker {} lost the lease on {} of {} events before updating them",
+                    owner, expected - updated, expected);
+        }
+    }
+
+    private byte[] serializeEvent(CreateOrderEvent event) {
+        if (eventEncoding == EventEncoding.BINARY) {
+            return BinaryEventCodec.encode(event);
+        }
+
         try {
-            return objectMapper.writeValueAsString(event);
+            return objectMapper.writeValueAsBytes(event);
         } catch (JsonProcessingException e) {
             log.error("Failed to serialize CreateOrderEvent for order {}", event.getOrderId(), e);
             throw new OutboxEventSerializationException(
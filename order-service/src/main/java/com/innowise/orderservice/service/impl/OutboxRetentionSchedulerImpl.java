@@ -0,0 +1,44 @@
+package com.innowise.orderservice.service.impl;
+
+import com.innowise.orderservice.repository.OutboxEventRepository;
+import com.innowise.orderservice.service.OutboxRetentionScheduler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class OutboxRetentionSchedulerImpl implements OutboxRetentionScheduler {
+
+    private static final long FIXED_DELAY = 3600000;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final int daysAhead;
+    private final int retentionDays;
+
+    public OutboxRetentionSchedulerImpl(OutboxEventRepository outboxEventRepository,
+                                        @Value("${outbox.partition.days_ahead}") int daysAhead,
+                                        @Value("${outbox.partition.retention_days}") int retentionDays) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.daysAhead = daysAhead;
+        this.retentionDays = retentionDays;
+    }
+
+    @Override
+    @Scheduled(initialDelay = 0, fixedDelay = FIXED_DELAY)
+    public void maintainPartitions() {
+        try {
+            int created = outboxEventRepository.createPartitions(daysAhead);
+            int dropped = outboxEventRepository.dropPartitions(retentionDays);
+
+            if (created > 0 || dropped > 0) {
+                log.info("Outbox partitions maintained: {} created, {} dropped", created, dropped);
+            }
+        } catch (Exception e) {
+            log.error("Failed to maintain outbox partitions: {}", e.getMessage(), e);
+        }
+    }
+
+}
@@ -14,6 +14,10 @@ public class OrderSpecification {
         return (root, query, cb) -> root.get("id").in(ids);
     }
 
+    public static Specification<Order> idGreaterThan(Long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
     public static Specification<Order> statusIn(List<OrderStatus> statuses) {
         return (root, query, cb) -> root.get("status").in(statuses);
     }
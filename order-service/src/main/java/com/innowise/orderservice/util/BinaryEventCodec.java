@@ -0,0 +1,76 @@
+package com.innowise.orderservice.util;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.innowise.events.EventDecimals;
+import com.innowise.events.EventProtos;
+import com.innowise.orderservice.model.PaymentStatus;
+import com.innowise.orderservice.model.dto.CreateOrderEvent;
+import com.innowise.orderservice.model.dto.CreatePaymentEvent;
+
+/**
+ * Utility class for the binary encoding of the events exchanged with the Payment Service over Kafka.
+ * <p>
+ * The wire format is the Protobuf schema shared with the Payment Service in the {@code event-contracts} module;
+ * this class only maps the events of the Order Service to and from the generated messages.
+ * Fields unknown to this version of the schema are skipped when decoding.
+ */
+public class BinaryEventCodec {
+
+    private BinaryEventCodec() {
+    }
+
+    /**
+     * Encodes a {@link CreateOrderEvent}.
+     *
+     * @param event The event to encode.
+     * @return The encoded event.
+     */
+    public static byte[] encode(CreateOrderEvent event) {
+        EventProtos.CreateOrderEvent.Builder message = EventProtos.CreateOrderEvent.newBuilder();
+
+        if (event.getOrderId() != null) {
+            message.setOrderId(event.getOrderId());
+        }
+
+        if (event.getUserId() != null) {
+            message.setUserId(event.getUserId());
+        }
+
+        if (event.getPaymentAmount() != null) {
+            message.setPaymentAmount(EventDecimals.toMessage(event.getPaymentAmount()));
+        }
+
+        return message.build().toByteArray();
+    }
+
+    /**
+     * Decodes a {@link CreatePaymentEvent}.
+     *
+     * @param data The encoded event.
+     * @return The decoded event.
+     * @throws IllegalArgumentException if the data is malformed or carries an unknown payment status.
+     */
+    public static CreatePaymentEvent decodeCreatePaymentEvent(byte[] data) {
+        EventProtos.CreatePaymentEvent message;
+
+        try {
+            message = EventProtos.CreatePaymentEvent.parseFrom(data);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalArgumentException("Malformed CreatePaymentEvent: " + e.getMessage(), e);
+        }
+
+        return CreatePaymentEvent.builder()
+                .orderId(message.hasOrderId() ? message.getOrderId() : null)
+                .status(message.hasStatus() ? toPaymentStatus(message.getStatus()) : null)
+                .build();
+    }
+
+    private static PaymentStatus toPaymentStatus(EventProtos.PaymentStatus status) {
+        return switch (status) {
+            case SUCCESS -> PaymentStatus.SUCCESS;
+            case FAILED -> PaymentStatus.FAILED;
+            default -> throw new IllegalArgumentException("Unknown payment status: " + status);
+        };
+    }
+
+}
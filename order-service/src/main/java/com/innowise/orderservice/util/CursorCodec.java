@@ -0,0 +1,44 @@
+package com.innowise.orderservice.util;
+
+import com.innowise.orderservice.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Utility class for encoding and decoding opaque keyset pagination cursors.
+ * A cursor wraps the ID of the last returned entity; the next page starts right after it.
+ */
+public class CursorCodec {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Encodes the ID of the last returned entity into an opaque cursor.
+     *
+     * @param id The ID of the last returned entity.
+     * @return The Base64URL-encoded cursor.
+     */
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes an opaque cursor into the ID of the last returned entity.
+     *
+     * @param cursor The Base64URL-encoded cursor.
+     * @return The ID the next page starts after.
+     * @throws InvalidCursorException if the cursor is malformed.
+     */
+    public static Long decode(String cursor) {
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(ExceptionMessageGenerator.invalidCursor(cursor));
+        }
+    }
+
+}
@@ -11,6 +11,8 @@ public class ExceptionMessageGenerator {
 
     private static final String ORDER_NOT_FOUND = "Order with id: %s not found";
 
+    private static final String INVALID_CURSOR = "Invalid cursor: %s";
+
     private ExceptionMessageGenerator() {
     }
 
@@ -22,4 +24,8 @@ public class ExceptionMessageGenerator {
         return ORDER_NOT_FOUND.formatted(id);
     }
 
+    public static String invalidCursor(String cursor) {
+        return INVALID_CURSOR.formatted(cursor);
+    }
+
 }
@@ -0,0 +1,5 @@
+--liquibase formatted sql
+
+--changeset mikitatsikhan:1
+ALTER TABLE outbox_events ADD COLUMN locked_by VARCHAR(64);
+ALTER TABLE outbox_events ADD COLUMN locked_until TIMESTAMP(6);
@@ -0,0 +1,130 @@
+--liquibase formatted sql
+
+--changeset mikitatsikhan:1
+ALTER TABLE outbox_events RENAME TO outbox_events_legacy;
+ALTER TABLE outbox_events_legacy RENAME CONSTRAINT outbox_events_pkey TO outbox_events_legacy_pkey;
+ALTER TABLE outbox_events_legacy RENAME CONSTRAINT outbox_events_order_id_key TO outbox_events_legacy_order_id_key;
+DROP INDEX idx_outbox_events_order_id;
+
+CREATE TABLE outbox_events
+(
+    id           BIGINT DEFAULT nextval('outbox_events_id_seq') NOT NULL,
+    order_id     BIGINT       NOT NULL,
+    payload      VARCHAR(255) NOT NULL,
+    retry_count  INT          NOT NULL,
+    event_status VARCHAR(255) NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+    locked_by    VARCHAR(64),
+    locked_until TIMESTAMP(6),
+    CONSTRAINT outbox_events_pkey PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE outbox_events_default PARTITION OF outbox_events DEFAULT;
+
+--changeset mikitatsikhan:2
+CREATE INDEX idx_outbox_events_order_id ON outbox_events (order_id);
+CREATE INDEX idx_outbox_events_pending_created_at ON outbox_events (created_at) WHERE event_status = 'PENDING';
+
+--changeset mikitatsikhan:3 splitStatements:false
+CREATE TABLE outbox_event_keys
+(
+    order_id BIGINT NOT NULL,
+    CONSTRAINT outbox_event_keys_pkey PRIMARY KEY (order_id)
+);
+
+CREATE OR REPLACE FUNCTION outbox_event_keys_insert() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO outbox_event_keys (order_id) VALUES (NEW.order_id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER outbox_event_keys_insert
+    AFTER INSERT ON outbox_events
+    FOR EACH ROW EXECUTE FUNCTION outbox_event_keys_insert();
+
+--changeset mikitatsikhan:4 splitStatements:false
+CREATE OR REPLACE FUNCTION outbox_events_create_partitions(days_ahead INT) RETURNS INT AS $$
+DECLARE
+    partition_day  DATE;
+    partition_name TEXT;
+    created        INT := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('outbox_events_partitions'));
+
+    FOR partition_day IN
+        SELECT generate_series(CURRENT_DATE - 1, CURRENT_DATE + days_ahead, INTERVAL '1 day')::DATE
+    LOOP
+        partition_name := 'outbox_events_p' || to_char(partition_day, 'YYYYMMDD');
+        CONTINUE WHEN to_regclass(partition_name) IS NOT NULL;
+
+        EXECUTE format('CREATE TABLE %I (LIKE outbox_events INCLUDING DEFAULTS)', partition_name);
+        EXECUTE format(
+            'WITH moved AS (DELETE FROM outbox_events_default WHERE created_at >= %L AND created_at < %L RETURNING *) '
+            'INSERT INTO %I SELECT * FROM moved',
+            partition_day, partition_day + 1, partition_name);
+        EXECUTE format('ALTER TABLE outbox_events ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+            partition_name, partition_day, partition_day + 1);
+
+        created := created + 1;
+    END LOOP;
+
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+--changeset mikitatsikhan:5 splitStatements:false
+CREATE OR REPLACE FUNCTION outbox_events_drop_partitions(retention_days INT) RETURNS INT AS $$
+DECLARE
+    partition_name TEXT;
+    has_pending    BOOLEAN;
+    dropped        INT := 0;
+BEGIN
+    IF NOT pg_try_advisory_xact_lock(hashtext('outbox_events_partitions')) THEN
+        RETURN 0;
+    END IF;
+
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'outbox_events'::REGCLASS
+          AND c.relname ~ '^outbox_events_p[0-9]{8}$'
+          AND to_date(substring(c.relname FROM 16), 'YYYYMMDD') < CURRENT_DATE - retention_days
+    LOOP
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE event_status = %L)', partition_name, 'PENDING')
+            INTO has_pending;
+        CONTINUE WHEN has_pending;
+
+        BEGIN
+            EXECUTE format('DELETE FROM outbox_event_keys k USING %I p WHERE k.order_id = p.order_id',
+                partition_name);
+            EXECUTE format('DROP TABLE %I', partition_name);
+            dropped := dropped + 1;
+        EXCEPTION WHEN lock_not_available THEN
+            RAISE NOTICE 'Skipped dropping partition %: outbox_events is busy', partition_name;
+        END;
+    END LOOP;
+
+    WITH purged AS (
+        DELETE FROM outbox_events_default
+        WHERE event_status <> 'PENDING' AND created_at < CURRENT_DATE - retention_days
+        RETURNING order_id
+    )
+    DELETE FROM outbox_event_keys WHERE order_id IN (SELECT order_id FROM purged);
+
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql SET lock_timeout = '2s';
+
+--changeset mikitatsikhan:6
+SELECT outbox_events_create_partitions(3);
+
+INSERT INTO outbox_events (id, order_id, payload, retry_count, event_status, created_at, locked_by, locked_until)
+SELECT id, order_id, payload, retry_count, event_status, created_at, locked_by, locked_until
+FROM outbox_events_legacy
+WHERE event_status <> 'SENT';
+
+ALTER SEQUENCE outbox_events_id_seq OWNED BY NONE;
+DROP TABLE outbox_events_legacy;
+ALTER SEQUENCE outbox_events_id_seq OWNED BY outbox_events.id;
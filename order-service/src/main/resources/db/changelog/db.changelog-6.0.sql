@@ -0,0 +1,4 @@
+--liquibase formatted sql
+
+--changeset mikitatsikhan:1
+ALTER TABLE outbox_events ALTER COLUMN payload TYPE BYTEA USING convert_to(payload, 'UTF8');
@@ -0,0 +1,4 @@
+--liquibase formatted sql
+
+--changeset mikitatsikhan:1
+ALTER TABLE outbox_events ADD COLUMN encoding VARCHAR(20) NOT NULL DEFAULT 'JSON';
@@ -0,0 +1,95 @@
+package com.innowise.orderservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.innowise.events.EventProtos;
+import com.innowise.orderservice.model.dto.CreateOrderEvent;
+import com.innowise.orderservice.util.BinaryEventCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-event CPU cost of the JSON and binary encodings of {@link CreateOrderEvent}.
+ * <p>
+ * {@code json*} uses the Jackson mapper the outbox used before {@link BinaryEventCodec};
+ * {@code binary*} uses the codec and decodes to the generated message the Payment Service maps its request from.
+ * {@code main} also prints the encoded size of the event in both encodings.
+ * <p>
+ * Run with {@code main} from the IDE or via {@code org.openjdk.jmh.Main} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventEncodingBenchmark {
+
+    private ObjectMapper objectMapper;
+    private CreateOrderEvent event;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        event = sampleEvent();
+        json = objectMapper.writeValueAsBytes(event);
+        binary = BinaryEventCodec.encode(event);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws IOException {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public CreateOrderEvent jsonDecode() throws IOException {
+        return objectMapper.readValue(json, CreateOrderEvent.class);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return BinaryEventCodec.encode(event);
+    }
+
+    @Benchmark
+    public EventProtos.CreateOrderEvent binaryDecode() throws InvalidProtocolBufferException {
+        return EventProtos.CreateOrderEvent.parseFrom(binary);
+    }
+
+    private static CreateOrderEvent sampleEvent() {
+        return CreateOrderEvent.builder()
+                .orderId(123456789L)
+                .userId(4242L)
+                .paymentAmount(new BigDecimal("1999.99"))
+                .build();
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        CreateOrderEvent event = sampleEvent();
+        System.out.printf("CreateOrderEvent size: JSON %d bytes, binary %d bytes%n",
+                new ObjectMapper().writeValueAsBytes(event).length, BinaryEventCodec.encode(event).length);
+
+        new Runner(new OptionsBuilder()
+                .include(EventEncodingBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+}
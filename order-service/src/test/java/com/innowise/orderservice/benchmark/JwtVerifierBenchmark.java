@@ -0,0 +1,99 @@
+package com.innowise.orderservice.benchmark;
+
+import com.innowise.jwt.verification.JwtVerifier;
+import com.innowise.jwt.verification.RoleEnum;
+import com.innowise.jwt.verification.VerifiedClaims;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.innowise.jwt.verification.JwtVerifier.TOKEN_CLAIM_ROLES;
+import static com.innowise.jwt.verification.JwtVerifier.TOKEN_CLAIM_USER_ID;
+
+/**
+ * Compares the per-request CPU cost of JWT authentication before and after {@link JwtVerifier}.
+ * <p>
+ * {@code perClaimParsing} reproduces the former filter behaviour: the signing key is decoded and a new parser is
+ * built for every claim, and the token is verified three times (expiration, user ID, roles).
+ * {@code singleParse} verifies the token once with the key and parser built at startup.
+ * <p>
+ * Run with {@code main} from the IDE or via {@code org.openjdk.jmh.Main} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerifierBenchmark {
+
+    private static final String SECRET_KEY = "benchmark-jwt-secret-key-must-be-at-least-512-bits-long-for-HS512-algorithm-security";
+
+    private String encodedKey;
+    private String token;
+    private JwtVerifier jwtVerifier;
+
+    @Setup
+    public void setUp() {
+        encodedKey = Base64.getUrlEncoder().encodeToString(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        jwtVerifier = new JwtVerifier(encodedKey);
+
+        Date now = new Date();
+        token = Jwts.builder()
+                .claim(TOKEN_CLAIM_USER_ID, 1L)
+                .claim(TOKEN_CLAIM_ROLES, List.of(RoleEnum.ROLE_USER.name(), RoleEnum.ROLE_ADMIN.name()))
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Benchmark
+    public void perClaimParsing(Blackhole blackhole) {
+        blackhole.consume(parseWithFreshKey().getExpiration().before(new Date()));
+        blackhole.consume(parseWithFreshKey().get(TOKEN_CLAIM_USER_ID, Long.class));
+        blackhole.consume(parseWithFreshKey().get(TOKEN_CLAIM_ROLES, List.class));
+    }
+
+    @Benchmark
+    public VerifiedClaims singleParse() {
+        return jwtVerifier.verify(token);
+    }
+
+    private Claims parseWithFreshKey() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(encodedKey)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerifierBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+}
@@ -42,7 +42,7 @@ public abstract class BaseIntegrationTest {
         registry.add("spring.liquibase.enabled", () -> "true");
         registry.add("spring.liquibase.change-log", () -> "classpath:db/changelog/db.changelog-master.yaml");
 
-        registry.add("security.jwt.secret_key", () -> "JWT_SECRET_KEY");
+        registry.add("security.jwt.secret_key", () -> "dGVzdC1qd3Qtc2VjcmV0LWtleS1mb3ItaW50ZWdyYXRpb24tdGVzdHMtbWluaW11bS0yNTYtYml0cy1sb25n");
     }
 
 }
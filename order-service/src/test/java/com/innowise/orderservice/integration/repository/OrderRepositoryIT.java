@@ -7,12 +7,14 @@ import com.innowise.orderservice.model.entity.Order;
 import com.innowise.orderservice.model.entity.OrderItem;
 import com.innowise.orderservice.repository.ItemRepository;
 import com.innowise.orderservice.repository.OrderRepository;
+import com.innowise.orderservice.specification.OrderSpecification;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
@@ -23,6 +25,7 @@ import static com.innowise.orderservice.util.OrderUtil.createItem;
 import static com.innowise.orderservice.util.OrderUtil.createOrder;
 import static com.innowise.orderservice.util.OrderUtil.createOrderItem;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class OrderRepositoryIT extends BaseIntegrationRepositoryTest {
 
@@ -122,28 +125,82 @@ class OrderRepositoryIT extends BaseIntegrationRepositoryTest {
     }
 
     @Test
-    @DisplayName("Should find all orders with specification and pagination")
-    void findAll_ShouldReturnOrders_WhenSpecificationMatches() {
+    @DisplayName("Should find page of order ids matching specification in SQL")
+    void findIdsBy_ShouldReturnPageOfIds_WhenSpecificationMatches() {
         Order order1 = createOrder(null, 1L, OrderStatus.NEW);
-        order1.setOrderItems(List.of(createOrderItem(order1, item1, 1L)));
+        order1.setOrderItems(List.of(createOrderItem(order1, item1, 1L), createOrderItem(order1, item2, 1L)));
 
         Order order2 = createOrder(null, 2L, OrderStatus.PREPARED);
         order2.setOrderItems(List.of(createOrderItem(order2, item2, 1L)));
 
         Order order3 = createOrder(null, 1L, OrderStatus.NEW);
-        order3.setOrderItems(List.of(createOrderItem(order3, item3, 1L)));
+        order3.setOrderItems(List.of(createOrderItem(order3, item3, 1L), createOrderItem(order3, item1, 1L)));
+
+        Order order4 = createOrder(null, 3L, OrderStatus.NEW);
+        order4.setOrderItems(List.of(createOrderItem(order4, item1, 1L)));
 
         orderRepository.save(order1);
         orderRepository.save(order2);
         orderRepository.save(order3);
+        orderRepository.save(order4);
 
         Specification<Order> spec = (root, query, cb) -> cb.equal(root.get("status"), OrderStatus.NEW);
-        PageRequest pageRequest = PageRequest.of(0, 10);
 
-        List<Order> foundOrders = orderRepository.findAll(spec, pageRequest);
+        Slice<Long> firstPage = orderRepository.findIdsBy(spec, PageRequest.of(0, 2));
+        Slice<Long> secondPage = orderRepository.findIdsBy(spec, PageRequest.of(1, 2));
+
+        assertThat(firstPage.getContent()).containsExactly(order1.getId(), order3.getId());
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(secondPage.getContent()).containsExactly(order4.getId());
+        assertThat(secondPage.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should find order ids after the cursor id with keyset specification")
+    void findIdsBy_ShouldReturnIdsAfterCursor_WhenIdGreaterThanSpecificationUsed() {
+        Order order1 = orderRepository.save(createOrder(null, 1L, OrderStatus.NEW));
+        Order order2 = orderRepository.save(createOrder(null, 1L, OrderStatus.NEW));
+        Order order3 = orderRepository.save(createOrder(null, 1L, OrderStatus.NEW));
+
+        Slice<Long> page = orderRepository.findIdsBy(
+                OrderSpecification.idGreaterThan(order1.getId()), PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).containsExactly(order2.getId(), order3.getId());
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should find orders with items by ids ordered by id")
+    void findByIdInOrderById_ShouldReturnOrdersWithItems() {
+        Order order1 = createOrder(null, 1L, OrderStatus.NEW);
+        order1.setOrderItems(List.of(createOrderItem(order1, item1, 1L), createOrderItem(order1, item2, 1L)));
+
+        Order order2 = createOrder(null, 2L, OrderStatus.NEW);
+        order2.setOrderItems(List.of(createOrderItem(order2, item3, 1L)));
+
+        orderRepository.save(order1);
+        orderRepository.save(order2);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Order> foundOrders = orderRepository.findByIdInOrderById(List.of(order2.getId(), order1.getId()));
+
+        assertThat(foundOrders).extracting(Order::getId).containsExactly(order1.getId(), order2.getId());
+        assertThat(foundOrders.get(0).getOrderItems()).hasSize(2);
+        assertThat(foundOrders.get(1).getOrderItems()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should reject pagination over a collection fetch instead of paging in memory")
+    void collectionFetchWithPagination_ShouldFail_WhenPagedInMemory() {
+        orderRepository.save(createOrder(null, 1L, OrderStatus.NEW));
+        entityManager.flush();
 
-        assertThat(foundOrders).hasSize(2)
-                .allMatch(order -> order.getStatus() == OrderStatus.NEW);
+        assertThatThrownBy(() -> entityManager.getEntityManager()
+                .createQuery("select o from Order o left join fetch o.orderItems", Order.class)
+                .setMaxResults(1)
+                .getResultList())
+                .hasStackTraceContaining("in-memory pagination");
     }
 
     @Test
@@ -163,4 +220,22 @@ class OrderRepositoryIT extends BaseIntegrationRepositoryTest {
         assertThat(deletedOrder).isEmpty();
     }
 
+    @Test
+    @DisplayName("Should update only orders that are still NEW")
+    void updateStatusIfNew_ShouldUpdateOnlyNewOrders() {
+        Order newOrder = orderRepository.save(createOrder(null, 1L, OrderStatus.NEW));
+        Order preparedOrder = orderRepository.save(createOrder(null, 1L, OrderStatus.PREPARED));
+        entityManager.flush();
+
+        int updated = orderRepository.updateStatusIfNew(
+                List.of(newOrder.getId(), preparedOrder.getId(), Long.MAX_VALUE), OrderStatus.CANCELED);
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(orderRepository.findById(newOrder.getId())).get()
+                .extracting(Order::getStatus).isEqualTo(OrderStatus.CANCELED);
+        assertThat(orderRepository.findById(preparedOrder.getId())).get()
+                .extracting(Order::getStatus).isEqualTo(OrderStatus.PREPARED);
+    }
+
 }
@@ -0,0 +1,222 @@
+package com.innowise.orderservice.integration.repository;
+
+import com.innowise.orderservice.integration.BaseIntegrationRepositoryTest;
+import com.innowise.orderservice.model.EventStatus;
+import com.innowise.orderservice.model.entity.OutboxEvent;
+import com.innowise.orderservice.repository.OutboxEventRepository;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OutboxEventRepositoryIT extends BaseIntegrationRepositoryTest {
+
+    private static final String OWNER_1 = "instance-0";
+    private static final String OWNER_2 = "instance-1";
+    private static final double LEASE_SECONDS = 30;
+    private static final int MAX_RETRY_COUNT = 5;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Should claim pending events and lease them to the owner")
+    void claimPending_ShouldLeasePendingEvents() {
+        persistEvent(1L, EventStatus.PENDING, null, null);
+        persistEvent(2L, EventStatus.SENT, null, null);
+
+        List<OutboxEvent> claimed = outboxEventRepository.claimPending(OWNER_1, 10, LEASE_SECONDS);
+
+        assertThat(claimed).hasSize(1);
+        assertThat(claimed.getFirst().getOrderId()).isEqualTo(1L);
+        assertThat(claimed.getFirst().getLockedBy()).isEqualTo(OWNER_1);
+        assertThat(claimed.getFirst().getLockedUntil()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should give concurrent claimers disjoint batches")
+    void claimPending_ShouldReturnDisjointBatches() {
+        persistEvent(1L, EventStatus.PENDING, null, null);
+        persistEvent(2L, EventStatus.PENDING, null, null);
+        persistEvent(3L, EventStatus.PENDING, null, null);
+
+        List<OutboxEvent> first = outboxEventRepository.claimPending(OWNER_1, 2, LEASE_SECONDS);
+        List<OutboxEvent> second = outboxEventRepository.claimPending(OWNER_2, 2, LEASE_SECONDS);
+
+        assertThat(first).hasSize(2);
+        assertThat(second).hasSize(1);
+        assertThat(second).extracting(OutboxEvent::getId)
+                .doesNotContainAnyElementsOf(first.stream().map(OutboxEvent::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should reclaim events whose lease has expired")
+    void claimPending_ShouldReclaimExpiredLease() {
+        persistEvent(1L, EventStatus.PENDING, OWNER_1, LocalDateTime.now().minusMinutes(5));
+        persistEvent(2L, EventStatus.PENDING, OWNER_1, LocalDateTime.now().plusMinutes(5));
+
+        List<OutboxEvent> claimed = outboxEventRepository.claimPending(OWNER_2, 10, LEASE_SECONDS);
+
+        assertThat(claimed).hasSize(1);
+        assertThat(claimed.getFirst().getOrderId()).isEqualTo(1L);
+        assertThat(claimed.getFirst().getLockedBy()).isEqualTo(OWNER_2);
+    }
+
+    @Test
+    @DisplayName("Should mark events as sent only where the lease is held by the owner")
+    void markAsSent_ShouldRequireLeaseOwner() {
+        OutboxEvent event1 = persistEvent(1L, EventStatus.PENDING, null, null);
+        OutboxEvent event2 = persistEvent(2L, EventStatus.PENDING, null, null);
+        outboxEventRepository.claimPending(OWNER_1, 10, LEASE_SECONDS);
+
+        assertThat(outboxEventRepository.markAsSent(List.of(event1.getId(), event2.getId()), OWNER_2)).isZero();
+        assertThat(outboxEventRepository.markAsSent(List.of(event1.getId(), event2.getId()), OWNER_1)).isEqualTo(2);
+
+        entityManager.clear();
+        assertThat(outboxEventRepository.findAll()).allSatisfy(sent -> {
+            assertThat(sent.getEventStatus()).isEqualTo(EventStatus.SENT);
+            assertThat(sent.getLockedBy()).isNull();
+            assertThat(sent.getLockedUntil()).isNull();
+        });
+    }
+
+    @Test
+    @DisplayName("Should bump retry counts, fail exhausted events and release the rest for reclaim")
+    void recordFailures_ShouldRetryOrFailEvents() {
+        OutboxEvent retryable = persistEvent(1L, EventStatus.PENDING, null, null);
+        OutboxEvent exhausted = persistEvent(2L, EventStatus.PENDING, null, null, 4);
+        outboxEventRepository.claimPending(OWNER_1, 10, LEASE_SECONDS);
+
+        assertThat(outboxEventRepository.recordFailures(
+                List.of(retryable.getId(), exhausted.getId()), OWNER_1, MAX_RETRY_COUNT)).isEqualTo(2);
+        entityManager.clear();
+
+        assertThat(outboxEventRepository.findById(exhausted.getId()).orElseThrow().getEventStatus())
+                .isEqualTo(EventStatus.FAILED);
+
+        List<OutboxEvent> reclaimed = outboxEventRepository.claimPending(OWNER_2, 10, LEASE_SECONDS);
+        assertThat(reclaimed).hasSize(1);
+        assertThat(reclaimed.getFirst().getId()).isEqualTo(retryable.getId());
+        assertThat(reclaimed.getFirst().getRetryCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should create only the partitions that do not exist yet")
+    void createPartitions_ShouldBeIdempotent() {
+        outboxEventRepository.createPartitions(3);
+
+        assertThat(outboxEventRepository.createPartitions(3)).isZero();
+        assertThat(outboxEventRepository.createPartitions(5)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should drop expired partitions without pending events and keep the rest")
+    void dropPartitions_ShouldDropOnlyProcessedExpiredPartitions() {
+        createPartition("outbox_events_p20000101", "2000-01-01", "2000-01-02");
+        createPartition("outbox_events_p20000102", "2000-01-02", "2000-01-03");
+        insertEvent(1L, EventStatus.SENT, "2000-01-01 12:00:00");
+        insertEvent(2L, EventStatus.PENDING, "2000-01-02 12:00:00");
+        OutboxEvent recent = persistEvent(3L, EventStatus.SENT, null, null);
+
+        assertThat(outboxEventRepository.dropPartitions(7)).isEqualTo(1);
+
+        assertThat(outboxEventRepository.findAll())
+                .extracting(OutboxEvent::getOrderId)
+                .containsExactlyInAnyOrder(2L, recent.getOrderId());
+    }
+
+    @Test
+    @DisplayName("Should delete expired processed events from the default partition")
+    void dropPartitions_ShouldPurgeDefaultPartition() {
+        insertEvent(1L, EventStatus.FAILED, "2000-01-01 12:00:00");
+        insertEvent(2L, EventStatus.PENDING, "2000-01-01 12:00:00");
+
+        outboxEventRepository.dropPartitions(7);
+
+        assertThat(outboxEventRepository.findAll())
+                .extracting(OutboxEvent::getOrderId)
+                .containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should reject a second outbox event for an order stored on another day")
+    void save_ShouldRejectDuplicateOrderIdAcrossPartitions() {
+        insertEvent(1L, EventStatus.SENT, "2000-01-01 12:00:00");
+
+        assertThatThrownBy(() -> persistEvent(1L, EventStatus.PENDING, null, null))
+                .isInstanceOf(PersistenceException.class);
+    }
+
+    @Test
+    @DisplayName("Should release the order keys of dropped and purged events")
+    void dropPartitions_ShouldReleaseOrderKeys() {
+        createPartition("outbox_events_p20000101", "2000-01-01", "2000-01-02");
+        insertEvent(1L, EventStatus.SENT, "2000-01-01 12:00:00");
+        insertEvent(2L, EventStatus.FAILED, "2000-01-03 12:00:00");
+        persistEvent(3L, EventStatus.PENDING, null, null);
+
+        outboxEventRepository.dropPartitions(7);
+
+        assertThat(entityManager.getEntityManager()
+                .createNativeQuery("SELECT order_id FROM outbox_event_keys", Long.class)
+                .getResultList())
+                .containsExactly(3L);
+    }
+
+    private void createPartition(String name, String from, String to) {
+        entityManager.getEntityManager()
+                .createNativeQuery("CREATE TABLE " + name + " PARTITION OF outbox_events FOR VALUES FROM ('"
+                        + from + "') TO ('" + to + "')")
+                .executeUpdate();
+    }
+
+    private void insertEvent(Long orderId, EventStatus eventStatus, String createdAt) {
+        entityManager.getEntityManager()
+                .createNativeQuery("""
+                        INSERT INTO outbox_events (order_id, payload, retry_count, event_status, created_at)
+                        VALUES (:orderId, CAST('{}' AS BYTEA), 0, :eventStatus, CAST(:createdAt AS TIMESTAMP))
+                        """)
+                .setParameter("orderId", orderId)
+                .setParameter("eventStatus", eventStatus.name())
+                .setParameter("createdAt", createdAt)
+                .executeUpdate();
+    }
+
+    private OutboxEvent persistEvent(Long orderId, EventStatus eventStatus, String lockedBy, LocalDateTime lockedUntil) {
+        return persistEvent(orderId, eventStatus, lockedBy, lockedUntil, 0);
+    }
+
+    private OutboxEvent persistEvent(Long orderId, EventStatus eventStatus, String lockedBy, LocalDateTime lockedUntil,
+                                     int retryCount) {
+        OutboxEvent event = entityManager.persistAndFlush(OutboxEvent.builder()
+                .orderId(orderId)
+                .payload("{}".getBytes(StandardCharsets.UTF_8))
+                .retryCount(retryCount)
+                .eventStatus(eventStatus)
+                .lockedBy(lockedBy)
+                .lockedUntil(lockedUntil)
+                .build());
+        entityManager.clear();
+
+        return event;
+    }
+
+}
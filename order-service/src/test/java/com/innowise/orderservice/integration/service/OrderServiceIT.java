@@ -178,9 +178,9 @@ class OrderServiceIT extends BaseIntegrationTest {
         FilterRequest filterRequest = FilterRequest.builder()
                 .ids(List.of(order1.getId(), order2.getId()))
                 .build();
-        PageableRequest pageableRequest = new PageableRequest(10, 0);
+        PageableRequest pageableRequest = new PageableRequest(10, 0, null);
 
-        List<OrderResponse> foundOrders = orderService.findByFilter(filterRequest, pageableRequest);
+        List<OrderResponse> foundOrders = orderService.findByFilter(filterRequest, pageableRequest).getContent();
 
         assertThat(foundOrders).isNotNull()
                 .hasSize(2)
@@ -214,9 +214,9 @@ class OrderServiceIT extends BaseIntegrationTest {
         FilterRequest filterRequest = FilterRequest.builder()
                 .statuses(List.of(OrderStatus.PREPARED))
                 .build();
-        PageableRequest pageableRequest = new PageableRequest(10, 0);
+        PageableRequest pageableRequest = new PageableRequest(10, 0, null);
 
-        List<OrderResponse> foundOrders = orderService.findByFilter(filterRequest, pageableRequest);
+        List<OrderResponse> foundOrders = orderService.findByFilter(filterRequest, pageableRequest).getContent();
 
         assertThat(foundOrders).isNotNull()
                 .hasSize(2)
@@ -0,0 +1,73 @@
+package com.innowise.orderservice.unit.config;
+
+import com.innowise.events.EventProtos;
+import com.innowise.orderservice.config.EventEncodingDeserializer;
+import com.innowise.orderservice.config.KafkaConfig;
+import com.innowise.orderservice.model.EventEncoding;
+import com.innowise.orderservice.model.PaymentStatus;
+import com.innowise.orderservice.model.dto.CreatePaymentEvent;
+import com.innowise.orderservice.util.BinaryEventCodec;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventEncodingDeserializerTest {
+
+    private static final String JSON_EVENT = "{\"orderId\":1,\"status\":\"SUCCESS\"}";
+
+    private final EventEncodingDeserializer<CreatePaymentEvent> deserializer = new EventEncodingDeserializer<>(
+            new JsonDeserializer<>(CreatePaymentEvent.class, false), BinaryEventCodec::decodeCreatePaymentEvent);
+
+    private final CreatePaymentEvent event = CreatePaymentEvent.builder()
+            .orderId(1L)
+            .status(PaymentStatus.SUCCESS)
+            .build();
+
+    @Test
+    @DisplayName("Should decode binary event when the encoding header is BINARY")
+    void deserialize_WithBinaryHeader_ShouldDecodeBinary() {
+        RecordHeaders headers = encodingHeaders(EventEncoding.BINARY);
+
+        CreatePaymentEvent result = deserializer.deserialize(KafkaConfig.PAYMENT_CREATED_TOPIC, headers,
+                EventProtos.CreatePaymentEvent.newBuilder()
+                        .setOrderId(1L)
+                        .setStatus(EventProtos.PaymentStatus.SUCCESS)
+                        .build()
+                        .toByteArray());
+
+        assertThat(result).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Should decode JSON event when the encoding header is missing")
+    void deserialize_WithoutHeader_ShouldDecodeJson() {
+        CreatePaymentEvent result = deserializer.deserialize(KafkaConfig.PAYMENT_CREATED_TOPIC, new RecordHeaders(),
+                JSON_EVENT.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(result).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Should use the last encoding header when a republished record overrides it")
+    void deserialize_WithOverriddenHeader_ShouldUseLastHeader() {
+        RecordHeaders headers = encodingHeaders(EventEncoding.BINARY);
+        headers.add(KafkaConfig.EVENT_ENCODING_HEADER, EventEncoding.JSON.name().getBytes(StandardCharsets.UTF_8));
+
+        CreatePaymentEvent result = deserializer.deserialize(KafkaConfig.PAYMENT_CREATED_TOPIC, headers,
+                JSON_EVENT.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(result).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    private RecordHeaders encodingHeaders(EventEncoding encoding) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(KafkaConfig.EVENT_ENCODING_HEADER, encoding.name().getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+
+}
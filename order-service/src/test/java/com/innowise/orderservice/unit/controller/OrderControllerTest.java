@@ -1,6 +1,8 @@
 package com.innowise.orderservice.unit.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.innowise.jwt.verification.JwtVerifier;
+import com.innowise.orderservice.config.IdentityHeaderVerifier;
 import com.innowise.orderservice.controller.OrderController;
 import com.innowise.orderservice.exception.ResourceNotFoundException;
 import com.innowise.orderservice.model.OrderStatus;
@@ -10,17 +12,21 @@ import com.innowise.orderservice.model.dto.OrderResponse;
 import com.innowise.orderservice.model.dto.PageableRequest;
 import com.innowise.orderservice.model.dto.UserResponse;
 import com.innowise.orderservice.service.OrderService;
+import com.innowise.orderservice.util.CursorCodec;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 
+import static com.innowise.orderservice.util.CursorCodec.NEXT_CURSOR_HEADER;
 import static com.innowise.orderservice.util.OrderUtil.createOrderRequest;
 import static com.innowise.orderservice.util.OrderUtil.createOrderResponse;
 import static com.innowise.orderservice.util.OrderUtil.createUserResponse;
@@ -31,6 +37,7 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,6 +50,12 @@ class OrderControllerTest {
     @MockitoBean
     private OrderService orderService;
 
+    @MockitoBean
+    private JwtVerifier jwtVerifier;
+
+    @MockitoBean
+    private IdentityHeaderVerifier identityHeaderVerifier;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -117,12 +130,13 @@ class OrderControllerTest {
         );
 
         when(orderService.findByFilter(any(FilterRequest.class), any(PageableRequest.class)))
-                .thenReturn(ordersResponse);
+                .thenReturn(new SliceImpl<>(ordersResponse));
 
         mockMvc.perform(get("/api/v1/orders")
                         .param("size", "10")
                         .param("page", "0"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(NEXT_CURSOR_HEADER))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(2))
@@ -130,6 +144,25 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2L));
     }
 
+    @Test
+    @DisplayName("Should return next cursor header when more orders are available")
+    void findByFilter_ShouldReturnNextCursor_WhenHasNext() throws Exception {
+        List<OrderResponse> ordersResponse = List.of(
+                createOrderResponse(3L, 1L, OrderStatus.NEW, createUserResponse(1L)),
+                createOrderResponse(4L, 2L, OrderStatus.NEW, createUserResponse(2L))
+        );
+
+        when(orderService.findByFilter(any(FilterRequest.class), any(PageableRequest.class)))
+                .thenReturn(new SliceImpl<>(ordersResponse, PageRequest.of(0, 2), true));
+
+        mockMvc.perform(get("/api/v1/orders")
+                        .param("size", "2")
+                        .param("after", CursorCodec.encode(2L)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(NEXT_CURSOR_HEADER, CursorCodec.encode(4L)))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
     @Test
     @DisplayName("Should update order successfully")
     void updateById_ShouldUpdateOrder_WhenValidRequest() throws Exception {
@@ -0,0 +1,94 @@
+package com.innowise.orderservice.unit.service;
+
+import com.innowise.orderservice.service.impl.ConsumerBackpressureControllerImpl;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConsumerBackpressureControllerTest {
+
+    private static final int PAUSE_PENDING_CONNECTIONS = 5;
+    private static final int RESUME_PENDING_CONNECTIONS = 0;
+
+    @Mock
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    @Mock
+    private HikariDataSource dataSource;
+
+    @Mock
+    private HikariPoolMXBean pool;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ConsumerBackpressureControllerImpl consumerBackpressureController;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        consumerBackpressureController = new ConsumerBackpressureControllerImpl(kafkaListenerEndpointRegistry,
+                dataSource, meterRegistry, PAUSE_PENDING_CONNECTIONS, RESUME_PENDING_CONNECTIONS);
+    }
+
+    @Test
+    @DisplayName("Should pause the listeners when too many threads await a database connection")
+    void checkDownstream_ShouldPauseListeners_WhenPoolSaturated() {
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(PAUSE_PENDING_CONNECTIONS);
+        when(kafkaListenerEndpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+
+        consumerBackpressureController.checkDownstream();
+
+        verify(container).pause();
+        assertThat(consumerBackpressureController.isPaused()).isTrue();
+        assertThat(meterRegistry.get("kafka.consumer.backpressure.paused").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep the listeners paused until the pool backlog has drained")
+    void checkDownstream_ShouldKeepListenersPaused_WhenPoolStillBusy() {
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(PAUSE_PENDING_CONNECTIONS, 2, RESUME_PENDING_CONNECTIONS);
+        when(kafkaListenerEndpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+
+        consumerBackpressureController.checkDownstream();
+        consumerBackpressureController.checkDownstream();
+
+        verify(container, never()).resume();
+        assertThat(consumerBackpressureController.isPaused()).isTrue();
+
+        consumerBackpressureController.checkDownstream();
+
+        verify(container).resume();
+        assertThat(consumerBackpressureController.isPaused()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should leave the listeners running while the pool is not started")
+    void checkDownstream_ShouldNotPauseListeners_WhenPoolNotStarted() {
+        consumerBackpressureController.checkDownstream();
+
+        verify(kafkaListenerEndpointRegistry, never()).getListenerContainers();
+        assertThat(consumerBackpressureController.isPaused()).isFalse();
+    }
+
+}
@@ -1,15 +1,14 @@
 package com.innowise.orderservice.unit.service;
 
 import com.innowise.orderservice.config.KafkaConfig;
-import com.innowise.orderservice.model.OrderStatus;
+import com.innowise.orderservice.model.EventEncoding;
 import com.innowise.orderservice.model.PaymentStatus;
-import com.innowise.orderservice.model.dto.CreateOrderEvent;
 import com.innowise.orderservice.model.dto.CreatePaymentEvent;
-import com.innowise.orderservice.model.entity.Order;
-import com.innowise.orderservice.repository.OrderRepository;
+import com.innowise.orderservice.service.OrderService;
 import com.innowise.orderservice.service.impl.KafkaServiceImpl;
 import com.innowise.orderservice.util.EventValidator;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,17 +18,17 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.SendResult;
 
-import java.math.BigDecimal;
-import java.util.Optional;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
-import static com.innowise.orderservice.util.OrderUtil.createOrder;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -44,189 +43,155 @@ class KafkaServiceImplTest {
     private KafkaServiceImpl kafkaService;
 
     @Mock
-    private KafkaTemplate<String, CreateOrderEvent> kafkaTemplate;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
 
     @Mock
-    private OrderRepository orderRepository;
+    private OrderService orderService;
 
     @Mock
     private EventValidator eventValidator;
 
     @Test
-    @DisplayName("Should update order to PREPARED when payment is successful")
-    void consumeCreatePaymentEvent_ShouldUpdateOrderToPrepared_WhenPaymentSuccess() {
-        Long orderId = 1L;
-        CreatePaymentEvent paymentEvent = CreatePaymentEvent.builder()
-                .orderId(orderId)
-                .status(PaymentStatus.SUCCESS)
-                .build();
-        ConsumerRecord<String, CreatePaymentEvent> consumerRecord = 
-            new ConsumerRecord<>(KafkaConfig.PAYMENT_CREATED_TOPIC, 0, 0L, "key", paymentEvent);
+    @DisplayName("Should apply the payment results of the whole batch at once")
+    void consumeCreatePaymentEvents_ShouldApplyPaymentResults() {
+        CreatePaymentEvent successEvent = createPaymentEvent(1L, PaymentStatus.SUCCESS);
+        CreatePaymentEvent failedEvent = createPaymentEvent(2L, PaymentStatus.FAILED);
 
-        Order order = createOrder(orderId, 1L, OrderStatus.NEW);
+        kafkaService.consumeCreatePaymentEvents(List.of(createRecord(0L, successEvent), createRecord(1L, failedEvent)));
 
-        doNothing().when(eventValidator).validate(paymentEvent);
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
-        when(orderRepository.save(order)).thenReturn(order);
+        verify(eventValidator).validate(successEvent);
+        verify(eventValidator).validate(failedEvent);
+        verify(orderService).applyPaymentResults(Map.of(1L, PaymentStatus.SUCCESS, 2L, PaymentStatus.FAILED));
+    }
 
-        kafkaService.consumeCreatePaymentEvent(consumerRecord);
+    @Test
+    @DisplayName("Should keep the first payment result when an order appears more than once in the batch")
+    void consumeCreatePaymentEvents_ShouldKeepFirstPaymentResult_WhenOrderRepeated() {
+        CreatePaymentEvent successEvent = createPaymentEvent(1L, PaymentStatus.SUCCESS);
+        CreatePaymentEvent failedEvent = createPaymentEvent(1L, PaymentStatus.FAILED);
 
-        verify(eventValidator).validate(paymentEvent);
-        verify(orderRepository).findById(orderId);
-        
-        ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
-        verify(orderRepository).save(orderCaptor.capture());
-        
-        Order capturedOrder = orderCaptor.getValue();
-        assertThat(capturedOrder.getId()).isEqualTo(orderId);
-        assertThat(capturedOrder.getStatus()).isEqualTo(OrderStatus.PREPARED);
+        kafkaService.consumeCreatePaymentEvents(List.of(createRecord(0L, successEvent), createRecord(1L, failedEvent)));
+
+        verify(orderService).applyPaymentResults(Map.of(1L, PaymentStatus.SUCCESS));
     }
 
     @Test
-    @DisplayName("Should update order to CANCELED when payment fails")
-    void consumeCreatePaymentEvent_ShouldUpdateOrderToCanceled_WhenPaymentFailed() {
-        Long orderId = 2L;
-        CreatePaymentEvent paymentEvent = CreatePaymentEvent.builder()
-                .orderId(orderId)
-                .status(PaymentStatus.FAILED)
-                .build();
-        ConsumerRecord<String, CreatePaymentEvent> consumerRecord = 
-            new ConsumerRecord<>(KafkaConfig.PAYMENT_CREATED_TOPIC, 0, 0L, "key", paymentEvent);
+    @DisplayName("Should apply preceding results and fail at the invalid record when an event is invalid")
+    void consumeCreatePaymentEvents_ShouldFailAtInvalidRecord_WhenEventInvalid() {
+        CreatePaymentEvent validEvent = createPaymentEvent(1L, PaymentStatus.SUCCESS);
+        List<ConsumerRecord<String, CreatePaymentEvent>> consumerRecords =
+                List.of(createRecord(0L, validEvent), createRecord(1L, null), createRecord(2L, validEvent));
 
-        Order order = createOrder(orderId, 2L, OrderStatus.NEW);
-
-        doNothing().when(eventValidator).validate(paymentEvent);
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
-        when(orderRepository.save(order)).thenReturn(order);
+        doNothing().when(eventValidator).validate(validEvent);
+        doThrow(new IllegalArgumentException("Event cannot be null - deserialization failed"))
+                .when(eventValidator).validate(null);
 
-        kafkaService.consumeCreatePaymentEvent(consumerRecord);
+        assertThatThrownBy(() -> kafkaService.consumeCreatePaymentEvents(consumerRecords))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getIndex()).isEqualTo(1))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
 
-        verify(eventValidator).validate(paymentEvent);
-        verify(orderRepository).findById(orderId);
-        
-        ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
-        verify(orderRepository).save(orderCaptor.capture());
-        
-        Order capturedOrder = orderCaptor.getValue();
-        assertThat(capturedOrder.getId()).isEqualTo(orderId);
-        assertThat(capturedOrder.getStatus()).isEqualTo(OrderStatus.CANCELED);
+        verify(orderService).applyPaymentResults(Map.of(1L, PaymentStatus.SUCCESS));
     }
 
     @Test
-    @DisplayName("Should skip processing when order status is not NEW")
-    void consumeCreatePaymentEvent_ShouldSkipProcessing_WhenOrderStatusNotNew() {
-        Long orderId = 3L;
-        CreatePaymentEvent paymentEvent = CreatePaymentEvent.builder()
-                .orderId(orderId)
-                .status(PaymentStatus.SUCCESS)
-                .build();
-        ConsumerRecord<String, CreatePaymentEvent> consumerRecord = 
-            new ConsumerRecord<>(KafkaConfig.PAYMENT_CREATED_TOPIC, 0, 0L, "key", paymentEvent);
+    @DisplayName("Should not touch orders when the first event of the batch is invalid")
+    void consumeCreatePaymentEvents_ShouldNotApplyResults_WhenFirstEventInvalid() {
+        List<ConsumerRecord<String, CreatePaymentEvent>> consumerRecords = List.of(createRecord(0L, null));
 
-        Order order = createOrder(orderId, 3L, OrderStatus.PREPARED);
-
-        doNothing().when(eventValidator).validate(paymentEvent);
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        doThrow(new IllegalArgumentException("Event cannot be null - deserialization failed"))
+                .when(eventValidator).validate(null);
 
-        kafkaService.consumeCreatePaymentEvent(consumerRecord);
+        assertThatThrownBy(() -> kafkaService.consumeCreatePaymentEvents(consumerRecords))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .hasMessageContaining("Event cannot be null");
 
-        verify(eventValidator).validate(paymentEvent);
-        verify(orderRepository).findById(orderId);
-        verify(orderRepository, never()).save(any());
+        verify(orderService, never()).applyPaymentResults(any());
     }
 
     @Test
-    @DisplayName("Should skip processing when order not found")
-    void consumeCreatePaymentEvent_ShouldSkipProcessing_WhenOrderNotFound() {
-        Long orderId = 999L;
-        CreatePaymentEvent paymentEvent = CreatePaymentEvent.builder()
-                .orderId(orderId)
-                .status(PaymentStatus.SUCCESS)
-                .build();
-        ConsumerRecord<String, CreatePaymentEvent> consumerRecord = 
-            new ConsumerRecord<>(KafkaConfig.PAYMENT_CREATED_TOPIC, 0, 0L, "key", paymentEvent);
-
-        doNothing().when(eventValidator).validate(paymentEvent);
-        when(orderRepository.findById(orderId)).thenReturn(Optional.empty());
+    @DisplayName("Should apply the payment result of a retried event")
+    void retryCreatePaymentEvent_ShouldApplyPaymentResult() {
+        CreatePaymentEvent paymentEvent = createPaymentEvent(1L, PaymentStatus.FAILED);
+        ConsumerRecord<String, CreatePaymentEvent> consumerRecord =
+                new ConsumerRecord<>(KafkaConfig.PAYMENT_CREATED_RETRY_10S_TOPIC, 0, 0L, "1", paymentEvent);
 
-        kafkaService.consumeCreatePaymentEvent(consumerRecord);
+        kafkaService.retryCreatePaymentEvent(consumerRecord);
 
         verify(eventValidator).validate(paymentEvent);
-        verify(orderRepository).findById(orderId);
-        verify(orderRepository, never()).save(any());
+        verify(orderService).applyPaymentResults(Map.of(1L, PaymentStatus.FAILED));
     }
 
     @Test
-    @DisplayName("Should throw IllegalArgumentException when consumer record value is null")
-    void consumeCreatePaymentEvent_ShouldThrowException_WhenValueIsNull() {
-        ConsumerRecord<String, CreatePaymentEvent> consumerRecord = 
-            new ConsumerRecord<>(KafkaConfig.PAYMENT_CREATED_TOPIC, 0, 0L, "key", null);
+    @DisplayName("Should throw IllegalArgumentException when a retried event is invalid")
+    void retryCreatePaymentEvent_ShouldThrowException_WhenEventInvalid() {
+        ConsumerRecord<String, CreatePaymentEvent> consumerRecord =
+                new ConsumerRecord<>(KafkaConfig.PAYMENT_CREATED_RETRY_1S_TOPIC, 0, 0L, "1", null);
 
         doThrow(new IllegalArgumentException("Event cannot be null - deserialization failed"))
                 .when(eventValidator).validate(null);
 
-        assertThatThrownBy(() -> kafkaService.consumeCreatePaymentEvent(consumerRecord))
-            .isInstanceOf(IllegalArgumentException.class)
-            .hasMessageContaining("Event cannot be null");
+        assertThatThrownBy(() -> kafkaService.retryCreatePaymentEvent(consumerRecord))
+                .isInstanceOf(IllegalArgumentException.class);
 
-        verify(eventValidator).validate(null);
-        verify(orderRepository, never()).findById(any());
-        verify(orderRepository, never()).save(any());
+        verify(orderService, never()).applyPaymentResults(any());
     }
 
     @Test
-    @DisplayName("Should send create order event successfully")
-    void sendCreateOrderEvent_ShouldSendEvent() {
+    @DisplayName("Should send create order event payload as is with its encoding header")
+    void sendCreateOrderEvent_ShouldSendPayload() {
         Long orderId = 1L;
-        Long userId = 1L;
-        CreateOrderEvent event = CreateOrderEvent.builder()
-                .orderId(orderId)
-                .userId(userId)
-                .paymentAmount(BigDecimal.valueOf(1000.00))
-                .build();
+        byte[] payload = "{\"orderId\":1}".getBytes(StandardCharsets.UTF_8);
 
-        SendResult<String, CreateOrderEvent> mockResult = mock(SendResult.class);
-        CompletableFuture<SendResult<String, CreateOrderEvent>> future = 
+        SendResult<String, byte[]> mockResult = mock(SendResult.class);
+        CompletableFuture<SendResult<String, byte[]>> future = 
             CompletableFuture.completedFuture(mockResult);
 
-        when(kafkaTemplate.send(anyString(), anyString(), any(CreateOrderEvent.class)))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
             .thenReturn(future);
 
-        kafkaService.sendCreateOrderEvent(event);
+        assertThat(kafkaService.sendCreateOrderEvent(orderId, payload, EventEncoding.JSON)).isCompletedWithValue(mockResult);
 
-        verify(kafkaTemplate).send(
-            KafkaConfig.ORDER_CREATED_TOPIC,
-            orderId.toString(),
-            event
-        );
+        ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(recordCaptor.capture());
+
+        ProducerRecord<String, byte[]> producerRecord = recordCaptor.getValue();
+        assertThat(producerRecord.topic()).isEqualTo(KafkaConfig.ORDER_CREATED_TOPIC);
+        assertThat(producerRecord.key()).isEqualTo(orderId.toString());
+        assertThat(producerRecord.value()).isSameAs(payload);
+        assertThat(producerRecord.headers().lastHeader(KafkaConfig.EVENT_ENCODING_HEADER).value())
+            .isEqualTo(EventEncoding.JSON.name().getBytes(StandardCharsets.UTF_8));
     }
 
     @Test
-    @DisplayName("Should throw KafkaException when sending event fails")
-    void sendCreateOrderEvent_ShouldThrowKafkaException_WhenSendFails() {
+    @DisplayName("Should complete exceptionally with KafkaException when sending event fails")
+    void sendCreateOrderEvent_ShouldFailWithKafkaException_WhenSendFails() {
         Long orderId = 1L;
-        Long userId = 1L;
-        CreateOrderEvent event = CreateOrderEvent.builder()
-                .orderId(orderId)
-                .userId(userId)
-                .paymentAmount(BigDecimal.valueOf(1000.00))
-                .build();
+        byte[] payload = "{\"orderId\":1}".getBytes(StandardCharsets.UTF_8);
 
-        CompletableFuture<SendResult<String, CreateOrderEvent>> failedFuture = 
+        CompletableFuture<SendResult<String, byte[]>> failedFuture = 
             CompletableFuture.failedFuture(new RuntimeException("Kafka error"));
 
-        when(kafkaTemplate.send(anyString(), anyString(), any(CreateOrderEvent.class)))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
             .thenReturn(failedFuture);
 
-        assertThatThrownBy(() -> kafkaService.sendCreateOrderEvent(event))
-            .isInstanceOf(KafkaException.class)
+        assertThatThrownBy(() -> kafkaService.sendCreateOrderEvent(orderId, payload, EventEncoding.BINARY).join())
+            .hasCauseInstanceOf(KafkaException.class)
             .hasMessageContaining("Failed to send CREATE_ORDER for order " + orderId);
 
-        verify(kafkaTemplate).send(
-            KafkaConfig.ORDER_CREATED_TOPIC,
-            orderId.toString(),
-            event
-        );
+        verify(kafkaTemplate).send(any(ProducerRecord.class));
+    }
+
+
+    private CreatePaymentEvent createPaymentEvent(Long orderId, PaymentStatus status) {
+        return CreatePaymentEvent.builder()
+                .orderId(orderId)
+                .status(status)
+                .build();
+    }
+
+    private ConsumerRecord<String, CreatePaymentEvent> createRecord(long offset, CreatePaymentEvent event) {
+        return new ConsumerRecord<>(KafkaConfig.PAYMENT_CREATED_TOPIC, 0, offset, "key", event);
     }
 
 }
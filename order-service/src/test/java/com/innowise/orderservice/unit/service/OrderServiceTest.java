@@ -1,8 +1,10 @@
 package com.innowise.orderservice.unit.service;
 
+import com.innowise.orderservice.exception.InvalidCursorException;
 import com.innowise.orderservice.exception.ResourceNotFoundException;
 import com.innowise.orderservice.mapper.OrderMapper;
 import com.innowise.orderservice.model.OrderStatus;
+import com.innowise.orderservice.model.PaymentStatus;
 import com.innowise.orderservice.model.dto.CreateOrderEvent;
 import com.innowise.orderservice.model.dto.FilterRequest;
 import com.innowise.orderservice.model.dto.OrderRequest;
@@ -16,6 +18,7 @@ import com.innowise.orderservice.repository.OrderRepository;
 import com.innowise.orderservice.service.impl.OrderServiceImpl;
 import com.innowise.orderservice.service.impl.OutboxEventServiceImpl;
 import com.innowise.orderservice.service.impl.UserServiceRestClientImpl;
+import com.innowise.orderservice.util.CursorCodec;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,9 +27,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -42,6 +49,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
@@ -157,7 +165,7 @@ class OrderServiceTest {
                 .ids(List.of(1L, 2L))
                 .statuses(List.of(OrderStatus.NEW))
                 .build();
-        PageableRequest pageableRequest = new PageableRequest(10, 0);
+        PageableRequest pageableRequest = new PageableRequest(10, 0, null);
         
         Order order1 = createOrder(1L, 1L, OrderStatus.NEW);
         Order order2 = createOrder(2L, 2L, OrderStatus.NEW);
@@ -171,18 +179,21 @@ class OrderServiceTest {
         OrderResponse orderResponse2 = createOrderResponse(2L, 2L, OrderStatus.NEW, user2);
         List<OrderResponse> expectedResponses = List.of(orderResponse1, orderResponse2);
 
-        when(orderRepository.findAll(isA(Specification.class), isA(PageRequest.class))).thenReturn(orders);
+        when(orderRepository.findIdsBy(isA(Specification.class), isA(PageRequest.class))).thenReturn(new SliceImpl<>(List.of(1L, 2L)));
+        when(orderRepository.findByIdInOrderById(List.of(1L, 2L))).thenReturn(orders);
         when(userServiceRestClient.findUsersByIds(anySet())).thenReturn(users);
         when(orderMapper.ordersToOrdersResponse(anyList(), anyMap())).thenReturn(expectedResponses);
 
-        List<OrderResponse> actualResponses = orderService.findByFilter(filterRequest, pageableRequest);
+        Slice<OrderResponse> actualResponses = orderService.findByFilter(filterRequest, pageableRequest);
 
-        assertThat(actualResponses).isNotNull()
+        assertThat(actualResponses.getContent()).isNotNull()
                 .hasSize(2);
-        assertThat(actualResponses.get(0).getId()).isEqualTo(1L);
-        assertThat(actualResponses.get(1).getId()).isEqualTo(2L);
+        assertThat(actualResponses.getContent().get(0).getId()).isEqualTo(1L);
+        assertThat(actualResponses.getContent().get(1).getId()).isEqualTo(2L);
+        assertThat(actualResponses.hasNext()).isFalse();
 
-        verify(orderRepository).findAll(isA(Specification.class), isA(PageRequest.class));
+        verify(orderRepository).findIdsBy(isA(Specification.class), isA(PageRequest.class));
+        verify(orderRepository).findByIdInOrderById(List.of(1L, 2L));
         verify(userServiceRestClient).findUsersByIds(Set.of(1L, 2L));
         verify(orderMapper).ordersToOrdersResponse(anyList(), anyMap());
     }
@@ -193,22 +204,54 @@ class OrderServiceTest {
         FilterRequest filterRequest = FilterRequest.builder()
                 .ids(List.of(999L))
                 .build();
-        PageableRequest pageableRequest = new PageableRequest(10, 0);
+        PageableRequest pageableRequest = new PageableRequest(10, 0, null);
 
-        when(orderRepository.findAll(isA(Specification.class), isA(PageRequest.class))).thenReturn(List.of());
+        when(orderRepository.findIdsBy(isA(Specification.class), isA(PageRequest.class))).thenReturn(new SliceImpl<>(List.of()));
         when(userServiceRestClient.findUsersByIds(anySet())).thenReturn(List.of());
         when(orderMapper.ordersToOrdersResponse(anyList(), anyMap())).thenReturn(List.of());
 
-        List<OrderResponse> actualResponses = orderService.findByFilter(filterRequest, pageableRequest);
+        Slice<OrderResponse> actualResponses = orderService.findByFilter(filterRequest, pageableRequest);
 
-        assertThat(actualResponses).isNotNull()
+        assertThat(actualResponses.getContent()).isNotNull()
                 .isEmpty();
 
-        verify(orderRepository).findAll(isA(Specification.class), isA(PageRequest.class));
+        verify(orderRepository).findIdsBy(isA(Specification.class), isA(PageRequest.class));
+        verify(orderRepository, never()).findByIdInOrderById(anyList());
         verify(userServiceRestClient).findUsersByIds(anySet());
         verify(orderMapper).ordersToOrdersResponse(anyList(), anyMap());
     }
 
+    @Test
+    @DisplayName("Should use keyset pagination from the first page when after cursor is provided")
+    void findByFilter_ShouldUseKeysetPagination_WhenAfterCursorProvided() {
+        PageableRequest pageableRequest = new PageableRequest(1, 5, CursorCodec.encode(1L));
+        Order order = createOrder(2L, 2L, OrderStatus.NEW);
+        UserResponse user = createUserResponse(2L);
+        OrderResponse orderResponse = createOrderResponse(2L, 2L, OrderStatus.NEW, user);
+
+        when(orderRepository.findIdsBy(isA(Specification.class), eq(PageRequest.of(0, 1))))
+                .thenReturn(new SliceImpl<>(List.of(2L), PageRequest.of(0, 1), true));
+        when(orderRepository.findByIdInOrderById(List.of(2L))).thenReturn(List.of(order));
+        when(userServiceRestClient.findUsersByIds(anySet())).thenReturn(List.of(user));
+        when(orderMapper.ordersToOrdersResponse(anyList(), anyMap())).thenReturn(List.of(orderResponse));
+
+        Slice<OrderResponse> actualResponses = orderService.findByFilter(new FilterRequest(), pageableRequest);
+
+        assertThat(actualResponses.getContent()).extracting(OrderResponse::getId).containsExactly(2L);
+        assertThat(actualResponses.hasNext()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should throw InvalidCursorException when after cursor is malformed")
+    void findByFilter_ShouldThrowInvalidCursorException_WhenCursorMalformed() {
+        PageableRequest pageableRequest = new PageableRequest(10, 0, "not-a-cursor");
+
+        assertThatThrownBy(() -> orderService.findByFilter(new FilterRequest(), pageableRequest))
+                .isInstanceOf(InvalidCursorException.class);
+
+        verify(orderRepository, never()).findIdsBy(any(), any());
+    }
+
     @Test
     @DisplayName("Should update order successfully")
     void updateById_ShouldUpdateOrder() {
@@ -283,4 +326,31 @@ class OrderServiceTest {
         verify(orderRepository, never()).deleteById(orderId);
     }
 
+    @Test
+    @DisplayName("Should update successful and failed payments with one statement each")
+    void applyPaymentResults_ShouldUpdateStatusesByPaymentStatus() {
+        Map<Long, PaymentStatus> paymentStatuses = new LinkedHashMap<>();
+        paymentStatuses.put(1L, PaymentStatus.SUCCESS);
+        paymentStatuses.put(2L, PaymentStatus.FAILED);
+        paymentStatuses.put(3L, PaymentStatus.SUCCESS);
+
+        when(orderRepository.updateStatusIfNew(List.of(1L, 3L), OrderStatus.PREPARED)).thenReturn(2);
+        when(orderRepository.updateStatusIfNew(List.of(2L), OrderStatus.CANCELED)).thenReturn(1);
+
+        orderService.applyPaymentResults(paymentStatuses);
+
+        verify(orderRepository).updateStatusIfNew(List.of(1L, 3L), OrderStatus.PREPARED);
+        verify(orderRepository).updateStatusIfNew(List.of(2L), OrderStatus.CANCELED);
+    }
+
+    @Test
+    @DisplayName("Should skip the update statement when no payment has the matching status")
+    void applyPaymentResults_ShouldSkipEmptyStatusGroup() {
+        when(orderRepository.updateStatusIfNew(List.of(1L), OrderStatus.PREPARED)).thenReturn(0);
+
+        orderService.applyPaymentResults(Map.of(1L, PaymentStatus.SUCCESS));
+
+        verify(orderRepository, never()).updateStatusIfNew(anyList(), eq(OrderStatus.CANCELED));
+    }
+
 }
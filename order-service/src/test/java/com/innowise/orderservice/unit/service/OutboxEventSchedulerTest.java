@@ -0,0 +1,227 @@
+package com.innowise.orderservice.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.innowise.orderservice.model.EventEncoding;
+import com.innowise.orderservice.model.EventStatus;
+import com.innowise.orderservice.model.OutboxEventSavedEvent;
+import com.innowise.orderservice.model.dto.CreateOrderEvent;
+import com.innowise.orderservice.model.entity.OutboxEvent;
+import com.innowise.orderservice.service.KafkaService;
+import com.innowise.orderservice.service.OutboxEventService;
+import com.innowise.orderservice.service.impl.OutboxEventSchedulerImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxEventSchedulerTest {
+
+    private static final int WORKERS = 2;
+    private static final int BATCH_SIZE = 10;
+    private static final int MAX_RETRY_COUNT = 5;
+    private static final Duration LEASE = Duration.ofSeconds(30);
+    private static final Duration MIN_BACKOFF = Duration.ofMillis(10);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(3);
+
+    @Mock
+    private KafkaService kafkaService;
+
+    @Mock
+    private OutboxEventService outboxEventService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MeterRegistry meterRegistry;
+
+    private OutboxEventSchedulerImpl outboxEventScheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxEventScheduler = new OutboxEventSchedulerImpl(kafkaService, outboxEventService,
+                meterRegistry, Runnable::run, WORKERS, BATCH_SIZE, LEASE, MIN_BACKOFF, MAX_BACKOFF);
+    }
+
+    @Test
+    @DisplayName("Should claim a separate batch for every worker")
+    void processOutboxEvents_ShouldClaimBatchPerWorker() {
+        when(outboxEventService.claimBatch(anyString(), eq(BATCH_SIZE), eq(LEASE))).thenReturn(List.of());
+
+        assertThat(outboxEventScheduler.processOutboxEvents()).isFalse();
+
+        ArgumentCaptor<String> ownerCaptor = ArgumentCaptor.forClass(String.class);
+        verify(outboxEventService, times(WORKERS)).claimBatch(ownerCaptor.capture(), eq(BATCH_SIZE), eq(LEASE));
+        assertThat(ownerCaptor.getAllValues()).doesNotHaveDuplicates();
+        verify(kafkaService, never()).sendCreateOrderEvent(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should send the whole batch and mark successes as sent with one update")
+    void processOutboxEvents_ShouldMarkBatchAsSent() throws Exception {
+        OutboxEvent event1 = createOutboxEvent(1L, 0);
+        OutboxEvent event2 = createOutboxEvent(2L, 0);
+        when(outboxEventService.claimBatch(anyString(), eq(BATCH_SIZE), eq(LEASE)))
+                .thenReturn(List.of(event1, event2))
+                .thenReturn(List.of());
+        when(kafkaService.sendCreateOrderEvent(any(), any(byte[].class), eq(EventEncoding.JSON)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        outboxEventScheduler.processOutboxEvents();
+
+        ArgumentCaptor<String> ownerCaptor = ArgumentCaptor.forClass(String.class);
+        verify(outboxEventService, times(WORKERS)).claimBatch(ownerCaptor.capture(), eq(BATCH_SIZE), eq(LEASE));
+        String owner = ownerCaptor.getAllValues().getFirst();
+
+        verify(kafkaService).sendCreateOrderEvent(1L, event1.getPayload(), EventEncoding.JSON);
+        verify(kafkaService).sendCreateOrderEvent(2L, event2.getPayload(), EventEncoding.JSON);
+        verify(outboxEventService).markAsSent(List.of(1L, 2L), owner);
+        verify(outboxEventService).recordFailures(List.of(), owner, MAX_RETRY_COUNT);
+        assertThat(meterRegistry.get("outbox.relay.events").tag("outcome", "sent").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("outbox.relay.batch").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should record failed sends with one update, separately from successes")
+    void processOutboxEvents_ShouldRecordFailures_WhenSomeSendsFail() throws Exception {
+        OutboxEvent event1 = createOutboxEvent(1L, 0);
+        OutboxEvent event2 = createOutboxEvent(2L, 4);
+        when(outboxEventService.claimBatch(anyString(), eq(BATCH_SIZE), eq(LEASE)))
+                .thenReturn(List.of(event1, event2))
+                .thenReturn(List.of());
+        when(kafkaService.sendCreateOrderEvent(1L, event1.getPayload(), EventEncoding.JSON))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(kafkaService.sendCreateOrderEvent(2L, event2.getPayload(), EventEncoding.JSON))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("Kafka error")));
+
+        outboxEventScheduler.processOutboxEvents();
+
+        verify(outboxEventService).markAsSent(eq(List.of(1L)), anyString());
+        verify(outboxEventService).recordFailures(eq(List.of(2L)), anyString(), eq(MAX_RETRY_COUNT));
+        assertThat(meterRegistry.get("outbox.relay.events").tag("outcome", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should leave unacknowledged sends for reclaim when the lease runs out")
+    void processOutboxEvents_ShouldLeaveEventsForReclaim_WhenLeaseExpires() throws Exception {
+        outboxEventScheduler = new OutboxEventSchedulerImpl(kafkaService, outboxEventService,
+                meterRegistry, Runnable::run, 1, BATCH_SIZE, Duration.ofMillis(50), MIN_BACKOFF, MAX_BACKOFF);
+        OutboxEvent event = createOutboxEvent(1L, 0);
+        when(outboxEventService.claimBatch(anyString(), eq(BATCH_SIZE), any(Duration.class)))
+                .thenReturn(List.of(event));
+        when(kafkaService.sendCreateOrderEvent(any(), any(byte[].class), eq(EventEncoding.JSON)))
+                .thenReturn(new CompletableFuture<>());
+
+        outboxEventScheduler.processOutboxEvents();
+
+        verify(outboxEventService).markAsSent(eq(List.of()), anyString());
+        verify(outboxEventService).recordFailures(eq(List.of()), anyString(), eq(MAX_RETRY_COUNT));
+        assertThat(meterRegistry.get("outbox.relay.events").tag("outcome", "expired").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep other workers running when one worker fails to claim")
+    void processOutboxEvents_ShouldContinue_WhenClaimFails() throws Exception {
+        OutboxEvent event = createOutboxEvent(1L, 0);
+        when(outboxEventService.claimBatch(anyString(), eq(BATCH_SIZE), eq(LEASE)))
+                .thenThrow(new IllegalStateException("Connection refused"))
+                .thenReturn(List.of(event));
+        when(kafkaService.sendCreateOrderEvent(any(), any(byte[].class), eq(EventEncoding.JSON)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        outboxEventScheduler.processOutboxEvents();
+
+        verify(outboxEventService).markAsSent(eq(List.of(1L)), anyString());
+    }
+
+    @Test
+    @DisplayName("Should report a full batch so the relay keeps draining")
+    void processOutboxEvents_ShouldReturnTrue_WhenBatchIsFull() throws Exception {
+        outboxEventScheduler = new OutboxEventSchedulerImpl(kafkaService, outboxEventService,
+                meterRegistry, Runnable::run, 1, 2, LEASE, MIN_BACKOFF, MAX_BACKOFF);
+        when(outboxEventService.claimBatch(anyString(), eq(2), eq(LEASE)))
+                .thenReturn(List.of(createOutboxEvent(1L, 0), createOutboxEvent(2L, 0)));
+        when(kafkaService.sendCreateOrderEvent(any(), any(byte[].class), eq(EventEncoding.JSON)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThat(outboxEventScheduler.processOutboxEvents()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not report a full batch with failed sends so the relay backs off instead of spinning")
+    void processOutboxEvents_ShouldReturnFalse_WhenFullBatchHasFailures() throws Exception {
+        outboxEventScheduler = new OutboxEventSchedulerImpl(kafkaService, outboxEventService,
+                meterRegistry, Runnable::run, 1, 2, LEASE, MIN_BACKOFF, MAX_BACKOFF);
+        OutboxEvent event1 = createOutboxEvent(1L, 0);
+        OutboxEvent event2 = createOutboxEvent(2L, 0);
+        when(outboxEventService.claimBatch(anyString(), eq(2), eq(LEASE))).thenReturn(List.of(event1, event2));
+        when(kafkaService.sendCreateOrderEvent(1L, event1.getPayload(), EventEncoding.JSON))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(kafkaService.sendCreateOrderEvent(2L, event2.getPayload(), EventEncoding.JSON))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("Broker unavailable")));
+
+        assertThat(outboxEventScheduler.processOutboxEvents()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should drain immediately when woken up instead of waiting for the backoff")
+    void wakeUp_ShouldTriggerDrainWithoutWaitingForBackoff() {
+        outboxEventScheduler = new OutboxEventSchedulerImpl(kafkaService, outboxEventService,
+                meterRegistry, Runnable::run, 1, BATCH_SIZE, LEASE, Duration.ofHours(1), Duration.ofHours(1));
+        when(outboxEventService.claimBatch(anyString(), eq(BATCH_SIZE), eq(LEASE))).thenReturn(List.of());
+
+        outboxEventScheduler.start();
+        try {
+            verify(outboxEventService, timeout(1000).times(1)).claimBatch(anyString(), eq(BATCH_SIZE), eq(LEASE));
+
+            outboxEventScheduler.onOutboxEventSaved(new OutboxEventSavedEvent(1L));
+
+            verify(outboxEventService, timeout(1000).times(2)).claimBatch(anyString(), eq(BATCH_SIZE), eq(LEASE));
+        } finally {
+            outboxEventScheduler.stop();
+        }
+
+        assertThat(outboxEventScheduler.isRunning()).isFalse();
+    }
+
+    private OutboxEvent createOutboxEvent(Long orderId, int retryCount) throws Exception {
+        CreateOrderEvent createOrderEvent = CreateOrderEvent.builder()
+                .orderId(orderId)
+                .userId(1L)
+                .paymentAmount(BigDecimal.valueOf(100.00))
+                .build();
+
+        return OutboxEvent.builder()
+                .id(orderId)
+                .orderId(orderId)
+                .payload(objectMapper.writeValueAsBytes(createOrderEvent))
+                .encoding(EventEncoding.JSON)
+                .retryCount(retryCount)
+                .eventStatus(EventStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+}
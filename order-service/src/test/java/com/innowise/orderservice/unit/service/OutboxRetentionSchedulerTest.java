@@ -0,0 +1,57 @@
+package com.innowise.orderservice.unit.service;
+
+import com.innowise.orderservice.repository.OutboxEventRepository;
+import com.innowise.orderservice.service.impl.OutboxRetentionSchedulerImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRetentionSchedulerTest {
+
+    private static final int DAYS_AHEAD = 3;
+    private static final int RETENTION_DAYS = 7;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private OutboxRetentionSchedulerImpl outboxRetentionScheduler;
+
+    @BeforeEach
+    void setUp() {
+        outboxRetentionScheduler = new OutboxRetentionSchedulerImpl(outboxEventRepository, DAYS_AHEAD, RETENTION_DAYS);
+    }
+
+    @Test
+    @DisplayName("Should create upcoming partitions and drop expired ones")
+    void maintainPartitions_ShouldCreateAndDropPartitions() {
+        when(outboxEventRepository.createPartitions(DAYS_AHEAD)).thenReturn(1);
+        when(outboxEventRepository.dropPartitions(RETENTION_DAYS)).thenReturn(1);
+
+        outboxRetentionScheduler.maintainPartitions();
+
+        verify(outboxEventRepository).createPartitions(DAYS_AHEAD);
+        verify(outboxEventRepository).dropPartitions(RETENTION_DAYS);
+    }
+
+    @Test
+    @DisplayName("Should not propagate failures so the next run can retry")
+    void maintainPartitions_ShouldSwallowFailures() {
+        when(outboxEventRepository.createPartitions(DAYS_AHEAD))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        assertThatCode(() -> outboxRetentionScheduler.maintainPartitions()).doesNotThrowAnyException();
+
+        verify(outboxEventRepository, never()).dropPartitions(RETENTION_DAYS);
+    }
+
+}
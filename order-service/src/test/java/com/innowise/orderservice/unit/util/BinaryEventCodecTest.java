@@ -0,0 +1,131 @@
+package com.innowise.orderservice.unit.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnknownFieldSet;
+import com.innowise.events.EventProtos;
+import com.innowise.orderservice.model.PaymentStatus;
+import com.innowise.orderservice.model.dto.CreateOrderEvent;
+import com.innowise.orderservice.model.dto.CreatePaymentEvent;
+import com.innowise.orderservice.util.BinaryEventCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryEventCodecTest {
+
+    @Test
+    @DisplayName("Should encode a create order event to the shared schema")
+    void encode_CreateOrderEvent_ShouldEncodeSharedSchema() throws Exception {
+        CreateOrderEvent event = CreateOrderEvent.builder()
+                .orderId(123456789L)
+                .userId(42L)
+                .paymentAmount(new BigDecimal("1999.99"))
+                .build();
+
+        EventProtos.CreateOrderEvent message = EventProtos.CreateOrderEvent.parseFrom(BinaryEventCodec.encode(event));
+
+        assertThat(message.getOrderId()).isEqualTo(123456789L);
+        assertThat(message.getUserId()).isEqualTo(42L);
+        assertThat(message.getPaymentAmount().getScale()).isEqualTo(2);
+        assertThat(message.getPaymentAmount().getUnscaledValue().toByteArray())
+                .isEqualTo(new BigDecimal("1999.99").unscaledValue().toByteArray());
+    }
+
+    @Test
+    @DisplayName("Should leave null fields unset")
+    void encode_CreateOrderEventWithNulls_ShouldLeaveFieldsUnset() throws Exception {
+        CreateOrderEvent event = CreateOrderEvent.builder()
+                .orderId(-1L)
+                .build();
+
+        EventProtos.CreateOrderEvent message = EventProtos.CreateOrderEvent.parseFrom(BinaryEventCodec.encode(event));
+
+        assertThat(message.getOrderId()).isEqualTo(-1L);
+        assertThat(message.hasUserId()).isFalse();
+        assertThat(message.hasPaymentAmount()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should encode a create order event several times smaller than JSON")
+    void encode_CreateOrderEvent_ShouldBeSmallerThanJson() throws Exception {
+        CreateOrderEvent event = CreateOrderEvent.builder()
+                .orderId(123456789L)
+                .userId(42L)
+                .paymentAmount(new BigDecimal("1999.99"))
+                .build();
+
+        byte[] json = new ObjectMapper().writeValueAsBytes(event);
+
+        assertThat(BinaryEventCodec.encode(event).length).isLessThan(json.length / 3);
+    }
+
+    @Test
+    @DisplayName("Should decode a create payment event of the shared schema")
+    void decodeCreatePaymentEvent_ShouldDecodeSharedSchema() {
+        byte[] data = EventProtos.CreatePaymentEvent.newBuilder()
+                .setOrderId(7L)
+                .setStatus(EventProtos.PaymentStatus.FAILED)
+                .build()
+                .toByteArray();
+
+        CreatePaymentEvent decoded = BinaryEventCodec.decodeCreatePaymentEvent(data);
+
+        assertThat(decoded.getOrderId()).isEqualTo(7L);
+        assertThat(decoded.getStatus()).isEqualTo(PaymentStatus.FAILED);
+    }
+
+    @Test
+    @DisplayName("Should decode the known fields of an event from a newer schema and skip the rest")
+    void decodeCreatePaymentEvent_WithFieldsOfNewerSchema_ShouldSkipUnknownFields() {
+        byte[] data = EventProtos.CreatePaymentEvent.newBuilder()
+                .setOrderId(7L)
+                .setStatus(EventProtos.PaymentStatus.SUCCESS)
+                .setUnknownFields(UnknownFieldSet.newBuilder()
+                        .addField(3, UnknownFieldSet.Field.newBuilder().addVarint(1_700_000_000L).build())
+                        .addField(4, UnknownFieldSet.Field.newBuilder()
+                                .addLengthDelimited(ByteString.copyFromUtf8("card")).build())
+                        .build())
+                .build()
+                .toByteArray();
+
+        CreatePaymentEvent decoded = BinaryEventCodec.decodeCreatePaymentEvent(data);
+
+        assertThat(decoded.getOrderId()).isEqualTo(7L);
+        assertThat(decoded.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+    }
+
+    @Test
+    @DisplayName("Should reject a truncated event")
+    void decodeCreatePaymentEvent_WithTruncatedData_ShouldThrowIllegalArgumentException() {
+        byte[] data = EventProtos.CreatePaymentEvent.newBuilder()
+                .setOrderId(123456789L)
+                .setStatus(EventProtos.PaymentStatus.SUCCESS)
+                .build()
+                .toByteArray();
+
+        assertThatThrownBy(() -> BinaryEventCodec.decodeCreatePaymentEvent(Arrays.copyOf(data, data.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Malformed");
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown payment status")
+    void decodeCreatePaymentEvent_WithUnknownStatus_ShouldThrowIllegalArgumentException() {
+        byte[] data = EventProtos.CreatePaymentEvent.newBuilder()
+                .setOrderId(1L)
+                .setStatusValue(9)
+                .build()
+                .toByteArray();
+
+        assertThatThrownBy(() -> BinaryEventCodec.decodeCreatePaymentEvent(data))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("payment status");
+    }
+
+}
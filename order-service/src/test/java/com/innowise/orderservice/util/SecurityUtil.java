@@ -1,7 +1,7 @@
 package com.innowise.orderservice.util;
 
+import com.innowise.jwt.verification.RoleEnum;
 import com.innowise.orderservice.model.AuthUser;
-import com.innowise.orderservice.model.RoleEnum;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
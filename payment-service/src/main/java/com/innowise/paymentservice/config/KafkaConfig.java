@@ -1,13 +1,20 @@
 package com.innowise.paymentservice.config;
 
+import com.innowise.kafka.retry.RetryTopicPipeline;
+import com.innowise.paymentservice.model.DeliveryMode;
+import com.innowise.paymentservice.model.EventEncoding;
 import com.innowise.paymentservice.model.dto.CreatePaymentEvent;
 import com.innowise.paymentservice.model.dto.PaymentRequest;
+import com.innowise.paymentservice.util.BinaryEventCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,25 +29,39 @@ import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.KafkaConsumerBackoffManager;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
-import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.backoff.FixedBackOff;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Configuration class for Apache Kafka integration in the Payment Service.
  * <p>
  * This configuration defines:
  * <ul>
- *     <li>Kafka Producer for sending {@link CreatePaymentEvent} messages to the payment-created topic</li>
- *     <li>Kafka Consumer for receiving {@link PaymentRequest} messages from the order-created topic</li>
+ *     <li>Kafka Producer for sending {@link CreatePaymentEvent} messages, pre-serialized by the outbox, to the payment-created topic</li>
+ *     <li>Event encoding negotiated by the {@value #EVENT_ENCODING_HEADER} record header, binary or JSON</li>
+ *     <li>Kafka batch Consumer for receiving {@link PaymentRequest} messages from the order-created topic,
+ *     committing offsets once per polled batch</li>
  *     <li>Producer idempotence and retry configurations for reliable message delivery</li>
- *     <li>Consumer error handling with exponential backoff strategy</li>
+ *     <li>Consumer error handling with non-blocking retry topics delayed by 1s, 10s and 60s before the DLT,
+ *     each consumed by its own consumer group that pauses a partition until its next record is due</li>
+ *     <li>Optional transactional delivery mode, committing consumed offsets and produced payment results atomically</li>
  * </ul>
  * <p>
  */
@@ -49,14 +70,28 @@ import java.util.Map;
 public class KafkaConfig {
 
     public static final String ORDER_CREATED_TOPIC = "order-service.orders.created";
+    public static final String ORDER_CREATED_RETRY_1S_TOPIC = "order-service.orders.created.retry-1s";
+    public static final String ORDER_CREATED_RETRY_10S_TOPIC = "order-service.orders.created.retry-10s";
+    public static final String ORDER_CREATED_RETRY_60S_TOPIC = "order-service.orders.created.retry-60s";
     public static final String ORDER_CREATED_DLT_TOPIC = "order-service.orders.created.DLT";
     public static final String PAYMENT_CREATED_TOPIC = "payment-service.payments.created";
 
+    public static final String EVENT_ENCODING_HEADER = "event-encoding";
+
     public static final String PAYMENT_SERVICE_ORDER_CONSUMER_GROUP = "payment-service-order-events-consumer";
+    public static final String PAYMENT_SERVICE_ORDER_RETRY_1S_CONSUMER_GROUP = "payment-service-order-events-retry-1s-consumer";
+    public static final String PAYMENT_SERVICE_ORDER_RETRY_10S_CONSUMER_GROUP = "payment-service-order-events-retry-10s-consumer";
+    public static final String PAYMENT_SERVICE_ORDER_RETRY_60S_CONSUMER_GROUP = "payment-service-order-events-retry-60s-consumer";
 
     @Value(value = "${spring.kafka.bootstrap-servers}")
     private String bootstrapAddress;
 
+    @Value(value = "${kafka.producer.delivery_mode}")
+    private DeliveryMode deliveryMode;
+
+    @Value(value = "${kafka.producer.transaction_id_prefix}")
+    private String transactionIdPrefix;
+
     @Bean
     public KafkaAdmin kafkaAdmin() {
         Map<String, Object> configs = new HashMap<>();
@@ -73,6 +108,14 @@ public class KafkaConfig {
                 .build();
     }
 
+    @Bean
+    public KafkaAdmin.NewTopics orderRetryTopics() {
+        return new KafkaAdmin.NewTopics(
+                TopicBuilder.name(ORDER_CREATED_RETRY_1S_TOPIC).partitions(3).replicas(1).build(),
+                TopicBuilder.name(ORDER_CREATED_RETRY_10S_TOPIC).partitions(3).replicas(1).build(),
+                TopicBuilder.name(ORDER_CREATED_RETRY_60S_TOPIC).partitions(3).replicas(1).build());
+    }
+
     @Bean
     public NewTopic orderDltTopic() {
         return TopicBuilder.name(ORDER_CREATED_DLT_TOPIC)
@@ -82,16 +125,24 @@ public class KafkaConfig {
     }
 
     @Bean
-    public ProducerFactory<String, CreatePaymentEvent> producerFactory() {
+    public ProducerFactory<String, byte[]> producerFactory() {
         Map<String, Object> props = getCommonProducerProperties();
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
 
         props.put(ProducerConfig.RETRIES_CONFIG, 10);
         props.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 100);
         props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120000);
         props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 30000);
         props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
 
-        return new DefaultKafkaProducerFactory<>(props);
+        DefaultKafkaProducerFactory<String, byte[]> producerFactory = new DefaultKafkaProducerFactory<>(props);
+
+        if (deliveryMode == DeliveryMode.TRANSACTIONAL) {
+            producerFactory.setTransactionIdPrefix(transactionIdPrefix);
+        }
+
+        return producerFactory;
     }
 
     @Bean
@@ -114,9 +165,16 @@ public class KafkaConfig {
         return props;
     }
 
+    /**
+     * Template of the payment-created topic. Outside a listener transaction it sends without one,
+     * so the outbox relay keeps publishing the events stored before the transactional mode was enabled.
+     */
     @Bean
-    public KafkaTemplate<String, CreatePaymentEvent> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, byte[]> kafkaTemplate() {
+        KafkaTemplate<String, byte[]> kafkaTemplate = new KafkaTemplate<>(producerFactory());
+        kafkaTemplate.setAllowNonTransactional(true);
+
+        return kafkaTemplate;
     }
 
     @Bean
@@ -133,25 +191,52 @@ public class KafkaConfig {
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, false);
 
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        JsonDeserializer<PaymentRequest> jsonDeserializer = new JsonDeserializer<>(PaymentRequest.class, false);
+        EventEncodingDeserializer<PaymentRequest> valueDeserializer =
+                new EventEncodingDeserializer<>(jsonDeserializer, BinaryEventCodec::decodePaymentRequest);
 
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, PaymentRequest.class);
+        return new DefaultKafkaConsumerFactory<>(props,
+                new ErrorHandlingDeserializer<>(new StringDeserializer()),
+                new ErrorHandlingDeserializer<>(valueDeserializer));
+    }
+
+    @Bean
+    public RetryTopicPipeline orderRetryTopicPipeline() {
+        LinkedHashMap<String, Duration> retryTopicDelays = new LinkedHashMap<>();
+        retryTopicDelays.put(ORDER_CREATED_RETRY_1S_TOPIC, Duration.ofSeconds(1));
+        retryTopicDelays.put(ORDER_CREATED_RETRY_10S_TOPIC, Duration.ofSeconds(10));
+        retryTopicDelays.put(ORDER_CREATED_RETRY_60S_TOPIC, Duration.ofSeconds(60));
 
-        return new DefaultKafkaConsumerFactory<>(props);
+        return new RetryTopicPipeline(retryTopicDelays, ORDER_CREATED_DLT_TOPIC, Set.of(IllegalArgumentException.class));
     }
 
     @Bean
     public DefaultErrorHandler kafkaErrorHandler() {
+        return new DefaultErrorHandler(deadLetterPublishingRecoverer(), new FixedBackOff(0L, 0L));
+    }
+
+    /**
+     * Rolls back the Kafka transaction of a failed listener call and republishes its records.
+     * A rolled back batch is republished as a whole: the failed record by the retry pipeline,
+     * the other records of the batch to their next retry topic, as they did not fail on their own.
+     * The offsets of the republished records are committed in a new transaction.
+     */
+    @Bean
+    public DefaultAfterRollbackProcessor<String, PaymentRequest> kafkaAfterRollbackProcessor() {
+        return new DefaultAfterRollbackProcessor<>(deadLetterPublishingRecoverer(), new FixedBackOff(0L, 0L),
+                kafkaTemplate(), true);
+    }
+
+    private DeadLetterPublishingRecoverer deadLetterPublishingRecoverer() {
+        RetryTopicPipeline retryTopicPipeline = orderRetryTopicPipeline();
         DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
                 dltKafkaTemplate(),
                 (consumerRecord, exception) -> {
-                    log.error("Message processing failed after all retries. Sending to DLT. " +
+                    TopicPartition destination = resolveDestination(retryTopicPipeline, consumerRecord, exception);
+
+                    log.error("Message processing failed. Republishing to {}. " +
                                     "Topic: {}, Partition: {}, Offset: {}, Key: {}, Error: {}",
+                            destination.topic(),
                             consumerRecord.topic(),
                             consumerRecord.partition(),
                             consumerRecord.offset(),
@@ -159,30 +244,98 @@ public class KafkaConfig {
                             exception.getMessage(),
                             exception);
 
-                    return new TopicPartition(ORDER_CREATED_DLT_TOPIC, consumerRecord.partition());
+                    return destination;
                 });
+        recoverer.setHeadersFunction((consumerRecord, exception) -> republishHeaders(
+                consumerRecord, resolveDestination(retryTopicPipeline, consumerRecord, exception)));
 
-        ExponentialBackOff backOff = new ExponentialBackOff();
-        backOff.setInitialInterval(1000L);
-        backOff.setMultiplier(2.0);
-        backOff.setMaxInterval(10000L);
-        backOff.setMaxElapsedTime(60000L);
+        return recoverer;
+    }
+
+    private static TopicPartition resolveDestination(RetryTopicPipeline retryTopicPipeline,
+                                                     ConsumerRecord<?, ?> consumerRecord,
+                                                     Exception exception) {
+        return isBatchMateOfFailedRecord(consumerRecord, exception)
+                ? retryTopicPipeline.resolveRetryDestination(consumerRecord)
+                : retryTopicPipeline.resolveDestination(consumerRecord, exception);
+    }
+
+    /**
+     * Checks if the record is republished only because another record of its batch failed.
+     */
+    private static boolean isBatchMateOfFailedRecord(ConsumerRecord<?, ?> consumerRecord, Exception exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BatchListenerFailedException batchFailure && batchFailure.getRecord() != null) {
+                ConsumerRecord<?, ?> failedRecord = batchFailure.getRecord();
+
+                return !(failedRecord.topic().equals(consumerRecord.topic())
+                        && failedRecord.partition() == consumerRecord.partition()
+                        && failedRecord.offset() == consumerRecord.offset());
+            }
+        }
+
+        return false;
+    }
 
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
-        errorHandler.addNotRetryableExceptions(IllegalArgumentException.class);
+    /**
+     * Marks a republished record as JSON, since the DLT template re-serializes the deserialized request as JSON,
+     * and a record republished to a retry topic with the time it is due.
+     * Records that failed deserialization are republished with their original bytes and headers.
+     */
+    private Headers republishHeaders(ConsumerRecord<?, ?> consumerRecord, TopicPartition destination) {
+        Headers headers = orderRetryTopicPipeline().retryHeaders(destination);
 
-        return errorHandler;
+        if (consumerRecord.value() != null) {
+            headers.add(EVENT_ENCODING_HEADER, EventEncoding.JSON.name().getBytes(StandardCharsets.UTF_8));
+        }
+
+        return headers;
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, PaymentRequest> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, PaymentRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
-        factory.setCommonErrorHandler(kafkaErrorHandler());
+        configureErrorHandling(factory);
+        factory.getContainerProperties().setMissingTopicsFatal(false);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+
+        return factory;
+    }
+
+    @Bean
+    public KafkaConsumerBackoffManager retryBackoffManager(ListenerContainerRegistry listenerContainerRegistry,
+                                                           TaskScheduler taskScheduler) {
+        return RetryTopicPipeline.partitionPausingBackoffManager(listenerContainerRegistry, taskScheduler);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PaymentRequest> retryKafkaListenerContainerFactory(
+            KafkaConsumerBackoffManager retryBackoffManager) {
+        ConcurrentKafkaListenerContainerFactory<String, PaymentRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        configureErrorHandling(factory);
+        factory.setContainerCustomizer(orderRetryTopicPipeline().backoffCustomizer(retryBackoffManager));
         factory.getContainerProperties().setMissingTopicsFatal(false);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
 
         return factory;
     }
 
+    /**
+     * In the outbox delivery mode failed records are republished by the error handler.
+     * In the transactional mode the container runs every listener call in a Kafka transaction,
+     * so the consumed offsets commit atomically with the produced payment results,
+     * and a failed call is rolled back before its records are republished.
+     */
+    private void configureErrorHandling(ConcurrentKafkaListenerContainerFactory<String, PaymentRequest> factory) {
+        if (deliveryMode == DeliveryMode.TRANSACTIONAL) {
+            factory.getContainerProperties().setKafkaAwareTransactionManager(new KafkaTransactionManager<>(producerFactory()));
+            factory.setAfterRollbackProcessor(kafkaAfterRollbackProcessor());
+        } else {
+            factory.setCommonErrorHandler(kafkaErrorHandler());
+        }
+    }
+
 }
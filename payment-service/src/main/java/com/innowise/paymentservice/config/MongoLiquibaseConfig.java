@@ -12,12 +12,20 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
 
+import java.time.ZoneId;
+
 @Slf4j
 @Configuration
 @EnableMongoAuditing
 @ConditionalOnProperty(name = "spring.liquibase.enabled", havingValue = "true")
 public class MongoLiquibaseConfig {
 
+    /**
+     * Time zone the rollup backfill truncates payment timestamps in. Payments store local date-times
+     * of the JVM zone, so the backfilled buckets line up with the ones the service writes at runtime.
+     */
+    private static final String ROLLUP_TIMEZONE_PARAMETER = "rollup_timezone";
+
     @Value("${spring.data.mongodb.uri}")
     private String mongoUri;
 
@@ -33,6 +41,7 @@ public class MongoLiquibaseConfig {
                 .openDatabase(mongoUri, null, null, null, new ClassLoaderResourceAccessor());
 
         Liquibase liquibase = new Liquibase(changeLog, new ClassLoaderResourceAccessor(), database);
+        liquibase.setChangeLogParameter(ROLLUP_TIMEZONE_PARAMETER, ZoneId.systemDefault().getId());
 
         try {
             liquibase.update("");
@@ -0,0 +1,66 @@
+package com.innowise.paymentservice.config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks how long threads wait to check a connection out of the MongoDB connection pool.
+ * <p>
+ * Keeps the longest wait observed since the last sample, including check-outs that timed out,
+ * so a short spike between two samples is not missed. Also counts the threads currently waiting for a check-out,
+ * which reflects the state of the pool even while no new check-out completes.
+ */
+@Component
+public class MongoPoolWaitTracker implements ConnectionPoolListener {
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        waitingCount.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        waitingCount.decrementAndGet();
+        record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        waitingCount.decrementAndGet();
+        record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Returns the longest check-out wait observed since the previous call and starts a new sample.
+     *
+     * @return The longest wait, or {@link Duration#ZERO} if no connection was checked out.
+     */
+    public Duration sampleMaxWait() {
+        return Duration.ofNanos(maxWaitNanos.getAndSet(0));
+    }
+
+    /**
+     * Returns the number of threads currently waiting to check a connection out of the pool.
+     *
+     * @return The number of waiting threads.
+     */
+    public int getWaitingCount() {
+        return waitingCount.get();
+    }
+
+    private void record(long waitNanos) {
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+}
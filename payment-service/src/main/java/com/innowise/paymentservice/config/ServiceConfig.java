@@ -1,8 +1,12 @@
 package com.innowise.paymentservice.config;
 
+import com.innowise.paymentservice.util.RequestHedger;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -34,4 +38,66 @@ public class ServiceConfig {
         return factory;
     }
 
+    /**
+     * Creates the executor processing consumed Kafka records, one virtual thread per record key group.
+     *
+     * @param workers The maximum number of record key groups processed concurrently.
+     * @return The configured {@link SimpleAsyncTaskExecutor}.
+     */
+    @Bean
+    public SimpleAsyncTaskExecutor recordWorkerExecutor(@Value("${kafka.consumer.workers}") int workers) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("record-worker-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(workers);
+
+        return executor;
+    }
+
+    /**
+     * Creates the executor running background refills of the random number pool on virtual threads.
+     *
+     * @return The configured {@link SimpleAsyncTaskExecutor}.
+     */
+    @Bean
+    public SimpleAsyncTaskExecutor randomNumberRefillExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("random-number-refill-");
+        executor.setVirtualThreads(true);
+
+        return executor;
+    }
+
+    /**
+     * Creates the hedger of random number API calls, running every attempt on its own virtual thread.
+     *
+     * @param meterRegistry The registry of the hedging metrics.
+     * @param enabled Whether slow calls are hedged.
+     * @param percentile The percentile of recent call latencies after which a call is hedged.
+     * @param minDelay The minimum delay before a call is hedged.
+     * @param budget The maximum fraction of calls that may be hedged.
+     * @return The configured {@link RequestHedger}.
+     */
+    @Bean
+    public RequestHedger randomNumberRequestHedger(MeterRegistry meterRegistry,
+                                                   @Value("${services.random-number-api.hedging.enabled}") boolean enabled,
+                                                   @Value("${services.random-number-api.hedging.percentile}") double percentile,
+                                                   @Value("${services.random-number-api.hedging.min_delay}") Duration minDelay,
+                                                   @Value("${services.random-number-api.hedging.budget}") double budget) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("random-number-call-");
+        executor.setVirtualThreads(true);
+
+        return new RequestHedger("random-number-api", executor, meterRegistry, enabled, percentile, minDelay, budget);
+    }
+
+    /**
+     * Registers the {@link MongoPoolWaitTracker} on the MongoDB connection pool.
+     *
+     * @param mongoPoolWaitTracker The tracker of connection check-out wait times.
+     * @return The {@link MongoClientSettingsBuilderCustomizer} adding the tracker as a pool listener.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolWaitTrackerCustomizer(MongoPoolWaitTracker mongoPoolWaitTracker) {
+        return builder -> builder.applyToConnectionPoolSettings(
+                settings -> settings.addConnectionPoolListener(mongoPoolWaitTracker));
+    }
+
 }
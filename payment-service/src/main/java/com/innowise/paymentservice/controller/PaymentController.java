@@ -0,0 +1,127 @@
+package com.innowise.paymentservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.dto.PageableRequest;
+import com.innowise.paymentservice.model.dto.PaymentResponse;
+import com.innowise.paymentservice.service.PaymentService;
+import com.innowise.paymentservice.util.CursorCodec;
+import jakarta.validation.Valid;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static com.innowise.paymentservice.util.CursorCodec.NEXT_CURSOR_HEADER;
+
+/**
+ * REST controller for reading the payment history.
+ * Pages are addressed by keyset cursors; the streaming endpoints write the whole result
+ * as newline-delimited JSON while it is read from the database cursor.
+ */
+@RestController
+@RequestMapping("/api/v1/payments")
+public class PaymentController {
+
+    private static final byte NDJSON_LINE_DELIMITER = '\n';
+
+    private final PaymentService paymentService;
+    private final ObjectWriter paymentWriter;
+
+    public PaymentController(PaymentService paymentService, ObjectMapper objectMapper) {
+        this.paymentService = paymentService;
+        this.paymentWriter = objectMapper.writerFor(PaymentResponse.class);
+    }
+
+    /**
+     * Retrieves a page of the payment history of a user, newest first.
+     * If more payments are available, the {@code X-Next-Cursor} header contains the cursor
+     * to pass as {@code after} to fetch the next page.
+     *
+     * @param userId the user ID
+     * @param pageableRequest the page size and the optional {@code after} cursor
+     * @return ResponseEntity containing the page of payments
+     */
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<List<PaymentResponse>> findByUserId(@PathVariable Long userId, @Valid PageableRequest pageableRequest) {
+        return page(paymentService.findByUserId(userId, pageableRequest));
+    }
+
+    /**
+     * Retrieves a page of the payments with any of the given statuses, newest first.
+     * If more payments are available, the {@code X-Next-Cursor} header contains the cursor
+     * to pass as {@code after} to fetch the next page.
+     *
+     * @param statuses the payment statuses to filter by
+     * @param pageableRequest the page size and the optional {@code after} cursor
+     * @return ResponseEntity containing the page of payments
+     */
+    @GetMapping
+    public ResponseEntity<List<PaymentResponse>> findByStatuses(@RequestParam List<PaymentStatus> statuses, @Valid PageableRequest pageableRequest) {
+        return page(paymentService.findByStatuses(statuses, pageableRequest));
+    }
+
+    /**
+     * Streams the whole payment history of a user, newest first, as newline-delimited JSON.
+     *
+     * @param userId the user ID
+     * @return ResponseEntity streaming one payment per line
+     */
+    @GetMapping(value = "/users/{userId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamByUserId(@PathVariable Long userId) {
+        return ndjson(() -> paymentService.streamByUserId(userId));
+    }
+
+    /**
+     * Streams all payments with any of the given statuses, newest first, as newline-delimited JSON.
+     *
+     * @param statuses the payment statuses to filter by
+     * @return ResponseEntity streaming one payment per line
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamByStatuses(@RequestParam List<PaymentStatus> statuses) {
+        return ndjson(() -> paymentService.streamByStatuses(statuses));
+    }
+
+    private ResponseEntity<List<PaymentResponse>> page(Slice<PaymentResponse> payments) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (payments.hasNext()) {
+            PaymentResponse last = payments.getContent().getLast();
+            response.header(NEXT_CURSOR_HEADER, CursorCodec.encode(last.getTimestamp(), last.getId()));
+        }
+
+        return response.body(payments.getContent());
+    }
+
+    /**
+     * Writes every payment of the stream as one JSON line as soon as it is read, so the response is never
+     * buffered as a whole. The query runs on the async request thread, which also closes its cursor.
+     */
+    private ResponseEntity<StreamingResponseBody> ndjson(Supplier<Stream<PaymentResponse>> query) {
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<PaymentResponse> payments = query.get()) {
+                Iterator<PaymentResponse> iterator = payments.iterator();
+                while (iterator.hasNext()) {
+                    outputStream.write(paymentWriter.writeValueAsBytes(iterator.next()));
+                    outputStream.write(NDJSON_LINE_DELIMITER);
+                }
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.innowise.paymentservice.exception;
+
+import java.io.Serial;
+
+public class InvalidCursorException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = -2291734606386451827L;
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.innowise.paymentservice.exception;
+
+import java.io.Serial;
+
+public class PaymentBulkWriteException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 3918470265123853107L;
+
+    private final int index;
+
+    public PaymentBulkWriteException(String message, int index, Throwable cause) {
+        super(message, cause);
+        this.index = index;
+    }
+
+    /**
+     * Returns the index, within the written batch, of the first payment that failed to be written.
+     *
+     * @return The index of the failed payment.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+}
@@ -0,0 +1,6 @@
+package com.innowise.paymentservice.model;
+
+public enum DeliveryMode {
+    OUTBOX,
+    TRANSACTIONAL
+}
@@ -0,0 +1,6 @@
+package com.innowise.paymentservice.model;
+
+public enum OutboxRelayMode {
+    POLLING,
+    CHANGE_STREAM
+}
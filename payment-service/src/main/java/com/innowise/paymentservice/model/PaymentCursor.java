@@ -0,0 +1,22 @@
+package com.innowise.paymentservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+
+/**
+ * The keyset of the last payment of a history page: the next page starts right after it
+ * in the timestamp and ID order.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PaymentCursor {
+
+    private final LocalDateTime timestamp;
+    private final ObjectId id;
+
+}
@@ -0,0 +1,6 @@
+package com.innowise.paymentservice.model;
+
+public enum WriteMode {
+    PER_RECORD,
+    BULK
+}
@@ -1,34 +1,31 @@
 package com.innowise.paymentservice.model.document;
 
+import com.innowise.paymentservice.model.EventEncoding;
 import com.innowise.paymentservice.model.EventStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.bson.types.ObjectId;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.LocalDateTime;
 
+/**
+ * Outbox event embedded in the {@link Payment} document it is published for,
+ * so the payment and its event are written atomically by a single insert.
+ */
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
-@Document(collection = "outbox_events")
 public class OutboxEvent {
 
-    @Id
-    private ObjectId id;
+    private byte[] payload;
 
-    @Field("order_id")
-    private Long orderId;
-
-    private String payload;
+    @Builder.Default
+    private EventEncoding encoding = EventEncoding.JSON;
 
     @Builder.Default
     @Field("retry_count")
@@ -37,8 +34,13 @@ public class OutboxEvent {
     @Field("event_status")
     private EventStatus eventStatus;
 
-    @CreatedDate
-    @Field("created_at")
-    private LocalDateTime createdAt;
+    @Field("locked_by")
+    private String lockedBy;
+
+    @Field("locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Field("sent_at")
+    private LocalDateTime sentAt;
 
 }
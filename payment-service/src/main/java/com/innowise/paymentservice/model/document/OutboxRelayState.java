@@ -0,0 +1,42 @@
+package com.innowise.paymentservice.model.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of the outbox change stream relay, so it resumes the stream where it stopped after a restart,
+ * and the lease of the single instance running it.
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Document(collection = "outbox_relay_state")
+public class OutboxRelayState {
+
+    @Id
+    private String id;
+
+    @Field("resume_token")
+    private String resumeToken;
+
+    private String owner;
+
+    @Field("lease_until")
+    private LocalDateTime leaseUntil;
+
+    @LastModifiedDate
+    @Field("updated_at")
+    private LocalDateTime updatedAt;
+
+}
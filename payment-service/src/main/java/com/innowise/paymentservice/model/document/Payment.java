@@ -9,6 +9,7 @@ import lombok.Setter;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -23,6 +24,7 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Document(collection = "payments")
+@CompoundIndex(name = "idx_payments_user_timestamp", def = "{ 'user_id': 1, 'timestamp': -1, '_id': -1 }")
 public class Payment {
 
     @Id
@@ -32,7 +34,6 @@ public class Payment {
     @Field("order_id")
     private Long orderId;
 
-    @Indexed
     @Field("user_id")
     private Long userId;
 
@@ -44,4 +45,6 @@ public class Payment {
     @Field(value = "payment_amount", targetType = FieldType.DECIMAL128)
     private BigDecimal paymentAmount;
 
+    private OutboxEvent outbox;
+
 }
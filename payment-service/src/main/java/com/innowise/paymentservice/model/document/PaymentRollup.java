@@ -0,0 +1,46 @@
+package com.innowise.paymentservice.model.document;
+
+import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.RollupGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Total amount and count of the payments with one status created within one minute, hour or day.
+ * Buckets are created and incremented by upserts, so concurrent writers never overwrite each other.
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Document(collection = "payment_rollups")
+public class PaymentRollup {
+
+    @Id
+    private ObjectId id;
+
+    private RollupGranularity granularity;
+
+    @Field("bucket_start")
+    private LocalDateTime bucketStart;
+
+    private PaymentStatus status;
+
+    @Field(value = "total_amount", targetType = FieldType.DECIMAL128)
+    private BigDecimal totalAmount;
+
+    private Long count;
+
+}
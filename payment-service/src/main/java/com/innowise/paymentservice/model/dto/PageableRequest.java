@@ -0,0 +1,27 @@
+package com.innowise.paymentservice.model.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Builder
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageableRequest {
+
+    @Builder.Default
+    @Max(value = 100, message = "Size cannot be more than 100")
+    @Min(value = 1, message = "Size cannot be less than 1")
+    private Integer size = 20;
+
+    private String after;
+
+}
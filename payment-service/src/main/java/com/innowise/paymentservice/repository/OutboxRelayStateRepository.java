@@ -0,0 +1,70 @@
+package com.innowise.paymentservice.repository;
+
+import com.innowise.paymentservice.model.document.OutboxRelayState;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface OutboxRelayStateRepository extends MongoRepository<OutboxRelayState, String> {
+
+    /**
+     * Leases the relay to the given owner if it is not leased, its lease has expired or the owner already holds it,
+     * in which case the lease is renewed. The check and the update are one atomic document update,
+     * so when several owners race for the relay it is leased to exactly one of them.
+     *
+     * @param id The ID of the relay.
+     * @param owner The identifier of the instance leasing the relay.
+     * @param now The current time, against which the lease is checked.
+     * @param leaseUntil The time until which the relay is leased.
+     * @return The number of updated documents: {@code 1} if the relay is leased to the owner, {@code 0} otherwise.
+     */
+    @Query("""
+        { '_id': ?0,
+          '$or': [ { 'owner': ?1 }, { 'owner': null }, { 'lease_until': { '$lt': ?2 } } ] }
+        """)
+    @Update("{ '$set': { 'owner': ?1, 'lease_until': ?3 } }")
+    long acquireLease(String id, String owner, LocalDateTime now, LocalDateTime leaseUntil);
+
+    /**
+     * Stores the resume token of the relay and renews its lease in a single update,
+     * provided the lease is still held by the given owner.
+     *
+     * @param id The ID of the relay.
+     * @param owner The identifier of the instance holding the lease.
+     * @param resumeToken The resume token of the change stream.
+     * @param now The current time.
+     * @param leaseUntil The time until which the lease is renewed.
+     * @return The number of updated documents: {@code 0} if the lease has been lost.
+     */
+    @Query("{ '_id': ?0, 'owner': ?1 }")
+    @Update("{ '$set': { 'resume_token': ?2, 'updated_at': ?3, 'lease_until': ?4 } }")
+    long saveResumeToken(String id, String owner, String resumeToken, LocalDateTime now, LocalDateTime leaseUntil);
+
+    /**
+     * Removes the resume token of the relay, so its change stream is restarted from now,
+     * provided the lease is still held by the given owner.
+     *
+     * @param id The ID of the relay.
+     * @param owner The identifier of the instance holding the lease.
+     * @return The number of updated documents.
+     */
+    @Query("{ '_id': ?0, 'owner': ?1 }")
+    @Update("{ '$unset': { 'resume_token': '' } }")
+    long clearResumeToken(String id, String owner);
+
+    /**
+     * Releases the lease of the relay held by the given owner, so another instance can take it over at once.
+     *
+     * @param id The ID of the relay.
+     * @param owner The identifier of the instance holding the lease.
+     * @return The number of updated documents.
+     */
+    @Query("{ '_id': ?0, 'owner': ?1 }")
+    @Update("{ '$unset': { 'owner': '', 'lease_until': '' } }")
+    long releaseLease(String id, String owner);
+
+}
@@ -4,13 +4,19 @@ import com.innowise.paymentservice.model.PaymentStatus;
 import com.innowise.paymentservice.model.document.Payment;
 import com.innowise.paymentservice.model.projection.TotalAmountProjection;
 import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link Payment} entities in MongoDB.
@@ -52,6 +58,86 @@ public interface PaymentRepository extends MongoRepository<Payment, ObjectId> {
      */
     List<Payment> findByStatusIn(List<PaymentStatus> statuses);
 
+    /**
+     * Retrieves the first page of the payment history of a specific user, without their outbox events.
+     * Payments are ordered by the {@link Pageable} sort, newest first by timestamp and ID.
+     *
+     * @param userId The user ID to search for.
+     * @param pageable Pagination parameters with the page size and the history order.
+     * @return A {@link Slice} of payments made by the user.
+     */
+    @Query(value = "{ 'user_id': ?0 }", fields = "{ 'outbox': 0 }")
+    Slice<Payment> findHistoryByUserId(Long userId, Pageable pageable);
+
+    /**
+     * Retrieves the page of the payment history of a specific user that follows the given keyset,
+     * without their outbox events. The keyset is the timestamp and ID of the last payment of the previous page,
+     * so the page is read from the {@code (user_id, timestamp, _id)} index without skipping any document.
+     *
+     * @param userId The user ID to search for.
+     * @param timestamp The timestamp of the last payment of the previous page.
+     * @param id The ID of the last payment of the previous page.
+     * @param pageable Pagination parameters with the page size and the history order.
+     * @return A {@link Slice} of payments made by the user before the keyset.
+     */
+    @Query(value = """
+        { 'user_id': ?0,
+          '$or': [ { 'timestamp': { '$lt': ?1 } }, { 'timestamp': ?1, '_id': { '$lt': ?2 } } ] }
+        """, fields = "{ 'outbox': 0 }")
+    Slice<Payment> findHistoryByUserIdAfter(Long userId, LocalDateTime timestamp, ObjectId id, Pageable pageable);
+
+    /**
+     * Retrieves the first page of the payments that match any of the provided statuses, without their outbox events.
+     * Payments are ordered by the {@link Pageable} sort, newest first by timestamp and ID.
+     *
+     * @param statuses The list of payment statuses to filter by.
+     * @param pageable Pagination parameters with the page size and the history order.
+     * @return A {@link Slice} of payments matching any of the provided statuses.
+     */
+    @Query(value = "{ 'status': { '$in': ?0 } }", fields = "{ 'outbox': 0 }")
+    Slice<Payment> findHistoryByStatusIn(List<PaymentStatus> statuses, Pageable pageable);
+
+    /**
+     * Retrieves the page of the payments that match any of the provided statuses that follows the given keyset,
+     * without their outbox events. The keyset is the timestamp and ID of the last payment of the previous page,
+     * so the page is read from the {@code (status, timestamp, _id)} index without skipping any document.
+     *
+     * @param statuses The list of payment statuses to filter by.
+     * @param timestamp The timestamp of the last payment of the previous page.
+     * @param id The ID of the last payment of the previous page.
+     * @param pageable Pagination parameters with the page size and the history order.
+     * @return A {@link Slice} of payments matching any of the provided statuses before the keyset.
+     */
+    @Query(value = """
+        { 'status': { '$in': ?0 },
+          '$or': [ { 'timestamp': { '$lt': ?1 } }, { 'timestamp': ?1, '_id': { '$lt': ?2 } } ] }
+        """, fields = "{ 'outbox': 0 }")
+    Slice<Payment> findHistoryByStatusInAfter(List<PaymentStatus> statuses, LocalDateTime timestamp, ObjectId id, Pageable pageable);
+
+    /**
+     * Streams the whole payment history of a specific user from a cursor, newest first, without their outbox events.
+     * Documents are fetched in batches as the stream is consumed, so the history is never held in memory.
+     * The returned stream must be closed to release the cursor.
+     *
+     * @param userId The user ID to search for.
+     * @return A {@link Stream} of payments made by the user.
+     */
+    @Meta(cursorBatchSize = 500)
+    @Query(value = "{ 'user_id': ?0 }", fields = "{ 'outbox': 0 }", sort = "{ 'timestamp': -1, '_id': -1 }")
+    Stream<Payment> streamHistoryByUserId(Long userId);
+
+    /**
+     * Streams all payments that match any of the provided statuses from a cursor, newest first,
+     * without their outbox events. Documents are fetched in batches as the stream is consumed,
+     * so the result is never held in memory. The returned stream must be closed to release the cursor.
+     *
+     * @param statuses The list of payment statuses to filter by.
+     * @return A {@link Stream} of payments matching any of the provided statuses.
+     */
+    @Meta(cursorBatchSize = 500)
+    @Query(value = "{ 'status': { '$in': ?0 } }", fields = "{ 'outbox': 0 }", sort = "{ 'timestamp': -1, '_id': -1 }")
+    Stream<Payment> streamHistoryByStatusIn(List<PaymentStatus> statuses);
+
     /**
      * Calculates the total amount of all payments within a specified time range.
      *
@@ -65,6 +151,83 @@ public interface PaymentRepository extends MongoRepository<Payment, ObjectId> {
     })
     Optional<TotalAmountProjection> findTotalAmount(LocalDateTime from, LocalDateTime to);
 
+    /**
+     * Calculates the total amount of the payments within the two edges of a time range
+     * that are not covered by rollup buckets.
+     *
+     * @param headFrom The start of the leading edge (inclusive).
+     * @param headTo The end of the leading edge (exclusive).
+     * @param tailFrom The start of the trailing edge (inclusive).
+     * @param tailTo The end of the trailing edge (inclusive).
+     * @return An {@link Optional} containing the total amount projection, empty if no payments found in the edges.
+     */
+    @Aggregation(pipeline = {
+            "{ $match: { $or: [ { timestamp: { $gte: ?0, $lt: ?1 } }, { timestamp: { $gte: ?2, $lte: ?3 } } ] } }",
+            "{ $group: { _id: null, total: { $sum: '$payment_amount' } } }"
+    })
+    Optional<TotalAmountProjection> findTotalAmountAtEdges(LocalDateTime headFrom,
+                                                           LocalDateTime headTo,
+                                                           LocalDateTime tailFrom,
+                                                           LocalDateTime tailTo);
+
+    /**
+     * Recomputes the rollup buckets of the payments created within {@code [from, to)} from the payments themselves
+     * and replaces the stored buckets with them, so increments lost by a failed rollup write are restored.
+     * Only closed buckets are rewritten: every minute bucket, the hour buckets starting before {@code hourEnd}
+     * and the day buckets starting before {@code dayEnd}.
+     *
+     * @param from The start of the recomputed range, aligned to a day (inclusive).
+     * @param to The end of the recomputed range, aligned to a minute (exclusive).
+     * @param hourEnd The end of the last closed hour bucket, {@code to} truncated to hours.
+     * @param dayEnd The end of the last closed day bucket, {@code to} truncated to days.
+     * @param timezone The time zone the buckets are aligned in, matching the stored local times.
+     */
+    @Aggregation(pipeline = {
+            "{ $match: { timestamp: { $gte: ?0, $lt: ?1 } } }",
+            """
+            { $project: {
+                status: 1,
+                payment_amount: 1,
+                buckets: [
+                    { granularity: 'MINUTE', bucket_start: { $dateTrunc: { date: '$timestamp', unit: 'minute', timezone: ?4 } } },
+                    { granularity: 'HOUR', bucket_start: { $dateTrunc: { date: '$timestamp', unit: 'hour', timezone: ?4 } } },
+                    { granularity: 'DAY', bucket_start: { $dateTrunc: { date: '$timestamp', unit: 'day', timezone: ?4 } } }
+                ]
+            } }
+            """,
+            "{ $unwind: '$buckets' }",
+            """
+            { $match: { $or: [
+                { 'buckets.granularity': 'MINUTE' },
+                { 'buckets.granularity': 'HOUR', 'buckets.bucket_start': { $lt: ?2 } },
+                { 'buckets.granularity': 'DAY', 'buckets.bucket_start': { $lt: ?3 } }
+            ] } }
+            """,
+            """
+            { $group: {
+                _id: { granularity: '$buckets.granularity', bucket_start: '$buckets.bucket_start', status: '$status' },
+                total_amount: { $sum: '$payment_amount' },
+                count: { $sum: { $toLong: 1 } }
+            } }
+            """,
+            """
+            { $project: {
+                _id: 0,
+                granularity: '$_id.granularity',
+                bucket_start: '$_id.bucket_start',
+                status: '$_id.status',
+                total_amount: 1,
+                count: 1
+            } }
+            """,
+            """
+            { $merge: { into: 'payment_rollups', on: ['granularity', 'bucket_start', 'status'],
+                        whenMatched: 'replace', whenNotMatched: 'insert' } }
+            """
+    })
+    void reconcileRollups(LocalDateTime from, LocalDateTime to, LocalDateTime hourEnd, LocalDateTime dayEnd,
+                          String timezone);
+
     /**
      * Checks if a payment exists for the specified order.
      *
@@ -73,4 +236,95 @@ public interface PaymentRepository extends MongoRepository<Payment, ObjectId> {
      */
     boolean existsByOrderId(Long id);
 
+    /**
+     * Retrieves the IDs of the oldest payments created before the given time whose outbox event can be claimed:
+     * still pending and either never leased or with an expired lease.
+     *
+     * @param createdBefore The creation time before which payments are retrieved (exclusive).
+     * @param now The current time, against which leases are checked.
+     * @param pageable Pagination parameters to limit the number of results.
+     * @return A {@link List} of payments with only their ID populated.
+     */
+    @Query(value = """
+        { 'outbox.event_status': 'PENDING', 'timestamp': { '$lt': ?0 },
+          '$or': [ { 'outbox.locked_until': null }, { 'outbox.locked_until': { '$lt': ?1 } } ] }
+        """, fields = "{ '_id': 1 }", sort = "{ 'timestamp': 1 }")
+    List<Payment> findClaimableOutboxEvents(LocalDateTime createdBefore, LocalDateTime now, Pageable pageable);
+
+    /**
+     * Leases the outbox events of the given payments to the given owner in a single update.
+     * <p>
+     * The claimability check is repeated in the filter, and each document is updated atomically,
+     * so when several owners race for the same events each event is leased to exactly one of them.
+     *
+     * @param ids The IDs of the payments.
+     * @param owner The identifier of the claiming relay.
+     * @param now The current time, against which leases are checked.
+     * @param lockedUntil The time until which the events are leased.
+     * @return The number of leased documents.
+     */
+    @Query("""
+        { '_id': { '$in': ?0 }, 'outbox.event_status': 'PENDING',
+          '$or': [ { 'outbox.locked_until': null }, { 'outbox.locked_until': { '$lt': ?2 } } ] }
+        """)
+    @Update("{ '$set': { 'outbox.locked_by': ?1, 'outbox.locked_until': ?3 } }")
+    long leaseOutboxEvents(List<ObjectId> ids, String owner, LocalDateTime now, LocalDateTime lockedUntil);
+
+    /**
+     * Retrieves the payments among the given ones whose outbox event is leased to the given owner.
+     *
+     * @param ids The IDs of the payments.
+     * @param owner The identifier of the relay holding the leases.
+     * @return A {@link List} of payments leased to the owner, oldest first.
+     */
+    @Query(value = "{ '_id': { '$in': ?0 }, 'outbox.event_status': 'PENDING', 'outbox.locked_by': ?1 }",
+            sort = "{ 'timestamp': 1 }")
+    List<Payment> findLeasedOutboxEvents(List<ObjectId> ids, String owner);
+
+    /**
+     * Marks the leased outbox events of the given payments as sent and releases their leases in a single update.
+     * Events whose lease is no longer held by the given owner are left untouched.
+     *
+     * @param ids The IDs of the payments.
+     * @param owner The identifier of the relay holding the leases.
+     * @param sentAt The time the events were acknowledged by the broker.
+     * @return The number of updated documents.
+     */
+    @Query("{ '_id': { '$in': ?0 }, 'outbox.locked_by': ?1 }")
+    @Update("""
+        { '$set': { 'outbox.event_status': 'SENT', 'outbox.sent_at': ?2 },
+          '$unset': { 'outbox.locked_by': '', 'outbox.locked_until': '' } }
+        """)
+    long markOutboxEventsAsSent(List<ObjectId> ids, String owner, LocalDateTime sentAt);
+
+    /**
+     * Records a failed publish attempt of the leased outbox events of the given payments
+     * and releases their leases in a single update.
+     * Events reaching {@code maxRetryCount} are moved to {@code FAILED}, the others stay {@code PENDING}.
+     * Events whose lease is no longer held by the given owner are left untouched.
+     *
+     * @param ids The IDs of the payments.
+     * @param owner The identifier of the relay holding the leases.
+     * @param maxRetryCount The retry count at which an event is given up.
+     * @return The number of updated documents.
+     */
+    @Query("{ '_id': { '$in': ?0 }, 'outbox.locked_by': ?1 }")
+    @Update(pipeline = {"""
+        { '$set': {
+            'outbox.retry_count': { '$add': ['$outbox.retry_count', 1] },
+            'outbox.event_status': { '$cond': [{ '$gte': [{ '$add': ['$outbox.retry_count', 1] }, ?2] }, 'FAILED', 'PENDING'] }
+        } }
+        """, "{ '$unset': ['outbox.locked_by', 'outbox.locked_until'] }"})
+    long recordOutboxEventFailures(List<ObjectId> ids, String owner, int maxRetryCount);
+
+    /**
+     * Removes the outbox events sent before the given time from their payment documents in a single update.
+     *
+     * @param sentBefore The time before which sent events are removed (exclusive).
+     * @return The number of updated documents.
+     */
+    @Query("{ 'outbox.event_status': 'SENT', 'outbox.sent_at': { '$lt': ?0 } }")
+    @Update("{ '$unset': { 'outbox': '' } }")
+    long removeSentOutboxEvents(LocalDateTime sentBefore);
+
 }
\ No newline at end of file
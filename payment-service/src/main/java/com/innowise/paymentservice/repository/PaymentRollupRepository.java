@@ -0,0 +1,48 @@
+package com.innowise.paymentservice.repository;
+
+import com.innowise.paymentservice.model.document.PaymentRollup;
+import com.innowise.paymentservice.model.projection.TotalAmountProjection;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface PaymentRollupRepository extends MongoRepository<PaymentRollup, ObjectId> {
+
+    /**
+     * Calculates the total amount of the rollup buckets covering {@code [start, end)}, using minute buckets
+     * for {@code [start, hourStart)} and {@code [hourEnd, end)}, hour buckets for {@code [hourStart, dayStart)}
+     * and {@code [dayEnd, hourEnd)}, and day buckets for {@code [dayStart, dayEnd)}.
+     *
+     * @param start The start of the covered range, aligned to a minute (inclusive).
+     * @param hourStart The first hour boundary of the range.
+     * @param dayStart The first day boundary of the range.
+     * @param dayEnd The last day boundary of the range.
+     * @param hourEnd The last hour boundary of the range.
+     * @param end The end of the covered range, aligned to a minute (exclusive).
+     * @return An {@link Optional} containing the total amount projection, empty if no bucket found in range.
+     */
+    @Aggregation(pipeline = {
+            """
+            { $match: { $or: [
+                { granularity: 'MINUTE', bucket_start: { $gte: ?0, $lt: ?1 } },
+                { granularity: 'HOUR', bucket_start: { $gte: ?1, $lt: ?2 } },
+                { granularity: 'DAY', bucket_start: { $gte: ?2, $lt: ?3 } },
+                { granularity: 'HOUR', bucket_start: { $gte: ?3, $lt: ?4 } },
+                { granularity: 'MINUTE', bucket_start: { $gte: ?4, $lt: ?5 } }
+            ] } }
+            """,
+            "{ $group: { _id: null, total: { $sum: '$total_amount' } } }"
+    })
+    Optional<TotalAmountProjection> findTotalAmount(LocalDateTime start,
+                                                    LocalDateTime hourStart,
+                                                    LocalDateTime dayStart,
+                                                    LocalDateTime dayEnd,
+                                                    LocalDateTime hourEnd,
+                                                    LocalDateTime end);
+
+}
@@ -0,0 +1,21 @@
+package com.innowise.paymentservice.service;
+
+/**
+ * Controller pausing the Kafka listener containers while the downstream systems they depend on are saturated.
+ */
+public interface ConsumerBackpressureController {
+
+    /**
+     * Samples the MongoDB connection pool and the random number API circuit breaker
+     * and pauses or resumes the listener containers accordingly.
+     */
+    void checkDownstream();
+
+    /**
+     * Checks if the listener containers are currently paused by the controller.
+     *
+     * @return {@code true} if the listener containers are paused, {@code false} otherwise.
+     */
+    boolean isPaused();
+
+}
@@ -1,16 +1,37 @@
 package com.innowise.paymentservice.service;
 
+import com.innowise.paymentservice.model.EventEncoding;
 import com.innowise.paymentservice.model.dto.CreatePaymentEvent;
 import com.innowise.paymentservice.model.dto.PaymentRequest;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service interface for Kafka message operations in Payment Service.
  */
 public interface KafkaService {
 
+    /**
+     * Consumes a batch of CREATE_ORDER events from Kafka topic and creates the corresponding payments.
+     * Events with different keys are processed in parallel, events with the same key (order ID) in order.
+     * With the {@link com.innowise.paymentservice.model.WriteMode#BULK} write mode only the payment decisions
+     * are made that way, and the payments of the whole batch are then written with one unordered bulk insert.
+     * In the {@link com.innowise.paymentservice.model.DeliveryMode#TRANSACTIONAL} delivery mode the payment results
+     * are produced directly, in the Kafka transaction that also commits the consumed offsets, instead of via the outbox.
+     *
+     * @param consumerRecords The Kafka {@link ConsumerRecord}s containing {@link PaymentRequest} with order details.
+     * @throws org.springframework.kafka.listener.BatchListenerFailedException if processing of an event fails.
+     */
+    void consumeCreateOrderEvents(List<ConsumerRecord<String, PaymentRequest>> consumerRecords);
+
     /**
      * Consumes CREATE_ORDER event from Kafka topic and creates a corresponding payment.
+     * Also consumes the events republished to the retry topics once their tier delay has passed.
+     * In the {@link com.innowise.paymentservice.model.DeliveryMode#TRANSACTIONAL} delivery mode the payment result
+     * is produced directly, in the Kafka transaction of the consumed record.
      *
      * @param consumerRecord The Kafka {@link ConsumerRecord} containing {@link PaymentRequest} with order details.
      */
@@ -18,9 +39,14 @@ public interface KafkaService {
 
     /**
      * Sends CREATE_PAYMENT event to Kafka topic for Order Service to process.
+     * Does not block, so the producer can batch events sent in quick succession.
      *
-     * @param event The {@link CreatePaymentEvent} containing payment information.
+     * @param orderId The ID of the order, used as the record key.
+     * @param payload The {@link CreatePaymentEvent} already serialized to its wire bytes.
+     * @param encoding The {@link EventEncoding} of the payload, announced in the record header.
+     * @return A future completed when the broker acknowledges the event,
+     * or completed exceptionally with a {@link org.springframework.kafka.KafkaException} if sending fails.
      */
-    void sendCreatePaymentEvent(CreatePaymentEvent event);
+    CompletableFuture<SendResult<String, byte[]>> sendCreatePaymentEvent(Long orderId, byte[] payload, EventEncoding encoding);
 
 }
@@ -0,0 +1,21 @@
+package com.innowise.paymentservice.service;
+
+/**
+ * Relay publishing outbox events as soon as their payments are inserted, by tailing a MongoDB change stream.
+ */
+public interface OutboxChangeStreamRelay {
+
+    /**
+     * Tails the change stream of payment inserts with a pending outbox event and publishes them
+     * until the relay is stopped, reopening the stream from the last stored resume token after a failure.
+     */
+    void relay();
+
+    /**
+     * Checks if the relay is currently tailing the change stream.
+     *
+     * @return {@code true} if the relay is running, {@code false} otherwise.
+     */
+    boolean isRunning();
+
+}
@@ -1,5 +1,10 @@
 package com.innowise.paymentservice.service;
 
+import com.innowise.paymentservice.model.document.Payment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Scheduler service for processing pending Outbox Events.
  * Publishes events to Kafka.
@@ -11,4 +16,21 @@ public interface OutboxEventScheduler {
      */
     void processOutboxEvents();
 
+    /**
+     * Claims and publishes the pending outbox events created before the given time, batch by batch,
+     * until none is left or a whole batch fails to publish.
+     *
+     * @param createdBefore The creation time before which pending events are published.
+     */
+    void catchUp(LocalDateTime createdBefore);
+
+    /**
+     * Claims the outbox events of the given payments, publishes those claimed by this instance
+     * and records the outcome.
+     *
+     * @param payments The payments whose outbox events are published.
+     * @return The number of events acknowledged by the broker.
+     */
+    int publish(List<Payment> payments);
+
 }
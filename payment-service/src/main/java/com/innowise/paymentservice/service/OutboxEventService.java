@@ -1,31 +1,81 @@
 package com.innowise.paymentservice.service;
 
+import com.innowise.paymentservice.model.document.OutboxEvent;
+import com.innowise.paymentservice.model.document.Payment;
 import com.innowise.paymentservice.model.dto.CreatePaymentEvent;
+import org.bson.types.ObjectId;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Service interface for managing Outbox Event operations.
  * <p>
- * Events are stored with {@code PENDING} status and later processed by
+ * Events are embedded in their payment document with {@code PENDING} status and later processed by
  * {@link OutboxEventScheduler} which attempts to publish them to Kafka.
  * </p>
  */
 public interface OutboxEventService {
 
     /**
-     * Saves a payment event to the outbox table with PENDING status.
+     * Creates a pending outbox event for a payment event, to be embedded in the payment document.
+     * The event is stored as its final wire bytes, so the relay can publish it without re-serializing.
      *
-     * @param event the payment event to be saved and eventually published
+     * @param event the payment event to be published
+     * @return the pending {@link OutboxEvent}
      * @throws com.innowise.paymentservice.exception.OutboxEventSerializationException
      *         if event serialization fails
      */
-    void save(CreatePaymentEvent event);
+    OutboxEvent create(CreatePaymentEvent event);
+
+    /**
+     * Claims up to {@code batchSize} of the oldest claimable outbox events created before the given time.
+     * Claimed events stay {@code PENDING} but are leased to the owner, so concurrent relays receive disjoint
+     * batches; an event whose lease has expired is claimable again.
+     *
+     * @param owner         the identifier of the claiming relay
+     * @param createdBefore the creation time before which events are claimed
+     * @param batchSize     the maximum number of events to claim
+     * @param lease         the lease duration
+     * @return the payments whose outbox events were claimed, oldest first
+     */
+    List<Payment> claimBatch(String owner, LocalDateTime createdBefore, int batchSize, Duration lease);
+
+    /**
+     * Claims the outbox events of the given payments that are still claimable.
+     *
+     * @param ids   the IDs of the payments
+     * @param owner the identifier of the claiming relay
+     * @param lease the lease duration
+     * @return the payments whose outbox events were claimed, oldest first
+     */
+    List<Payment> claim(List<ObjectId> ids, String owner, Duration lease);
+
+    /**
+     * Marks the claimed outbox events of the given payments as sent and releases their leases.
+     *
+     * @param ids   the IDs of the payments whose events were published
+     * @param owner the identifier of the relay holding the leases
+     */
+    void markAsSent(List<ObjectId> ids, String owner);
+
+    /**
+     * Records a failed publish attempt of the claimed outbox events of the given payments and releases their leases.
+     * Events reaching {@code maxRetryCount} are moved to {@code FAILED}.
+     *
+     * @param ids           the IDs of the payments whose events failed to publish
+     * @param owner         the identifier of the relay holding the leases
+     * @param maxRetryCount the retry count at which an event is given up
+     */
+    void recordFailures(List<ObjectId> ids, String owner, int maxRetryCount);
 
     /**
-     * Checks if an outbox event exists for the given order ID.
+     * Removes the outbox events sent longer than the retention period ago from their payment documents.
      *
-     * @param orderId the order identifier to check
-     * @return {@code true} if an outbox event exists for the order, {@code false} otherwise
+     * @param retention the period sent events are kept for
+     * @return the number of removed events
      */
-    boolean existsByOrderId(Long orderId);
+    long removeSent(Duration retention);
 
 }
@@ -0,0 +1,13 @@
+package com.innowise.paymentservice.service;
+
+/**
+ * Scheduler service for removing sent Outbox Events from their payment documents.
+ */
+public interface OutboxRetentionScheduler {
+
+    /**
+     * Removes the outbox events sent longer than the retention period ago.
+     */
+    void removeSentOutboxEvents();
+
+}
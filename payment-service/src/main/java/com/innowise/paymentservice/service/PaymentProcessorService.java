@@ -10,7 +10,7 @@ public interface PaymentProcessorService {
     /**
      * Processes a payment and determines its status.
      * <p>
-     * The method retrieves a random number from an external API and determines
+     * The method takes a random number prefetched from an external API and determines
      * the payment status based on whether the number is even or odd.
      * </p>
      *
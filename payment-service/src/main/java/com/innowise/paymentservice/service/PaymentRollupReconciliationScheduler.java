@@ -0,0 +1,13 @@
+package com.innowise.paymentservice.service;
+
+/**
+ * Scheduler service for correcting the payment rollups against the payments collection.
+ */
+public interface PaymentRollupReconciliationScheduler {
+
+    /**
+     * Recomputes the recently closed rollup buckets from the payments they cover.
+     */
+    void reconcileRollups();
+
+}
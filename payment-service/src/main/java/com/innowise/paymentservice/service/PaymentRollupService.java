@@ -0,0 +1,31 @@
+package com.innowise.paymentservice.service;
+
+import com.innowise.paymentservice.model.document.Payment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service interface for maintaining per-minute, per-hour and per-day payment totals.
+ * Totals over a time range are answered from these rollups instead of scanning the payments collection.
+ */
+public interface PaymentRollupService {
+
+    /**
+     * Adds the given stored payments to the rollup buckets of their creation time and status.
+     *
+     * @param payments The payments that were stored.
+     */
+    void record(List<Payment> payments);
+
+    /**
+     * Calculates the total amount of all payments within a specified time range.
+     *
+     * @param from The start of the time range (inclusive).
+     * @param to The end of the time range (inclusive).
+     * @return The total amount as {@link BigDecimal}.
+     */
+    BigDecimal findTotalAmount(LocalDateTime from, LocalDateTime to);
+
+}
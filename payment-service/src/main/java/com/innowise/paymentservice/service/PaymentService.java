@@ -1,12 +1,16 @@
 package com.innowise.paymentservice.service;
 
 import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.dto.PageableRequest;
 import com.innowise.paymentservice.model.dto.PaymentRequest;
 import com.innowise.paymentservice.model.dto.PaymentResponse;
+import org.springframework.data.domain.Slice;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Service interface for managing payment operations.
@@ -15,13 +19,38 @@ import java.util.List;
 public interface PaymentService {
 
     /**
-     * Creates and saves a new payment based on the provided request.
+     * Creates and saves a new payment based on the provided request, together with its embedded outbox event.
+     * The payment is written by a single insert keyed on the unique order ID, so a redelivered request
+     * is detected by the duplicate key and returns the stored payment instead of writing it again.
      *
      * @param paymentRequest The payment request containing payment details.
-     * @return The created payment as {@link PaymentResponse}.
+     * @return The created or already stored payment as {@link PaymentResponse}.
      */
     PaymentResponse save(PaymentRequest paymentRequest);
 
+    /**
+     * Creates and saves the payments of a batch of already decided requests, each with its embedded outbox event,
+     * with a single unordered bulk insert.
+     * Requests of orders that already have a payment are detected by their duplicate key error and skipped,
+     * without failing the rest of the batch.
+     *
+     * @param paymentRequests The payment requests of the batch.
+     * @param statuses The payment statuses decided for the requests, by order ID.
+     * @throws com.innowise.paymentservice.exception.PaymentBulkWriteException if a payment could not be written
+     * for any other reason, carrying the index of the first such request.
+     */
+    void saveAll(List<PaymentRequest> paymentRequests, Map<Long, PaymentStatus> statuses);
+
+    /**
+     * Creates and saves a new payment unless the order already has one, without an outbox event.
+     * The payment is written by a single insert keyed on the unique order ID, so a redelivered request
+     * is detected by the duplicate key and returns the stored payment.
+     *
+     * @param paymentRequest The payment request containing payment details.
+     * @return The created or already stored payment as {@link PaymentResponse}.
+     */
+    PaymentResponse saveIfAbsent(PaymentRequest paymentRequest);
+
     /**
      * Retrieves all payments associated with a specific order.
      *
@@ -46,6 +75,48 @@ public interface PaymentService {
      */
     List<PaymentResponse> findByStatuses(List<PaymentStatus> statuses);
 
+    /**
+     * Retrieves a page of the payment history of a specific user, newest first.
+     * Pages are addressed by keyset: the {@code after} cursor of the request holds the timestamp and ID
+     * of the last payment of the previous page, so every page costs the same however deep it is.
+     *
+     * @param userId The user ID to search for.
+     * @param pageableRequest The page size and the optional {@code after} cursor.
+     * @return A {@link Slice} of payments made by the user.
+     * @throws com.innowise.paymentservice.exception.InvalidCursorException if the cursor is malformed.
+     */
+    Slice<PaymentResponse> findByUserId(Long userId, PageableRequest pageableRequest);
+
+    /**
+     * Retrieves a page of the payments that match any of the provided statuses, newest first.
+     * Pages are addressed by keyset: the {@code after} cursor of the request holds the timestamp and ID
+     * of the last payment of the previous page, so every page costs the same however deep it is.
+     *
+     * @param statuses The list of payment statuses to filter by.
+     * @param pageableRequest The page size and the optional {@code after} cursor.
+     * @return A {@link Slice} of payments matching any of the provided statuses.
+     * @throws com.innowise.paymentservice.exception.InvalidCursorException if the cursor is malformed.
+     */
+    Slice<PaymentResponse> findByStatuses(List<PaymentStatus> statuses, PageableRequest pageableRequest);
+
+    /**
+     * Streams the whole payment history of a specific user, newest first, from a database cursor.
+     * The returned stream must be closed to release the cursor.
+     *
+     * @param userId The user ID to search for.
+     * @return A {@link Stream} of payments made by the user.
+     */
+    Stream<PaymentResponse> streamByUserId(Long userId);
+
+    /**
+     * Streams all payments that match any of the provided statuses, newest first, from a database cursor.
+     * The returned stream must be closed to release the cursor.
+     *
+     * @param statuses The list of payment statuses to filter by.
+     * @return A {@link Stream} of payments matching any of the provided statuses.
+     */
+    Stream<PaymentResponse> streamByStatuses(List<PaymentStatus> statuses);
+
     /**
      * Calculates the total amount of all payments within a specified time range.
      *
@@ -0,0 +1,39 @@
+package com.innowise.paymentservice.service;
+
+import com.innowise.paymentservice.model.PaymentStatus;
+
+import java.util.Optional;
+
+/**
+ * In-memory record of the orders whose payment is known to be stored, used to short-circuit
+ * replayed order events before they reach the database.
+ */
+public interface ProcessedOrderFilter {
+
+    /**
+     * Looks up the stored payment status of an order.
+     * <p>
+     * A hit is exact: an order is only recorded once its payment is stored, so the event can be skipped.
+     * A miss only means the order is not among the recently processed ones, and the event must take
+     * the idempotent write path.
+     * </p>
+     *
+     * @param orderId The order ID to look up.
+     * @return The status of the stored payment, or empty if the order is not known to be processed.
+     */
+    Optional<PaymentStatus> findStatus(Long orderId);
+
+    /**
+     * Records an order whose payment is stored, evicting the least recently used order when full.
+     *
+     * @param orderId The order ID of the stored payment.
+     * @param status The status of the stored payment.
+     */
+    void record(Long orderId, PaymentStatus status);
+
+    /**
+     * Fills the filter with the most recently created payments.
+     */
+    void warmUp();
+
+}
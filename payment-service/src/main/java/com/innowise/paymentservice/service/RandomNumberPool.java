@@ -0,0 +1,24 @@
+package com.innowise.paymentservice.service;
+
+/**
+ * Pool of random numbers prefetched from the external API, so payment decisions do not wait on an HTTP call.
+ */
+public interface RandomNumberPool {
+
+    /**
+     * Takes the next random number from the pool.
+     * <p>
+     * Falls back to a direct call to the external API when the pool is empty.
+     * </p>
+     *
+     * @return A random {@link Long} value.
+     */
+    long take();
+
+    /**
+     * Starts a background refill of the pool if it holds fewer numbers than the low watermark
+     * and no refill is already running.
+     */
+    void refillIfNeeded();
+
+}
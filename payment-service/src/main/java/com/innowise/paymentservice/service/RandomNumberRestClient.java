@@ -1,5 +1,7 @@
 package com.innowise.paymentservice.service;
 
+import java.util.List;
+
 /**
  * Client interface for retrieving random numbers from an external REST API.
  * Provides methods to fetch random number values for payment processing.
@@ -13,4 +15,12 @@ public interface RandomNumberRestClient {
      */
     Long getRandomNumber();
 
+    /**
+     * Retrieves a batch of random numbers from the external API in a single request.
+     *
+     * @param count The number of random numbers to request.
+     * @return The random {@link Long} values returned by the API, or an empty list if the API is unavailable.
+     */
+    List<Long> getRandomNumbers(int count);
+
 }
@@ -0,0 +1,104 @@
+package com.innowise.paymentservice.service.impl;
+
+import com.innowise.paymentservice.config.MongoPoolWaitTracker;
+import com.innowise.paymentservice.service.ConsumerBackpressureController;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Pauses the Kafka listener containers while MongoDB connection check-outs wait longer than
+ * {@code kafka.consumer.backpressure.pause_pool_wait} or the random number API circuit breaker is open,
+ * and resumes them once the circuit breaker lets calls through again, no thread is waiting for a connection and
+ * the wait is back under {@code kafka.consumer.backpressure.resume_pool_wait}, for
+ * {@code kafka.consumer.backpressure.resume_checks} consecutive checks.
+ * <p>
+ * Paused listeners stop most check-outs, so a single quiet sample says little about the pool: the live count of
+ * waiting threads is checked as well, and the consecutive checks keep the listeners from flapping between pause
+ * and resume while the pool is still recovering.
+ * <p>
+ * Paused containers keep polling without fetching records, so the consumers stay in the group and
+ * no rebalance is triggered. The pause state is published as the {@code kafka.consumer.backpressure.paused} gauge.
+ */
+@Slf4j
+@Service
+public class ConsumerBackpressureControllerImpl implements ConsumerBackpressureController {
+
+    private static final String PAUSED_METRIC = "kafka.consumer.backpressure.paused";
+
+    private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+    private final MongoPoolWaitTracker mongoPoolWaitTracker;
+    private final CircuitBreaker circuitBreaker;
+
+    private final Duration pausePoolWait;
+    private final Duration resumePoolWait;
+    private final int resumeChecks;
+
+    private volatile boolean paused;
+    private int healthyChecks;
+
+    public ConsumerBackpressureControllerImpl(KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry,
+                                              MongoPoolWaitTracker mongoPoolWaitTracker,
+                                              CircuitBreakerRegistry circuitBreakerRegistry,
+                                              MeterRegistry meterRegistry,
+                                              @Value("${kafka.consumer.backpressure.pause_pool_wait}") Duration pausePoolWait,
+                                              @Value("${kafka.consumer.backpressure.resume_pool_wait}") Duration resumePoolWait,
+                                              @Value("${kafka.consumer.backpressure.resume_checks}") int resumeChecks,
+                                              @Value("${kafka.consumer.backpressure.circuit_breaker}") String circuitBreakerName) {
+        this.kafkaListenerEndpointRegistry = kafkaListenerEndpointRegistry;
+        this.mongoPoolWaitTracker = mongoPoolWaitTracker;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(circuitBreakerName);
+        this.pausePoolWait = pausePoolWait;
+        this.resumePoolWait = resumePoolWait;
+        this.resumeChecks = resumeChecks;
+
+        Gauge.builder(PAUSED_METRIC, this, controller -> controller.isPaused() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${kafka.consumer.backpressure.check_interval}")
+    public void checkDownstream() {
+        Duration poolWait = mongoPoolWaitTracker.sampleMaxWait();
+        int waitingCount = mongoPoolWaitTracker.getWaitingCount();
+        CircuitBreaker.State circuitBreakerState = circuitBreaker.getState();
+        boolean circuitOpen = circuitBreakerState == CircuitBreaker.State.OPEN
+                || circuitBreakerState == CircuitBreaker.State.FORCED_OPEN;
+
+        if (!paused) {
+            if (poolWait.compareTo(pausePoolWait) >= 0 || circuitOpen) {
+                log.warn("Pausing Kafka listeners, MongoDB pool wait: {} ms, circuit breaker: {}",
+                        poolWait.toMillis(), circuitBreakerState);
+                kafkaListenerEndpointRegistry.getListenerContainers().forEach(MessageListenerContainer::pause);
+                paused = true;
+                healthyChecks = 0;
+            }
+            return;
+        }
+
+        boolean healthy = poolWait.compareTo(resumePoolWait) <= 0 && waitingCount == 0 && !circuitOpen;
+        healthyChecks = healthy ? healthyChecks + 1 : 0;
+
+        if (healthyChecks >= resumeChecks) {
+            log.info("Resuming Kafka listeners after {} healthy checks, MongoDB pool wait: {} ms, circuit breaker: {}",
+                    healthyChecks, poolWait.toMillis(), circuitBreakerState);
+            kafkaListenerEndpointRegistry.getListenerContainers().forEach(MessageListenerContainer::resume);
+            paused = false;
+        }
+    }
+
+    @Override
+    public boolean isPaused() {
+        return paused;
+    }
+
+}
@@ -1,83 +1,228 @@
 package com.innowise.paymentservice.service.impl;
 
 import com.innowise.paymentservice.config.KafkaConfig;
+import com.innowise.paymentservice.exception.PaymentBulkWriteException;
+import com.innowise.paymentservice.model.DeliveryMode;
+import com.innowise.paymentservice.model.EventEncoding;
+import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.WriteMode;
 import com.innowise.paymentservice.model.dto.CreatePaymentEvent;
 import com.innowise.paymentservice.model.dto.PaymentRequest;
-import com.innowise.paymentservice.model.dto.PaymentResponse;
 import com.innowise.paymentservice.service.KafkaService;
-import com.innowise.paymentservice.service.OutboxEventService;
+import com.innowise.paymentservice.service.PaymentProcessorService;
 import com.innowise.paymentservice.service.PaymentService;
+import com.innowise.paymentservice.service.ProcessedOrderFilter;
+import com.innowise.paymentservice.util.EventPayloadSerializer;
 import com.innowise.paymentservice.util.EventValidator;
-import lombok.RequiredArgsConstructor;
+import com.innowise.paymentservice.util.KeyOrderedRecordProcessor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class KafkaServiceImpl implements KafkaService {
 
-    private final KafkaTemplate<String, CreatePaymentEvent> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
 
     private final PaymentService paymentService;
-    private final OutboxEventService outboxEventService;
+    private final PaymentProcessorService paymentProcessorService;
+    private final ProcessedOrderFilter processedOrderFilter;
     private final EventValidator eventValidator;
+    private final EventPayloadSerializer eventPayloadSerializer;
+    private final KeyOrderedRecordProcessor keyOrderedRecordProcessor;
+
+    private final DeliveryMode deliveryMode;
+    private final WriteMode writeMode;
+
+    public KafkaServiceImpl(KafkaTemplate<String, byte[]> kafkaTemplate,
+                            PaymentService paymentService,
+                            PaymentProcessorService paymentProcessorService,
+                            ProcessedOrderFilter processedOrderFilter,
+                            EventValidator eventValidator,
+                            EventPayloadSerializer eventPayloadSerializer,
+                            KeyOrderedRecordProcessor keyOrderedRecordProcessor,
+                            @Value("${kafka.producer.delivery_mode}") DeliveryMode deliveryMode,
+                            @Value("${kafka.consumer.write_mode}") WriteMode writeMode) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.paymentService = paymentService;
+        this.paymentProcessorService = paymentProcessorService;
+        this.processedOrderFilter = processedOrderFilter;
+        this.eventValidator = eventValidator;
+        this.eventPayloadSerializer = eventPayloadSerializer;
+        this.keyOrderedRecordProcessor = keyOrderedRecordProcessor;
+        this.deliveryMode = deliveryMode;
+        this.writeMode = writeMode;
+    }
 
     @Override
     @KafkaListener(topics = KafkaConfig.ORDER_CREATED_TOPIC, groupId = KafkaConfig.PAYMENT_SERVICE_ORDER_CONSUMER_GROUP)
-    public void consumeCreateOrderEvent(ConsumerRecord<String, PaymentRequest> consumerRecord) {
-        PaymentRequest event = consumerRecord.value();
-        eventValidator.validate(event);
+    public void consumeCreateOrderEvents(List<ConsumerRecord<String, PaymentRequest>> consumerRecords) {
+        if (deliveryMode == DeliveryMode.TRANSACTIONAL) {
+            consumeCreateOrderEventsInTransaction(consumerRecords);
+            return;
+        }
 
-        if (handleExistingPayment(event.getOrderId())) {
+        if (writeMode == WriteMode.BULK) {
+            consumeCreateOrderEventsInBulk(consumerRecords);
             return;
         }
 
-        paymentService.save(event);
+        keyOrderedRecordProcessor.process(consumerRecords, this::consumeCreateOrderEvent);
     }
 
-    private boolean handleExistingPayment(Long orderId) {
-        if (!paymentService.existsByOrderId(orderId)) {
-            return false;
+    /**
+     * Validates the batch, decides the payments of every record before the first invalid one in parallel per key,
+     * then creates them with a single bulk insert.
+     * Records of orders already known to be processed are skipped without touching the database.
+     * The invalid record, the first record whose payment could not be decided or the first record whose payment
+     * could not be written is reported to the error handler, which commits the offsets of the records before it
+     * and redelivers the rest; redelivered records already written are skipped on their duplicate key.
+     * Any other failure of the bulk insert is not tied to a record, so it fails the whole batch.
+     */
+    private void consumeCreateOrderEventsInBulk(List<ConsumerRecord<String, PaymentRequest>> consumerRecords) {
+        List<ConsumerRecord<String, PaymentRequest>> acceptedRecords = new ArrayList<>(consumerRecords.size());
+        int validated = 0;
+        RuntimeException validationFailure = null;
+
+        for (; validated < consumerRecords.size(); validated++) {
+            ConsumerRecord<String, PaymentRequest> consumerRecord = consumerRecords.get(validated);
+
+            try {
+                eventValidator.validate(consumerRecord.value());
+            } catch (RuntimeException e) {
+                validationFailure = e;
+                break;
+            }
+
+            if (processedOrderFilter.findStatus(consumerRecord.value().getOrderId()).isEmpty()) {
+                acceptedRecords.add(consumerRecord);
+            }
         }
 
-        if (outboxEventService.existsByOrderId(orderId)) {
-            log.info("Payment and OutboxEvent already exist for order {}, skipping", orderId);
-            return true;
+        if (acceptedRecords.size() < validated) {
+            log.debug("Skipped {} records of orders already processed", validated - acceptedRecords.size());
         }
 
-        log.warn("Payment exists but OutboxEvent missing for order {}, recovering...", orderId);
-        recoverMissingOutboxEvent(orderId);
-        return true;
+        Map<Long, PaymentStatus> statuses = new ConcurrentHashMap<>();
+        BatchListenerFailedException decisionFailure = null;
+
+        try {
+            keyOrderedRecordProcessor.process(acceptedRecords, consumerRecord ->
+                    statuses.put(consumerRecord.value().getOrderId(), paymentProcessorService.processPayment()));
+        } catch (BatchListenerFailedException e) {
+            decisionFailure = e;
+            acceptedRecords = acceptedRecords.subList(0, acceptedRecords.indexOf(e.getRecord()));
+        }
+
+        List<PaymentRequest> paymentRequests = acceptedRecords.stream()
+                .map(ConsumerRecord::value)
+                .toList();
+
+        try {
+            paymentService.saveAll(paymentRequests, statuses);
+        } catch (PaymentBulkWriteException e) {
+            throw new BatchListenerFailedException(e.getMessage(), e, acceptedRecords.get(e.getIndex()));
+        }
+
+        if (decisionFailure != null) {
+            throw decisionFailure;
+        }
+
+        if (validationFailure != null) {
+            throw new BatchListenerFailedException(validationFailure.getMessage(), validationFailure,
+                    consumerRecords.get(validated));
+        }
     }
 
-    private void recoverMissingOutboxEvent(Long orderId) {
-        PaymentResponse paymentResponse = paymentService.findByOrderId(orderId);
-        CreatePaymentEvent createPaymentEvent = CreatePaymentEvent.builder()
-                .orderId(paymentResponse.getOrderId())
-                .status(paymentResponse.getStatus())
-                .build();
+    /**
+     * Creates the payments of the batch in parallel, then produces their results from the listener thread,
+     * which is the one bound to the Kafka transaction of the batch.
+     */
+    private void consumeCreateOrderEventsInTransaction(List<ConsumerRecord<String, PaymentRequest>> consumerRecords) {
+        Map<Long, CreatePaymentEvent> paymentResults = new ConcurrentHashMap<>();
+
+        keyOrderedRecordProcessor.process(consumerRecords, consumerRecord -> {
+            CreatePaymentEvent paymentResult = createPayment(consumerRecord.value());
+            paymentResults.put(paymentResult.getOrderId(), paymentResult);
+        });
 
-        outboxEventService.save(createPaymentEvent);
+        consumerRecords.stream()
+                .map(consumerRecord -> paymentResults.remove(consumerRecord.value().getOrderId()))
+                .filter(Objects::nonNull)
+                .forEach(this::sendPaymentResult);
     }
 
     @Override
-    public void sendCreatePaymentEvent(CreatePaymentEvent event) {
-        try {
-            kafkaTemplate.send(KafkaConfig.PAYMENT_CREATED_TOPIC, event.getOrderId().toString(), event)
-                    .get(5, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new KafkaException("Thread interrupted while sending CREATE_PAYMENT event", e);
-        } catch (Exception e) {
-            throw new KafkaException("Failed to send CREATE_PAYMENT event", e);
+    @KafkaListener(topics = KafkaConfig.ORDER_CREATED_RETRY_1S_TOPIC, groupId = KafkaConfig.PAYMENT_SERVICE_ORDER_RETRY_1S_CONSUMER_GROUP,
+            containerFactory = "retryKafkaListenerContainerFactory")
+    @KafkaListener(topics = KafkaConfig.ORDER_CREATED_RETRY_10S_TOPIC, groupId = KafkaConfig.PAYMENT_SERVICE_ORDER_RETRY_10S_CONSUMER_GROUP,
+            containerFactory = "retryKafkaListenerContainerFactory")
+    @KafkaListener(topics = KafkaConfig.ORDER_CREATED_RETRY_60S_TOPIC, groupId = KafkaConfig.PAYMENT_SERVICE_ORDER_RETRY_60S_CONSUMER_GROUP,
+            containerFactory = "retryKafkaListenerContainerFactory")
+    public void consumeCreateOrderEvent(ConsumerRecord<String, PaymentRequest> consumerRecord) {
+        PaymentRequest event = consumerRecord.value();
+
+        if (deliveryMode == DeliveryMode.TRANSACTIONAL) {
+            sendPaymentResult(createPayment(event));
+            return;
+        }
+
+        eventValidator.validate(event);
+
+        if (processedOrderFilter.findStatus(event.getOrderId()).isPresent()) {
+            return;
         }
+
+        paymentService.save(event);
+    }
+
+    /**
+     * Creates the payment of a request idempotently, without an outbox event,
+     * for the payment result to be produced in the transaction of the consumed record.
+     * The result of an order already known to be processed is produced again without touching the database.
+     */
+    private CreatePaymentEvent createPayment(PaymentRequest event) {
+        eventValidator.validate(event);
+
+        PaymentStatus status = processedOrderFilter.findStatus(event.getOrderId())
+                .orElseGet(() -> paymentService.saveIfAbsent(event).getStatus());
+
+        return CreatePaymentEvent.builder()
+                .orderId(event.getOrderId())
+                .status(status)
+                .build();
+    }
+
+    private void sendPaymentResult(CreatePaymentEvent paymentResult) {
+        sendCreatePaymentEvent(paymentResult.getOrderId(),
+                eventPayloadSerializer.serialize(paymentResult), eventPayloadSerializer.getEncoding());
+    }
+
+    @Override
+    public CompletableFuture<SendResult<String, byte[]>> sendCreatePaymentEvent(Long orderId, byte[] payload, EventEncoding encoding) {
+        ProducerRecord<String, byte[]> producerRecord =
+                new ProducerRecord<>(KafkaConfig.PAYMENT_CREATED_TOPIC, orderId.toString(), payload);
+        producerRecord.headers().add(KafkaConfig.EVENT_ENCODING_HEADER, encoding.name().getBytes(StandardCharsets.UTF_8));
+
+        return kafkaTemplate.send(producerRecord)
+                .exceptionallyCompose(e -> CompletableFuture.failedFuture(
+                        new KafkaException("Failed to send CREATE_PAYMENT event for order " + orderId, e)));
     }
 
 }
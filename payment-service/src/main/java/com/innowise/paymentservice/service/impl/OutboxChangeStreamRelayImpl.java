@@ -0,0 +1,278 @@
+package com.innowise.paymentservice.service.impl;
+
+import com.innowise.paymentservice.model.EventStatus;
+import com.innowise.paymentservice.model.OutboxRelayMode;
+import com.innowise.paymentservice.model.document.OutboxRelayState;
+import com.innowise.paymentservice.model.document.Payment;
+import com.innowise.paymentservice.repository.OutboxRelayStateRepository;
+import com.innowise.paymentservice.service.OutboxChangeStreamRelay;
+import com.innowise.paymentservice.service.OutboxEventScheduler;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays outbox events to Kafka as soon as their payments are inserted, instead of polling for them.
+ * <p>
+ * The relay tails a change stream of payment inserts with a {@code PENDING} outbox event on its own thread,
+ * publishes whatever the stream has buffered as one batch through {@link OutboxEventScheduler#publish(List)}
+ * and then stores the stream's resume token in {@code outbox_relay_state}. After a restart the stream resumes
+ * after the stored token, so no insert is missed and at most the last unacknowledged batch is sent again.
+ * <p>
+ * There is one stream position, so only one replica tails the stream at a time: the relay is leased for
+ * {@code kafka.producer.outbox.relay_lease} in the same document, and the lease is renewed with every stored
+ * resume token. The other replicas stand by and take the relay over, from the stored token, once the lease is
+ * released on shutdown or expires after a crash. A replica that finds its lease lost stops tailing, and events
+ * are still claimed before they are published, so a batch relayed twice during a takeover is sent once.
+ * <p>
+ * Polling is kept only to catch up: when the stream is opened without a resume token, for everything
+ * inserted before, and every {@code kafka.producer.outbox.catch_up_interval} for events older than
+ * {@code kafka.producer.outbox.catch_up_delay} that are still pending because their send failed or timed out.
+ * If the stored token has fallen off the oplog, it is dropped and the stream restarts from now after a full catch-up.
+ * <p>
+ * Change streams require a replica set, so the relay is started only in {@code CHANGE_STREAM} relay mode.
+ */
+@Slf4j
+@Service
+public class OutboxChangeStreamRelayImpl implements OutboxChangeStreamRelay, SmartLifecycle {
+
+    private static final String RELAY_ID = "payments_outbox";
+    private static final String RELAY_THREAD_NAME = "outbox-change-stream-relay";
+    private static final String RESUME_TOKEN_DATA = "_data";
+
+    private static final int BATCH_SIZE = 100;
+    private static final long MAX_AWAIT_TIME_MILLIS = 1000;
+    private static final long RETRY_DELAY_MILLIS = 5000;
+    private static final long STOP_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Server error codes meaning the stream cannot be resumed from the stored token:
+     * InvalidResumeToken, ChangeStreamFatalError and ChangeStreamHistoryLost.
+     */
+    private static final Set<Integer> LOST_RESUME_POINT_CODES = Set.of(260, 280, 286);
+
+    private static final List<Bson> PIPELINE = List.of(Aggregates.match(Filters.and(
+            Filters.eq("operationType", OperationType.INSERT.getValue()),
+            Filters.eq("fullDocument.outbox.event_status", EventStatus.PENDING.name()))));
+
+    private final MongoTemplate mongoTemplate;
+    private final OutboxEventScheduler outboxEventScheduler;
+    private final OutboxRelayStateRepository outboxRelayStateRepository;
+
+    private final OutboxRelayMode relayMode;
+    private final Duration catchUpInterval;
+    private final Duration catchUpDelay;
+    private final Duration relayLease;
+    private final Duration checkpointInterval;
+    private final String owner;
+
+    private volatile boolean running;
+    private Thread relayThread;
+
+    public OutboxChangeStreamRelayImpl(MongoTemplate mongoTemplate,
+                                       OutboxEventScheduler outboxEventScheduler,
+                                       OutboxRelayStateRepository outboxRelayStateRepository,
+                                       @Value("${kafka.producer.outbox.relay_mode}") OutboxRelayMode relayMode,
+                                       @Value("${kafka.producer.outbox.catch_up_interval}") Duration catchUpInterval,
+                                       @Value("${kafka.producer.outbox.catch_up_delay}") Duration catchUpDelay,
+                                       @Value("${kafka.producer.outbox.relay_lease}") Duration relayLease) {
+        this.mongoTemplate = mongoTemplate;
+        this.outboxEventScheduler = outboxEventScheduler;
+        this.outboxRelayStateRepository = outboxRelayStateRepository;
+        this.relayMode = relayMode;
+        this.catchUpInterval = catchUpInterval;
+        this.catchUpDelay = catchUpDelay;
+        this.relayLease = relayLease;
+        this.checkpointInterval = relayLease.dividedBy(3);
+        this.owner = UUID.randomUUID().toString();
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return relayMode == OutboxRelayMode.CHANGE_STREAM;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        relayThread = Thread.ofPlatform().name(RELAY_THREAD_NAME).start(this::relay);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+
+        try {
+            relayThread.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void relay() {
+        while (running) {
+            try {
+                if (acquireLease()) {
+                    tail();
+                } else {
+                    pause();
+                }
+            } catch (MongoCommandException e) {
+                if (LOST_RESUME_POINT_CODES.contains(e.getErrorCode())) {
+                    log.warn("Outbox change stream cannot be resumed, restarting it from now: {}", e.getMessage());
+                    outboxRelayStateRepository.clearResumeToken(RELAY_ID, owner);
+                } else {
+                    log.error("Outbox change stream failed: {}", e.getMessage(), e);
+                    pause();
+                }
+            } catch (Exception e) {
+                log.error("Outbox change stream failed: {}", e.getMessage(), e);
+                pause();
+            }
+        }
+
+        releaseLease();
+    }
+
+    /**
+     * Opens the change stream after the stored resume token and relays its events until the relay is stopped
+     * or its lease is lost.
+     */
+    private void tail() {
+        String collectionName = mongoTemplate.getCollectionName(Payment.class);
+        ChangeStreamIterable<Document> changeStream = mongoTemplate.getCollection(collectionName)
+                .watch(PIPELINE)
+                .batchSize(BATCH_SIZE)
+                .maxAwaitTime(MAX_AWAIT_TIME_MILLIS, TimeUnit.MILLISECONDS);
+
+        BsonDocument storedToken = loadResumeToken();
+        if (storedToken != null) {
+            changeStream = changeStream.resumeAfter(storedToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream.cursor()) {
+            if (storedToken == null) {
+                outboxEventScheduler.catchUp(LocalDateTime.now());
+            }
+
+            long nextCatchUp = System.nanoTime() + catchUpInterval.toNanos();
+            long nextCheckpoint = System.nanoTime() + checkpointInterval.toNanos();
+            List<Payment> batch = new ArrayList<>(BATCH_SIZE);
+
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+
+                if (change != null && change.getFullDocument() != null) {
+                    batch.add(mongoTemplate.getConverter().read(Payment.class, change.getFullDocument()));
+                }
+
+                boolean publish = !batch.isEmpty() && (change == null || batch.size() >= BATCH_SIZE);
+
+                if (publish) {
+                    outboxEventScheduler.publish(batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+
+                if (publish || (change == null && System.nanoTime() - nextCheckpoint >= 0)) {
+                    if (!checkpoint(cursor.getResumeToken())) {
+                        log.warn("Outbox relay lease lost, standing by");
+                        return;
+                    }
+                    nextCheckpoint = System.nanoTime() + checkpointInterval.toNanos();
+                }
+
+                if (System.nanoTime() - nextCatchUp >= 0) {
+                    outboxEventScheduler.catchUp(LocalDateTime.now().minus(catchUpDelay));
+                    nextCatchUp = System.nanoTime() + catchUpInterval.toNanos();
+                }
+            }
+        }
+    }
+
+    private BsonDocument loadResumeToken() {
+        return outboxRelayStateRepository.findById(RELAY_ID)
+                .map(OutboxRelayState::getResumeToken)
+                .map(token -> new BsonDocument(RESUME_TOKEN_DATA, new BsonString(token)))
+                .orElse(null);
+    }
+
+    /**
+     * Stores the resume token and renews the lease, or only renews the lease if the stream has no token yet.
+     *
+     * @return {@code true} if the lease is still held, {@code false} if another instance has taken the relay over.
+     */
+    private boolean checkpoint(BsonDocument resumeToken) {
+        if (resumeToken == null || !resumeToken.isString(RESUME_TOKEN_DATA)) {
+            return acquireLease();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return outboxRelayStateRepository.saveResumeToken(RELAY_ID, owner,
+                resumeToken.getString(RESUME_TOKEN_DATA).getValue(), now, now.plus(relayLease)) > 0;
+    }
+
+    private boolean acquireLease() {
+        LocalDateTime now = LocalDateTime.now();
+
+        if (outboxRelayStateRepository.acquireLease(RELAY_ID, owner, now, now.plus(relayLease)) > 0) {
+            return true;
+        }
+
+        try {
+            outboxRelayStateRepository.insert(OutboxRelayState.builder()
+                    .id(RELAY_ID)
+                    .owner(owner)
+                    .leaseUntil(now.plus(relayLease))
+                    .build());
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private void releaseLease() {
+        try {
+            outboxRelayStateRepository.releaseLease(RELAY_ID, owner);
+        } catch (Exception e) {
+            log.warn("Failed to release the outbox relay lease: {}", e.getMessage());
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+}
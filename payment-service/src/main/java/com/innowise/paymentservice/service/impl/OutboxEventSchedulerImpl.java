@@ -1,81 +1,184 @@
 package com.innowise.paymentservice.service.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.innowise.paymentservice.model.EventStatus;
+import com.innowise.paymentservice.model.OutboxRelayMode;
 import com.innowise.paymentservice.model.document.OutboxEvent;
-import com.innowise.paymentservice.model.dto.CreatePaymentEvent;
-import com.innowise.paymentservice.repository.OutboxEventRepository;
+import com.innowise.paymentservice.model.document.Payment;
 import com.innowise.paymentservice.service.KafkaService;
 import com.innowise.paymentservice.service.OutboxEventScheduler;
-import lombok.RequiredArgsConstructor;
+import com.innowise.paymentservice.service.OutboxEventService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays the pending outbox events embedded in payment documents to Kafka.
+ * <p>
+ * Every instance claims its own batch by leasing it for {@code kafka.producer.outbox.lease}, so replicas drain
+ * disjoint slices of the outbox instead of all publishing the same events. Events held by a crashed
+ * or stalled instance are claimable again once their lease expires.
+ * <p>
+ * The stored payload bytes are sent as they are, without a deserialize/serialize round trip.
+ * The whole batch is sent without blocking, letting the producer group the records into few broker requests,
+ * and the outcome is written back with one update for the sent events and one for the failed ones.
+ * Sends still unacknowledged when the lease runs out stay {@code PENDING} and are left for the next claim.
+ * <p>
+ * In {@code CHANGE_STREAM} relay mode the events are published as they are inserted by
+ * {@link com.innowise.paymentservice.service.OutboxChangeStreamRelay}, so the periodic poll is skipped
+ * and the relay only calls {@link #catchUp(LocalDateTime)} for events it may have missed.
+ * <p>
+ * Publishes {@code outbox.relay.events} counters tagged by {@code outcome} and an {@code outbox.relay.batch} timer.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class OutboxEventSchedulerImpl implements OutboxEventScheduler {
 
     private static final int BATCH_SIZE = 100;
     private static final int MAX_RETRY_COUNT = 5;
     private static final long FIXED_DELAY = 3000;
 
+    private static final String EVENTS_METRIC = "outbox.relay.events";
+    private static final String BATCH_METRIC = "outbox.relay.batch";
+    private static final String OUTCOME_TAG = "outcome";
+
     private final KafkaService kafkaService;
-    private final OutboxEventRepository outboxEventRepository;
-    private final ObjectMapper objectMapper;
+    private final OutboxEventService outboxEventService;
+    private final OutboxRelayMode relayMode;
+    private final Duration lease;
+    private final String owner;
+
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter timedOutCounter;
+    private final Timer batchTimer;
+
+    public OutboxEventSchedulerImpl(KafkaService kafkaService,
+                                    OutboxEventService outboxEventService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${kafka.producer.outbox.relay_mode}") OutboxRelayMode relayMode,
+                                    @Value("${kafka.producer.outbox.lease}") Duration lease) {
+        this.kafkaService = kafkaService;
+        this.outboxEventService = outboxEventService;
+        this.relayMode = relayMode;
+        this.lease = lease;
+        this.owner = UUID.randomUUID().toString();
+
+        this.sentCounter = eventCounter(meterRegistry, "sent");
+        this.failedCounter = eventCounter(meterRegistry, "failed");
+        this.timedOutCounter = eventCounter(meterRegistry, "timed_out");
+        this.batchTimer = Timer.builder(BATCH_METRIC)
+                .description("Time to publish an outbox batch and record its outcome")
+                .register(meterRegistry);
+    }
 
     @Override
     @Scheduled(fixedDelay = FIXED_DELAY)
     public void processOutboxEvents() {
-        List<OutboxEvent> events = outboxEventRepository.findByEventStatusOrderByCreatedAt(
-                EventStatus.PENDING, 
-                PageRequest.of(0, BATCH_SIZE)
-        );
-
-        if (events.isEmpty()) {
+        if (relayMode == OutboxRelayMode.CHANGE_STREAM) {
             return;
         }
 
-        events.forEach(this::processEvent);
+        publishClaimed(outboxEventService.claimBatch(owner, LocalDateTime.now(), BATCH_SIZE, lease));
     }
 
-    private void processEvent(OutboxEvent event) {
-        try {
-            CreatePaymentEvent createPaymentEvent = deserializeEvent(event);
-            kafkaService.sendCreatePaymentEvent(createPaymentEvent);
+    @Override
+    public void catchUp(LocalDateTime createdBefore) {
+        while (true) {
+            List<Payment> payments = outboxEventService.claimBatch(owner, createdBefore, BATCH_SIZE, lease);
 
-            markAsSent(event);
-            log.info("Successfully sent event for order {}", event.getOrderId());
-        } catch (Exception e) {
-            handleEventFailure(event, e);
+            if (publishClaimed(payments) == 0 || payments.size() < BATCH_SIZE) {
+                return;
+            }
         }
     }
 
-    private CreatePaymentEvent deserializeEvent(OutboxEvent event) throws JsonProcessingException {
-        return objectMapper.readValue(event.getPayload(), CreatePaymentEvent.class);
+    @Override
+    public int publish(List<Payment> payments) {
+        List<ObjectId> ids = payments.stream()
+                .map(Payment::getId)
+                .toList();
+
+        return publishClaimed(outboxEventService.claim(ids, owner, lease));
     }
 
-    private void markAsSent(OutboxEvent event) {
-        event.setEventStatus(EventStatus.SENT);
-        outboxEventRepository.save(event);
+    private int publishClaimed(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return 0;
+        }
+
+        Timer.Sample sample = Timer.start();
+        long leaseDeadline = System.nanoTime() + lease.toNanos();
+
+        List<CompletableFuture<?>> sends = payments.stream()
+                .map(this::publishEvent)
+                .toList();
+
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                .handle((result, e) -> null)
+                .completeOnTimeout(null, leaseDeadline - System.nanoTime(), TimeUnit.NANOSECONDS)
+                .join();
+
+        List<ObjectId> sentIds = new ArrayList<>();
+        List<ObjectId> failedIds = new ArrayList<>();
+
+        for (int i = 0; i < payments.size(); i++) {
+            Payment payment = payments.get(i);
+            CompletableFuture<?> send = sends.get(i);
+
+            switch (send.state()) {
+                case SUCCESS -> sentIds.add(payment.getId());
+                case FAILED -> {
+                    failedIds.add(payment.getId());
+                    logFailure(payment, send.exceptionNow());
+                }
+                default -> timedOutCounter.increment();
+            }
+        }
+
+        outboxEventService.markAsSent(sentIds, owner);
+        outboxEventService.recordFailures(failedIds, owner, MAX_RETRY_COUNT);
+
+        sentCounter.increment(sentIds.size());
+        failedCounter.increment(failedIds.size());
+        sample.stop(batchTimer);
+
+        return sentIds.size();
     }
 
-    private void handleEventFailure(OutboxEvent event, Exception e) {
-        int retryCount = event.getRetryCount() + 1;
-        event.setRetryCount(retryCount);
+    private CompletableFuture<?> publishEvent(Payment payment) {
+        OutboxEvent event = payment.getOutbox();
+
+        try {
+            return kafkaService.sendCreatePaymentEvent(payment.getOrderId(), event.getPayload(), event.getEncoding());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-        if (retryCount >= MAX_RETRY_COUNT) {
-            event.setEventStatus(EventStatus.FAILED);
+    private void logFailure(Payment payment, Throwable e) {
+        if (payment.getOutbox().getRetryCount() + 1 >= MAX_RETRY_COUNT) {
             log.error("CREATE_PAYMENT event for order {} FAILED after {} retries: {}",
-                    event.getOrderId(), MAX_RETRY_COUNT, e.getMessage(), e);
+                    payment.getOrderId(), MAX_RETRY_COUNT, e.getMessage(), e);
         }
+    }
 
-        outboxEventRepository.save(event);
+    private static Counter eventCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(EVENTS_METRIC)
+                .description("Outbox events processed by the relay")
+                .tag(OUTCOME_TAG, outcome)
+                .register(meterRegistry);
     }
 
 }
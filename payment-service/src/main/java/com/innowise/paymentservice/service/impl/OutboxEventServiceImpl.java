@@ -1,51 +1,79 @@
 package com.innowise.paymentservice.service.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.innowise.paymentservice.exception.OutboxEventSerializationException;
 import com.innowise.paymentservice.model.EventStatus;
 import com.innowise.paymentservice.model.document.OutboxEvent;
+import com.innowise.paymentservice.model.document.Payment;
 import com.innowise.paymentservice.model.dto.CreatePaymentEvent;
-import com.innowise.paymentservice.repository.OutboxEventRepository;
+import com.innowise.paymentservice.repository.PaymentRepository;
 import com.innowise.paymentservice.service.OutboxEventService;
+import com.innowise.paymentservice.util.EventPayloadSerializer;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-@Slf4j
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class OutboxEventServiceImpl implements OutboxEventService {
 
-    private final OutboxEventRepository outboxEventRepository;
-    private final ObjectMapper objectMapper;
+    private final PaymentRepository paymentRepository;
+    private final EventPayloadSerializer eventPayloadSerializer;
 
     @Override
-    public void save(CreatePaymentEvent event) {
-        String payload = serializeEvent(event);
-        
-        OutboxEvent outboxEvent = OutboxEvent.builder()
-                .orderId(event.getOrderId())
-                .payload(payload)
+    public OutboxEvent create(CreatePaymentEvent event) {
+        return OutboxEvent.builder()
+                .payload(eventPayloadSerializer.serialize(event))
+                .encoding(eventPayloadSerializer.getEncoding())
                 .eventStatus(EventStatus.PENDING)
                 .build();
+    }
+
+    @Override
+    public List<Payment> claimBatch(String owner, LocalDateTime createdBefore, int batchSize, Duration lease) {
+        List<ObjectId> ids = paymentRepository.findClaimableOutboxEvents(
+                        createdBefore, LocalDateTime.now(), PageRequest.of(0, batchSize))
+                .stream()
+                .map(Payment::getId)
+                .toList();
+
+        return claim(ids, owner, lease);
+    }
+
+    @Override
+    public List<Payment> claim(List<ObjectId> ids, String owner, Duration lease) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (paymentRepository.leaseOutboxEvents(ids, owner, now, now.plus(lease)) == 0) {
+            return List.of();
+        }
 
-        outboxEventRepository.save(outboxEvent);
+        return paymentRepository.findLeasedOutboxEvents(ids, owner);
     }
 
     @Override
-    public boolean existsByOrderId(Long orderId) {
-        return outboxEventRepository.existsByOrderId(orderId);
+    public void markAsSent(List<ObjectId> ids, String owner) {
+        if (!ids.isEmpty()) {
+            paymentRepository.markOutboxEventsAsSent(ids, owner, LocalDateTime.now());
+        }
     }
 
-    private String serializeEvent(CreatePaymentEvent event) {
-        try {
-            return objectMapper.writeValueAsString(event);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize CreatePaymentEvent for order {}", event.getOrderId(), e);
-            throw new OutboxEventSerializationException(
-                    "Failed to serialize event for order " + event.getOrderId());
+    @Override
+    public void recordFailures(List<ObjectId> ids, String owner, int maxRetryCount) {
+        if (!ids.isEmpty()) {
+            paymentRepository.recordOutboxEventFailures(ids, owner, maxRetryCount);
         }
     }
 
+    @Override
+    public long removeSent(Duration retention) {
+        return paymentRepository.removeSentOutboxEvents(LocalDateTime.now().minus(retention));
+    }
+
 }
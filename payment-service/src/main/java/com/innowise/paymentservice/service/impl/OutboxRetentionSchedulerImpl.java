@@ -0,0 +1,49 @@
+package com.innowise.paymentservice.service.impl;
+
+import com.innowise.paymentservice.service.OutboxEventService;
+import com.innowise.paymentservice.service.OutboxRetentionScheduler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Keeps the payments collection from growing with published outbox payloads.
+ * <p>
+ * Outbox events are embedded in their payment document, so a TTL index would expire the payment itself;
+ * sent events are instead unset from their payments once {@code kafka.producer.outbox.sent_retention} has passed,
+ * using the partial {@code idx_outbox_sent} index.
+ */
+@Slf4j
+@Service
+public class OutboxRetentionSchedulerImpl implements OutboxRetentionScheduler {
+
+    private static final long FIXED_DELAY = 3600000;
+
+    private final OutboxEventService outboxEventService;
+
+    private final Duration sentRetention;
+
+    public OutboxRetentionSchedulerImpl(OutboxEventService outboxEventService,
+                                        @Value("${kafka.producer.outbox.sent_retention}") Duration sentRetention) {
+        this.outboxEventService = outboxEventService;
+        this.sentRetention = sentRetention;
+    }
+
+    @Override
+    @Scheduled(initialDelay = 0, fixedDelay = FIXED_DELAY)
+    public void removeSentOutboxEvents() {
+        try {
+            long removed = outboxEventService.removeSent(sentRetention);
+
+            if (removed > 0) {
+                log.info("Removed {} sent outbox events older than {}", removed, sentRetention);
+            }
+        } catch (Exception e) {
+            log.error("Failed to remove sent outbox events: {}", e.getMessage(), e);
+        }
+    }
+
+}
@@ -2,7 +2,7 @@ package com.innowise.paymentservice.service.impl;
 
 import com.innowise.paymentservice.model.PaymentStatus;
 import com.innowise.paymentservice.service.PaymentProcessorService;
-import com.innowise.paymentservice.service.RandomNumberRestClient;
+import com.innowise.paymentservice.service.RandomNumberPool;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -10,11 +10,11 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class PaymentProcessorServiceImpl implements PaymentProcessorService {
 
-    private final RandomNumberRestClient randomNumberRestClient;
+    private final RandomNumberPool randomNumberPool;
 
     @Override
     public PaymentStatus processPayment() {
-        Long number = randomNumberRestClient.getRandomNumber();
+        long number = randomNumberPool.take();
 
         return number % 2 == 0 ? PaymentStatus.SUCCESS : PaymentStatus.FAILED;
     }
@@ -0,0 +1,55 @@
+package com.innowise.paymentservice.service.impl;
+
+import com.innowise.paymentservice.repository.PaymentRepository;
+import com.innowise.paymentservice.service.PaymentRollupReconciliationScheduler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Keeps the {@code payment_rollups} buckets from drifting when a rollup write fails after its payments were stored.
+ * <p>
+ * The buckets of the last {@code rollup.reconcile_lookback}, widened to whole days, are recomputed from the payments
+ * and replace the stored ones with {@code $merge}, the same way the initial backfill built them. Buckets are only
+ * rewritten once they closed more than {@code rollup.reconcile_grace} ago, so increments still in flight are not
+ * overwritten; a day bucket is corrected by the runs shortly after midnight.
+ */
+@Slf4j
+@Service
+public class PaymentRollupReconciliationSchedulerImpl implements PaymentRollupReconciliationScheduler {
+
+    private final PaymentRepository paymentRepository;
+
+    private final Duration lookback;
+    private final Duration grace;
+
+    public PaymentRollupReconciliationSchedulerImpl(PaymentRepository paymentRepository,
+                                                    @Value("${rollup.reconcile_lookback}") Duration lookback,
+                                                    @Value("${rollup.reconcile_grace}") Duration grace) {
+        this.paymentRepository = paymentRepository;
+        this.lookback = lookback;
+        this.grace = grace;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${rollup.reconcile_interval}")
+    public void reconcileRollups() {
+        LocalDateTime to = LocalDateTime.now().minus(grace).truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime from = to.minus(lookback).truncatedTo(ChronoUnit.DAYS);
+
+        try {
+            paymentRepository.reconcileRollups(from, to, to.truncatedTo(ChronoUnit.HOURS),
+                    to.truncatedTo(ChronoUnit.DAYS), ZoneId.systemDefault().getId());
+            log.debug("Reconciled payment rollups from {} to {}", from, to);
+        } catch (Exception e) {
+            log.error("Failed to reconcile payment rollups from {} to {}: {}", from, to, e.getMessage(), e);
+        }
+    }
+
+}
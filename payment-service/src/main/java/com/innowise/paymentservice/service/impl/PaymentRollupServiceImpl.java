@@ -0,0 +1,124 @@
+package com.innowise.paymentservice.service.impl;
+
+import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.RollupGranularity;
+import com.innowise.paymentservice.model.document.Payment;
+import com.innowise.paymentservice.model.document.PaymentRollup;
+import com.innowise.paymentservice.model.projection.TotalAmountProjection;
+import com.innowise.paymentservice.repository.PaymentRepository;
+import com.innowise.paymentservice.repository.PaymentRollupRepository;
+import com.innowise.paymentservice.service.PaymentRollupService;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maintains the {@code payment_rollups} buckets and answers range totals from them.
+ * <p>
+ * Every stored payment is added with {@code $inc} to its minute, hour and day bucket. The increments of a batch are
+ * summed per bucket first and written with one unordered bulk of upserts.
+ * <p>
+ * A range total reads whole day buckets for the full days of the range, hour buckets and minute buckets
+ * for the remaining hours and minutes at both ends, and aggregates the raw payments only for the two sub-minute
+ * edges. This uses the {@code idx_payments_timestamp} index, so the cost depends on the length of the range
+ * in buckets rather than on the number of payments in it.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentRollupServiceImpl implements PaymentRollupService {
+
+    private final PaymentRollupRepository paymentRollupRepository;
+    private final PaymentRepository paymentRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void record(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return;
+        }
+
+        Map<BucketKey, PaymentRollup> increments = new LinkedHashMap<>();
+
+        for (Payment payment : payments) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                BucketKey key = new BucketKey(granularity,
+                        payment.getTimestamp().truncatedTo(granularity.getUnit()), payment.getStatus());
+                PaymentRollup increment = increments.computeIfAbsent(key, k -> PaymentRollup.builder()
+                        .totalAmount(BigDecimal.ZERO)
+                        .count(0L)
+                        .build());
+
+                increment.setTotalAmount(increment.getTotalAmount().add(payment.getPaymentAmount()));
+                increment.setCount(increment.getCount() + 1);
+            }
+        }
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PaymentRollup.class);
+
+        increments.forEach((key, increment) -> bulkOperations.upsert(
+                Query.query(Criteria.where("granularity").is(key.granularity())
+                        .and("bucketStart").is(key.bucketStart())
+                        .and("status").is(key.status())),
+                new Update()
+                        .inc("totalAmount", new Decimal128(increment.getTotalAmount()))
+                        .inc("count", increment.getCount())));
+
+        bulkOperations.execute();
+    }
+
+    @Override
+    public BigDecimal findTotalAmount(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = ceil(from, ChronoUnit.MINUTES);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.MINUTES);
+
+        if (!start.isBefore(end)) {
+            return total(paymentRepository.findTotalAmount(from, to));
+        }
+
+        LocalDateTime hourStart = min(ceil(start, ChronoUnit.HOURS), end);
+        LocalDateTime hourEnd = max(end.truncatedTo(ChronoUnit.HOURS), hourStart);
+        LocalDateTime dayStart = min(ceil(hourStart, ChronoUnit.DAYS), hourEnd);
+        LocalDateTime dayEnd = max(hourEnd.truncatedTo(ChronoUnit.DAYS), dayStart);
+
+        BigDecimal buckets = total(paymentRollupRepository.findTotalAmount(start, hourStart, dayStart, dayEnd, hourEnd, end));
+        BigDecimal edges = total(paymentRepository.findTotalAmountAtEdges(from, start, end, to));
+
+        return buckets.add(edges);
+    }
+
+    private static BigDecimal total(Optional<TotalAmountProjection> totalAmountOpt) {
+        return totalAmountOpt.map(TotalAmountProjection::getTotal)
+                .map(Decimal128::bigDecimalValue)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    private static LocalDateTime ceil(LocalDateTime time, ChronoUnit unit) {
+        LocalDateTime truncated = time.truncatedTo(unit);
+        return truncated.equals(time) ? time : truncated.plus(1, unit);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private record BucketKey(RollupGranularity granularity, LocalDateTime bucketStart, PaymentStatus status) {
+    }
+
+}
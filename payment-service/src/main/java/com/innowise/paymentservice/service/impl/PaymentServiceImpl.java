@@ -1,54 +1,182 @@
 package com.innowise.paymentservice.service.impl;
 
+import com.innowise.paymentservice.exception.PaymentBulkWriteException;
 import com.innowise.paymentservice.exception.ResourceNotFoundException;
 import com.innowise.paymentservice.mapper.PaymentMapper;
+import com.innowise.paymentservice.model.PaymentCursor;
 import com.innowise.paymentservice.model.PaymentStatus;
 import com.innowise.paymentservice.model.document.Payment;
 import com.innowise.paymentservice.model.dto.CreatePaymentEvent;
+import com.innowise.paymentservice.model.dto.PageableRequest;
 import com.innowise.paymentservice.model.dto.PaymentRequest;
 import com.innowise.paymentservice.model.dto.PaymentResponse;
-import com.innowise.paymentservice.model.projection.TotalAmountProjection;
 import com.innowise.paymentservice.repository.PaymentRepository;
 import com.innowise.paymentservice.service.OutboxEventService;
 import com.innowise.paymentservice.service.PaymentProcessorService;
+import com.innowise.paymentservice.service.PaymentRollupService;
+import com.innowise.paymentservice.service.ProcessedOrderFilter;
 import com.innowise.paymentservice.service.PaymentService;
+import com.innowise.paymentservice.util.CursorCodec;
 import com.innowise.paymentservice.util.ExceptionMessageGenerator;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.bson.types.Decimal128;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PaymentServiceImpl implements PaymentService {
 
+    /**
+     * Newest first, with the ID breaking ties between payments of the same millisecond,
+     * matching the {@code (timestamp, _id)} suffix of the history indexes.
+     */
+    private static final Sort HISTORY_ORDER = Sort.by(Sort.Direction.DESC, "timestamp", "id");
+
     private final PaymentProcessorService paymentProcessorService;
     private final OutboxEventService outboxEventService;
+    private final PaymentRollupService paymentRollupService;
+    private final ProcessedOrderFilter processedOrderFilter;
     private final PaymentRepository paymentRepository;
     private final PaymentMapper paymentMapper;
+    private final MongoTemplate mongoTemplate;
 
     @Override
     public PaymentResponse save(PaymentRequest paymentRequest) {
+        return insertOrFindStored(createPaymentWithOutbox(paymentRequest, paymentProcessorService.processPayment()));
+    }
+
+    @Override
+    public void saveAll(List<PaymentRequest> paymentRequests, Map<Long, PaymentStatus> statuses) {
+        if (paymentRequests.isEmpty()) {
+            return;
+        }
+
+        List<Payment> payments = paymentRequests.stream()
+                .map(paymentRequest -> createPaymentWithOutbox(paymentRequest, statuses.get(paymentRequest.getOrderId())))
+                .toList();
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)
+                    .insert(payments)
+                    .execute();
+        } catch (BulkOperationException e) {
+            Set<Integer> rejected = e.getErrors().stream()
+                    .map(BulkWriteError::getIndex)
+                    .collect(Collectors.toSet());
+            recordStored(IntStream.range(0, payments.size())
+                    .filter(index -> !rejected.contains(index))
+                    .mapToObj(payments::get)
+                    .toList());
+
+            handleBulkWriteErrors(payments, e);
+            return;
+        }
+
+        recordStored(payments);
+    }
+
+    @Override
+    public PaymentResponse saveIfAbsent(PaymentRequest paymentRequest) {
         Payment payment = paymentMapper.paymentRequestToPayment(paymentRequest);
+        payment.setStatus(paymentProcessorService.processPayment());
 
-        PaymentStatus paymentStatus = paymentProcessorService.processPayment();
-        payment.setStatus(paymentStatus);
+        return insertOrFindStored(payment);
+    }
+
+    /**
+     * Creates the payment of a request with its decided status and attaches the pending outbox event announcing it.
+     */
+    private Payment createPaymentWithOutbox(PaymentRequest paymentRequest, PaymentStatus status) {
+        Payment payment = paymentMapper.paymentRequestToPayment(paymentRequest);
+        payment.setStatus(status);
 
-        Payment savePayment = paymentRepository.save(payment);
-        PaymentResponse paymentResponse = paymentMapper.paymentToPaymentResponse(savePayment);
         CreatePaymentEvent event = CreatePaymentEvent.builder()
-                .orderId(paymentResponse.getOrderId())
-                .status(paymentResponse.getStatus())
+                .orderId(payment.getOrderId())
+                .status(payment.getStatus())
                 .build();
-        outboxEventService.save(event);
+        payment.setOutbox(outboxEventService.create(event));
+
+        return payment;
+    }
+
+    /**
+     * Skips the payments rejected by the unique order ID index and fails on the first payment rejected for any other reason.
+     */
+    private void handleBulkWriteErrors(List<Payment> payments, BulkOperationException e) {
+        List<BulkWriteError> failures = e.getErrors().stream()
+                .filter(error -> ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY)
+                .toList();
+        int duplicates = e.getErrors().size() - failures.size();
+
+        if (duplicates > 0) {
+            log.info("Skipped {} payments of the batch already stored", duplicates);
+        }
+
+        failures.stream()
+                .mapToInt(BulkWriteError::getIndex)
+                .min()
+                .ifPresent(index -> {
+                    throw new PaymentBulkWriteException(
+                            "Failed to write payment for order " + payments.get(index).getOrderId(), index, e);
+                });
+    }
+
+    /**
+     * Inserts the payment in a single write, relying on the unique order ID index to detect redelivered requests.
+     */
+    private PaymentResponse insertOrFindStored(Payment payment) {
+        try {
+            Payment stored = paymentRepository.insert(payment);
+            recordStored(List.of(stored));
+
+            return paymentMapper.paymentToPaymentResponse(stored);
+        } catch (DuplicateKeyException e) {
+            log.info("Payment for order {} already exists, returning the stored one", payment.getOrderId());
+            PaymentResponse stored = findByOrderId(payment.getOrderId());
+            processedOrderFilter.record(stored.getOrderId(), stored.getStatus());
 
-        return paymentResponse;
+            return stored;
+        }
+    }
+
+    /**
+     * Marks the orders of newly stored payments as processed and adds the payments to the revenue rollups.
+     */
+    private void recordStored(List<Payment> payments) {
+        payments.forEach(payment -> processedOrderFilter.record(payment.getOrderId(), payment.getStatus()));
+        recordRollups(payments);
+    }
+
+    /**
+     * Adds newly stored payments to the revenue rollups. The payments are already durable and a redelivered request
+     * would be detected as a duplicate, so a failure is logged instead of failing the request; the missed increments
+     * are restored by the next rollup reconciliation.
+     */
+    private void recordRollups(List<Payment> payments) {
+        try {
+            paymentRollupService.record(payments);
+        } catch (Exception e) {
+            log.error("Failed to add {} payments to the revenue rollups: {}", payments.size(), e.getMessage(), e);
+        }
     }
 
     @Override
@@ -74,12 +202,50 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
-    public BigDecimal findTotalAmount(LocalDateTime from, LocalDateTime to) {
-        Optional<TotalAmountProjection> totalAmountOpt = paymentRepository.findTotalAmount(from, to);
+    public Slice<PaymentResponse> findByUserId(Long userId, PageableRequest pageableRequest) {
+        PageRequest pageRequest = PageRequest.of(0, pageableRequest.getSize(), HISTORY_ORDER);
+        Slice<Payment> payments;
+
+        if (pageableRequest.getAfter() != null) {
+            PaymentCursor cursor = CursorCodec.decode(pageableRequest.getAfter());
+            payments = paymentRepository.findHistoryByUserIdAfter(userId, cursor.getTimestamp(), cursor.getId(), pageRequest);
+        } else {
+            payments = paymentRepository.findHistoryByUserId(userId, pageRequest);
+        }
+
+        return payments.map(paymentMapper::paymentToPaymentResponse);
+    }
+
+    @Override
+    public Slice<PaymentResponse> findByStatuses(List<PaymentStatus> statuses, PageableRequest pageableRequest) {
+        PageRequest pageRequest = PageRequest.of(0, pageableRequest.getSize(), HISTORY_ORDER);
+        Slice<Payment> payments;
+
+        if (pageableRequest.getAfter() != null) {
+            PaymentCursor cursor = CursorCodec.decode(pageableRequest.getAfter());
+            payments = paymentRepository.findHistoryByStatusInAfter(statuses, cursor.getTimestamp(), cursor.getId(), pageRequest);
+        } else {
+            payments = paymentRepository.findHistoryByStatusIn(statuses, pageRequest);
+        }
 
-        return totalAmountOpt.map(TotalAmountProjection::getTotal)
-                .map(Decimal128::bigDecimalValue)
-                .orElse(BigDecimal.ZERO);
+        return payments.map(paymentMapper::paymentToPaymentResponse);
+    }
+
+    @Override
+    public Stream<PaymentResponse> streamByUserId(Long userId) {
+        return paymentRepository.streamHistoryByUserId(userId)
+                .map(paymentMapper::paymentToPaymentResponse);
+    }
+
+    @Override
+    public Stream<PaymentResponse> streamByStatuses(List<PaymentStatus> statuses) {
+        return paymentRepository.streamHistoryByStatusIn(statuses)
+                .map(paymentMapper::paymentToPaymentResponse);
+    }
+
+    @Override
+    public BigDecimal findTotalAmount(LocalDateTime from, LocalDateTime to) {
+        return paymentRollupService.findTotalAmount(from, to);
     }
 
     @Override
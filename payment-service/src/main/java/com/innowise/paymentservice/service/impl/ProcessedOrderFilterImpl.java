@@ -0,0 +1,155 @@
+package com.innowise.paymentservice.service.impl;
+
+import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.document.Payment;
+import com.innowise.paymentservice.service.ProcessedOrderFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the payment status of the most recently processed orders in a bounded LRU map, so that order events
+ * replayed by redeliveries and rebalances are answered without a database round trip.
+ * <p>
+ * Entries are exact rather than probabilistic: an order is recorded only after its payment is stored, and payments
+ * are never deleted, so a hit can always be trusted. The status is kept too, because the transactional delivery mode
+ * has to produce the stored result again. Anything that misses, including orders evicted from the map or processed
+ * by another replica, falls back to the idempotent insert keyed on the unique order ID.
+ * <p>
+ * Before the Kafka listener containers start, the map is warmed with the latest
+ * {@code kafka.consumer.dedupe.capacity} payments, newest ones most recently used.
+ * Lookups are published as the {@code processed.order.filter.hits} and {@code processed.order.filter.misses}
+ * counters and the fill level as the {@code processed.order.filter.size} gauge.
+ */
+@Slf4j
+@Service
+public class ProcessedOrderFilterImpl implements ProcessedOrderFilter, SmartLifecycle {
+
+    private static final String HITS_METRIC = "processed.order.filter.hits";
+    private static final String MISSES_METRIC = "processed.order.filter.misses";
+    private static final String SIZE_METRIC = "processed.order.filter.size";
+
+    private static final int WARM_UP_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int capacity;
+
+    private final Map<Long, PaymentStatus> statuses;
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile boolean running;
+
+    public ProcessedOrderFilterImpl(MongoTemplate mongoTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${kafka.consumer.dedupe.capacity}") int capacity) {
+        this.mongoTemplate = mongoTemplate;
+        this.capacity = capacity;
+        this.statuses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, PaymentStatus> eldest) {
+                return size() > capacity;
+            }
+        };
+
+        this.hits = Counter.builder(HITS_METRIC)
+                .register(meterRegistry);
+        this.misses = Counter.builder(MISSES_METRIC)
+                .register(meterRegistry);
+        Gauge.builder(SIZE_METRIC, this, ProcessedOrderFilterImpl::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<PaymentStatus> findStatus(Long orderId) {
+        PaymentStatus status;
+        synchronized (statuses) {
+            status = statuses.get(orderId);
+        }
+
+        if (status == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        hits.increment();
+        return Optional.of(status);
+    }
+
+    @Override
+    public void record(Long orderId, PaymentStatus status) {
+        synchronized (statuses) {
+            statuses.put(orderId, status);
+        }
+    }
+
+    @Override
+    public void warmUp() {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "timestamp"))
+                .limit(capacity)
+                .cursorBatchSize(WARM_UP_BATCH_SIZE);
+        query.fields().include("orderId", "status");
+
+        Deque<Payment> latest = new ArrayDeque<>();
+        try (Stream<Payment> payments = mongoTemplate.stream(query, Payment.class)) {
+            payments.forEach(latest::push);
+        }
+
+        synchronized (statuses) {
+            latest.forEach(payment -> statuses.put(payment.getOrderId(), payment.getStatus()));
+        }
+        log.info("Warmed processed order filter with {} orders", latest.size());
+    }
+
+    /**
+     * Starts before the Kafka listener containers, so the first polled batch is already filtered.
+     */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 1;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+
+        try {
+            warmUp();
+        } catch (RuntimeException e) {
+            log.warn("Failed to warm processed order filter, starting empty. Reason: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private int size() {
+        synchronized (statuses) {
+            return statuses.size();
+        }
+    }
+
+}
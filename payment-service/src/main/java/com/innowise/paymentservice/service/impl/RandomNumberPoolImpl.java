@@ -0,0 +1,124 @@
+package com.innowise.paymentservice.service.impl;
+
+import com.innowise.paymentservice.service.RandomNumberPool;
+import com.innowise.paymentservice.service.RandomNumberRestClient;
+import com.innowise.paymentservice.util.LongRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a {@link LongRingBuffer} of random numbers topped up with bulk requests to the random number API.
+ * <p>
+ * Whenever the pool drops below {@code services.random-number-api.pool.low_watermark}, on a take or on the
+ * periodic check, a single refill is started on the refill executor and requests up to
+ * {@code services.random-number-api.pool.batch_size} numbers at once. Takes never wait for a refill;
+ * only when the pool is empty does a take fall back to a direct, single-number API call.
+ * <p>
+ * The fill level is published as the {@code random.number.pool.size} gauge and the direct calls
+ * as the {@code random.number.pool.misses} counter.
+ */
+@Slf4j
+@Service
+public class RandomNumberPoolImpl implements RandomNumberPool {
+
+    private static final String SIZE_METRIC = "random.number.pool.size";
+    private static final String CAPACITY_METRIC = "random.number.pool.capacity";
+    private static final String MISSES_METRIC = "random.number.pool.misses";
+
+    private final RandomNumberRestClient randomNumberRestClient;
+    private final Executor randomNumberRefillExecutor;
+
+    private final LongRingBuffer buffer;
+    private final int lowWatermark;
+    private final int batchSize;
+
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final Counter misses;
+
+    public RandomNumberPoolImpl(RandomNumberRestClient randomNumberRestClient,
+                                @Qualifier("randomNumberRefillExecutor") Executor randomNumberRefillExecutor,
+                                MeterRegistry meterRegistry,
+                                @Value("${services.random-number-api.pool.capacity}") int capacity,
+                                @Value("${services.random-number-api.pool.low_watermark}") int lowWatermark,
+                                @Value("${services.random-number-api.pool.batch_size}") int batchSize) {
+        this.randomNumberRestClient = randomNumberRestClient;
+        this.randomNumberRefillExecutor = randomNumberRefillExecutor;
+        this.buffer = new LongRingBuffer(capacity);
+        this.lowWatermark = lowWatermark;
+        this.batchSize = batchSize;
+
+        Gauge.builder(SIZE_METRIC, buffer, LongRingBuffer::size)
+                .register(meterRegistry);
+        Gauge.builder(CAPACITY_METRIC, buffer, LongRingBuffer::capacity)
+                .register(meterRegistry);
+        this.misses = Counter.builder(MISSES_METRIC)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public long take() {
+        OptionalLong number = buffer.poll();
+        refillIfNeeded();
+
+        if (number.isPresent()) {
+            return number.getAsLong();
+        }
+
+        misses.increment();
+        return randomNumberRestClient.getRandomNumber();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${services.random-number-api.pool.check_interval}")
+    public void refillIfNeeded() {
+        if (buffer.size() >= lowWatermark || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            randomNumberRefillExecutor.execute(this::refill);
+        } catch (RuntimeException e) {
+            refilling.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Requests the free capacity of the pool, up to the batch size, from the API and appends the returned numbers.
+     */
+    private void refill() {
+        try {
+            int count = Math.min(batchSize, buffer.capacity() - buffer.size());
+
+            if (count <= 0) {
+                return;
+            }
+
+            List<Long> numbers = randomNumberRestClient.getRandomNumbers(count);
+
+            for (Long number : numbers) {
+                if (!buffer.offer(number)) {
+                    break;
+                }
+            }
+
+            log.debug("Refilled random number pool with {} numbers, size: {}", numbers.size(), buffer.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to refill random number pool. Reason: {}", e.getMessage());
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+}
@@ -3,6 +3,7 @@ package com.innowise.paymentservice.service.impl;
 import com.innowise.paymentservice.exception.ExternalServiceException;
 import com.innowise.paymentservice.exception.ResourceNotFoundException;
 import com.innowise.paymentservice.service.RandomNumberRestClient;
+import com.innowise.paymentservice.util.RequestHedger;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -18,20 +19,46 @@ import java.util.List;
 @Service
 public class RandomNumberRestClientImpl implements RandomNumberRestClient {
 
+    private static final String COUNT_PARAM = "count";
+
     @Value("${services.random-number-api.fallback-value:2}")
     private Long fallbackValue;
 
     private final RestClient randomNumberRestClient;
+    private final RequestHedger randomNumberRequestHedger;
 
-    public RandomNumberRestClientImpl(@Qualifier("randomNumberRestClient") RestClient randomNumberRestClient) {
+    public RandomNumberRestClientImpl(@Qualifier("randomNumberRestClient") RestClient randomNumberRestClient,
+                                      @Qualifier("randomNumberRequestHedger") RequestHedger randomNumberRequestHedger) {
         this.randomNumberRestClient = randomNumberRestClient;
+        this.randomNumberRequestHedger = randomNumberRequestHedger;
     }
 
     @Override
     @CircuitBreaker(name = "random-number-api", fallbackMethod = "getRandomNumberFallback")
     public Long getRandomNumber() {
-        List<Long> numbers = randomNumberRestClient.get()
-                .retrieve()
+        List<Long> numbers = randomNumberRequestHedger.execute(() -> handleErrors(randomNumberRestClient.get().retrieve())
+                .body(new ParameterizedTypeReference<List<Long>>() {}));
+
+        if (numbers == null || numbers.isEmpty()) {
+            throw new ResourceNotFoundException("Random number not found");
+        }
+
+        return numbers.getFirst();
+    }
+
+    @Override
+    @CircuitBreaker(name = "random-number-api", fallbackMethod = "getRandomNumbersFallback")
+    public List<Long> getRandomNumbers(int count) {
+        List<Long> numbers = handleErrors(randomNumberRestClient.get()
+                .uri(uriBuilder -> uriBuilder.queryParam(COUNT_PARAM, count).build())
+                .retrieve())
+                .body(new ParameterizedTypeReference<>() {});
+
+        return numbers != null ? numbers : List.of();
+    }
+
+    private RestClient.ResponseSpec handleErrors(RestClient.ResponseSpec responseSpec) {
+        return responseSpec
                 .onStatus(HttpStatusCode::is4xxClientError,
                         (request, response) -> {
                             throw new ExternalServiceException("Client error from random number API");
@@ -39,14 +66,7 @@ public class RandomNumberRestClientImpl implements RandomNumberRestClient {
                 .onStatus(HttpStatusCode::is5xxServerError,
                         (request, response) -> {
                             throw new ExternalServiceException("Server error from random number API");
-                        })
-                .body(new ParameterizedTypeReference<>() {});
-
-        if (numbers == null || numbers.isEmpty()) {
-            throw new ResourceNotFoundException("Random number not found");
-        }
-
-        return numbers.getFirst();
+                        });
     }
 
     private Long getRandomNumberFallback(Throwable throwable) {
@@ -54,4 +74,9 @@ public class RandomNumberRestClientImpl implements RandomNumberRestClient {
         return fallbackValue;
     }
 
+    private List<Long> getRandomNumbersFallback(int count, Throwable throwable) {
+        log.warn("Random number API unavailable, skipping prefetch of {} numbers. Reason: {}", count, throwable.getMessage());
+        return List.of();
+    }
+
 }
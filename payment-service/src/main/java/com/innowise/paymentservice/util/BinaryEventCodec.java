@@ -0,0 +1,69 @@
+package com.innowise.paymentservice.util;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.innowise.events.EventDecimals;
+import com.innowise.events.EventProtos;
+import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.dto.CreatePaymentEvent;
+import com.innowise.paymentservice.model.dto.PaymentRequest;
+
+/**
+ * Utility class for the binary encoding of the events exchanged with the Order Service over Kafka.
+ * <p>
+ * The wire format is the Protobuf schema shared with the Order Service in the {@code event-contracts} module;
+ * this class only maps the events of the Payment Service to and from the generated messages.
+ * Fields unknown to this version of the schema are skipped when decoding.
+ */
+public class BinaryEventCodec {
+
+    private BinaryEventCodec() {
+    }
+
+    /**
+     * Decodes a {@link PaymentRequest} from an encoded create order event.
+     *
+     * @param data The encoded event.
+     * @return The decoded request.
+     * @throws IllegalArgumentException if the data is malformed.
+     */
+    public static PaymentRequest decodePaymentRequest(byte[] data) {
+        EventProtos.CreateOrderEvent message;
+
+        try {
+            message = EventProtos.CreateOrderEvent.parseFrom(data);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalArgumentException("Malformed CreateOrderEvent: " + e.getMessage(), e);
+        }
+
+        return PaymentRequest.builder()
+                .orderId(message.hasOrderId() ? message.getOrderId() : null)
+                .userId(message.hasUserId() ? message.getUserId() : null)
+                .paymentAmount(message.hasPaymentAmount()
+                        ? EventDecimals.fromMessage(message.getPaymentAmount())
+                        : null)
+                .build();
+    }
+
+    /**
+     * Encodes a {@link CreatePaymentEvent}.
+     *
+     * @param event The event to encode.
+     * @return The encoded event.
+     */
+    public static byte[] encode(CreatePaymentEvent event) {
+        EventProtos.CreatePaymentEvent.Builder message = EventProtos.CreatePaymentEvent.newBuilder();
+
+        if (event.getOrderId() != null) {
+            message.setOrderId(event.getOrderId());
+        }
+
+        if (event.getStatus() != null) {
+            message.setStatus(event.getStatus() == PaymentStatus.SUCCESS
+                    ? EventProtos.PaymentStatus.SUCCESS
+                    : EventProtos.PaymentStatus.FAILED);
+        }
+
+        return message.build().toByteArray();
+    }
+
+}
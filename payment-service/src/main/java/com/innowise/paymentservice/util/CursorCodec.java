@@ -0,0 +1,58 @@
+package com.innowise.paymentservice.util;
+
+import com.innowise.paymentservice.exception.InvalidCursorException;
+import com.innowise.paymentservice.model.PaymentCursor;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Utility class for encoding and decoding opaque keyset pagination cursors.
+ * A cursor wraps the timestamp and ID of the last returned payment; the next page starts right after it.
+ */
+public class CursorCodec {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String KEY_DELIMITER = "|";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Encodes the keyset of the last returned payment into an opaque cursor.
+     *
+     * @param timestamp The timestamp of the last returned payment.
+     * @param id The hex ID of the last returned payment.
+     * @return The Base64URL-encoded cursor.
+     */
+    public static String encode(LocalDateTime timestamp, String id) {
+        String keyset = timestamp + KEY_DELIMITER + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(keyset.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes an opaque cursor into the keyset of the last returned payment.
+     *
+     * @param cursor The Base64URL-encoded cursor.
+     * @return The {@link PaymentCursor} the next page starts after.
+     * @throws InvalidCursorException if the cursor is malformed.
+     */
+    public static PaymentCursor decode(String cursor) {
+        try {
+            String keyset = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int delimiter = keyset.indexOf(KEY_DELIMITER);
+
+            return new PaymentCursor(
+                    LocalDateTime.parse(keyset.substring(0, delimiter)),
+                    new ObjectId(keyset.substring(delimiter + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+            throw new InvalidCursorException(ExceptionMessageGenerator.invalidCursor(cursor));
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.innowise.paymentservice.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.innowise.paymentservice.exception.OutboxEventSerializationException;
+import com.innowise.paymentservice.model.EventEncoding;
+import com.innowise.paymentservice.model.dto.CreatePaymentEvent;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serializes {@link CreatePaymentEvent}s to their wire bytes in the encoding selected by
+ * {@code kafka.producer.event_encoding}, for both the outbox and the transactional delivery mode.
+ */
+@Slf4j
+@Component
+public class EventPayloadSerializer {
+
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    private final EventEncoding encoding;
+
+    public EventPayloadSerializer(ObjectMapper objectMapper,
+                                  @Value("${kafka.producer.event_encoding}") EventEncoding encoding) {
+        this.objectMapper = objectMapper;
+        this.encoding = encoding;
+    }
+
+    /**
+     * Serializes the event in the configured encoding.
+     *
+     * @param event The event to serialize.
+     * @return The wire bytes of the event.
+     * @throws OutboxEventSerializationException if the event cannot be serialized.
+     */
+    public byte[] serialize(CreatePaymentEvent event) {
+        if (encoding == EventEncoding.BINARY) {
+            return BinaryEventCodec.encode(event);
+        }
+
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize CreatePaymentEvent for order {}", event.getOrderId(), e);
+            throw new OutboxEventSerializationException(
+                    "Failed to serialize event for order " + event.getOrderId());
+        }
+    }
+
+}
@@ -8,6 +8,7 @@ package com.innowise.paymentservice.util;
 public class ExceptionMessageGenerator {
 
     private static final String PAYMENT_NOT_FOUND = "Payment with %s: %s not found";
+    private static final String INVALID_CURSOR = "Invalid cursor: %s";
 
     private ExceptionMessageGenerator() {}
 
@@ -15,4 +16,8 @@ public class ExceptionMessageGenerator {
         return PAYMENT_NOT_FOUND.formatted(field, value);
     }
 
+    public static String invalidCursor(String cursor) {
+        return INVALID_CURSOR.formatted(cursor);
+    }
+
 }
@@ -0,0 +1,91 @@
+package com.innowise.paymentservice.util;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Processes a polled batch of Kafka records in parallel while keeping the order of records with the same key.
+ * <p>
+ * Records are grouped by key and every group is processed sequentially on the record worker executor,
+ * so a slow record only holds back the later records of its own key instead of the whole partition.
+ * Once a record fails, the remaining records of its key are not processed.
+ * <p>
+ * The call returns when every group has finished. If any record failed, a {@link BatchListenerFailedException}
+ * is thrown for the failed record that comes first in the batch: every record before it has completed,
+ * so the container commits offsets only up to the highest contiguous completed record and redelivers the rest.
+ */
+@Component
+public class KeyOrderedRecordProcessor {
+
+    private final Executor recordWorkerExecutor;
+
+    public KeyOrderedRecordProcessor(@Qualifier("recordWorkerExecutor") Executor recordWorkerExecutor) {
+        this.recordWorkerExecutor = recordWorkerExecutor;
+    }
+
+    /**
+     * Processes the records with the given handler, in parallel across keys and in order within a key.
+     *
+     * @param records The records of the polled batch, in the order they were received.
+     * @param handler The handler processing a single record.
+     * @param <K> The type of the record key.
+     * @param <V> The type of the record value.
+     * @throws BatchListenerFailedException if the handler failed for any record.
+     */
+    public <K, V> void process(List<ConsumerRecord<K, V>> records, Consumer<ConsumerRecord<K, V>> handler) {
+        Map<K, List<Integer>> indexesByKey = new LinkedHashMap<>();
+
+        for (int i = 0; i < records.size(); i++) {
+            indexesByKey.computeIfAbsent(records.get(i).key(), key -> new ArrayList<>()).add(i);
+        }
+
+        List<CompletableFuture<RecordFailure>> groups = indexesByKey.values().stream()
+                .map(indexes -> CompletableFuture.supplyAsync(
+                        () -> processInOrder(records, indexes, handler), recordWorkerExecutor))
+                .toList();
+
+        groups.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .min(Comparator.comparingInt(RecordFailure::index))
+                .ifPresent(failure -> {
+                    throw new BatchListenerFailedException(
+                            failure.exception().getMessage(), failure.exception(), records.get(failure.index()));
+                });
+    }
+
+    /**
+     * Processes the records of one key in order, stopping at the first failure.
+     *
+     * @return The failure that stopped the group, or {@code null} if every record was processed.
+     */
+    private <K, V> RecordFailure processInOrder(List<ConsumerRecord<K, V>> records,
+                                                List<Integer> indexes,
+                                                Consumer<ConsumerRecord<K, V>> handler) {
+        for (int index : indexes) {
+            try {
+                handler.accept(records.get(index));
+            } catch (RuntimeException e) {
+                return new RecordFailure(index, e);
+            }
+        }
+
+        return null;
+    }
+
+    private record RecordFailure(int index, RuntimeException exception) {
+    }
+
+}
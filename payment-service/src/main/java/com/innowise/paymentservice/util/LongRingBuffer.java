@@ -0,0 +1,113 @@
+package com.innowise.paymentservice.util;
+
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free ring buffer of {@code long} values safe for any number of concurrent producers and consumers.
+ * <p>
+ * Every slot carries a sequence number telling whether it is free for the producer at a given position
+ * or holds a value for the consumer at that position, so producers and consumers only contend on a
+ * compare-and-set of their own cursor and never block each other. The capacity is rounded up to a power of two.
+ */
+public class LongRingBuffer {
+
+    private final int mask;
+    private final long[] values;
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    public LongRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Ring buffer capacity must be between 1 and 2^30, got " + capacity);
+        }
+
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+
+        this.mask = size - 1;
+        this.values = new long[size];
+        this.sequences = new AtomicLongArray(size);
+
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Appends the value to the buffer.
+     *
+     * @param value The value to append.
+     * @return {@code true} if the value was appended, {@code false} if the buffer is full.
+     */
+    public boolean offer(long value) {
+        long position = tail.get();
+
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    values[index] = value;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest value from the buffer.
+     *
+     * @return The oldest value, or empty if the buffer is empty.
+     */
+    public OptionalLong poll() {
+        long position = head.get();
+
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    long value = values[index];
+                    sequences.set(index, position + mask + 1);
+                    return OptionalLong.of(value);
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return OptionalLong.empty();
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Returns the approximate number of values in the buffer, exact when no producer or consumer is active.
+     *
+     * @return The number of values in the buffer.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * Returns the capacity of the buffer.
+     *
+     * @return The maximum number of values the buffer holds.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+}
@@ -0,0 +1,222 @@
+package com.innowise.paymentservice.util;
+
+import com.innowise.paymentservice.exception.ExternalServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hedges calls to a slow dependency by racing a second attempt against a primary attempt that is taking too long.
+ * <p>
+ * The primary attempt gets as long as the configured percentile of recent successful attempt latencies
+ * (never less than the minimum delay). If it has not answered by then, a hedge attempt is started
+ * and the first successful result of the two is returned; the call fails only when both attempts fail.
+ * A primary attempt failing before the delay is not hedged, so failures are left to the caller's circuit breaker.
+ * <p>
+ * Hedges are capped by a token budget: every call earns {@code budget} of a token, up to a small burst,
+ * and every hedge spends a whole token, so at most that fraction of calls is ever sent twice.
+ * Calls, hedges, hedge wins and hedges skipped for lack of budget are published as {@code hedging.*} counters
+ * tagged with the dependency name, and attempt latencies as the {@code hedging.latency} timer.
+ */
+public class RequestHedger {
+
+    private static final String DEPENDENCY_TAG = "dependency";
+    private static final long TOKEN = 1_000;
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    private final String name;
+    private final Executor executor;
+    private final boolean enabled;
+    private final long minDelayNanos;
+    private final long tokensPerCall;
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    private final Timer latency;
+    private final Counter calls;
+    private final Counter hedges;
+    private final Counter wins;
+    private final Counter budgetExhausted;
+
+    public RequestHedger(String name,
+                         Executor executor,
+                         MeterRegistry meterRegistry,
+                         boolean enabled,
+                         double percentile,
+                         Duration minDelay,
+                         double budget) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("Hedging percentile must be between 0 and 1, got " + percentile);
+        }
+        if (budget < 0 || budget > 1) {
+            throw new IllegalArgumentException("Hedging budget must be between 0 and 1, got " + budget);
+        }
+
+        this.name = name;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.minDelayNanos = minDelay.toNanos();
+        this.tokensPerCall = Math.round(budget * TOKEN);
+
+        this.latency = Timer.builder("hedging.latency")
+                .tag(DEPENDENCY_TAG, name)
+                .publishPercentiles(percentile)
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .register(meterRegistry);
+        this.calls = counter("hedging.calls", meterRegistry);
+        this.hedges = counter("hedging.hedges", meterRegistry);
+        this.wins = counter("hedging.wins", meterRegistry);
+        this.budgetExhausted = counter("hedging.budget.exhausted", meterRegistry);
+    }
+
+    /**
+     * Performs the call, hedging it with a second attempt if the first one is slower than the hedge delay.
+     *
+     * @param call The call to the dependency.
+     * @param <T> The type of the call result.
+     * @return The result of the first successful attempt.
+     * @throws RuntimeException the failure of the primary attempt if it failed before the hedge delay,
+     * or of the last attempt to fail if every attempt failed.
+     */
+    public <T> T execute(Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        calls.increment();
+        tokens.accumulateAndGet(tokensPerCall, (current, deposit) -> Math.min(MAX_TOKENS, current + deposit));
+
+        CompletableFuture<T> primary = attempt(call);
+
+        try {
+            return primary.get(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // The primary attempt is slower than the hedge delay, hedge it below.
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalServiceException("Interrupted while calling " + name);
+        }
+
+        if (!tryAcquireToken()) {
+            budgetExhausted.increment();
+            return await(primary);
+        }
+
+        hedges.increment();
+        Outcome<T> outcome = await(firstSuccessful(primary, attempt(call)));
+
+        if (outcome.hedged()) {
+            wins.increment();
+        }
+
+        return outcome.value();
+    }
+
+    /**
+     * Returns the current hedge delay: the configured percentile of recent attempt latencies, but at least the minimum delay.
+     *
+     * @return The hedge delay in nanoseconds.
+     */
+    private long hedgeDelayNanos() {
+        ValueAtPercentile[] percentiles = latency.takeSnapshot().percentileValues();
+        long percentileNanos = percentiles.length > 0 ? (long) percentiles[0].value(TimeUnit.NANOSECONDS) : 0;
+
+        return Math.max(minDelayNanos, percentileNanos);
+    }
+
+    private boolean tryAcquireToken() {
+        long current = tokens.get();
+
+        while (current >= TOKEN) {
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+            current = tokens.get();
+        }
+
+        return false;
+    }
+
+    private <T> CompletableFuture<T> attempt(Supplier<T> call) {
+        long start = System.nanoTime();
+
+        return CompletableFuture.supplyAsync(() -> {
+            T value = call.get();
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return value;
+        }, executor);
+    }
+
+    /**
+     * Completes with the result of whichever attempt succeeds first, or with the last failure if both fail.
+     */
+    private <T> CompletableFuture<Outcome<T>> firstSuccessful(CompletableFuture<T> primary, CompletableFuture<T> hedge) {
+        CompletableFuture<Outcome<T>> outcome = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(2);
+
+        primary.whenComplete((value, throwable) -> settle(outcome, remaining, value, throwable, false));
+        hedge.whenComplete((value, throwable) -> settle(outcome, remaining, value, throwable, true));
+
+        return outcome;
+    }
+
+    private <T> void settle(CompletableFuture<Outcome<T>> outcome, AtomicInteger remaining,
+                            T value, Throwable throwable, boolean hedged) {
+        if (throwable == null) {
+            outcome.complete(new Outcome<>(value, hedged));
+        } else if (remaining.decrementAndGet() == 0) {
+            outcome.completeExceptionally(throwable);
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalServiceException("Interrupted while calling " + name);
+        }
+    }
+
+    private RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+
+        return new ExternalServiceException("Call to " + name + " failed: " + cause);
+    }
+
+    private Counter counter(String metric, MeterRegistry meterRegistry) {
+        return Counter.builder(metric)
+                .tag(DEPENDENCY_TAG, name)
+                .register(meterRegistry);
+    }
+
+    private record Outcome<T>(T value, boolean hedged) {
+    }
+
+}
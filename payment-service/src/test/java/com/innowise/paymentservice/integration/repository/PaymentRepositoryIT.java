@@ -1,28 +1,54 @@
 package com.innowise.paymentservice.integration.repository;
 
 import com.innowise.paymentservice.integration.BaseIntegrationRepositoryTest;
+import com.innowise.paymentservice.model.EventStatus;
 import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.RollupGranularity;
+import com.innowise.paymentservice.model.document.OutboxEvent;
 import com.innowise.paymentservice.model.document.Payment;
+import com.innowise.paymentservice.model.document.PaymentRollup;
 import com.innowise.paymentservice.model.projection.TotalAmountProjection;
 import com.innowise.paymentservice.repository.PaymentRepository;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static com.innowise.paymentservice.util.PaymentUtil.createPayment;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 class PaymentRepositoryIT extends BaseIntegrationRepositoryTest {
 
+    private static final int MAX_RETRY_COUNT = 5;
+    private static final String OWNER = "relay-1";
+    private static final String OTHER_OWNER = "relay-2";
+    private static final Sort HISTORY_ORDER = Sort.by(Sort.Direction.DESC, "timestamp", "id");
+
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @BeforeEach
     void setUp() {
         paymentRepository.deleteAll();
@@ -110,6 +136,66 @@ class PaymentRepositoryIT extends BaseIntegrationRepositoryTest {
                 .containsExactlyInAnyOrder(1L, 3L);
     }
 
+    @Test
+    @DisplayName("Should page the payment history of a user by keyset, newest first with ID as tie-breaker")
+    void findHistoryByUserIdAfter_ShouldReturnNextPage() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Payment oldest = createPayment(1L, 1L, BigDecimal.TEN, PaymentStatus.SUCCESS, now.minusMinutes(2));
+        Payment sameTimeFirst = createPayment(new ObjectId(), 2L, 1L, BigDecimal.TEN, PaymentStatus.FAILED, now.minusMinutes(1));
+        Payment sameTimeSecond = createPayment(new ObjectId(), 3L, 1L, BigDecimal.TEN, PaymentStatus.SUCCESS, now.minusMinutes(1));
+        Payment newest = createPayment(4L, 1L, BigDecimal.TEN, PaymentStatus.SUCCESS, now);
+        Payment otherUser = createPayment(5L, 2L, BigDecimal.TEN, PaymentStatus.SUCCESS, now);
+        paymentRepository.saveAll(List.of(oldest, sameTimeFirst, sameTimeSecond, newest, otherUser));
+        PageRequest pageRequest = PageRequest.of(0, 2, HISTORY_ORDER);
+
+        Slice<Payment> firstPage = paymentRepository.findHistoryByUserId(1L, pageRequest);
+        Payment last = firstPage.getContent().getLast();
+        Slice<Payment> secondPage = paymentRepository.findHistoryByUserIdAfter(1L, last.getTimestamp(), last.getId(), pageRequest);
+
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(firstPage.getContent()).extracting(Payment::getOrderId).containsExactly(4L, 3L);
+        assertThat(firstPage.getContent()).extracting(Payment::getOutbox).containsOnlyNulls();
+        assertThat(secondPage.hasNext()).isFalse();
+        assertThat(secondPage.getContent()).extracting(Payment::getOrderId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    @DisplayName("Should page payments by statuses by keyset")
+    void findHistoryByStatusInAfter_ShouldReturnNextPage() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        paymentRepository.saveAll(List.of(
+                createPayment(1L, 1L, BigDecimal.TEN, PaymentStatus.FAILED, now.minusMinutes(2)),
+                createPayment(2L, 2L, BigDecimal.TEN, PaymentStatus.SUCCESS, now.minusMinutes(1)),
+                createPayment(3L, 3L, BigDecimal.TEN, PaymentStatus.FAILED, now)
+        ));
+        PageRequest pageRequest = PageRequest.of(0, 1, HISTORY_ORDER);
+
+        Slice<Payment> firstPage = paymentRepository.findHistoryByStatusIn(List.of(PaymentStatus.FAILED), pageRequest);
+        Payment last = firstPage.getContent().getLast();
+        Slice<Payment> secondPage = paymentRepository.findHistoryByStatusInAfter(
+                List.of(PaymentStatus.FAILED), last.getTimestamp(), last.getId(), pageRequest);
+
+        assertThat(firstPage.getContent()).extracting(Payment::getOrderId).containsExactly(3L);
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(secondPage.getContent()).extracting(Payment::getOrderId).containsExactly(1L);
+        assertThat(secondPage.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should stream the whole payment history of a user, newest first")
+    void streamHistoryByUserId_ShouldStreamPaymentsNewestFirst() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        paymentRepository.saveAll(List.of(
+                createPayment(1L, 1L, BigDecimal.TEN, PaymentStatus.SUCCESS, now.minusMinutes(1)),
+                createPayment(2L, 1L, BigDecimal.TEN, PaymentStatus.FAILED, now),
+                createPayment(3L, 2L, BigDecimal.TEN, PaymentStatus.SUCCESS, now)
+        ));
+
+        try (Stream<Payment> payments = paymentRepository.streamHistoryByUserId(1L)) {
+            assertThat(payments).extracting(Payment::getOrderId).containsExactly(2L, 1L);
+        }
+    }
+
     @Test
     @DisplayName("Should calculate total amount for date range")
     void findTotalAmount_ShouldReturnTotal_WhenPaymentsExist() {
@@ -133,6 +219,25 @@ class PaymentRepositoryIT extends BaseIntegrationRepositoryTest {
                 .isEqualByComparingTo(BigDecimal.valueOf(300.00));
     }
 
+    @Test
+    @DisplayName("Should calculate total amount of the leading and trailing edges of a range")
+    void findTotalAmountAtEdges_ShouldSumBothEdges() {
+        LocalDateTime minute = LocalDateTime.of(2024, 5, 10, 10, 0);
+
+        paymentRepository.saveAll(List.of(
+                createPayment(1L, 1L, BigDecimal.valueOf(100.00), PaymentStatus.SUCCESS, minute.plusSeconds(30)),
+                createPayment(2L, 1L, BigDecimal.valueOf(200.00), PaymentStatus.SUCCESS, minute.plusMinutes(1)),
+                createPayment(3L, 1L, BigDecimal.valueOf(300.00), PaymentStatus.FAILED, minute.plusMinutes(5).plusSeconds(10)),
+                createPayment(4L, 1L, BigDecimal.valueOf(400.00), PaymentStatus.SUCCESS, minute.plusMinutes(5).plusSeconds(20))));
+
+        Optional<TotalAmountProjection> result = paymentRepository.findTotalAmountAtEdges(
+                minute.plusSeconds(10), minute.plusMinutes(1), minute.plusMinutes(5), minute.plusMinutes(5).plusSeconds(10));
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getTotal().bigDecimalValue())
+                .isEqualByComparingTo(BigDecimal.valueOf(400.00));
+    }
+
     @Test
     @DisplayName("Should return empty when no payments in date range")
     void findTotalAmount_ShouldReturnEmpty_WhenNoPaymentsInRange() {
@@ -166,4 +271,172 @@ class PaymentRepositoryIT extends BaseIntegrationRepositoryTest {
         assertThat(exists).isFalse();
     }
 
+    @Test
+    @DisplayName("Should reject a second payment for the same order on the unique order index")
+    void insert_ShouldThrowDuplicateKeyException_WhenOrderAlreadyHasPayment() {
+        paymentRepository.insert(createPayment(1L, 1L, PaymentStatus.SUCCESS));
+
+        assertThatThrownBy(() -> paymentRepository.insert(createPayment(1L, 1L, PaymentStatus.FAILED)))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    @DisplayName("Should find only pending outbox events created before the given time and not leased")
+    void findClaimableOutboxEvents_ShouldReturnOlderUnleasedPendingEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        Payment claimable = createPaymentWithOutbox(1L, 0);
+        claimable.setTimestamp(now.minusMinutes(5));
+        Payment expiredLease = createPaymentWithOutbox(2L, 0);
+        expiredLease.setTimestamp(now.minusMinutes(4));
+        expiredLease.getOutbox().setLockedBy(OWNER);
+        expiredLease.getOutbox().setLockedUntil(now.minusSeconds(1));
+        Payment leased = createPaymentWithOutbox(3L, 0);
+        leased.setTimestamp(now.minusMinutes(3));
+        leased.getOutbox().setLockedBy(OWNER);
+        leased.getOutbox().setLockedUntil(now.plusMinutes(1));
+        Payment sent = createPaymentWithOutbox(4L, 0);
+        sent.setTimestamp(now.minusMinutes(2));
+        sent.getOutbox().setEventStatus(EventStatus.SENT);
+        Payment newer = createPaymentWithOutbox(5L, 0);
+        newer.setTimestamp(now);
+        paymentRepository.insert(List.of(claimable, expiredLease, leased, sent, newer));
+
+        List<Payment> payments = paymentRepository.findClaimableOutboxEvents(
+                now.minusMinutes(1), now, PageRequest.of(0, 10));
+
+        assertThat(payments).extracting(Payment::getId).containsExactly(claimable.getId(), expiredLease.getId());
+    }
+
+    @Test
+    @DisplayName("Should lease each outbox event to only one of the competing owners")
+    void leaseOutboxEvents_ShouldLeaseEventsToOneOwner() {
+        LocalDateTime now = LocalDateTime.now();
+        Payment payment1 = paymentRepository.insert(createPaymentWithOutbox(1L, 0));
+        Payment payment2 = paymentRepository.insert(createPaymentWithOutbox(2L, 0));
+        List<ObjectId> ids = List.of(payment1.getId(), payment2.getId());
+
+        long leased = paymentRepository.leaseOutboxEvents(ids, OWNER, now, now.plusSeconds(30));
+        long leasedByOther = paymentRepository.leaseOutboxEvents(ids, OTHER_OWNER, now, now.plusSeconds(30));
+
+        assertThat(leased).isEqualTo(2);
+        assertThat(leasedByOther).isZero();
+        assertThat(paymentRepository.findLeasedOutboxEvents(ids, OWNER))
+                .extracting(Payment::getId)
+                .containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(paymentRepository.findLeasedOutboxEvents(ids, OTHER_OWNER)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should mark only the events leased to the owner as sent and release their leases")
+    void markOutboxEventsAsSent_ShouldUpdateLeasedEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        Payment payment1 = paymentRepository.insert(createPaymentWithOutbox(1L, 0));
+        Payment payment2 = paymentRepository.insert(createPaymentWithOutbox(2L, 0));
+        Payment untouched = paymentRepository.insert(createPaymentWithOutbox(3L, 0));
+        paymentRepository.leaseOutboxEvents(List.of(payment1.getId(), payment2.getId()), OWNER, now, now.plusSeconds(30));
+        paymentRepository.leaseOutboxEvents(List.of(untouched.getId()), OTHER_OWNER, now, now.plusSeconds(30));
+
+        long updated = paymentRepository.markOutboxEventsAsSent(
+                List.of(payment1.getId(), payment2.getId(), untouched.getId()), OWNER, now);
+
+        assertThat(updated).isEqualTo(2);
+        OutboxEvent sent = paymentRepository.findById(payment1.getId()).orElseThrow().getOutbox();
+        assertThat(sent.getEventStatus()).isEqualTo(EventStatus.SENT);
+        assertThat(sent.getSentAt()).isNotNull();
+        assertThat(sent.getLockedBy()).isNull();
+        assertThat(sent.getLockedUntil()).isNull();
+        assertThat(paymentRepository.findById(untouched.getId()).orElseThrow().getOutbox().getEventStatus())
+                .isEqualTo(EventStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("Should bump outbox retry counts, fail events that reach the retry limit and release their leases")
+    void recordOutboxEventFailures_ShouldRetryOrFailEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        Payment retryable = paymentRepository.insert(createPaymentWithOutbox(1L, 0));
+        Payment exhausted = paymentRepository.insert(createPaymentWithOutbox(2L, 4));
+        List<ObjectId> ids = List.of(retryable.getId(), exhausted.getId());
+        paymentRepository.leaseOutboxEvents(ids, OWNER, now, now.plusSeconds(30));
+
+        long updated = paymentRepository.recordOutboxEventFailures(ids, OWNER, MAX_RETRY_COUNT);
+
+        assertThat(updated).isEqualTo(2);
+
+        OutboxEvent retried = paymentRepository.findById(retryable.getId()).orElseThrow().getOutbox();
+        assertThat(retried.getRetryCount()).isEqualTo(1);
+        assertThat(retried.getEventStatus()).isEqualTo(EventStatus.PENDING);
+        assertThat(retried.getLockedBy()).isNull();
+
+        OutboxEvent failed = paymentRepository.findById(exhausted.getId()).orElseThrow().getOutbox();
+        assertThat(failed.getRetryCount()).isEqualTo(5);
+        assertThat(failed.getEventStatus()).isEqualTo(EventStatus.FAILED);
+    }
+
+    @Test
+    @DisplayName("Should remove only the outbox events sent before the given time")
+    void removeSentOutboxEvents_ShouldRemoveOldSentEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        Payment old = createPaymentWithOutbox(1L, 0);
+        old.getOutbox().setEventStatus(EventStatus.SENT);
+        old.getOutbox().setSentAt(now.minusDays(8));
+        Payment recent = createPaymentWithOutbox(2L, 0);
+        recent.getOutbox().setEventStatus(EventStatus.SENT);
+        recent.getOutbox().setSentAt(now.minusHours(1));
+        paymentRepository.insert(List.of(old, recent));
+
+        long removed = paymentRepository.removeSentOutboxEvents(now.minusDays(7));
+
+        assertThat(removed).isEqualTo(1);
+        assertThat(paymentRepository.findById(old.getId()).orElseThrow().getOutbox()).isNull();
+        assertThat(paymentRepository.findById(recent.getId()).orElseThrow().getOutbox()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should replace drifted closed rollup buckets with the totals of their payments")
+    void reconcileRollups_ShouldRecomputeClosedBuckets() {
+        mongoTemplate.indexOps(PaymentRollup.class).createIndex(new Index()
+                .on("granularity", Sort.Direction.ASC)
+                .on("bucket_start", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .unique());
+        mongoTemplate.remove(new Query(), PaymentRollup.class);
+        LocalDateTime day = LocalDateTime.of(2024, 5, 10, 0, 0);
+        paymentRepository.saveAll(List.of(
+                createPayment(1L, 1L, BigDecimal.valueOf(100.00), PaymentStatus.SUCCESS, day.plusHours(9).plusSeconds(10)),
+                createPayment(2L, 1L, BigDecimal.valueOf(200.00), PaymentStatus.SUCCESS, day.plusHours(9).plusSeconds(20)),
+                createPayment(3L, 1L, BigDecimal.valueOf(300.00), PaymentStatus.SUCCESS, day.plusHours(10).plusMinutes(5))));
+        mongoTemplate.insert(PaymentRollup.builder()
+                .granularity(RollupGranularity.MINUTE)
+                .bucketStart(day.plusHours(9))
+                .status(PaymentStatus.SUCCESS)
+                .totalAmount(BigDecimal.valueOf(100.00))
+                .count(1L)
+                .build());
+
+        paymentRepository.reconcileRollups(day, day.plusHours(10).plusMinutes(30), day.plusHours(10), day,
+                ZoneId.systemDefault().getId());
+
+        List<PaymentRollup> rollups = mongoTemplate.findAll(PaymentRollup.class);
+        assertThat(rollups)
+                .extracting(PaymentRollup::getGranularity, PaymentRollup::getBucketStart, PaymentRollup::getCount)
+                .containsExactlyInAnyOrder(
+                        tuple(RollupGranularity.MINUTE, day.plusHours(9), 2L),
+                        tuple(RollupGranularity.MINUTE, day.plusHours(10).plusMinutes(5), 1L),
+                        tuple(RollupGranularity.HOUR, day.plusHours(9), 2L));
+        assertThat(rollups)
+                .filteredOn(rollup -> rollup.getBucketStart().equals(day.plusHours(9)))
+                .allSatisfy(rollup -> assertThat(rollup.getTotalAmount()).isEqualByComparingTo("300.00"));
+    }
+
+    private Payment createPaymentWithOutbox(Long orderId, int retryCount) {
+        Payment payment = createPayment(orderId, 1L, PaymentStatus.SUCCESS);
+        payment.setOutbox(OutboxEvent.builder()
+                .payload("{}".getBytes(StandardCharsets.UTF_8))
+                .retryCount(retryCount)
+                .eventStatus(EventStatus.PENDING)
+                .build());
+
+        return payment;
+    }
+
 }
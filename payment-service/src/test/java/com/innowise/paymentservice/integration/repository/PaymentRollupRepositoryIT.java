@@ -0,0 +1,69 @@
+package com.innowise.paymentservice.integration.repository;
+
+import com.innowise.paymentservice.integration.BaseIntegrationRepositoryTest;
+import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.RollupGranularity;
+import com.innowise.paymentservice.model.document.PaymentRollup;
+import com.innowise.paymentservice.model.projection.TotalAmountProjection;
+import com.innowise.paymentservice.repository.PaymentRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentRollupRepositoryIT extends BaseIntegrationRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 10, 22, 6);
+    private static final LocalDateTime HOUR_START = LocalDateTime.of(2024, 5, 10, 23, 0);
+    private static final LocalDateTime DAY_START = LocalDateTime.of(2024, 5, 11, 0, 0);
+    private static final LocalDateTime DAY_END = LocalDateTime.of(2024, 5, 12, 0, 0);
+    private static final LocalDateTime HOUR_END = LocalDateTime.of(2024, 5, 12, 3, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 5, 12, 3, 10);
+
+    @Autowired
+    private PaymentRollupRepository paymentRollupRepository;
+
+    @BeforeEach
+    void setUp() {
+        paymentRollupRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should sum only the buckets of the granularity matching each part of the range")
+    void findTotalAmount_ShouldSumMatchingBuckets() {
+        paymentRollupRepository.saveAll(List.of(
+                createRollup(RollupGranularity.MINUTE, START, PaymentStatus.SUCCESS, 1),
+                createRollup(RollupGranularity.HOUR, HOUR_START, PaymentStatus.FAILED, 10),
+                createRollup(RollupGranularity.DAY, DAY_START, PaymentStatus.SUCCESS, 100),
+                createRollup(RollupGranularity.HOUR, DAY_END, PaymentStatus.SUCCESS, 1000),
+                createRollup(RollupGranularity.MINUTE, HOUR_END, PaymentStatus.SUCCESS, 10000),
+                createRollup(RollupGranularity.HOUR, DAY_START, PaymentStatus.SUCCESS, 100000),
+                createRollup(RollupGranularity.MINUTE, END, PaymentStatus.SUCCESS, 1000000),
+                createRollup(RollupGranularity.DAY, DAY_END, PaymentStatus.SUCCESS, 10000000)));
+
+        Optional<TotalAmountProjection> result = paymentRollupRepository.findTotalAmount(
+                START, HOUR_START, DAY_START, DAY_END, HOUR_END, END);
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getTotal().bigDecimalValue()).isEqualByComparingTo(BigDecimal.valueOf(11111));
+    }
+
+    private PaymentRollup createRollup(RollupGranularity granularity, LocalDateTime bucketStart,
+                                       PaymentStatus status, long totalAmount) {
+        return PaymentRollup.builder()
+                .granularity(granularity)
+                .bucketStart(bucketStart)
+                .status(status)
+                .totalAmount(BigDecimal.valueOf(totalAmount))
+                .count(1L)
+                .build();
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.innowise.paymentservice.integration.service;
+
+import com.innowise.paymentservice.integration.BaseIntegrationTest;
+import com.innowise.paymentservice.model.EventStatus;
+import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.document.OutboxEvent;
+import com.innowise.paymentservice.model.document.Payment;
+import com.innowise.paymentservice.repository.OutboxRelayStateRepository;
+import com.innowise.paymentservice.repository.PaymentRepository;
+import com.innowise.paymentservice.service.OutboxChangeStreamRelay;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static com.innowise.paymentservice.util.PaymentUtil.createPayment;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs the change stream relay against the single-node replica set started by the MongoDB container.
+ */
+@TestPropertySource(properties = "kafka.producer.outbox.relay_mode=CHANGE_STREAM")
+class OutboxChangeStreamRelayIT extends BaseIntegrationTest {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OutboxRelayStateRepository outboxRelayStateRepository;
+
+    @Autowired
+    private OutboxChangeStreamRelay outboxChangeStreamRelay;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should publish an inserted outbox event from the change stream and store the resume token")
+    void relay_ShouldPublishInsertedOutboxEvent() {
+        assertThat(outboxChangeStreamRelay.isRunning()).isTrue();
+
+        Payment payment = paymentRepository.insert(createPaymentWithOutbox(1L));
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getOutbox().getEventStatus())
+                        .isEqualTo(EventStatus.SENT));
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(outboxRelayStateRepository.findAll())
+                        .singleElement()
+                        .satisfies(state -> assertThat(state.getResumeToken()).isNotBlank()));
+    }
+
+    private Payment createPaymentWithOutbox(Long orderId) {
+        Payment payment = createPayment(orderId, 1L, PaymentStatus.SUCCESS);
+        payment.setOutbox(OutboxEvent.builder()
+                .payload("{}".getBytes(StandardCharsets.UTF_8))
+                .eventStatus(EventStatus.PENDING)
+                .build());
+
+        return payment;
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.innowise.paymentservice.unit.config;
+
+import com.innowise.events.EventDecimals;
+import com.innowise.events.EventProtos;
+import com.innowise.paymentservice.config.EventEncodingDeserializer;
+import com.innowise.paymentservice.config.KafkaConfig;
+import com.innowise.paymentservice.model.EventEncoding;
+import com.innowise.paymentservice.model.dto.PaymentRequest;
+import com.innowise.paymentservice.util.BinaryEventCodec;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventEncodingDeserializerTest {
+
+    private static final String JSON_REQUEST = "{\"orderId\":1,\"userId\":2,\"paymentAmount\":100.00}";
+
+    private final EventEncodingDeserializer<PaymentRequest> deserializer = new EventEncodingDeserializer<>(
+            new JsonDeserializer<>(PaymentRequest.class, false), BinaryEventCodec::decodePaymentRequest);
+
+    private final PaymentRequest request = PaymentRequest.builder()
+            .orderId(1L)
+            .userId(2L)
+            .paymentAmount(new BigDecimal("100.00"))
+            .build();
+
+    @Test
+    @DisplayName("Should decode binary request when the encoding header is BINARY")
+    void deserialize_WithBinaryHeader_ShouldDecodeBinary() {
+        RecordHeaders headers = encodingHeaders(EventEncoding.BINARY);
+
+        PaymentRequest result = deserializer.deserialize(KafkaConfig.ORDER_CREATED_TOPIC, headers,
+                EventProtos.CreateOrderEvent.newBuilder()
+                        .setOrderId(1L)
+                        .setUserId(2L)
+                        .setPaymentAmount(EventDecimals.toMessage(new BigDecimal("100.00")))
+                        .build()
+                        .toByteArray());
+
+        assertThat(result).usingRecursiveComparison().isEqualTo(request);
+    }
+
+    @Test
+    @DisplayName("Should decode JSON request when the encoding header is missing")
+    void deserialize_WithoutHeader_ShouldDecodeJson() {
+        PaymentRequest result = deserializer.deserialize(KafkaConfig.ORDER_CREATED_TOPIC, new RecordHeaders(),
+                JSON_REQUEST.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(result).usingRecursiveComparison().isEqualTo(request);
+    }
+
+    @Test
+    @DisplayName("Should use the last encoding header when a republished record overrides it")
+    void deserialize_WithOverriddenHeader_ShouldUseLastHeader() {
+        RecordHeaders headers = encodingHeaders(EventEncoding.BINARY);
+        headers.add(KafkaConfig.EVENT_ENCODING_HEADER, EventEncoding.JSON.name().getBytes(StandardCharsets.UTF_8));
+
+        PaymentRequest result = deserializer.deserialize(KafkaConfig.ORDER_CREATED_TOPIC, headers,
+                JSON_REQUEST.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(result).usingRecursiveComparison().isEqualTo(request);
+    }
+
+    private RecordHeaders encodingHeaders(EventEncoding encoding) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(KafkaConfig.EVENT_ENCODING_HEADER, encoding.name().getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.innowise.paymentservice.unit.config;
+
+import com.innowise.paymentservice.config.MongoPoolWaitTracker;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MongoPoolWaitTrackerTest {
+
+    private final ServerId serverId = new ServerId(new ClusterId(), new ServerAddress());
+
+    private final MongoPoolWaitTracker mongoPoolWaitTracker = new MongoPoolWaitTracker();
+
+    @Test
+    @DisplayName("Should return the longest check-out wait since the previous sample")
+    void sampleMaxWait_ShouldReturnLongestWait() {
+        mongoPoolWaitTracker.connectionCheckedOut(checkedOut(Duration.ofMillis(5)));
+        mongoPoolWaitTracker.connectionCheckOutFailed(checkOutFailed(Duration.ofMillis(300)));
+        mongoPoolWaitTracker.connectionCheckedOut(checkedOut(Duration.ofMillis(50)));
+
+        assertThat(mongoPoolWaitTracker.sampleMaxWait()).isEqualTo(Duration.ofMillis(300));
+        assertThat(mongoPoolWaitTracker.sampleMaxWait()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("Should count the threads waiting for a check-out until it completes or fails")
+    void getWaitingCount_ShouldCountPendingCheckOuts() {
+        mongoPoolWaitTracker.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId, 1L));
+        mongoPoolWaitTracker.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId, 2L));
+        mongoPoolWaitTracker.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId, 3L));
+
+        assertThat(mongoPoolWaitTracker.getWaitingCount()).isEqualTo(3);
+
+        mongoPoolWaitTracker.connectionCheckedOut(checkedOut(Duration.ofMillis(5)));
+        mongoPoolWaitTracker.connectionCheckOutFailed(checkOutFailed(Duration.ofMillis(300)));
+
+        assertThat(mongoPoolWaitTracker.getWaitingCount()).isEqualTo(1);
+    }
+
+    private ConnectionCheckedOutEvent checkedOut(Duration wait) {
+        return new ConnectionCheckedOutEvent(new ConnectionId(serverId), 1L, wait.toNanos());
+    }
+
+    private ConnectionCheckOutFailedEvent checkOutFailed(Duration wait) {
+        return new ConnectionCheckOutFailedEvent(serverId, 1L, ConnectionCheckOutFailedEvent.Reason.TIMEOUT, wait.toNanos());
+    }
+
+}
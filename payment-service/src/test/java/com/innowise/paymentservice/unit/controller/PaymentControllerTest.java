@@ -0,0 +1,120 @@
+package com.innowise.paymentservice.unit.controller;
+
+import com.innowise.paymentservice.controller.PaymentController;
+import com.innowise.paymentservice.exception.InvalidCursorException;
+import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.dto.PageableRequest;
+import com.innowise.paymentservice.model.dto.PaymentResponse;
+import com.innowise.paymentservice.service.PaymentService;
+import com.innowise.paymentservice.util.CursorCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.innowise.paymentservice.util.CursorCodec.NEXT_CURSOR_HEADER;
+import static com.innowise.paymentservice.util.PaymentUtil.createPaymentResponse;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PaymentController.class)
+class PaymentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PaymentService paymentService;
+
+    @Test
+    @DisplayName("Should return a page of the user's payments with the next cursor header")
+    void findByUserId_ShouldReturnPageWithNextCursor_WhenMorePaymentsExist() throws Exception {
+        PaymentResponse first = createPaymentResponse(1L, PaymentStatus.SUCCESS);
+        PaymentResponse last = createPaymentResponse(2L, PaymentStatus.FAILED);
+
+        when(paymentService.findByUserId(eq(1L), any(PageableRequest.class)))
+                .thenReturn(new SliceImpl<>(List.of(first, last), PageRequest.of(0, 2), true));
+
+        mockMvc.perform(get("/api/v1/payments/users/1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].orderId").value(2L))
+                .andExpect(header().string(NEXT_CURSOR_HEADER, CursorCodec.encode(last.getTimestamp(), last.getId())));
+    }
+
+    @Test
+    @DisplayName("Should return the last page of payments by statuses without the next cursor header")
+    void findByStatuses_ShouldReturnPageWithoutNextCursor_WhenLastPage() throws Exception {
+        PaymentResponse payment = createPaymentResponse(1L, PaymentStatus.FAILED);
+
+        when(paymentService.findByStatuses(eq(List.of(PaymentStatus.FAILED)), any(PageableRequest.class)))
+                .thenReturn(new SliceImpl<>(List.of(payment)));
+
+        mockMvc.perform(get("/api/v1/payments").param("statuses", "FAILED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("FAILED"))
+                .andExpect(header().doesNotExist(NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when the page size is out of range")
+    void findByUserId_ShouldReturnBadRequest_WhenSizeIsOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/v1/payments/users/1").param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.size").exists());
+
+        verify(paymentService, never()).findByUserId(any(), any(PageableRequest.class));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when the cursor is malformed")
+    void findByUserId_ShouldReturnBadRequest_WhenCursorIsMalformed() throws Exception {
+        when(paymentService.findByUserId(eq(1L), any(PageableRequest.class)))
+                .thenThrow(new InvalidCursorException("Invalid cursor: abc"));
+
+        mockMvc.perform(get("/api/v1/payments/users/1").param("after", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor: abc"));
+    }
+
+    @Test
+    @DisplayName("Should stream the user's payments as newline-delimited JSON")
+    void streamByUserId_ShouldWriteOnePaymentPerLine() throws Exception {
+        PaymentResponse first = createPaymentResponse("1", 1L, PaymentStatus.SUCCESS);
+        PaymentResponse second = createPaymentResponse("2", 2L, PaymentStatus.FAILED);
+
+        when(paymentService.streamByUserId(1L)).thenReturn(Stream.of(first, second));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/payments/users/1/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(matchesPattern(
+                        "\\{\"id\":\"1\",\"orderId\":1,[^\\n]*}\\n\\{\"id\":\"2\",\"orderId\":2,[^\\n]*}\\n")));
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.innowise.paymentservice.unit.service;
+
+import com.innowise.paymentservice.config.MongoPoolWaitTracker;
+import com.innowise.paymentservice.service.impl.ConsumerBackpressureControllerImpl;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConsumerBackpressureControllerTest {
+
+    private static final Duration PAUSE_POOL_WAIT = Duration.ofMillis(200);
+    private static final Duration RESUME_POOL_WAIT = Duration.ofMillis(20);
+    private static final int RESUME_CHECKS = 2;
+    private static final String CIRCUIT_BREAKER_NAME = "random-number-api";
+
+    @Mock
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    @Mock
+    private MongoPoolWaitTracker mongoPoolWaitTracker;
+
+    @Mock
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Mock
+    private CircuitBreaker circuitBreaker;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ConsumerBackpressureControllerImpl consumerBackpressureController;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME)).thenReturn(circuitBreaker);
+
+        consumerBackpressureController = new ConsumerBackpressureControllerImpl(kafkaListenerEndpointRegistry,
+                mongoPoolWaitTracker, circuitBreakerRegistry, meterRegistry,
+                PAUSE_POOL_WAIT, RESUME_POOL_WAIT, RESUME_CHECKS, CIRCUIT_BREAKER_NAME);
+    }
+
+    @Test
+    @DisplayName("Should pause the listeners when MongoDB connection check-outs wait too long")
+    void checkDownstream_ShouldPauseListeners_WhenPoolWaitTooLong() {
+        when(mongoPoolWaitTracker.sampleMaxWait()).thenReturn(PAUSE_POOL_WAIT);
+        when(circuitBreaker.getState()).thenReturn(CircuitBreaker.State.CLOSED);
+        when(kafkaListenerEndpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+
+        consumerBackpressureController.checkDownstream();
+
+        verify(container).pause();
+        assertThat(consumerBackpressureController.isPaused()).isTrue();
+        assertThat(meterRegistry.get("kafka.consumer.backpressure.paused").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should pause the listeners while the circuit breaker is open and resume once it stays half-open")
+    void checkDownstream_ShouldFollowCircuitBreakerState() {
+        when(mongoPoolWaitTracker.sampleMaxWait()).thenReturn(Duration.ZERO);
+        when(circuitBreaker.getState()).thenReturn(CircuitBreaker.State.OPEN, CircuitBreaker.State.OPEN,
+                CircuitBreaker.State.HALF_OPEN);
+        when(kafkaListenerEndpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+
+        checkDownstream(3);
+
+        verify(container).pause();
+        verify(container, never()).resume();
+
+        consumerBackpressureController.checkDownstream();
+
+        verify(container).resume();
+        assertThat(consumerBackpressureController.isPaused()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep the listeners paused until the pool wait drops under the resume threshold")
+    void checkDownstream_ShouldKeepListenersPaused_WhenPoolWaitStillHigh() {
+        when(mongoPoolWaitTracker.sampleMaxWait())
+                .thenReturn(PAUSE_POOL_WAIT, Duration.ofMillis(100), RESUME_POOL_WAIT, RESUME_POOL_WAIT);
+        when(circuitBreaker.getState()).thenReturn(CircuitBreaker.State.CLOSED);
+        when(kafkaListenerEndpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+
+        checkDownstream(3);
+
+        verify(container, never()).resume();
+
+        consumerBackpressureController.checkDownstream();
+
+        verify(container).resume();
+    }
+
+    @Test
+    @DisplayName("Should keep the listeners paused while threads still wait for a connection, even without check-outs")
+    void checkDownstream_ShouldKeepListenersPaused_WhenThreadsWaiting() {
+        when(mongoPoolWaitTracker.sampleMaxWait()).thenReturn(PAUSE_POOL_WAIT, Duration.ZERO);
+        when(mongoPoolWaitTracker.getWaitingCount()).thenReturn(0, 3, 3, 0, 0);
+        when(circuitBreaker.getState()).thenReturn(CircuitBreaker.State.CLOSED);
+        when(kafkaListenerEndpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+
+        checkDownstream(4);
+
+        verify(container, never()).resume();
+
+        consumerBackpressureController.checkDownstream();
+
+        verify(container).resume();
+    }
+
+    @Test
+    @DisplayName("Should restart counting healthy checks when one check is unhealthy")
+    void checkDownstream_ShouldResetHealthyChecks_WhenCheckUnhealthy() {
+        when(mongoPoolWaitTracker.sampleMaxWait()).thenReturn(PAUSE_POOL_WAIT, Duration.ZERO, PAUSE_POOL_WAIT,
+                Duration.ZERO);
+        when(circuitBreaker.getState()).thenReturn(CircuitBreaker.State.CLOSED);
+        when(kafkaListenerEndpointRegistry.getListenerContainers()).thenReturn(List.of(container));
+
+        checkDownstream(4);
+
+        verify(container, never()).resume();
+        assertThat(consumerBackpressureController.isPaused()).isTrue();
+
+        consumerBackpressureController.checkDownstream();
+
+        verify(container).resume();
+    }
+
+    @Test
+    @DisplayName("Should leave the listeners running while downstream is healthy")
+    void checkDownstream_ShouldNotPauseListeners_WhenDownstreamHealthy() {
+        when(mongoPoolWaitTracker.sampleMaxWait()).thenReturn(Duration.ofMillis(1));
+        when(circuitBreaker.getState()).thenReturn(CircuitBreaker.State.CLOSED);
+
+        consumerBackpressureController.checkDownstream();
+
+        verify(kafkaListenerEndpointRegistry, never()).getListenerContainers();
+        assertThat(consumerBackpressureController.isPaused()).isFalse();
+    }
+
+    private void checkDownstream(int times) {
+        for (int i = 0; i < times; i++) {
+            consumerBackpressureController.checkDownstream();
+        }
+    }
+
+}
@@ -1,125 +1,257 @@
 package com.innowise.paymentservice.unit.service;
 
 import com.innowise.paymentservice.config.KafkaConfig;
+import com.innowise.paymentservice.exception.PaymentBulkWriteException;
+import com.innowise.paymentservice.model.DeliveryMode;
+import com.innowise.paymentservice.model.EventEncoding;
 import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.WriteMode;
 import com.innowise.paymentservice.model.dto.CreatePaymentEvent;
 import com.innowise.paymentservice.model.dto.PaymentRequest;
 import com.innowise.paymentservice.model.dto.PaymentResponse;
-import com.innowise.paymentservice.service.OutboxEventService;
+import com.innowise.paymentservice.service.PaymentProcessorService;
 import com.innowise.paymentservice.service.PaymentService;
+import com.innowise.paymentservice.service.ProcessedOrderFilter;
 import com.innowise.paymentservice.service.impl.KafkaServiceImpl;
+import com.innowise.paymentservice.util.EventPayloadSerializer;
 import com.innowise.paymentservice.util.EventValidator;
+import com.innowise.paymentservice.util.KeyOrderedRecordProcessor;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.SendResult;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static com.innowise.paymentservice.util.PaymentUtil.createPaymentRequest;
 import static com.innowise.paymentservice.util.PaymentUtil.createPaymentResponse;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class KafkaServiceImplTest {
 
-    @InjectMocks
     private KafkaServiceImpl kafkaService;
 
     @Mock
-    private KafkaTemplate<String, CreatePaymentEvent> kafkaTemplate;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
 
     @Mock
     private PaymentService paymentService;
 
     @Mock
-    private OutboxEventService outboxEventService;
+    private PaymentProcessorService paymentProcessorService;
+
+    @Mock
+    private ProcessedOrderFilter processedOrderFilter;
 
     @Mock
     private EventValidator eventValidator;
 
+    @Mock
+    private EventPayloadSerializer eventPayloadSerializer;
+
+    @Mock
+    private KeyOrderedRecordProcessor keyOrderedRecordProcessor;
+
+    @BeforeEach
+    void setUp() {
+        kafkaService = createKafkaService(DeliveryMode.OUTBOX);
+    }
+
     @Test
-    @DisplayName("Should process order event and create payment when payment does not exist")
-    void consumeCreateOrderEvent_ShouldCreatePayment_WhenPaymentDoesNotExist() {
-        Long orderId = 1L;
-        PaymentRequest paymentRequest = createPaymentRequest(orderId, 1L, BigDecimal.valueOf(1000.00));
-        ConsumerRecord<String, PaymentRequest> consumerRecord = 
-            new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 0L, "key", paymentRequest);
-        
-        PaymentResponse paymentResponse = createPaymentResponse(orderId, PaymentStatus.SUCCESS);
+    @DisplayName("Should hand the polled batch to the key-ordered record processor")
+    void consumeCreateOrderEvents_ShouldProcessBatchByKey() {
+        PaymentRequest paymentRequest = createPaymentRequest(1L, 1L, BigDecimal.valueOf(1000.00));
+        List<ConsumerRecord<String, PaymentRequest>> consumerRecords = List.of(
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 0L, "1", paymentRequest));
+
+        kafkaService.consumeCreateOrderEvents(consumerRecords);
+
+        verify(keyOrderedRecordProcessor).process(eq(consumerRecords), any());
+    }
+
+    @Test
+    @DisplayName("Should decide the payments by key and write the whole batch with one bulk save in bulk write mode")
+    void consumeCreateOrderEvents_ShouldSaveBatchInBulk_WhenBulkWriteMode() {
+        KafkaServiceImpl bulkKafkaService = createKafkaService(DeliveryMode.OUTBOX, WriteMode.BULK);
+        PaymentRequest paymentRequest1 = createPaymentRequest(1L, 1L, BigDecimal.valueOf(1000.00));
+        PaymentRequest paymentRequest2 = createPaymentRequest(2L, 1L, BigDecimal.valueOf(500.00));
+        List<ConsumerRecord<String, PaymentRequest>> consumerRecords = List.of(
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 0L, "1", paymentRequest1),
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 1L, "2", paymentRequest2));
+
+        processRecordsInOrder();
+        when(paymentProcessorService.processPayment()).thenReturn(PaymentStatus.SUCCESS, PaymentStatus.FAILED);
+
+        bulkKafkaService.consumeCreateOrderEvents(consumerRecords);
+
+        verify(keyOrderedRecordProcessor).process(eq(consumerRecords), any());
+        verify(paymentService).saveAll(List.of(paymentRequest1, paymentRequest2),
+                Map.of(1L, PaymentStatus.SUCCESS, 2L, PaymentStatus.FAILED));
+        verify(paymentService, never()).save(any());
+    }
 
+    @Test
+    @DisplayName("Should write the records before an invalid one and report the invalid record in bulk write mode")
+    void consumeCreateOrderEvents_ShouldFailOnInvalidRecord_WhenBulkWriteMode() {
+        KafkaServiceImpl bulkKafkaService = createKafkaService(DeliveryMode.OUTBOX, WriteMode.BULK);
+        PaymentRequest paymentRequest = createPaymentRequest(1L, 1L, BigDecimal.valueOf(1000.00));
+        ConsumerRecord<String, PaymentRequest> invalidRecord =
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 1L, "2", null);
+        List<ConsumerRecord<String, PaymentRequest>> consumerRecords = List.of(
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 0L, "1", paymentRequest),
+                invalidRecord,
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 2L, "3", paymentRequest));
+
+        processRecordsInOrder();
+        when(paymentProcessorService.processPayment()).thenReturn(PaymentStatus.SUCCESS);
         doNothing().when(eventValidator).validate(paymentRequest);
-        when(paymentService.existsByOrderId(orderId)).thenReturn(false);
-        when(paymentService.save(paymentRequest)).thenReturn(paymentResponse);
+        doThrow(new IllegalArgumentException("Event cannot be null - deserialization failed"))
+                .when(eventValidator).validate(null);
 
-        kafkaService.consumeCreateOrderEvent(consumerRecord);
+        assertThatThrownBy(() -> bulkKafkaService.consumeCreateOrderEvents(consumerRecords))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .satisfies(e -> assertThat(((BatchListenerFailedException) e).getRecord()).isSameAs(invalidRecord));
 
-        verify(eventValidator).validate(paymentRequest);
-        verify(paymentService).existsByOrderId(orderId);
-        verify(paymentService).save(paymentRequest);
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), any(CreatePaymentEvent.class));
+        verify(paymentService).saveAll(List.of(paymentRequest), Map.of(1L, PaymentStatus.SUCCESS));
     }
 
     @Test
-    @DisplayName("Should skip processing when payment and outbox event already exist")
-    void consumeCreateOrderEvent_ShouldSkipProcessing_WhenPaymentAndOutboxEventExist() {
-        Long orderId = 1L;
-        PaymentRequest paymentRequest = createPaymentRequest(orderId, 1L, BigDecimal.valueOf(1000.00));
-        ConsumerRecord<String, PaymentRequest> consumerRecord = 
-            new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 0L, paymentRequest.getOrderId().toString(), paymentRequest);
+    @DisplayName("Should write the records before the first undecided one and report it in bulk write mode")
+    void consumeCreateOrderEvents_ShouldFailOnFailedDecision_WhenBulkWriteMode() {
+        KafkaServiceImpl bulkKafkaService = createKafkaService(DeliveryMode.OUTBOX, WriteMode.BULK);
+        PaymentRequest decidedRequest = createPaymentRequest(1L, 1L, BigDecimal.TEN);
+        List<ConsumerRecord<String, PaymentRequest>> consumerRecords = List.of(
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 0L, "1", decidedRequest),
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 1L, "2", createPaymentRequest(2L, 1L, BigDecimal.TEN)),
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 2L, "3", createPaymentRequest(3L, 1L, BigDecimal.TEN)));
+        BatchListenerFailedException decisionFailure = new BatchListenerFailedException(
+                "Random number service unavailable", new RuntimeException(), consumerRecords.get(1));
+
+        doAnswer(invocation -> {
+            Consumer<ConsumerRecord<String, PaymentRequest>> handler = invocation.getArgument(1);
+            handler.accept(consumerRecords.getFirst());
+            throw decisionFailure;
+        }).when(keyOrderedRecordProcessor).process(eq(consumerRecords), any());
+        when(paymentProcessorService.processPayment()).thenReturn(PaymentStatus.SUCCESS);
+
+        assertThatThrownBy(() -> bulkKafkaService.consumeCreateOrderEvents(consumerRecords))
+                .isSameAs(decisionFailure);
+
+        verify(paymentService).saveAll(List.of(decidedRequest), Map.of(1L, PaymentStatus.SUCCESS));
+    }
+
+    @Test
+    @DisplayName("Should report the first record whose payment could not be written in bulk write mode")
+    void consumeCreateOrderEvents_ShouldFailOnFailedWrite_WhenBulkWriteMode() {
+        KafkaServiceImpl bulkKafkaService = createKafkaService(DeliveryMode.OUTBOX, WriteMode.BULK);
+        List<ConsumerRecord<String, PaymentRequest>> consumerRecords = List.of(
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 0L, "1", createPaymentRequest(1L, 1L, BigDecimal.TEN)),
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 1L, "2", createPaymentRequest(2L, 1L, BigDecimal.TEN)));
+
+        doThrow(new PaymentBulkWriteException("Failed to write payment for order 2", 1, new RuntimeException()))
+                .when(paymentService).saveAll(any(), any());
+
+        assertThatThrownBy(() -> bulkKafkaService.consumeCreateOrderEvents(consumerRecords))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .satisfies(e -> assertThat(((BatchListenerFailedException) e).getRecord()).isSameAs(consumerRecords.get(1)));
+    }
+
+    @Test
+    @DisplayName("Should fail the whole batch with the original exception when the bulk write fails as a whole")
+    void consumeCreateOrderEvents_ShouldRethrowBatchFailure_WhenBulkWriteMode() {
+        KafkaServiceImpl bulkKafkaService = createKafkaService(DeliveryMode.OUTBOX, WriteMode.BULK);
+        List<ConsumerRecord<String, PaymentRequest>> consumerRecords = List.of(
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 0L, "1", createPaymentRequest(1L, 1L, BigDecimal.TEN)));
+        DataAccessResourceFailureException writeFailure = new DataAccessResourceFailureException("Mongo unavailable");
+
+        doThrow(writeFailure).when(paymentService).saveAll(any(), any());
+
+        assertThatThrownBy(() -> bulkKafkaService.consumeCreateOrderEvents(consumerRecords))
+                .isSameAs(writeFailure);
+    }
+
+    @Test
+    @DisplayName("Should skip records of processed orders and report failed writes by their record in bulk write mode")
+    void consumeCreateOrderEvents_ShouldSkipProcessedOrders_WhenBulkWriteMode() {
+        KafkaServiceImpl bulkKafkaService = createKafkaService(DeliveryMode.OUTBOX, WriteMode.BULK);
+        PaymentRequest processedRequest = createPaymentRequest(1L, 1L, BigDecimal.TEN);
+        PaymentRequest newRequest = createPaymentRequest(2L, 1L, BigDecimal.TEN);
+        List<ConsumerRecord<String, PaymentRequest>> consumerRecords = List.of(
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 0L, "1", processedRequest),
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 1L, "2", newRequest));
+
+        when(processedOrderFilter.findStatus(1L)).thenReturn(Optional.of(PaymentStatus.SUCCESS));
+        when(processedOrderFilter.findStatus(2L)).thenReturn(Optional.empty());
+        doThrow(new PaymentBulkWriteException("Failed to write payment for order 2", 0, new RuntimeException()))
+                .when(paymentService).saveAll(eq(List.of(newRequest)), any());
+
+        assertThatThrownBy(() -> bulkKafkaService.consumeCreateOrderEvents(consumerRecords))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .satisfies(e -> assertThat(((BatchListenerFailedException) e).getRecord()).isSameAs(consumerRecords.get(1)));
+    }
+
+    @Test
+    @DisplayName("Should skip a replayed order event without saving when the order is already processed")
+    void consumeCreateOrderEvent_ShouldSkipSave_WhenOrderIsProcessed() {
+        PaymentRequest paymentRequest = createPaymentRequest(1L, 1L, BigDecimal.valueOf(1000.00));
+        ConsumerRecord<String, PaymentRequest> consumerRecord =
+            new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 0L, "1", paymentRequest);
 
         doNothing().when(eventValidator).validate(paymentRequest);
-        when(paymentService.existsByOrderId(orderId)).thenReturn(true);
-        when(outboxEventService.existsByOrderId(orderId)).thenReturn(true);
+        when(processedOrderFilter.findStatus(1L)).thenReturn(Optional.of(PaymentStatus.SUCCESS));
 
         kafkaService.consumeCreateOrderEvent(consumerRecord);
 
-        verify(eventValidator).validate(paymentRequest);
-        verify(paymentService).existsByOrderId(orderId);
-        verify(outboxEventService).existsByOrderId(orderId);
         verify(paymentService, never()).save(any());
-        verify(paymentService, never()).findByOrderId(any());
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), any(CreatePaymentEvent.class));
     }
 
     @Test
-    @DisplayName("Should recover missing outbox event when payment exists but event does not")
-    void consumeCreateOrderEvent_ShouldRecoverOutboxEvent_WhenPaymentExistsButEventMissing() {
+    @DisplayName("Should process order event with a single idempotent save and no existence pre-checks")
+    void consumeCreateOrderEvent_ShouldCreatePayment_WithoutPreChecks() {
         Long orderId = 1L;
         PaymentRequest paymentRequest = createPaymentRequest(orderId, 1L, BigDecimal.valueOf(1000.00));
         ConsumerRecord<String, PaymentRequest> consumerRecord = 
-            new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 0L, paymentRequest.getOrderId().toString(), paymentRequest);
+            new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 0L, "key", paymentRequest);
         
         PaymentResponse paymentResponse = createPaymentResponse(orderId, PaymentStatus.SUCCESS);
 
         doNothing().when(eventValidator).validate(paymentRequest);
-        when(paymentService.existsByOrderId(orderId)).thenReturn(true);
-        when(outboxEventService.existsByOrderId(orderId)).thenReturn(false);
-        when(paymentService.findByOrderId(orderId)).thenReturn(paymentResponse);
+        when(paymentService.save(paymentRequest)).thenReturn(paymentResponse);
 
         kafkaService.consumeCreateOrderEvent(consumerRecord);
 
         verify(eventValidator).validate(paymentRequest);
-        verify(paymentService).existsByOrderId(orderId);
-        verify(outboxEventService).existsByOrderId(orderId);
-        verify(paymentService).findByOrderId(orderId);
-        verify(outboxEventService).save(any(CreatePaymentEvent.class));
-        verify(paymentService, never()).save(any(PaymentRequest.class));
+        verify(paymentService).save(paymentRequest);
+        verify(paymentService, never()).existsByOrderId(any());
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
     }
 
     @Test
@@ -136,9 +268,8 @@ class KafkaServiceImplTest {
             .hasMessageContaining("Event cannot be null");
 
         verify(eventValidator).validate(null);
-        verify(paymentService, never()).existsByOrderId(any());
         verify(paymentService, never()).save(any());
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), any(CreatePaymentEvent.class));
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
     }
 
     @Test
@@ -152,67 +283,154 @@ class KafkaServiceImplTest {
         PaymentResponse paymentResponse = createPaymentResponse(orderId, PaymentStatus.FAILED);
 
         doNothing().when(eventValidator).validate(paymentRequest);
-        when(paymentService.existsByOrderId(orderId)).thenReturn(false);
         when(paymentService.save(paymentRequest)).thenReturn(paymentResponse);
 
         kafkaService.consumeCreateOrderEvent(consumerRecord);
 
         verify(eventValidator).validate(paymentRequest);
-        verify(paymentService).existsByOrderId(orderId);
         verify(paymentService).save(paymentRequest);
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), any(CreatePaymentEvent.class));
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    @DisplayName("Should produce the payment results of the batch directly in transactional mode")
+    void consumeCreateOrderEvents_ShouldSendPaymentResults_WhenTransactional() {
+        KafkaServiceImpl transactionalKafkaService = createKafkaService(DeliveryMode.TRANSACTIONAL);
+        PaymentRequest firstRequest = createPaymentRequest(1L, 1L, BigDecimal.valueOf(1000.00));
+        PaymentRequest secondRequest = createPaymentRequest(2L, 1L, BigDecimal.valueOf(500.00));
+        List<ConsumerRecord<String, PaymentRequest>> consumerRecords = List.of(
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 0L, "1", firstRequest),
+                new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_TOPIC, 0, 1L, "2", secondRequest));
+        byte[] payload = {1, 2, 3};
+
+        doAnswer(invocation -> {
+            List<ConsumerRecord<String, PaymentRequest>> records = invocation.getArgument(0);
+            Consumer<ConsumerRecord<String, PaymentRequest>> handler = invocation.getArgument(1);
+            records.forEach(handler);
+            return null;
+        }).when(keyOrderedRecordProcessor).process(eq(consumerRecords), any());
+        doNothing().when(eventValidator).validate(any(PaymentRequest.class));
+        when(paymentService.saveIfAbsent(firstRequest)).thenReturn(createPaymentResponse(1L, PaymentStatus.SUCCESS));
+        when(paymentService.saveIfAbsent(secondRequest)).thenReturn(createPaymentResponse(2L, PaymentStatus.FAILED));
+        when(eventPayloadSerializer.serialize(any(CreatePaymentEvent.class))).thenReturn(payload);
+        when(eventPayloadSerializer.getEncoding()).thenReturn(EventEncoding.BINARY);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        transactionalKafkaService.consumeCreateOrderEvents(consumerRecords);
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(recordCaptor.capture());
+        assertThat(recordCaptor.getAllValues()).extracting(ProducerRecord::key).containsExactly("1", "2");
+        verify(paymentService, never()).save(any());
     }
 
     @Test
-    @DisplayName("Should send create payment event successfully")
-    void sendCreatePaymentEvent_ShouldSendEvent() {
+    @DisplayName("Should produce the stored payment result again for a redelivered event in transactional mode")
+    void consumeCreateOrderEvent_ShouldResendStoredResult_WhenTransactionalAndPaymentExists() {
+        KafkaServiceImpl transactionalKafkaService = createKafkaService(DeliveryMode.TRANSACTIONAL);
+        PaymentRequest paymentRequest = createPaymentRequest(1L, 1L, BigDecimal.valueOf(1000.00));
+        ConsumerRecord<String, PaymentRequest> consumerRecord =
+            new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_RETRY_1S_TOPIC, 0, 0L, "1", paymentRequest);
+
+        doNothing().when(eventValidator).validate(paymentRequest);
+        when(paymentService.saveIfAbsent(paymentRequest)).thenReturn(createPaymentResponse(1L, PaymentStatus.SUCCESS));
+        when(eventPayloadSerializer.serialize(any(CreatePaymentEvent.class))).thenReturn(new byte[]{1});
+        when(eventPayloadSerializer.getEncoding()).thenReturn(EventEncoding.BINARY);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        transactionalKafkaService.consumeCreateOrderEvent(consumerRecord);
+
+        verify(kafkaTemplate).send(any(ProducerRecord.class));
+        verify(paymentService, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should produce the result of a processed order again from the filter in transactional mode")
+    void consumeCreateOrderEvent_ShouldResendResultFromFilter_WhenTransactionalAndOrderIsProcessed() {
+        KafkaServiceImpl transactionalKafkaService = createKafkaService(DeliveryMode.TRANSACTIONAL);
+        PaymentRequest paymentRequest = createPaymentRequest(1L, 1L, BigDecimal.valueOf(1000.00));
+        ConsumerRecord<String, PaymentRequest> consumerRecord =
+            new ConsumerRecord<>(KafkaConfig.ORDER_CREATED_RETRY_1S_TOPIC, 0, 0L, "1", paymentRequest);
+
+        doNothing().when(eventValidator).validate(paymentRequest);
+        when(processedOrderFilter.findStatus(1L)).thenReturn(Optional.of(PaymentStatus.FAILED));
+        when(eventPayloadSerializer.serialize(any(CreatePaymentEvent.class))).thenReturn(new byte[]{1});
+        when(eventPayloadSerializer.getEncoding()).thenReturn(EventEncoding.BINARY);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        transactionalKafkaService.consumeCreateOrderEvent(consumerRecord);
+
+        ArgumentCaptor<CreatePaymentEvent> eventCaptor = ArgumentCaptor.forClass(CreatePaymentEvent.class);
+        verify(eventPayloadSerializer).serialize(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getOrderId()).isEqualTo(1L);
+        assertThat(eventCaptor.getValue().getStatus()).isEqualTo(PaymentStatus.FAILED);
+        verify(paymentService, never()).saveIfAbsent(any());
+    }
+
+    @Test
+    @DisplayName("Should send create payment event payload as is with its encoding header")
+    void sendCreatePaymentEvent_ShouldSendPayload() {
         Long orderId = 1L;
-        CreatePaymentEvent event = CreatePaymentEvent.builder()
-                .orderId(orderId)
-                .status(PaymentStatus.SUCCESS)
-                .build();
+        byte[] payload = "{\"orderId\":1,\"status\":\"SUCCESS\"}".getBytes(StandardCharsets.UTF_8);
 
-        SendResult<String, CreatePaymentEvent> mockResult = mock(SendResult.class);
-        CompletableFuture<SendResult<String, CreatePaymentEvent>> future = 
+        SendResult<String, byte[]> mockResult = mock(SendResult.class);
+        CompletableFuture<SendResult<String, byte[]>> future = 
             CompletableFuture.completedFuture(mockResult);
 
-        when(kafkaTemplate.send(anyString(), anyString(), any(CreatePaymentEvent.class)))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
             .thenReturn(future);
 
-        kafkaService.sendCreatePaymentEvent(event);
+        assertThat(kafkaService.sendCreatePaymentEvent(orderId, payload, EventEncoding.JSON)).isCompletedWithValue(mockResult);
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(recordCaptor.capture());
 
-        verify(kafkaTemplate).send(
-            KafkaConfig.PAYMENT_CREATED_TOPIC,
-            orderId.toString(),
-            event
-        );
+        ProducerRecord<String, byte[]> producerRecord = recordCaptor.getValue();
+        assertThat(producerRecord.topic()).isEqualTo(KafkaConfig.PAYMENT_CREATED_TOPIC);
+        assertThat(producerRecord.key()).isEqualTo(orderId.toString());
+        assertThat(producerRecord.value()).isSameAs(payload);
+        assertThat(producerRecord.headers().lastHeader(KafkaConfig.EVENT_ENCODING_HEADER).value())
+            .isEqualTo(EventEncoding.JSON.name().getBytes(StandardCharsets.UTF_8));
     }
 
     @Test
-    @DisplayName("Should throw KafkaException when sending event fails")
-    void sendCreatePaymentEvent_ShouldThrowKafkaException_WhenSendFails() {
+    @DisplayName("Should complete exceptionally with KafkaException when sending event fails")
+    void sendCreatePaymentEvent_ShouldFailWithKafkaException_WhenSendFails() {
         Long orderId = 1L;
-        CreatePaymentEvent event = CreatePaymentEvent.builder()
-                .orderId(orderId)
-                .status(PaymentStatus.SUCCESS)
-                .build();
+        byte[] payload = "{\"orderId\":1,\"status\":\"SUCCESS\"}".getBytes(StandardCharsets.UTF_8);
 
-        CompletableFuture<SendResult<String, CreatePaymentEvent>> failedFuture = 
+        CompletableFuture<SendResult<String, byte[]>> failedFuture = 
             CompletableFuture.failedFuture(new RuntimeException("Kafka error"));
 
-        when(kafkaTemplate.send(anyString(), anyString(), any(CreatePaymentEvent.class)))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
             .thenReturn(failedFuture);
 
-        assertThatThrownBy(() -> kafkaService.sendCreatePaymentEvent(event))
-            .isInstanceOf(KafkaException.class)
+        assertThatThrownBy(() -> kafkaService.sendCreatePaymentEvent(orderId, payload, EventEncoding.BINARY).join())
+            .hasCauseInstanceOf(KafkaException.class)
             .hasMessageContaining("Failed to send CREATE_PAYMENT event");
 
-        verify(kafkaTemplate).send(
-            KafkaConfig.PAYMENT_CREATED_TOPIC,
-            orderId.toString(),
-            event
-        );
+        verify(kafkaTemplate).send(any(ProducerRecord.class));
     }
 
-}
+    private KafkaServiceImpl createKafkaService(DeliveryMode deliveryMode) {
+        return createKafkaService(deliveryMode, WriteMode.PER_RECORD);
+    }
 
+    private KafkaServiceImpl createKafkaService(DeliveryMode deliveryMode, WriteMode writeMode) {
+        return new KafkaServiceImpl(kafkaTemplate, paymentService, paymentProcessorService, processedOrderFilter,
+                eventValidator, eventPayloadSerializer, keyOrderedRecordProcessor, deliveryMode, writeMode);
+    }
+
+    private void processRecordsInOrder() {
+        doAnswer(invocation -> {
+            List<ConsumerRecord<String, PaymentRequest>> records = invocation.getArgument(0);
+            Consumer<ConsumerRecord<String, PaymentRequest>> handler = invocation.getArgument(1);
+            records.forEach(handler);
+            return null;
+        }).when(keyOrderedRecordProcessor).process(any(), any());
+    }
+
+}
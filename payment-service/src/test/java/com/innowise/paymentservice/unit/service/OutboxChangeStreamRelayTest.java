@@ -0,0 +1,284 @@
+package com.innowise.paymentservice.unit.service;
+
+import com.innowise.paymentservice.model.OutboxRelayMode;
+import com.innowise.paymentservice.model.document.OutboxRelayState;
+import com.innowise.paymentservice.model.document.Payment;
+import com.innowise.paymentservice.repository.OutboxRelayStateRepository;
+import com.innowise.paymentservice.service.OutboxEventScheduler;
+import com.innowise.paymentservice.service.impl.OutboxChangeStreamRelayImpl;
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxChangeStreamRelayTest {
+
+    private static final String RELAY_ID = "payments_outbox";
+    private static final String STORED_TOKEN = "8263A1B2C3000000012B";
+    private static final String NEXT_TOKEN = "8263A1B2C4000000012B";
+    private static final Duration RELAY_LEASE = Duration.ofMinutes(1);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoConverter mongoConverter;
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    @Mock
+    private ChangeStreamIterable<Document> changeStream;
+
+    @Mock
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    @Mock
+    private OutboxEventScheduler outboxEventScheduler;
+
+    @Mock
+    private OutboxRelayStateRepository outboxRelayStateRepository;
+
+    private OutboxChangeStreamRelayImpl outboxChangeStreamRelay;
+
+    @BeforeEach
+    void setUp() {
+        outboxChangeStreamRelay = new OutboxChangeStreamRelayImpl(mongoTemplate, outboxEventScheduler,
+                outboxRelayStateRepository, OutboxRelayMode.CHANGE_STREAM, Duration.ofHours(1), Duration.ofSeconds(30),
+                RELAY_LEASE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (outboxChangeStreamRelay.isRunning()) {
+            outboxChangeStreamRelay.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should start automatically only in change stream relay mode")
+    void isAutoStartup_ShouldDependOnRelayMode() {
+        OutboxChangeStreamRelayImpl pollingRelay = new OutboxChangeStreamRelayImpl(mongoTemplate, outboxEventScheduler,
+                outboxRelayStateRepository, OutboxRelayMode.POLLING, Duration.ofHours(1), Duration.ofSeconds(30),
+                RELAY_LEASE);
+
+        assertThat(outboxChangeStreamRelay.isAutoStartup()).isTrue();
+        assertThat(pollingRelay.isAutoStartup()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should catch up, publish inserted payments and store the resume token when no token is stored")
+    void relay_ShouldCatchUpAndPublishInserts_WhenNoTokenIsStored() {
+        Document document = new Document("order_id", 1L);
+        Payment payment = Payment.builder().orderId(1L).build();
+        ChangeStreamDocument<Document> change = insert(document);
+        stubLease();
+        stubChangeStream();
+        when(outboxRelayStateRepository.findById(RELAY_ID)).thenReturn(Optional.empty());
+        when(changeStream.cursor()).thenReturn(cursor);
+        when(cursor.tryNext()).thenReturn(change).thenAnswer(invocation -> idle());
+        when(cursor.getResumeToken()).thenReturn(resumeToken(NEXT_TOKEN));
+        when(outboxRelayStateRepository.saveResumeToken(eq(RELAY_ID), anyString(), eq(NEXT_TOKEN),
+                any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1L);
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoConverter.read(Payment.class, document)).thenReturn(payment);
+
+        outboxChangeStreamRelay.start();
+
+        verify(outboxEventScheduler, timeout(1000)).catchUp(any(LocalDateTime.class));
+        verify(outboxEventScheduler, timeout(1000)).publish(List.of(payment));
+        verify(outboxRelayStateRepository, timeout(1000)).saveResumeToken(eq(RELAY_ID), anyString(), eq(NEXT_TOKEN),
+                any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(changeStream, never()).resumeAfter(any(BsonDocument.class));
+    }
+
+    @Test
+    @DisplayName("Should resume after the stored token without catching up")
+    void relay_ShouldResumeAfterStoredToken() {
+        stubLease();
+        stubChangeStream();
+        when(changeStream.resumeAfter(resumeToken(STORED_TOKEN))).thenReturn(changeStream);
+        when(outboxRelayStateRepository.findById(RELAY_ID)).thenReturn(Optional.of(
+                OutboxRelayState.builder().id(RELAY_ID).resumeToken(STORED_TOKEN).build()));
+        when(changeStream.cursor()).thenReturn(cursor);
+        when(cursor.tryNext()).thenAnswer(invocation -> idle());
+
+        outboxChangeStreamRelay.start();
+
+        verify(changeStream, timeout(1000)).resumeAfter(resumeToken(STORED_TOKEN));
+        verify(cursor, timeout(1000).atLeast(2)).tryNext();
+        verify(outboxEventScheduler, never()).catchUp(any(LocalDateTime.class));
+        verify(outboxEventScheduler, never()).publish(anyList());
+    }
+
+    @Test
+    @DisplayName("Should drop the stored token and catch up when the stream history is lost")
+    void relay_ShouldDropToken_WhenHistoryIsLost() {
+        stubLease();
+        stubChangeStream();
+        when(changeStream.resumeAfter(resumeToken(STORED_TOKEN))).thenReturn(changeStream);
+        when(outboxRelayStateRepository.findById(RELAY_ID)).thenReturn(Optional.of(
+                OutboxRelayState.builder().id(RELAY_ID).resumeToken(STORED_TOKEN).build()), Optional.empty());
+        when(changeStream.cursor()).thenThrow(historyLost()).thenReturn(cursor);
+        when(cursor.tryNext()).thenAnswer(invocation -> idle());
+
+        outboxChangeStreamRelay.start();
+
+        verify(outboxRelayStateRepository, timeout(1000)).clearResumeToken(eq(RELAY_ID), anyString());
+        verify(outboxEventScheduler, timeout(1000)).catchUp(any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should stand by without tailing the stream while another instance holds the relay lease")
+    void relay_ShouldStandBy_WhenLeaseHeldByAnotherInstance() {
+        when(outboxRelayStateRepository.acquireLease(eq(RELAY_ID), anyString(), any(LocalDateTime.class),
+                any(LocalDateTime.class))).thenReturn(0L);
+        when(outboxRelayStateRepository.insert(any(OutboxRelayState.class)))
+                .thenThrow(new DuplicateKeyException("Relay already leased"));
+
+        outboxChangeStreamRelay.start();
+
+        verify(outboxRelayStateRepository, timeout(1000)).insert(any(OutboxRelayState.class));
+        verify(mongoTemplate, never()).getCollection(anyString());
+        verify(outboxEventScheduler, never()).catchUp(any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should lease the relay by creating its state when none is stored")
+    void relay_ShouldCreateLeasedState_WhenNoStateIsStored() {
+        when(outboxRelayStateRepository.acquireLease(eq(RELAY_ID), anyString(), any(LocalDateTime.class),
+                any(LocalDateTime.class))).thenReturn(0L);
+        stubChangeStream();
+        when(outboxRelayStateRepository.findById(RELAY_ID)).thenReturn(Optional.empty());
+        when(changeStream.cursor()).thenReturn(cursor);
+        when(cursor.tryNext()).thenAnswer(invocation -> idle());
+
+        outboxChangeStreamRelay.start();
+
+        ArgumentCaptor<OutboxRelayState> state = ArgumentCaptor.forClass(OutboxRelayState.class);
+        verify(outboxRelayStateRepository, timeout(1000)).insert(state.capture());
+        assertThat(state.getValue().getId()).isEqualTo(RELAY_ID);
+        assertThat(state.getValue().getOwner()).isNotBlank();
+        assertThat(state.getValue().getLeaseUntil()).isAfter(LocalDateTime.now());
+        verify(outboxEventScheduler, timeout(1000)).catchUp(any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should stop tailing the stream once the relay lease is lost")
+    void relay_ShouldStopTailing_WhenLeaseLost() {
+        Document document = new Document("order_id", 1L);
+        Payment payment = Payment.builder().orderId(1L).build();
+        ChangeStreamDocument<Document> change = insert(document);
+        when(outboxRelayStateRepository.acquireLease(eq(RELAY_ID), anyString(), any(LocalDateTime.class),
+                any(LocalDateTime.class))).thenReturn(1L, 0L);
+        when(outboxRelayStateRepository.insert(any(OutboxRelayState.class)))
+                .thenThrow(new DuplicateKeyException("Relay already leased"));
+        stubChangeStream();
+        when(outboxRelayStateRepository.findById(RELAY_ID)).thenReturn(Optional.of(
+                OutboxRelayState.builder().id(RELAY_ID).resumeToken(STORED_TOKEN).build()));
+        when(changeStream.resumeAfter(resumeToken(STORED_TOKEN))).thenReturn(changeStream);
+        when(changeStream.cursor()).thenReturn(cursor);
+        when(cursor.tryNext()).thenReturn(change);
+        when(cursor.getResumeToken()).thenReturn(resumeToken(NEXT_TOKEN));
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoConverter.read(Payment.class, document)).thenReturn(payment);
+        when(outboxRelayStateRepository.saveResumeToken(eq(RELAY_ID), anyString(), eq(NEXT_TOKEN),
+                any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(0L);
+
+        outboxChangeStreamRelay.start();
+
+        verify(cursor, timeout(1000)).close();
+        verify(outboxEventScheduler).publish(anyList());
+        verify(outboxRelayStateRepository, timeout(1000)).insert(any(OutboxRelayState.class));
+    }
+
+    @Test
+    @DisplayName("Should release the relay lease when stopped")
+    void stop_ShouldReleaseLease() {
+        stubLease();
+        stubChangeStream();
+        when(outboxRelayStateRepository.findById(RELAY_ID)).thenReturn(Optional.empty());
+        when(changeStream.cursor()).thenReturn(cursor);
+        when(cursor.tryNext()).thenAnswer(invocation -> idle());
+
+        outboxChangeStreamRelay.start();
+        verify(cursor, timeout(1000).atLeast(2)).tryNext();
+        outboxChangeStreamRelay.stop();
+
+        verify(outboxRelayStateRepository).releaseLease(eq(RELAY_ID), anyString());
+    }
+
+    private void stubLease() {
+        when(outboxRelayStateRepository.acquireLease(eq(RELAY_ID), anyString(), any(LocalDateTime.class),
+                any(LocalDateTime.class))).thenReturn(1L);
+    }
+
+    private void stubChangeStream() {
+        when(mongoTemplate.getCollectionName(Payment.class)).thenReturn("payments");
+        when(mongoTemplate.getCollection("payments")).thenReturn(collection);
+        when(collection.watch(anyList())).thenReturn(changeStream);
+        when(changeStream.batchSize(anyInt())).thenReturn(changeStream);
+        when(changeStream.maxAwaitTime(anyLong(), any(TimeUnit.class))).thenReturn(changeStream);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ChangeStreamDocument<Document> insert(Document document) {
+        ChangeStreamDocument<Document> change = mock(ChangeStreamDocument.class);
+        when(change.getFullDocument()).thenReturn(document);
+        return change;
+    }
+
+    private ChangeStreamDocument<Document> idle() throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(10);
+        return null;
+    }
+
+    private BsonDocument resumeToken(String data) {
+        return new BsonDocument("_data", new BsonString(data));
+    }
+
+    private MongoCommandException historyLost() {
+        BsonDocument response = new BsonDocument("ok", new BsonInt32(0))
+                .append("code", new BsonInt32(286))
+                .append("errmsg", new BsonString("Resume of change stream was not possible"));
+        return new MongoCommandException(response, new ServerAddress());
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.innowise.paymentservice.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.innowise.paymentservice.model.EventEncoding;
+import com.innowise.paymentservice.model.EventStatus;
+import com.innowise.paymentservice.model.OutboxRelayMode;
+import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.document.OutboxEvent;
+import com.innowise.paymentservice.model.document.Payment;
+import com.innowise.paymentservice.model.dto.CreatePaymentEvent;
+import com.innowise.paymentservice.service.KafkaService;
+import com.innowise.paymentservice.service.OutboxEventService;
+import com.innowise.paymentservice.service.impl.OutboxEventSchedulerImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxEventSchedulerTest {
+
+    private static final int MAX_RETRY_COUNT = 5;
+    private static final int BATCH_SIZE = 100;
+    private static final Duration LEASE = Duration.ofSeconds(30);
+
+    @Mock
+    private KafkaService kafkaService;
+
+    @Mock
+    private OutboxEventService outboxEventService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MeterRegistry meterRegistry;
+
+    private OutboxEventSchedulerImpl outboxEventScheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxEventScheduler = new OutboxEventSchedulerImpl(
+                kafkaService, outboxEventService, meterRegistry, OutboxRelayMode.POLLING, LEASE);
+    }
+
+    @Test
+    @DisplayName("Should do nothing when there are no pending events")
+    void processOutboxEvents_ShouldDoNothing_WhenNoPendingEvents() {
+        when(outboxEventService.claimBatch(anyString(), any(LocalDateTime.class), eq(BATCH_SIZE), eq(LEASE)))
+                .thenReturn(List.of());
+
+        outboxEventScheduler.processOutboxEvents();
+
+        verify(kafkaService, never()).sendCreatePaymentEvent(any(), any(), any());
+        verify(outboxEventService, never()).markAsSent(any(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should send the whole batch and mark successes as sent with one update")
+    void processOutboxEvents_ShouldMarkBatchAsSent() throws Exception {
+        Payment payment1 = createPayment(1L, 0);
+        Payment payment2 = createPayment(2L, 0);
+        when(outboxEventService.claimBatch(anyString(), any(LocalDateTime.class), eq(BATCH_SIZE), eq(LEASE)))
+                .thenReturn(List.of(payment1, payment2));
+        when(kafkaService.sendCreatePaymentEvent(any(), any(byte[].class), eq(EventEncoding.JSON)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        outboxEventScheduler.processOutboxEvents();
+
+        verify(kafkaService).sendCreatePaymentEvent(1L, payment1.getOutbox().getPayload(), EventEncoding.JSON);
+        verify(kafkaService).sendCreatePaymentEvent(2L, payment2.getOutbox().getPayload(), EventEncoding.JSON);
+        verify(outboxEventService).markAsSent(eq(List.of(payment1.getId(), payment2.getId())), anyString());
+        verify(outboxEventService).recordFailures(eq(List.of()), anyString(), eq(MAX_RETRY_COUNT));
+        assertThat(meterRegistry.get("outbox.relay.events").tag("outcome", "sent").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("outbox.relay.batch").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should record failed sends with one update, separately from successes")
+    void processOutboxEvents_ShouldRecordFailures_WhenSomeSendsFail() throws Exception {
+        Payment payment1 = createPayment(1L, 0);
+        Payment payment2 = createPayment(2L, 4);
+        when(outboxEventService.claimBatch(anyString(), any(LocalDateTime.class), eq(BATCH_SIZE), eq(LEASE)))
+                .thenReturn(List.of(payment1, payment2));
+        when(kafkaService.sendCreatePaymentEvent(1L, payment1.getOutbox().getPayload(), EventEncoding.JSON))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(kafkaService.sendCreatePaymentEvent(2L, payment2.getOutbox().getPayload(), EventEncoding.JSON))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("Kafka error")));
+
+        outboxEventScheduler.processOutboxEvents();
+
+        verify(outboxEventService).markAsSent(eq(List.of(payment1.getId())), anyString());
+        verify(outboxEventService).recordFailures(eq(List.of(payment2.getId())), anyString(), eq(MAX_RETRY_COUNT));
+        assertThat(meterRegistry.get("outbox.relay.events").tag("outcome", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not poll when events are relayed from the change stream")
+    void processOutboxEvents_ShouldNotPoll_WhenChangeStreamRelayMode() {
+        OutboxEventSchedulerImpl changeStreamScheduler = new OutboxEventSchedulerImpl(
+                kafkaService, outboxEventService, meterRegistry, OutboxRelayMode.CHANGE_STREAM, LEASE);
+
+        changeStreamScheduler.processOutboxEvents();
+
+        verify(outboxEventService, never()).claimBatch(anyString(), any(LocalDateTime.class), anyInt(), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("Should catch up batch by batch until a batch is not full")
+    void catchUp_ShouldPublishBatchesUntilBatchIsNotFull() throws Exception {
+        LocalDateTime createdBefore = LocalDateTime.now();
+        List<Payment> fullBatch = new ArrayList<>();
+        for (long orderId = 1; orderId <= BATCH_SIZE; orderId++) {
+            fullBatch.add(createPayment(orderId, 0));
+        }
+        Payment lastPayment = createPayment(BATCH_SIZE + 1L, 0);
+        when(outboxEventService.claimBatch(anyString(), eq(createdBefore), eq(BATCH_SIZE), eq(LEASE)))
+                .thenReturn(fullBatch, List.of(lastPayment));
+        when(kafkaService.sendCreatePaymentEvent(any(), any(byte[].class), eq(EventEncoding.JSON)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        outboxEventScheduler.catchUp(createdBefore);
+
+        verify(outboxEventService, times(2)).claimBatch(anyString(), eq(createdBefore), eq(BATCH_SIZE), eq(LEASE));
+        verify(outboxEventService).markAsSent(eq(List.of(lastPayment.getId())), anyString());
+        assertThat(meterRegistry.get("outbox.relay.events").tag("outcome", "sent").counter().count())
+                .isEqualTo(BATCH_SIZE + 1);
+    }
+
+    @Test
+    @DisplayName("Should stop catching up when no event of a full batch could be sent")
+    void catchUp_ShouldStop_WhenNothingWasSent() throws Exception {
+        LocalDateTime createdBefore = LocalDateTime.now();
+        List<Payment> fullBatch = new ArrayList<>();
+        for (long orderId = 1; orderId <= BATCH_SIZE; orderId++) {
+            fullBatch.add(createPayment(orderId, 0));
+        }
+        when(outboxEventService.claimBatch(anyString(), eq(createdBefore), eq(BATCH_SIZE), eq(LEASE)))
+                .thenReturn(fullBatch);
+        when(kafkaService.sendCreatePaymentEvent(any(), any(byte[].class), eq(EventEncoding.JSON)))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("Kafka error")));
+
+        outboxEventScheduler.catchUp(createdBefore);
+
+        verify(outboxEventService, times(1)).claimBatch(anyString(), eq(createdBefore), eq(BATCH_SIZE), eq(LEASE));
+    }
+
+    @Test
+    @DisplayName("Should publish only the inserted payments whose outbox events this instance claimed")
+    void publish_ShouldPublishOnlyClaimedEvents() throws Exception {
+        Payment claimed = createPayment(1L, 0);
+        Payment claimedByOther = createPayment(2L, 0);
+        when(outboxEventService.claim(eq(List.of(claimed.getId(), claimedByOther.getId())), anyString(), eq(LEASE)))
+                .thenReturn(List.of(claimed));
+        when(kafkaService.sendCreatePaymentEvent(1L, claimed.getOutbox().getPayload(), EventEncoding.JSON))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        int sent = outboxEventScheduler.publish(List.of(claimed, claimedByOther));
+
+        assertThat(sent).isEqualTo(1);
+        verify(kafkaService, never()).sendCreatePaymentEvent(eq(2L), any(), any());
+        verify(outboxEventService).markAsSent(eq(List.of(claimed.getId())), anyString());
+    }
+
+    private Payment createPayment(Long orderId, int retryCount) throws Exception {
+        CreatePaymentEvent createPaymentEvent = CreatePaymentEvent.builder()
+                .orderId(orderId)
+                .status(PaymentStatus.SUCCESS)
+                .build();
+
+        OutboxEvent outboxEvent = OutboxEvent.builder()
+                .payload(objectMapper.writeValueAsBytes(createPaymentEvent))
+                .retryCount(retryCount)
+                .eventStatus(EventStatus.PENDING)
+                .build();
+
+        return Payment.builder()
+                .id(new ObjectId())
+                .orderId(orderId)
+                .status(PaymentStatus.SUCCESS)
+                .outbox(outboxEvent)
+                .build();
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.innowise.paymentservice.unit.service;
+
+import com.innowise.paymentservice.service.OutboxEventService;
+import com.innowise.paymentservice.service.impl.OutboxRetentionSchedulerImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRetentionSchedulerTest {
+
+    private static final Duration SENT_RETENTION = Duration.ofDays(7);
+
+    @Mock
+    private OutboxEventService outboxEventService;
+
+    private OutboxRetentionSchedulerImpl outboxRetentionScheduler;
+
+    @BeforeEach
+    void setUp() {
+        outboxRetentionScheduler = new OutboxRetentionSchedulerImpl(outboxEventService, SENT_RETENTION);
+    }
+
+    @Test
+    @DisplayName("Should remove the outbox events sent before the retention period")
+    void removeSentOutboxEvents_ShouldRemoveEventsPastRetention() {
+        when(outboxEventService.removeSent(SENT_RETENTION)).thenReturn(2L);
+
+        outboxRetentionScheduler.removeSentOutboxEvents();
+
+        verify(outboxEventService).removeSent(SENT_RETENTION);
+    }
+
+    @Test
+    @DisplayName("Should not propagate failures so the next run can retry")
+    void removeSentOutboxEvents_ShouldSwallowFailures() {
+        when(outboxEventService.removeSent(SENT_RETENTION))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        assertThatCode(() -> outboxRetentionScheduler.removeSentOutboxEvents()).doesNotThrowAnyException();
+    }
+
+}
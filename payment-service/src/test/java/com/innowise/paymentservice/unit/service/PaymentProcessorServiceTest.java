@@ -1,7 +1,7 @@
 package com.innowise.paymentservice.unit.service;
 
 import com.innowise.paymentservice.model.PaymentStatus;
-import com.innowise.paymentservice.service.RandomNumberRestClient;
+import com.innowise.paymentservice.service.RandomNumberPool;
 import com.innowise.paymentservice.service.impl.PaymentProcessorServiceImpl;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,28 +21,28 @@ class PaymentProcessorServiceTest {
     private PaymentProcessorServiceImpl paymentProcessorService;
 
     @Mock
-    private RandomNumberRestClient randomNumberRestClient;
+    private RandomNumberPool randomNumberPool;
 
     @Test
     @DisplayName("Should return SUCCESS when random number is even")
     void processPayment_ShouldReturnSuccess_WhenNumberIsEven() {
-        when(randomNumberRestClient.getRandomNumber()).thenReturn(2L);
+        when(randomNumberPool.take()).thenReturn(2L);
 
         PaymentStatus paymentStatus = paymentProcessorService.processPayment();
 
         assertThat(paymentStatus).isEqualTo(PaymentStatus.SUCCESS);
-        verify(randomNumberRestClient).getRandomNumber();
+        verify(randomNumberPool).take();
     }
 
     @Test
     @DisplayName("Should return FAILED when random number is odd")
     void processPayment_ShouldReturnFailed_WhenNumberIsOdd() {
-        when(randomNumberRestClient.getRandomNumber()).thenReturn(3L);
+        when(randomNumberPool.take()).thenReturn(3L);
 
         PaymentStatus paymentStatus = paymentProcessorService.processPayment();
 
         assertThat(paymentStatus).isEqualTo(PaymentStatus.FAILED);
-        verify(randomNumberRestClient).getRandomNumber();
+        verify(randomNumberPool).take();
     }
 
 }
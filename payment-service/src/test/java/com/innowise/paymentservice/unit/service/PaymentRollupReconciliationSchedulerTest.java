@@ -0,0 +1,75 @@
+package com.innowise.paymentservice.unit.service;
+
+import com.innowise.paymentservice.repository.PaymentRepository;
+import com.innowise.paymentservice.service.impl.PaymentRollupReconciliationSchedulerImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentRollupReconciliationSchedulerTest {
+
+    private static final Duration LOOKBACK = Duration.ofHours(2);
+    private static final Duration GRACE = Duration.ofMinutes(1);
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    private PaymentRollupReconciliationSchedulerImpl paymentRollupReconciliationScheduler;
+
+    @BeforeEach
+    void setUp() {
+        paymentRollupReconciliationScheduler =
+                new PaymentRollupReconciliationSchedulerImpl(paymentRepository, LOOKBACK, GRACE);
+    }
+
+    @Test
+    @DisplayName("Should recompute the closed buckets of the lookback widened to whole days, aligned in the system time zone")
+    void reconcileRollups_ShouldRecomputeClosedBuckets() {
+        LocalDateTime before = LocalDateTime.now().minus(GRACE);
+
+        paymentRollupReconciliationScheduler.reconcileRollups();
+
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> to = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> hourEnd = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> dayEnd = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(paymentRepository).reconcileRollups(from.capture(), to.capture(), hourEnd.capture(), dayEnd.capture(),
+                eq(ZoneId.systemDefault().getId()));
+
+        assertThat(to.getValue()).isEqualTo(to.getValue().truncatedTo(ChronoUnit.MINUTES))
+                .isAfterOrEqualTo(before.truncatedTo(ChronoUnit.MINUTES))
+                .isBeforeOrEqualTo(LocalDateTime.now().minus(GRACE));
+        assertThat(from.getValue()).isEqualTo(to.getValue().minus(LOOKBACK).truncatedTo(ChronoUnit.DAYS));
+        assertThat(hourEnd.getValue()).isEqualTo(to.getValue().truncatedTo(ChronoUnit.HOURS));
+        assertThat(dayEnd.getValue()).isEqualTo(to.getValue().truncatedTo(ChronoUnit.DAYS));
+    }
+
+    @Test
+    @DisplayName("Should not propagate failures so the next run can retry")
+    void reconcileRollups_ShouldSwallowFailures() {
+        doThrow(new DataAccessResourceFailureException("Connection refused"))
+                .when(paymentRepository).reconcileRollups(any(), any(), any(), any(), anyString());
+
+        assertThatCode(() -> paymentRollupReconciliationScheduler.reconcileRollups()).doesNotThrowAnyException();
+    }
+
+}
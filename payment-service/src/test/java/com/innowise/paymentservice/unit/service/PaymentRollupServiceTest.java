@@ -0,0 +1,147 @@
+package com.innowise.paymentservice.unit.service;
+
+import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.document.Payment;
+import com.innowise.paymentservice.model.document.PaymentRollup;
+import com.innowise.paymentservice.model.projection.TotalAmountProjection;
+import com.innowise.paymentservice.repository.PaymentRepository;
+import com.innowise.paymentservice.repository.PaymentRollupRepository;
+import com.innowise.paymentservice.service.impl.PaymentRollupServiceImpl;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentRollupServiceTest {
+
+    @Mock
+    private PaymentRollupRepository paymentRollupRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private PaymentRollupServiceImpl paymentRollupService;
+
+    @Test
+    @DisplayName("Should sum the increments of a batch per bucket and upsert them in one bulk write")
+    void record_ShouldUpsertOneIncrementPerBucket() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 5, 10, 14, 30, 15);
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PaymentRollup.class)).thenReturn(bulkOperations);
+
+        paymentRollupService.record(List.of(
+                createPayment(timestamp, PaymentStatus.SUCCESS, BigDecimal.TEN),
+                createPayment(timestamp.plusSeconds(10), PaymentStatus.SUCCESS, BigDecimal.ONE),
+                createPayment(timestamp, PaymentStatus.FAILED, BigDecimal.TEN)));
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(6)).upsert(any(Query.class), updates.capture());
+        verify(bulkOperations).execute();
+        assertThat(updates.getAllValues().getFirst().getUpdateObject().get("$inc", Document.class))
+                .containsEntry("totalAmount", new Decimal128(BigDecimal.valueOf(11)))
+                .containsEntry("count", 2L);
+    }
+
+    @Test
+    @DisplayName("Should not write anything when no payment was stored")
+    void record_ShouldDoNothing_WhenNoPayments() {
+        paymentRollupService.record(List.of());
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+    }
+
+    @Test
+    @DisplayName("Should combine day, hour and minute buckets with the two sub-minute edges of the range")
+    void findTotalAmount_ShouldCombineBucketsAndEdges() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 10, 22, 5, 30);
+        LocalDateTime to = LocalDateTime.of(2024, 5, 12, 3, 10, 20);
+        Optional<TotalAmountProjection> bucketsTotal = total(BigDecimal.valueOf(100));
+        Optional<TotalAmountProjection> edgesTotal = total(BigDecimal.valueOf(5));
+        when(paymentRollupRepository.findTotalAmount(
+                LocalDateTime.of(2024, 5, 10, 22, 6),
+                LocalDateTime.of(2024, 5, 10, 23, 0),
+                LocalDateTime.of(2024, 5, 11, 0, 0),
+                LocalDateTime.of(2024, 5, 12, 0, 0),
+                LocalDateTime.of(2024, 5, 12, 3, 0),
+                LocalDateTime.of(2024, 5, 12, 3, 10)))
+                .thenReturn(bucketsTotal);
+        when(paymentRepository.findTotalAmountAtEdges(
+                from, LocalDateTime.of(2024, 5, 10, 22, 6), LocalDateTime.of(2024, 5, 12, 3, 10), to))
+                .thenReturn(edgesTotal);
+
+        BigDecimal actualTotal = paymentRollupService.findTotalAmount(from, to);
+
+        assertThat(actualTotal).isEqualByComparingTo(BigDecimal.valueOf(105));
+        verify(paymentRepository, never()).findTotalAmount(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should collapse the unused bucket ranges when the range spans no full hour")
+    void findTotalAmount_ShouldUseMinuteBuckets_WhenRangeSpansNoFullHour() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 10, 10, 5);
+        LocalDateTime to = LocalDateTime.of(2024, 5, 10, 10, 50);
+        LocalDateTime end = LocalDateTime.of(2024, 5, 10, 10, 50);
+        when(paymentRollupRepository.findTotalAmount(from, end, end, end, end, end)).thenReturn(Optional.empty());
+        when(paymentRepository.findTotalAmountAtEdges(from, from, end, to)).thenReturn(Optional.empty());
+
+        BigDecimal actualTotal = paymentRollupService.findTotalAmount(from, to);
+
+        assertThat(actualTotal).isEqualTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("Should aggregate the raw payments when the range spans no full minute")
+    void findTotalAmount_ShouldAggregatePayments_WhenRangeSpansNoFullMinute() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 10, 10, 5, 10);
+        LocalDateTime to = LocalDateTime.of(2024, 5, 10, 10, 5, 50);
+        Optional<TotalAmountProjection> paymentsTotal = total(BigDecimal.TEN);
+        when(paymentRepository.findTotalAmount(from, to)).thenReturn(paymentsTotal);
+
+        BigDecimal actualTotal = paymentRollupService.findTotalAmount(from, to);
+
+        assertThat(actualTotal).isEqualByComparingTo(BigDecimal.TEN);
+        verify(paymentRollupRepository, never()).findTotalAmount(any(), any(), any(), any(), any(), any());
+    }
+
+    private Payment createPayment(LocalDateTime timestamp, PaymentStatus status, BigDecimal amount) {
+        return Payment.builder()
+                .timestamp(timestamp)
+                .status(status)
+                .paymentAmount(amount)
+                .build();
+    }
+
+    private Optional<TotalAmountProjection> total(BigDecimal amount) {
+        TotalAmountProjection projection = mock(TotalAmountProjection.class);
+        when(projection.getTotal()).thenReturn(new Decimal128(amount));
+        return Optional.of(projection);
+    }
+
+}
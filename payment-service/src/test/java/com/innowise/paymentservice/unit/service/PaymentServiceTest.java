@@ -1,19 +1,30 @@
 package com.innowise.paymentservice.unit.service;
 
+import com.innowise.paymentservice.exception.InvalidCursorException;
+import com.innowise.paymentservice.exception.PaymentBulkWriteException;
 import com.innowise.paymentservice.exception.ResourceNotFoundException;
 import com.innowise.paymentservice.mapper.PaymentMapper;
+import com.innowise.paymentservice.model.EventStatus;
 import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.document.OutboxEvent;
 import com.innowise.paymentservice.model.document.Payment;
 import com.innowise.paymentservice.model.dto.CreatePaymentEvent;
+import com.innowise.paymentservice.model.dto.PageableRequest;
 import com.innowise.paymentservice.model.dto.PaymentRequest;
 import com.innowise.paymentservice.model.dto.PaymentResponse;
-import com.innowise.paymentservice.model.projection.TotalAmountProjection;
 import com.innowise.paymentservice.repository.PaymentRepository;
+import com.innowise.paymentservice.service.PaymentRollupService;
+import com.innowise.paymentservice.service.ProcessedOrderFilter;
 import com.innowise.paymentservice.service.impl.OutboxEventServiceImpl;
 import com.innowise.paymentservice.service.impl.PaymentProcessorServiceImpl;
 import com.innowise.paymentservice.service.impl.PaymentServiceImpl;
+import com.innowise.paymentservice.util.CursorCodec;
 import com.innowise.paymentservice.util.ExceptionMessageGenerator;
-import org.bson.types.Decimal128;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -22,11 +33,24 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static com.innowise.paymentservice.util.PaymentUtil.createPayment;
 import static com.innowise.paymentservice.util.PaymentUtil.createPaymentRequest;
@@ -36,6 +60,8 @@ import static com.innowise.paymentservice.util.PaymentUtil.createPayments;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -57,22 +83,32 @@ class PaymentServiceTest {
     @Mock
     private PaymentRepository paymentRepository;
 
+    @Mock
+    private PaymentRollupService paymentRollupService;
+
+    @Mock
+    private ProcessedOrderFilter processedOrderFilter;
+
     @Mock
     private PaymentMapper paymentMapper;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
     @Test
-    @DisplayName("Should create payment with SUCCESS status when random number is even")
+    @DisplayName("Should create payment with SUCCESS status and its outbox event in a single insert")
     void save_ShouldCreatePaymentWithSuccess_WhenRandomNumberIsEven() {
         PaymentRequest paymentRequest = createPaymentRequest();
         ObjectId paymentId = new ObjectId();
         Payment savedPayment = createPayment(paymentId, paymentRequest.getOrderId(), PaymentStatus.SUCCESS);
         PaymentResponse expectedResponse = createPaymentResponse(paymentId.toString(), 
                 paymentRequest.getOrderId(), PaymentStatus.SUCCESS);
+        OutboxEvent outboxEvent = OutboxEvent.builder().eventStatus(EventStatus.PENDING).build();
 
         when(paymentProcessorService.processPayment()).thenReturn(PaymentStatus.SUCCESS);
         when(paymentMapper.paymentRequestToPayment(paymentRequest)).thenReturn(new Payment());
-        doNothing().when(outboxEventService).save(any(CreatePaymentEvent.class));
-        when(paymentRepository.save(any(Payment.class))).thenReturn(savedPayment);
+        when(outboxEventService.create(any(CreatePaymentEvent.class))).thenReturn(outboxEvent);
+        when(paymentRepository.insert(any(Payment.class))).thenReturn(savedPayment);
         when(paymentMapper.paymentToPaymentResponse(savedPayment)).thenReturn(expectedResponse);
 
         PaymentResponse actualResponse = paymentService.save(paymentRequest);
@@ -83,14 +119,154 @@ class PaymentServiceTest {
         assertThat(actualResponse.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
 
         ArgumentCaptor<Payment> paymentCaptor = ArgumentCaptor.forClass(Payment.class);
-        verify(paymentRepository).save(paymentCaptor.capture());
+        verify(paymentRepository).insert(paymentCaptor.capture());
         
         Payment capturedPayment = paymentCaptor.getValue();
         assertThat(capturedPayment.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        verify(paymentRollupService).record(List.of(savedPayment));
+        verify(processedOrderFilter).record(paymentRequest.getOrderId(), PaymentStatus.SUCCESS);
+        assertThat(capturedPayment.getOutbox()).isSameAs(outboxEvent);
+
+        ArgumentCaptor<CreatePaymentEvent> eventCaptor = ArgumentCaptor.forClass(CreatePaymentEvent.class);
+        verify(outboxEventService).create(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getStatus()).isEqualTo(PaymentStatus.SUCCESS);
 
         verify(paymentProcessorService).processPayment();
         verify(paymentMapper).paymentRequestToPayment(paymentRequest);
         verify(paymentMapper).paymentToPaymentResponse(savedPayment);
+        verify(paymentRepository, never()).existsByOrderId(any());
+    }
+
+    @Test
+    @DisplayName("Should return the stored payment when a redelivered request hits the unique order index")
+    void save_ShouldReturnStoredPayment_WhenPaymentExists() {
+        PaymentRequest paymentRequest = createPaymentRequest();
+        ObjectId paymentId = new ObjectId();
+        Payment newPayment = new Payment();
+        newPayment.setOrderId(paymentRequest.getOrderId());
+        Payment storedPayment = createPayment(paymentId, paymentRequest.getOrderId(), PaymentStatus.FAILED);
+        PaymentResponse expectedResponse = createPaymentResponse(paymentId.toString(),
+                paymentRequest.getOrderId(), PaymentStatus.FAILED);
+
+        when(paymentProcessorService.processPayment()).thenReturn(PaymentStatus.SUCCESS);
+        when(paymentMapper.paymentRequestToPayment(paymentRequest)).thenReturn(newPayment);
+        when(outboxEventService.create(any(CreatePaymentEvent.class))).thenReturn(new OutboxEvent());
+        when(paymentRepository.insert(any(Payment.class))).thenThrow(new DuplicateKeyException("order_id"));
+        when(paymentRepository.findByOrderId(paymentRequest.getOrderId())).thenReturn(Optional.of(storedPayment));
+        when(paymentMapper.paymentToPaymentResponse(storedPayment)).thenReturn(expectedResponse);
+
+        PaymentResponse actualResponse = paymentService.save(paymentRequest);
+
+        assertThat(actualResponse).isSameAs(expectedResponse);
+        verify(paymentRepository).insert(any(Payment.class));
+        verify(processedOrderFilter).record(paymentRequest.getOrderId(), PaymentStatus.FAILED);
+    }
+
+    @Test
+    @DisplayName("Should write the payments of a batch with their outbox events in one unordered bulk insert")
+    void saveAll_ShouldBulkInsertPaymentsWithOutboxEvents() {
+        List<PaymentRequest> paymentRequests = List.of(
+                createPaymentRequest(1L, 1L, BigDecimal.TEN), createPaymentRequest(2L, 1L, BigDecimal.ONE));
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+
+        when(paymentMapper.paymentRequestToPayment(any(PaymentRequest.class))).thenAnswer(invocation -> new Payment());
+        when(outboxEventService.create(any(CreatePaymentEvent.class))).thenAnswer(invocation -> new OutboxEvent());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+
+        paymentService.saveAll(paymentRequests, Map.of(1L, PaymentStatus.SUCCESS, 2L, PaymentStatus.FAILED));
+
+        ArgumentCaptor<List<Payment>> paymentsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations).insert(paymentsCaptor.capture());
+        verify(bulkOperations).execute();
+        assertThat(paymentsCaptor.getValue())
+                .extracting(Payment::getStatus)
+                .containsExactly(PaymentStatus.SUCCESS, PaymentStatus.FAILED);
+        assertThat(paymentsCaptor.getValue()).allSatisfy(payment -> assertThat(payment.getOutbox()).isNotNull());
+        verify(paymentProcessorService, never()).processPayment();
+        verify(paymentRepository, never()).insert(any(Payment.class));
+        verify(paymentRollupService).record(paymentsCaptor.getValue());
+    }
+
+    @Test
+    @DisplayName("Should skip payments rejected by the unique order index without failing the batch")
+    void saveAll_ShouldSkipDuplicates() {
+        BulkOperations bulkOperations = mockBulkInsert();
+
+        when(bulkOperations.execute()).thenThrow(bulkOperationException(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)));
+
+        paymentService.saveAll(List.of(createPaymentRequest(1L, 1L, BigDecimal.TEN), createPaymentRequest(2L, 1L, BigDecimal.ONE)),
+                Map.of(1L, PaymentStatus.SUCCESS, 2L, PaymentStatus.SUCCESS));
+
+        verify(bulkOperations).execute();
+        ArgumentCaptor<List<Payment>> recordedCaptor = ArgumentCaptor.forClass(List.class);
+        verify(paymentRollupService).record(recordedCaptor.capture());
+        assertThat(recordedCaptor.getValue()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should fail with the index of the first payment rejected for another reason than a duplicate key")
+    void saveAll_ShouldThrowPaymentBulkWriteException_WhenWriteFails() {
+        BulkOperations bulkOperations = mockBulkInsert();
+
+        when(bulkOperations.execute()).thenThrow(bulkOperationException(
+                new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0),
+                new BulkWriteError(121, "document failed validation", new BsonDocument(), 2),
+                new BulkWriteError(121, "document failed validation", new BsonDocument(), 1)));
+
+        assertThatThrownBy(() -> paymentService.saveAll(List.of(createPaymentRequest(1L, 1L, BigDecimal.TEN),
+                createPaymentRequest(2L, 1L, BigDecimal.TEN), createPaymentRequest(3L, 1L, BigDecimal.TEN)),
+                Map.of(1L, PaymentStatus.SUCCESS, 2L, PaymentStatus.SUCCESS, 3L, PaymentStatus.FAILED)))
+                .isInstanceOf(PaymentBulkWriteException.class)
+                .extracting(e -> ((PaymentBulkWriteException) e).getIndex())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should insert a processed payment without an outbox event")
+    void saveIfAbsent_ShouldInsertPayment_WhenPaymentDoesNotExist() {
+        PaymentRequest paymentRequest = createPaymentRequest();
+        ObjectId paymentId = new ObjectId();
+        Payment insertedPayment = createPayment(paymentId, paymentRequest.getOrderId(), PaymentStatus.SUCCESS);
+        PaymentResponse expectedResponse = createPaymentResponse(paymentId.toString(),
+                paymentRequest.getOrderId(), PaymentStatus.SUCCESS);
+
+        when(paymentMapper.paymentRequestToPayment(paymentRequest)).thenReturn(new Payment());
+        when(paymentProcessorService.processPayment()).thenReturn(PaymentStatus.SUCCESS);
+        when(paymentRepository.insert(any(Payment.class))).thenReturn(insertedPayment);
+        when(paymentMapper.paymentToPaymentResponse(insertedPayment)).thenReturn(expectedResponse);
+
+        PaymentResponse actualResponse = paymentService.saveIfAbsent(paymentRequest);
+
+        assertThat(actualResponse).isSameAs(expectedResponse);
+
+        ArgumentCaptor<Payment> paymentCaptor = ArgumentCaptor.forClass(Payment.class);
+        verify(paymentRepository).insert(paymentCaptor.capture());
+        assertThat(paymentCaptor.getValue().getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(paymentCaptor.getValue().getOutbox()).isNull();
+        verify(outboxEventService, never()).create(any());
+    }
+
+    @Test
+    @DisplayName("Should return the stored payment when the insert hits the unique order index")
+    void saveIfAbsent_ShouldReturnStoredPayment_WhenPaymentExists() {
+        PaymentRequest paymentRequest = createPaymentRequest();
+        ObjectId paymentId = new ObjectId();
+        Payment newPayment = new Payment();
+        newPayment.setOrderId(paymentRequest.getOrderId());
+        Payment storedPayment = createPayment(paymentId, paymentRequest.getOrderId(), PaymentStatus.FAILED);
+        PaymentResponse expectedResponse = createPaymentResponse(paymentId.toString(),
+                paymentRequest.getOrderId(), PaymentStatus.FAILED);
+
+        when(paymentRepository.findByOrderId(paymentRequest.getOrderId())).thenReturn(Optional.of(storedPayment));
+        when(paymentMapper.paymentRequestToPayment(paymentRequest)).thenReturn(newPayment);
+        when(paymentProcessorService.processPayment()).thenReturn(PaymentStatus.SUCCESS);
+        when(paymentRepository.insert(any(Payment.class))).thenThrow(new DuplicateKeyException("order_id"));
+        when(paymentMapper.paymentToPaymentResponse(storedPayment)).thenReturn(expectedResponse);
+
+        PaymentResponse actualResponse = paymentService.saveIfAbsent(paymentRequest);
+
+        assertThat(actualResponse.getStatus()).isEqualTo(PaymentStatus.FAILED);
     }
 
     @Test
@@ -205,38 +381,112 @@ class PaymentServiceTest {
     }
 
     @Test
-    @DisplayName("Should calculate total amount for date range successfully")
-    void findTotalAmount_ShouldReturnTotalAmount_WhenPaymentsExist() {
-        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
-        LocalDateTime to = LocalDateTime.of(2024, 12, 31, 23, 59);
-        BigDecimal expectedTotal = BigDecimal.valueOf(5000.00);
-        
-        TotalAmountProjection projection = mock(TotalAmountProjection.class);
-        when(projection.getTotal()).thenReturn(new Decimal128(expectedTotal));
-        when(paymentRepository.findTotalAmount(from, to)).thenReturn(Optional.of(projection));
+    @DisplayName("Should return the first page of the payment history of a user")
+    void findByUserId_ShouldReturnFirstPage_WhenNoCursor() {
+        Long userId = 1L;
+        Payment payment = createPayment(1L, userId, PaymentStatus.SUCCESS);
+        PaymentResponse response = createPaymentResponse(payment.getId().toHexString(), 1L, PaymentStatus.SUCCESS);
+        PageableRequest pageableRequest = PageableRequest.builder().size(1).build();
 
-        BigDecimal actualTotal = paymentService.findTotalAmount(from, to);
+        when(paymentRepository.findHistoryByUserId(eq(userId), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(payment), PageRequest.of(0, 1), true));
+        when(paymentMapper.paymentToPaymentResponse(payment)).thenReturn(response);
+
+        Slice<PaymentResponse> page = paymentService.findByUserId(userId, pageableRequest);
 
-        assertThat(actualTotal).isNotNull()
-                .isEqualTo(expectedTotal);
+        assertThat(page.getContent()).containsExactly(response);
+        assertThat(page.hasNext()).isTrue();
 
-        verify(paymentRepository).findTotalAmount(from, to);
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(paymentRepository).findHistoryByUserId(eq(userId), pageable.capture());
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(1);
+        assertThat(pageable.getValue().getSort()).isEqualTo(Sort.by(Sort.Direction.DESC, "timestamp", "id"));
     }
 
     @Test
-    @DisplayName("Should return zero when no payments in date range")
-    void findTotalAmount_ShouldReturnZero_WhenNoPaymentsFound() {
+    @DisplayName("Should return the payment history page after the cursor keyset")
+    void findByUserId_ShouldReturnPageAfterCursor() {
+        Long userId = 1L;
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 1, 12, 0, 0, 123_000_000);
+        ObjectId id = new ObjectId();
+        PageableRequest pageableRequest = PageableRequest.builder()
+                .after(CursorCodec.encode(timestamp, id.toHexString()))
+                .build();
+
+        when(paymentRepository.findHistoryByUserIdAfter(eq(userId), eq(timestamp), eq(id), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        Slice<PaymentResponse> page = paymentService.findByUserId(userId, pageableRequest);
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.hasNext()).isFalse();
+        verify(paymentRepository, never()).findHistoryByUserId(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should throw InvalidCursorException when the cursor is malformed")
+    void findByUserId_ShouldThrowException_WhenCursorIsMalformed() {
+        PageableRequest pageableRequest = PageableRequest.builder().after("bm90LWEtY3Vyc29y").build();
+
+        assertThatThrownBy(() -> paymentService.findByUserId(1L, pageableRequest))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessage(ExceptionMessageGenerator.invalidCursor("bm90LWEtY3Vyc29y"));
+
+        verify(paymentRepository, never()).findHistoryByUserIdAfter(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return the page of payments by statuses after the cursor keyset")
+    void findByStatuses_ShouldReturnPageAfterCursor() {
+        List<PaymentStatus> statuses = List.of(PaymentStatus.FAILED);
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 1, 12, 0);
+        ObjectId id = new ObjectId();
+        Payment payment = createPayment(1L, 1L, PaymentStatus.FAILED);
+        PaymentResponse response = createPaymentResponse(payment.getId().toHexString(), 1L, PaymentStatus.FAILED);
+        PageableRequest pageableRequest = PageableRequest.builder()
+                .after(CursorCodec.encode(timestamp, id.toHexString()))
+                .build();
+
+        when(paymentRepository.findHistoryByStatusInAfter(eq(statuses), eq(timestamp), eq(id), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(payment)));
+        when(paymentMapper.paymentToPaymentResponse(payment)).thenReturn(response);
+
+        Slice<PaymentResponse> page = paymentService.findByStatuses(statuses, pageableRequest);
+
+        assertThat(page.getContent()).containsExactly(response);
+        verify(paymentRepository, never()).findHistoryByStatusIn(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should stream the payment history of a user and close the cursor with the stream")
+    void streamByUserId_ShouldMapStreamAndPropagateClose() {
+        Payment payment = createPayment(1L, 1L, PaymentStatus.SUCCESS);
+        PaymentResponse response = createPaymentResponse(payment.getId().toHexString(), 1L, PaymentStatus.SUCCESS);
+        AtomicBoolean closed = new AtomicBoolean();
+
+        when(paymentRepository.streamHistoryByUserId(1L)).thenReturn(Stream.of(payment).onClose(() -> closed.set(true)));
+        when(paymentMapper.paymentToPaymentResponse(payment)).thenReturn(response);
+
+        try (Stream<PaymentResponse> payments = paymentService.streamByUserId(1L)) {
+            assertThat(payments).containsExactly(response);
+        }
+
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should answer the total amount for a date range from the rollups")
+    void findTotalAmount_ShouldReturnTotalAmountFromRollups() {
         LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
         LocalDateTime to = LocalDateTime.of(2024, 12, 31, 23, 59);
+        BigDecimal expectedTotal = BigDecimal.valueOf(5000.00);
 
-        when(paymentRepository.findTotalAmount(from, to)).thenReturn(Optional.empty());
+        when(paymentRollupService.findTotalAmount(from, to)).thenReturn(expectedTotal);
 
         BigDecimal actualTotal = paymentService.findTotalAmount(from, to);
 
-        assertThat(actualTotal).isNotNull()
-                .isEqualTo(BigDecimal.ZERO);
-
-        verify(paymentRepository).findTotalAmount(from, to);
+        assertThat(actualTotal).isEqualTo(expectedTotal);
+        verify(paymentRepository, never()).findTotalAmount(any(), any());
     }
 
     @Test
@@ -267,7 +517,22 @@ class PaymentServiceTest {
         verify(paymentRepository).existsByOrderId(orderId);
     }
 
-}
+    private BulkOperations mockBulkInsert() {
+        BulkOperations bulkOperations = mock(BulkOperations.class);
 
+        when(paymentMapper.paymentRequestToPayment(any(PaymentRequest.class))).thenAnswer(invocation -> new Payment());
+        when(outboxEventService.create(any(CreatePaymentEvent.class))).thenAnswer(invocation -> new OutboxEvent());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
 
+        return bulkOperations;
+    }
+
+    private BulkOperationException bulkOperationException(BulkWriteError... errors) {
+        MongoBulkWriteException source = new MongoBulkWriteException(BulkWriteResult.unacknowledged(), List.of(errors),
+                null, new ServerAddress(), Set.of());
 
+        return new BulkOperationException(source.getMessage(), source);
+    }
+
+}
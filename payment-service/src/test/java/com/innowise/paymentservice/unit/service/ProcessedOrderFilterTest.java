@@ -0,0 +1,106 @@
+package com.innowise.paymentservice.unit.service;
+
+import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.document.Payment;
+import com.innowise.paymentservice.service.impl.ProcessedOrderFilterImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessedOrderFilterTest {
+
+    private static final int CAPACITY = 2;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ProcessedOrderFilterImpl processedOrderFilter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        processedOrderFilter = new ProcessedOrderFilterImpl(mongoTemplate, meterRegistry, CAPACITY);
+    }
+
+    @Test
+    @DisplayName("Should return the status of a recorded order and count hits and misses")
+    void findStatus_ShouldReturnRecordedStatus_AndCountLookups() {
+        processedOrderFilter.record(1L, PaymentStatus.FAILED);
+
+        assertThat(processedOrderFilter.findStatus(1L)).contains(PaymentStatus.FAILED);
+        assertThat(processedOrderFilter.findStatus(2L)).isEmpty();
+        assertThat(meterRegistry.get("processed.order.filter.hits").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("processed.order.filter.misses").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("processed.order.filter.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used order when full")
+    void record_WhenFull_ShouldEvictLeastRecentlyUsedOrder() {
+        processedOrderFilter.record(1L, PaymentStatus.SUCCESS);
+        processedOrderFilter.record(2L, PaymentStatus.SUCCESS);
+        processedOrderFilter.findStatus(1L);
+
+        processedOrderFilter.record(3L, PaymentStatus.SUCCESS);
+
+        assertThat(processedOrderFilter.findStatus(1L)).isPresent();
+        assertThat(processedOrderFilter.findStatus(2L)).isEmpty();
+        assertThat(processedOrderFilter.findStatus(3L)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should warm up with the latest payments, newest ones most recently used")
+    void warmUp_ShouldLoadLatestPayments() {
+        when(mongoTemplate.stream(any(Query.class), eq(Payment.class))).thenReturn(Stream.of(
+                payment(3L, PaymentStatus.SUCCESS),
+                payment(2L, PaymentStatus.FAILED)));
+
+        processedOrderFilter.warmUp();
+        processedOrderFilter.record(4L, PaymentStatus.SUCCESS);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Payment.class));
+        assertThat(query.getValue().getLimit()).isEqualTo(CAPACITY);
+        assertThat(processedOrderFilter.findStatus(3L)).contains(PaymentStatus.SUCCESS);
+        assertThat(processedOrderFilter.findStatus(2L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should start empty when the warm-up fails")
+    void start_WhenWarmUpFails_ShouldStartEmpty() {
+        when(mongoTemplate.stream(any(Query.class), eq(Payment.class)))
+                .thenThrow(new DataAccessResourceFailureException("Mongo is down"));
+
+        processedOrderFilter.start();
+
+        assertThat(processedOrderFilter.isRunning()).isTrue();
+        assertThat(processedOrderFilter.findStatus(1L)).isEmpty();
+    }
+
+    private Payment payment(Long orderId, PaymentStatus status) {
+        return Payment.builder()
+                .orderId(orderId)
+                .status(status)
+                .build();
+    }
+
+}
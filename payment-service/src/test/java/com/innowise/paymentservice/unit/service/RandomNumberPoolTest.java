@@ -0,0 +1,106 @@
+package com.innowise.paymentservice.unit.service;
+
+import com.innowise.paymentservice.service.RandomNumberRestClient;
+import com.innowise.paymentservice.service.impl.RandomNumberPoolImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RandomNumberPoolTest {
+
+    private static final int CAPACITY = 8;
+    private static final int LOW_WATERMARK = 2;
+    private static final int BATCH_SIZE = 4;
+
+    @Mock
+    private RandomNumberRestClient randomNumberRestClient;
+
+    private final List<Runnable> refills = new ArrayList<>();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RandomNumberPoolImpl randomNumberPool;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        randomNumberPool = new RandomNumberPoolImpl(randomNumberRestClient, refills::add, meterRegistry,
+                CAPACITY, LOW_WATERMARK, BATCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("Should fall back to a direct API call and start a refill when the pool is empty")
+    void take_WhenPoolIsEmpty_ShouldCallApiAndStartRefill() {
+        when(randomNumberRestClient.getRandomNumber()).thenReturn(7L);
+
+        long number = randomNumberPool.take();
+
+        assertThat(number).isEqualTo(7L);
+        assertThat(refills).hasSize(1);
+        assertThat(meterRegistry.get("random.number.pool.misses").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should take prefetched numbers in order without calling the API")
+    void take_AfterRefill_ShouldReturnPrefetchedNumbers() {
+        when(randomNumberRestClient.getRandomNumbers(BATCH_SIZE)).thenReturn(List.of(10L, 11L, 12L, 13L));
+
+        randomNumberPool.refillIfNeeded();
+        refills.removeFirst().run();
+
+        assertThat(meterRegistry.get("random.number.pool.size").gauge().value()).isEqualTo(4);
+        assertThat(randomNumberPool.take()).isEqualTo(10L);
+        assertThat(randomNumberPool.take()).isEqualTo(11L);
+        assertThat(refills).isEmpty();
+        verify(randomNumberRestClient, never()).getRandomNumber();
+    }
+
+    @Test
+    @DisplayName("Should start a refill once the pool drops below the low watermark")
+    void take_WhenBelowLowWatermark_ShouldStartRefill() {
+        when(randomNumberRestClient.getRandomNumbers(BATCH_SIZE)).thenReturn(List.of(10L, 11L, 12L));
+
+        randomNumberPool.refillIfNeeded();
+        refills.removeFirst().run();
+        randomNumberPool.take();
+        randomNumberPool.take();
+
+        assertThat(refills).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should not start a second refill while one is running")
+    void refillIfNeeded_WhenRefillIsRunning_ShouldNotStartAnother() {
+        randomNumberPool.refillIfNeeded();
+        randomNumberPool.refillIfNeeded();
+
+        assertThat(refills).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should allow a new refill after a failed one")
+    void refillIfNeeded_AfterFailedRefill_ShouldStartAnother() {
+        when(randomNumberRestClient.getRandomNumbers(BATCH_SIZE)).thenThrow(new IllegalStateException("API down"));
+
+        randomNumberPool.refillIfNeeded();
+        refills.removeFirst().run();
+        randomNumberPool.refillIfNeeded();
+
+        assertThat(refills).hasSize(1);
+        assertThat(meterRegistry.get("random.number.pool.size").gauge().value()).isZero();
+    }
+
+}
@@ -2,16 +2,20 @@ package com.innowise.paymentservice.unit.service;
 
 import com.innowise.paymentservice.exception.ResourceNotFoundException;
 import com.innowise.paymentservice.service.impl.RandomNumberRestClientImpl;
+import com.innowise.paymentservice.util.RequestHedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.web.client.RestClient;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -22,7 +26,6 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class RandomNumberRestClientTest {
 
-    @InjectMocks
     private RandomNumberRestClientImpl randomNumberRestClient;
 
     @Mock
@@ -34,6 +37,32 @@ class RandomNumberRestClientTest {
     @Mock
     private RestClient.ResponseSpec responseSpec;
 
+    @BeforeEach
+    void setUp() {
+        RequestHedger requestHedger = new RequestHedger("random-number-api", Runnable::run, new SimpleMeterRegistry(),
+                true, 0.95, Duration.ofSeconds(1), 0.1);
+        randomNumberRestClient = new RandomNumberRestClientImpl(restClient, requestHedger);
+    }
+
+    @Test
+    @DisplayName("Should return a batch of random numbers in a single request")
+    void getRandomNumbers_ShouldReturnAllNumbers_WhenApiReturnsValidResponse() {
+        List<Long> expectedNumbers = List.of(42L, 13L, 99L);
+
+        when(restClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(any(Function.class))).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+        when(responseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(expectedNumbers);
+
+        List<Long> actualNumbers = randomNumberRestClient.getRandomNumbers(3);
+
+        assertThat(actualNumbers).containsExactly(42L, 13L, 99L);
+
+        verify(restClient).get();
+        verify(requestHeadersUriSpec).retrieve();
+    }
+
     @Test
     @DisplayName("Should return random number successfully")
     void getRandomNumber_ShouldReturnNumber_WhenApiReturnsValidResponse() {
@@ -0,0 +1,121 @@
+package com.innowise.paymentservice.unit.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnknownFieldSet;
+import com.innowise.events.EventDecimals;
+import com.innowise.events.EventProtos;
+import com.innowise.paymentservice.model.PaymentStatus;
+import com.innowise.paymentservice.model.dto.CreatePaymentEvent;
+import com.innowise.paymentservice.model.dto.PaymentRequest;
+import com.innowise.paymentservice.util.BinaryEventCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryEventCodecTest {
+
+    @Test
+    @DisplayName("Should decode a create order event of the shared schema to a payment request")
+    void decodePaymentRequest_ShouldDecodeSharedSchema() {
+        byte[] data = EventProtos.CreateOrderEvent.newBuilder()
+                .setOrderId(123456789L)
+                .setUserId(42L)
+                .setPaymentAmount(EventDecimals.toMessage(new BigDecimal("1999.99")))
+                .build()
+                .toByteArray();
+
+        PaymentRequest decoded = BinaryEventCodec.decodePaymentRequest(data);
+
+        assertThat(decoded.getOrderId()).isEqualTo(123456789L);
+        assertThat(decoded.getUserId()).isEqualTo(42L);
+        assertThat(decoded.getPaymentAmount()).isEqualTo(new BigDecimal("1999.99"));
+    }
+
+    @Test
+    @DisplayName("Should keep unset fields null and negative amounts negative")
+    void decodePaymentRequest_WithUnsetFieldsAndNegativeAmount_ShouldKeepThem() {
+        byte[] data = EventProtos.CreateOrderEvent.newBuilder()
+                .setOrderId(-1L)
+                .setPaymentAmount(EventDecimals.toMessage(new BigDecimal("-0.50")))
+                .build()
+                .toByteArray();
+
+        PaymentRequest decoded = BinaryEventCodec.decodePaymentRequest(data);
+
+        assertThat(decoded.getOrderId()).isEqualTo(-1L);
+        assertThat(decoded.getUserId()).isNull();
+        assertThat(decoded.getPaymentAmount()).isEqualTo(new BigDecimal("-0.50"));
+    }
+
+    @Test
+    @DisplayName("Should decode the known fields of an event from a newer schema and skip the rest")
+    void decodePaymentRequest_WithFieldsOfNewerSchema_ShouldSkipUnknownFields() {
+        byte[] data = EventProtos.CreateOrderEvent.newBuilder()
+                .setOrderId(1L)
+                .setUserId(2L)
+                .setPaymentAmount(EventDecimals.toMessage(new BigDecimal("100.00")))
+                .setUnknownFields(UnknownFieldSet.newBuilder()
+                        .addField(4, UnknownFieldSet.Field.newBuilder()
+                                .addLengthDelimited(ByteString.copyFromUtf8("EUR")).build())
+                        .addField(5, UnknownFieldSet.Field.newBuilder().addVarint(3L).build())
+                        .build())
+                .build()
+                .toByteArray();
+
+        PaymentRequest decoded = BinaryEventCodec.decodePaymentRequest(data);
+
+        assertThat(decoded.getOrderId()).isEqualTo(1L);
+        assertThat(decoded.getUserId()).isEqualTo(2L);
+        assertThat(decoded.getPaymentAmount()).isEqualTo(new BigDecimal("100.00"));
+    }
+
+    @Test
+    @DisplayName("Should reject a truncated event")
+    void decodePaymentRequest_WithTruncatedData_ShouldThrowIllegalArgumentException() {
+        byte[] data = EventProtos.CreateOrderEvent.newBuilder()
+                .setOrderId(1L)
+                .setUserId(1L)
+                .setPaymentAmount(EventDecimals.toMessage(new BigDecimal("100.00")))
+                .build()
+                .toByteArray();
+
+        assertThatThrownBy(() -> BinaryEventCodec.decodePaymentRequest(Arrays.copyOf(data, data.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Malformed");
+    }
+
+    @Test
+    @DisplayName("Should encode a create payment event to the shared schema")
+    void encode_CreatePaymentEvent_ShouldEncodeSharedSchema() throws Exception {
+        CreatePaymentEvent event = CreatePaymentEvent.builder()
+                .orderId(7L)
+                .status(PaymentStatus.FAILED)
+                .build();
+
+        EventProtos.CreatePaymentEvent message =
+                EventProtos.CreatePaymentEvent.parseFrom(BinaryEventCodec.encode(event));
+
+        assertThat(message.getOrderId()).isEqualTo(7L);
+        assertThat(message.getStatus()).isEqualTo(EventProtos.PaymentStatus.FAILED);
+    }
+
+    @Test
+    @DisplayName("Should encode a create payment event several times smaller than JSON")
+    void encode_CreatePaymentEvent_ShouldBeSmallerThanJson() throws Exception {
+        CreatePaymentEvent event = CreatePaymentEvent.builder()
+                .orderId(123456789L)
+                .status(PaymentStatus.SUCCESS)
+                .build();
+
+        byte[] json = new ObjectMapper().writeValueAsBytes(event);
+
+        assertThat(BinaryEventCodec.encode(event).length).isLessThan(json.length / 3);
+    }
+
+}
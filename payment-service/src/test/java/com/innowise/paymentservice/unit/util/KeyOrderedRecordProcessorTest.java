@@ -0,0 +1,100 @@
+package com.innowise.paymentservice.unit.util;
+
+import com.innowise.paymentservice.util.KeyOrderedRecordProcessor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeyOrderedRecordProcessorTest {
+
+    private static final String TOPIC = "topic";
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final KeyOrderedRecordProcessor keyOrderedRecordProcessor = new KeyOrderedRecordProcessor(executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should process records with the same key in the order they were received")
+    void process_ShouldKeepOrderWithinKey() {
+        Map<String, Queue<Long>> processedOffsets = new ConcurrentHashMap<>();
+        List<ConsumerRecord<String, String>> records = List.of(
+                createRecord(0L, "1"), createRecord(1L, "2"), createRecord(2L, "1"),
+                createRecord(3L, "2"), createRecord(4L, "1"));
+
+        keyOrderedRecordProcessor.process(records, consumerRecord -> processedOffsets
+                .computeIfAbsent(consumerRecord.key(), key -> new ConcurrentLinkedQueue<>())
+                .add(consumerRecord.offset()));
+
+        assertThat(processedOffsets.get("1")).containsExactly(0L, 2L, 4L);
+        assertThat(processedOffsets.get("2")).containsExactly(1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should not hold back other keys while a record is slow")
+    void process_ShouldProcessOtherKeys_WhileRecordIsSlow() {
+        CountDownLatch otherKeyProcessed = new CountDownLatch(1);
+        List<ConsumerRecord<String, String>> records = List.of(createRecord(0L, "slow"), createRecord(1L, "fast"));
+
+        keyOrderedRecordProcessor.process(records, consumerRecord -> {
+            if ("fast".equals(consumerRecord.key())) {
+                otherKeyProcessed.countDown();
+                return;
+            }
+
+            try {
+                assertThat(otherKeyProcessed.await(5, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(otherKeyProcessed.getCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fail at the first failed record and skip the later records of its key")
+    void process_ShouldFailAtFirstFailedRecord_WhenRecordsFail() {
+        Queue<Long> processedOffsets = new ConcurrentLinkedQueue<>();
+        List<ConsumerRecord<String, String>> records = List.of(
+                createRecord(0L, "1"), createRecord(1L, "2"), createRecord(2L, "3"),
+                createRecord(3L, "2"), createRecord(4L, "3"), createRecord(5L, "1"));
+
+        assertThatThrownBy(() -> keyOrderedRecordProcessor.process(records, consumerRecord -> {
+            if (consumerRecord.offset() == 1L || consumerRecord.offset() == 4L) {
+                throw new IllegalArgumentException("Invalid event");
+            }
+            processedOffsets.add(consumerRecord.offset());
+        }))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getRecord()).isSameAs(records.get(1)))
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+
+        assertThat(processedOffsets).containsExactlyInAnyOrder(0L, 2L, 5L);
+    }
+
+    private ConsumerRecord<String, String> createRecord(long offset, String key) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, key, "value");
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.innowise.paymentservice.unit.util;
+
+import com.innowise.paymentservice.util.LongRingBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongRingBufferTest {
+
+    @Test
+    @DisplayName("Should return values in insertion order")
+    void poll_ShouldReturnValuesInOrder() {
+        LongRingBuffer buffer = new LongRingBuffer(4);
+
+        buffer.offer(1L);
+        buffer.offer(2L);
+
+        assertThat(buffer.poll()).hasValue(1L);
+        assertThat(buffer.poll()).hasValue(2L);
+        assertThat(buffer.poll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject values when full and accept them again after a poll")
+    void offer_WhenFull_ShouldReturnFalse() {
+        LongRingBuffer buffer = new LongRingBuffer(2);
+
+        assertThat(buffer.offer(1L)).isTrue();
+        assertThat(buffer.offer(2L)).isTrue();
+        assertThat(buffer.offer(3L)).isFalse();
+        assertThat(buffer.size()).isEqualTo(2);
+
+        buffer.poll();
+
+        assertThat(buffer.offer(3L)).isTrue();
+        assertThat(buffer.poll()).hasValue(2L);
+        assertThat(buffer.poll()).hasValue(3L);
+    }
+
+    @Test
+    @DisplayName("Should round the capacity up to a power of two")
+    void constructor_ShouldRoundCapacityToPowerOfTwo() {
+        assertThat(new LongRingBuffer(5).capacity()).isEqualTo(8);
+        assertThat(new LongRingBuffer(8).capacity()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive capacity")
+    void constructor_WithNonPositiveCapacity_ShouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> new LongRingBuffer(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should hand every value to exactly one of many concurrent consumers")
+    void poll_WithConcurrentConsumers_ShouldReturnEveryValueOnce() throws Exception {
+        int values = 100_000;
+        int consumers = 4;
+        LongRingBuffer buffer = new LongRingBuffer(64);
+        Set<Long> taken = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch produced = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(consumers + 1)) {
+            executor.submit(() -> {
+                for (long value = 0; value < values; value++) {
+                    while (!buffer.offer(value)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                produced.countDown();
+            });
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < consumers; i++) {
+                futures.add(executor.submit(() -> {
+                    while (true) {
+                        OptionalLong value = buffer.poll();
+                        if (value.isPresent()) {
+                            if (!taken.add(value.getAsLong())) {
+                                duplicates.incrementAndGet();
+                            }
+                        } else if (produced.getCount() == 0 && buffer.size() == 0) {
+                            return;
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(duplicates).hasValue(0);
+        assertThat(taken).hasSize(values);
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.innowise.paymentservice.unit.util;
+
+import com.innowise.paymentservice.exception.ExternalServiceException;
+import com.innowise.paymentservice.util.RequestHedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestHedgerTest {
+
+    private static final String DEPENDENCY = "random-number-api";
+    private static final Duration MIN_DELAY = Duration.ofMillis(20);
+
+    private final CountDownLatch primaryReleased = new CountDownLatch(1);
+
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        primaryReleased.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should return the primary result without hedging when the call is fast")
+    void execute_WhenPrimaryIsFast_ShouldNotHedge() {
+        RequestHedger requestHedger = createRequestHedger(1.0);
+
+        String result = requestHedger.execute(() -> "primary");
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(count("hedging.calls")).isEqualTo(1);
+        assertThat(count("hedging.hedges")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should return the hedge result when the primary call is slower than the hedge delay")
+    void execute_WhenPrimaryIsSlow_ShouldReturnHedgeResult() {
+        RequestHedger requestHedger = createRequestHedger(1.0);
+
+        String result = requestHedger.execute(slowPrimaryThen(() -> "hedge"));
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(count("hedging.hedges")).isEqualTo(1);
+        assertThat(count("hedging.wins")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should wait for the primary call when the hedge budget is exhausted")
+    void execute_WhenBudgetIsExhausted_ShouldNotHedge() {
+        RequestHedger requestHedger = createRequestHedger(0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = requestHedger.execute(() -> {
+            attempts.incrementAndGet();
+            sleep(MIN_DELAY.multipliedBy(3));
+            return "primary";
+        });
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(attempts).hasValue(1);
+        assertThat(count("hedging.budget.exhausted")).isEqualTo(1);
+        assertThat(count("hedging.hedges")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should throw the primary failure without hedging when the primary call fails fast")
+    void execute_WhenPrimaryFailsFast_ShouldThrowWithoutHedging() {
+        RequestHedger requestHedger = createRequestHedger(1.0);
+
+        assertThatThrownBy(() -> requestHedger.execute(() -> {
+            throw new ExternalServiceException("Server error from random number API");
+        }))
+                .isInstanceOf(ExternalServiceException.class)
+                .hasMessageContaining("Server error");
+
+        assertThat(count("hedging.hedges")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should throw when both the primary and the hedge call fail")
+    void execute_WhenBothAttemptsFail_ShouldThrow() {
+        RequestHedger requestHedger = createRequestHedger(1.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> requestHedger.execute(() -> {
+            if (attempts.getAndIncrement() == 0) {
+                sleep(MIN_DELAY.multipliedBy(3));
+            }
+            throw new ExternalServiceException("Server error from random number API");
+        }))
+                .isInstanceOf(ExternalServiceException.class);
+
+        assertThat(attempts).hasValue(2);
+        assertThat(count("hedging.wins")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should call the dependency directly when hedging is disabled")
+    void execute_WhenDisabled_ShouldCallDirectly() {
+        RequestHedger requestHedger = new RequestHedger(DEPENDENCY, executor, meterRegistry, false, 0.95, MIN_DELAY, 1.0);
+
+        assertThat(requestHedger.execute(() -> Thread.currentThread().isVirtual())).isFalse();
+        assertThat(count("hedging.calls")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject a percentile outside of (0, 1)")
+    void constructor_WithInvalidPercentile_ShouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> new RequestHedger(DEPENDENCY, executor, meterRegistry, true, 1.5, MIN_DELAY, 0.1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private RequestHedger createRequestHedger(double budget) {
+        return new RequestHedger(DEPENDENCY, executor, meterRegistry, true, 0.95, MIN_DELAY, budget);
+    }
+
+    private Supplier<String> slowPrimaryThen(Supplier<String> hedge) {
+        AtomicInteger attempts = new AtomicInteger();
+
+        return () -> {
+            if (attempts.getAndIncrement() == 0) {
+                await(primaryReleased);
+                return "primary";
+            }
+            return hedge.get();
+        };
+    }
+
+    private double count(String metric) {
+        return meterRegistry.get(metric).tag("dependency", DEPENDENCY).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.innowise.userservice.config;
+
+import com.innowise.jwt.verification.RoleEnum;
+import com.innowise.jwt.verification.VerifiedClaims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static com.innowise.userservice.config.SecurityConstant.IDENTITY_FIELD_DELIMITER;
+import static com.innowise.userservice.config.SecurityConstant.IDENTITY_MAC_ALGORITHM;
+import static com.innowise.userservice.config.SecurityConstant.IDENTITY_ROLE_DELIMITER;
+
+/**
+ * Verifies the signed identity headers forwarded by the Gateway Service in trusted-edge mode.
+ * <p>
+ * The identity is encoded as {@code userId;ROLE_A,ROLE_B;expEpochSeconds} and signed with HMAC-SHA256,
+ * which is much cheaper than parsing and verifying the JWT token again.
+ */
+@Component
+public class IdentityHeaderVerifier {
+
+    private static final int IDENTITY_FIELD_COUNT = 3;
+
+    private final boolean enabled;
+
+    private final ThreadLocal<Mac> mac;
+
+    public IdentityHeaderVerifier(@Value("${security.edge.enabled}") boolean enabled,
+                                  @Value("${security.edge.secret_key}") String secretKey) {
+        if (enabled && secretKey.isBlank()) {
+            throw new IllegalStateException("security.edge.secret_key must be set when security.edge.enabled is true");
+        }
+
+        this.enabled = enabled;
+        this.mac = ThreadLocal.withInitial(() -> initMac(secretKey));
+    }
+
+    /**
+     * Verifies the identity headers and extracts the claims they carry.
+     *
+     * @param identity The identity header value.
+     * @param signature The Base64URL-encoded HMAC of the identity.
+     * @return The {@link VerifiedClaims} of the identity, or empty if trusted-edge mode is disabled,
+     * the headers are missing, malformed or the signature does not match.
+     */
+    public Optional<VerifiedClaims> verify(String identity, String signature) {
+        if (!enabled || identity == null || signature == null) {
+            return Optional.empty();
+        }
+
+        byte[] expected = mac.get().doFinal(identity.getBytes(StandardCharsets.UTF_8));
+        byte[] actual;
+
+        try {
+            actual = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return Optional.empty();
+        }
+
+        return decode(identity);
+    }
+
+    /**
+     * Decodes the identity header value into claims.
+     *
+     * @param identity The identity header value.
+     * @return The {@link VerifiedClaims}, or empty if the value is malformed.
+     */
+    private Optional<VerifiedClaims> decode(String identity) {
+        String[] fields = identity.split(IDENTITY_FIELD_DELIMITER, -1);
+
+        if (fields.length != IDENTITY_FIELD_COUNT) {
+            return Optional.empty();
+        }
+
+        try {
+            List<RoleEnum> roles = fields[1].isEmpty()
+                    ? List.of()
+                    : Arrays.stream(fields[1].split(IDENTITY_ROLE_DELIMITER)).map(RoleEnum::valueOf).toList();
+            long expiration = Long.parseLong(fields[2]);
+
+            return Optional.of(VerifiedClaims.builder()
+                    .userId(Long.valueOf(fields[0]))
+                    .roles(roles)
+                    .expiration(expiration > 0 ? Instant.ofEpochSecond(expiration) : null)
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Mac initMac(String secretKey) {
+        try {
+            Mac mac = Mac.getInstance(IDENTITY_MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), IDENTITY_MAC_ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.innowise.jwt.verification.JwtVerifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
@@ -14,7 +16,8 @@ import java.time.Duration;
 
 /**
  * Configuration class for service-level beans, particularly Spring Data Redis cache configuration.
- * Configures Redis to correctly serialize Java objects and sets default cache behavior.
+ * Configures Redis to correctly serialize Java objects and sets default cache behavior,
+ * and creates the verifier of incoming JWT tokens.
  */
 @Configuration
 public class ServiceConfig {
@@ -32,6 +35,17 @@ public class ServiceConfig {
         return new GenericJackson2JsonRedisSerializer(redisMapper);
     }
 
+    /**
+     * Creates the {@link JwtVerifier} of the tokens issued by the Authentication Service.
+     *
+     * @param secretKey The Base64URL-encoded key the tokens are signed with.
+     * @return The configured {@link JwtVerifier}.
+     */
+    @Bean
+    public JwtVerifier jwtVerifier(@Value("${security.jwt.secret_key}") String secretKey) {
+        return new JwtVerifier(secretKey);
+    }
+
     private ObjectMapper redisMapper() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
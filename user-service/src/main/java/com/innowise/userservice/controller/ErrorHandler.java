@@ -1,6 +1,7 @@
 package com.innowise.userservice.controller;
 
 import com.innowise.userservice.exception.CardNotFoundException;
+import com.innowise.userservice.exception.InvalidCursorException;
 import com.innowise.userservice.exception.MissingRequestParameterException;
 import com.innowise.userservice.exception.NotFoundException;
 import com.innowise.userservice.exception.UserAlreadyExistException;
@@ -158,6 +159,27 @@ public class ErrorHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorApiDto);
     }
 
+    /**
+     * Handles exceptions when a pagination cursor cannot be decoded.
+     *
+     * @param ex The {@link RuntimeException} ({@link InvalidCursorException}).
+     * @param request The current {@link HttpServletRequest}.
+     * @return A {@link ResponseEntity} containing an {@link ErrorApiDto} with a
+     * BAD_REQUEST status (400).
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorApiDto> handleInvalidCursorException(RuntimeException ex, HttpServletRequest request) {
+        ErrorApiDto errorApiDto = ErrorApiDto.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorApiDto);
+    }
+
     /**
      * Handles access denied exceptions when a user lacks sufficient permissions.
      * Catches {@link AccessDeniedException} thrown by Spring Security when a user
@@ -5,9 +5,11 @@ import com.innowise.userservice.model.dto.PageableFilter;
 import com.innowise.userservice.model.dto.UserRequest;
 import com.innowise.userservice.model.dto.UserResponse;
 import com.innowise.userservice.service.UserService;
+import com.innowise.userservice.util.CursorCodec;
 import com.innowise.userservice.util.ExceptionMessageGenerator;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -22,6 +24,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
 
+import static com.innowise.userservice.util.CursorCodec.NEXT_CURSOR_HEADER;
+
 /**
  * Controller for managing user-related operations.
  * Provides REST endpoints for creating, retrieving, updating, and deleting user information.
@@ -68,7 +72,9 @@ public class UserController {
      * Defaults to "pageable" if not provided.
      * @param ids A list of user IDs to filter by, used when {@code filter="ids"}.
      * @param email The email address of the user to retrieve, used when {@code filter="email"}.
-     * @param pageableFilter Pagination, used when {@code filter="pageable"}.
+     * @param pageableFilter Pagination, used when {@code filter="pageable"}. Users are ordered by ID;
+     * if more users are available, the {@code X-Next-Cursor} header contains the cursor to pass as
+     * {@code after} to fetch the next page without an offset.
      * @return A {@link ResponseEntity} containing a {@link List} of {@link UserResponse} DTOs and an HTTP status of OK (200).
      */
     @GetMapping
@@ -92,7 +98,15 @@ public class UserController {
                 }
                 yield ResponseEntity.ok(List.of(userService.findByEmail(email)));
             }
-            default -> ResponseEntity.ok(userService.findAll(pageableFilter));
+            default -> {
+                Slice<UserResponse> users = userService.findAll(pageableFilter);
+
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                if (users.hasNext()) {
+                    response.header(NEXT_CURSOR_HEADER, CursorCodec.encode(users.getContent().getLast().getId()));
+                }
+                yield response.body(users.getContent());
+            }
         };
     }
 
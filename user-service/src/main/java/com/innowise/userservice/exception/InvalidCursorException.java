@@ -0,0 +1,14 @@
+package com.innowise.userservice.exception;
+
+import java.io.Serial;
+
+public class InvalidCursorException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 7359182046517340962L;
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+}
@@ -26,4 +26,6 @@ public class PageableFilter {
     @Min(value = 0, message = "Page cannot be less than 0")
     private Integer page = 0;
 
+    private String after;
+
 }
@@ -2,6 +2,8 @@ package com.innowise.userservice.repository;
 
 
 import com.innowise.userservice.model.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -73,6 +75,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.id IN :ids")
     List<User> findByIdIn(List<Long> ids);
 
+    /**
+     * Finds a slice of users according to the given pagination and sorting.
+     * Returns a {@link Slice}, so no count query is issued.
+     *
+     * @param pageable The pagination and sorting information.
+     * @return A {@link Slice} of users.
+     */
+    Slice<User> findAllBy(Pageable pageable);
+
+    /**
+     * Finds a slice of users whose ID is greater than the given one (keyset pagination).
+     * Returns a {@link Slice}, so no count query is issued.
+     *
+     * @param id The ID the slice starts after.
+     * @param pageable The pagination and sorting information.
+     * @return A {@link Slice} of users.
+     */
+    Slice<User> findByIdGreaterThan(Long id, Pageable pageable);
+
     /**
      * Checks whether a user with the specified email exists.
      *
@@ -3,6 +3,7 @@ package com.innowise.userservice.service;
 import com.innowise.userservice.model.dto.PageableFilter;
 import com.innowise.userservice.model.dto.UserRequest;
 import com.innowise.userservice.model.dto.UserResponse;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -67,12 +68,13 @@ public interface UserService {
 
 
     /**
-     * Finds a list of Users.
+     * Finds a slice of Users ordered by ID.
+     * If {@code after} cursor is set, keyset pagination is used and {@code page} is ignored.
      *
-     * @param pageableFilter specifies the pagination (page number, page size) and
-     * sorting criteria for the query.
-     * @return A list of DTOs for the found Users.
+     * @param pageableFilter specifies the pagination (page number or {@code after} cursor, page size)
+     * for the query.
+     * @return A {@link Slice} of DTOs for the found Users.
      */
-    List<UserResponse> findAll(PageableFilter pageableFilter);
+    Slice<UserResponse> findAll(PageableFilter pageableFilter);
 
 }
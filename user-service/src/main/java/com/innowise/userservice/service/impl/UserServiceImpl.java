@@ -9,12 +9,16 @@ import com.innowise.userservice.model.dto.UserResponse;
 import com.innowise.userservice.model.entity.User;
 import com.innowise.userservice.repository.UserRepository;
 import com.innowise.userservice.service.UserService;
+import com.innowise.userservice.util.CursorCodec;
 import com.innowise.userservice.util.ExceptionMessageGenerator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +32,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final String ID_FIELD = "id";
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
 
@@ -100,11 +106,15 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponse> findAll(PageableFilter pageableFilter) {
-        List<User> users = userRepository.findAll(
-                PageRequest.of(pageableFilter.getPage(), pageableFilter.getSize())).getContent();
-
-        return userMapper.usersToUsersResponseWithoutCards(users);
+    public Slice<UserResponse> findAll(PageableFilter pageableFilter) {
+        Slice<User> users = pageableFilter.getAfter() != null
+                ? userRepository.findByIdGreaterThan(CursorCodec.decode(pageableFilter.getAfter()),
+                        PageRequest.of(0, pageableFilter.getSize(), Sort.by(ID_FIELD)))
+                : userRepository.findAllBy(
+                        PageRequest.of(pageableFilter.getPage(), pageableFilter.getSize(), Sort.by(ID_FIELD)));
+
+        return new SliceImpl<>(
+                userMapper.usersToUsersResponseWithoutCards(users.getContent()), users.getPageable(), users.hasNext());
     }
 
 }
@@ -13,6 +13,8 @@ public class ExceptionMessageGenerator {
 
     private static final String MISSING_REQUEST_PARAMETER = "Required '%s' parameter is missing";
 
+    private static final String INVALID_CURSOR = "Invalid cursor: %s";
+
     private ExceptionMessageGenerator() {}
 
     public static String userNotFound(Long id) {
@@ -35,4 +37,8 @@ public class ExceptionMessageGenerator {
         return MISSING_REQUEST_PARAMETER.formatted(parameter);
     }
 
+    public static String invalidCursor(String cursor) {
+        return INVALID_CURSOR.formatted(cursor);
+    }
+
 }
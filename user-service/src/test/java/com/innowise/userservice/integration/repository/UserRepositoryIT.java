@@ -8,6 +8,9 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -195,6 +198,44 @@ class UserRepositoryIT extends BaseRepositoryIntegrationTest {
                 .containsExactlyInAnyOrder("John", "Jane", "Bob");
     }
 
+    @Test
+    @DisplayName("Should find slice of users ordered by id without count")
+    void findAllBy_ShouldReturnSliceOrderedById() {
+        User savedUser1 = userRepository.save(testUser1);
+        User savedUser2 = userRepository.save(testUser2);
+        User savedUser3 = userRepository.save(testUser3);
+        entityManager.flush();
+
+        Slice<User> firstSlice = userRepository.findAllBy(PageRequest.of(0, 2, Sort.by("id")));
+        Slice<User> secondSlice = userRepository.findAllBy(PageRequest.of(1, 2, Sort.by("id")));
+
+        assertThat(firstSlice.getContent()).extracting(User::getId)
+                .containsExactly(savedUser1.getId(), savedUser2.getId());
+        assertThat(firstSlice.hasNext()).isTrue();
+        assertThat(secondSlice.getContent()).extracting(User::getId)
+                .containsExactly(savedUser3.getId());
+        assertThat(secondSlice.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should find users after the given id with keyset pagination")
+    void findByIdGreaterThan_ShouldReturnUsersAfterId() {
+        User savedUser1 = userRepository.save(testUser1);
+        User savedUser2 = userRepository.save(testUser2);
+        User savedUser3 = userRepository.save(testUser3);
+        entityManager.flush();
+
+        Slice<User> slice = userRepository.findByIdGreaterThan(savedUser1.getId(), PageRequest.of(0, 1, Sort.by("id")));
+
+        assertThat(slice.getContent()).extracting(User::getId).containsExactly(savedUser2.getId());
+        assertThat(slice.hasNext()).isTrue();
+
+        Slice<User> lastSlice = userRepository.findByIdGreaterThan(savedUser2.getId(), PageRequest.of(0, 1, Sort.by("id")));
+
+        assertThat(lastSlice.getContent()).extracting(User::getId).containsExactly(savedUser3.getId());
+        assertThat(lastSlice.hasNext()).isFalse();
+    }
+
     @Test
     @DisplayName("Should handle unique email constraint")
     void save_ShouldThrowException_WhenEmailAlreadyExists() {
@@ -0,0 +1,92 @@
+package com.innowise.userservice.unit.config;
+
+import com.innowise.jwt.verification.RoleEnum;
+import com.innowise.jwt.verification.VerifiedClaims;
+import com.innowise.userservice.config.IdentityHeaderVerifier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdentityHeaderVerifierTest {
+
+    private static final String EDGE_SECRET_KEY = "test-edge-identity-secret-key";
+    private static final long EXPIRATION = 4102444800L;
+
+    private final IdentityHeaderVerifier identityHeaderVerifier = new IdentityHeaderVerifier(true, EDGE_SECRET_KEY);
+
+    @Test
+    @DisplayName("Should return claims when identity headers have a valid signature")
+    void verify_WithValidSignature_ShouldReturnClaims() throws GeneralSecurityException {
+        String identity = "1;ROLE_USER,ROLE_ADMIN;" + EXPIRATION;
+
+        Optional<VerifiedClaims> claims = identityHeaderVerifier.verify(identity, sign(identity, EDGE_SECRET_KEY));
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getUserId()).isEqualTo(1L);
+        assertThat(claims.get().getRoles()).containsExactly(RoleEnum.ROLE_USER, RoleEnum.ROLE_ADMIN);
+        assertThat(claims.get().getExpiration().getEpochSecond()).isEqualTo(EXPIRATION);
+    }
+
+    @Test
+    @DisplayName("Should return empty roles when identity has no roles")
+    void verify_WithoutRoles_ShouldReturnEmptyRoles() throws GeneralSecurityException {
+        String identity = "1;;" + EXPIRATION;
+
+        Optional<VerifiedClaims> claims = identityHeaderVerifier.verify(identity, sign(identity, EDGE_SECRET_KEY));
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getRoles()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should return empty when identity was tampered with")
+    void verify_WithTamperedIdentity_ShouldReturnEmpty() throws GeneralSecurityException {
+        String signature = sign("1;ROLE_USER;" + EXPIRATION, EDGE_SECRET_KEY);
+
+        assertThat(identityHeaderVerifier.verify("1;ROLE_ADMIN;" + EXPIRATION, signature)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should return empty when signature is not valid Base64URL")
+    void verify_WithMalformedSignature_ShouldReturnEmpty() {
+        assertThat(identityHeaderVerifier.verify("1;ROLE_USER;" + EXPIRATION, "not base64!")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should return empty when headers are missing")
+    void verify_WithMissingHeaders_ShouldReturnEmpty() {
+        assertThat(identityHeaderVerifier.verify(null, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should return empty when trusted-edge mode is disabled")
+    void verify_WhenDisabled_ShouldReturnEmpty() throws GeneralSecurityException {
+        IdentityHeaderVerifier disabledVerifier = new IdentityHeaderVerifier(false, "");
+        String identity = "1;ROLE_USER;" + EXPIRATION;
+
+        assertThat(disabledVerifier.verify(identity, sign(identity, EDGE_SECRET_KEY))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should fail to start when trusted-edge mode is enabled without a secret key")
+    void constructor_WhenEnabledWithoutSecret_ShouldThrowIllegalStateException() {
+        assertThatThrownBy(() -> new IdentityHeaderVerifier(true, ""))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private String sign(String identity, String secret) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(identity.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
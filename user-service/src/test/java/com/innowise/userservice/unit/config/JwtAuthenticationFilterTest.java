@@ -1,8 +1,10 @@
 package com.innowise.userservice.unit.config;
 
+import com.innowise.jwt.verification.JwtVerifier;
+import com.innowise.jwt.verification.RoleEnum;
+import com.innowise.userservice.config.IdentityHeaderVerifier;
 import com.innowise.userservice.config.JwtAuthenticationFilter;
 import com.innowise.userservice.model.AuthUser;
-import com.innowise.userservice.model.RoleEnum;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
@@ -21,18 +23,23 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.util.Base64;
 import java.util.Date;
 import java.util.List;
 
+import static com.innowise.jwt.verification.JwtVerifier.TOKEN_CLAIM_ROLES;
+import static com.innowise.jwt.verification.JwtVerifier.TOKEN_CLAIM_USER_ID;
 import static com.innowise.userservice.config.SecurityConstant.AUTHORIZATION_BEARER_PREFIX;
 import static com.innowise.userservice.config.SecurityConstant.AUTHORIZATION_HEADER;
+import static com.innowise.userservice.config.SecurityConstant.IDENTITY_HEADER;
+import static com.innowise.userservice.config.SecurityConstant.IDENTITY_SIGNATURE_HEADER;
 import static com.innowise.userservice.config.SecurityConstant.INTERNAL_SERVICE_API_KEY_HEADER;
-import static com.innowise.userservice.config.SecurityConstant.TOKEN_CLAIM_ROLES;
-import static com.innowise.userservice.config.SecurityConstant.TOKEN_CLAIM_USER_ID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.lenient;
@@ -54,14 +61,14 @@ class JwtAuthenticationFilterTest {
     private FilterChain filterChain;
 
     private static final String SECRET_KEY = "test-jwt-secret-key-for-unit-tests-must-be-at-least-512-bits-long-for-HS512-algorithm-security";
+    private static final String EDGE_SECRET_KEY = "test-edge-identity-secret-key";
     private static final Long TEST_USER_ID = 1L;
     private static final List<RoleEnum> TEST_ROLES = List.of(RoleEnum.ROLE_USER, RoleEnum.ROLE_ADMIN);
 
     @BeforeEach
     void setUp() {
-        jwtAuthenticationFilter = new JwtAuthenticationFilter();
         String encodedKey = Base64.getUrlEncoder().encodeToString(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
-        ReflectionTestUtils.setField(jwtAuthenticationFilter, "secretKey", encodedKey);
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(new JwtVerifier(encodedKey), new IdentityHeaderVerifier(true, EDGE_SECRET_KEY));
         ReflectionTestUtils.setField(jwtAuthenticationFilter, "internalApiKey", "test-internal-api-key");
         SecurityContextHolder.clearContext();
 
@@ -159,53 +166,51 @@ class JwtAuthenticationFilterTest {
     }
 
     @Test
-    @DisplayName("Should extract correct user ID from valid JWT token")
-    void extractUserId_WithValidToken_ShouldReturnCorrectUserId() {
-        String validToken = generateValidToken(TEST_USER_ID, TEST_ROLES, 3600000);
-
-        Long userId = jwtAuthenticationFilter.extractUserId(validToken);
+    @DisplayName("Should set authentication from gateway-signed identity headers without a JWT token")
+    void doFilterInternal_WithValidIdentityHeaders_ShouldSetAuthentication() throws Exception {
+        String identity = TEST_USER_ID + ";ROLE_USER,ROLE_ADMIN;" + (System.currentTimeMillis() / 1000 + 3600);
+        when(request.getHeader(IDENTITY_HEADER)).thenReturn(identity);
+        when(request.getHeader(IDENTITY_SIGNATURE_HEADER)).thenReturn(signIdentity(identity, EDGE_SECRET_KEY));
+        when(request.getHeader(AUTHORIZATION_HEADER)).thenReturn(null);
 
-        assertThat(userId).isEqualTo(TEST_USER_ID);
-    }
+        jwtAuthenticationFilter.doFilter(request, response, filterChain);
 
-    @Test
-    @DisplayName("Should extract correct roles from valid JWT token")
-    void extractRoles_WithValidToken_ShouldReturnCorrectRoles() {
-        String validToken = generateValidToken(TEST_USER_ID, TEST_ROLES, 3600000);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication).isNotNull();
 
-        List<RoleEnum> roles = jwtAuthenticationFilter.extractRoles(validToken);
+        AuthUser authUser = (AuthUser) authentication.getPrincipal();
+        assertThat(authUser.getId()).isEqualTo(TEST_USER_ID);
+        assertThat(authUser.getAuthorities())
+                .extracting("authority")
+                .containsExactlyInAnyOrder(RoleEnum.ROLE_USER.name(), RoleEnum.ROLE_ADMIN.name());
 
-        assertThat(roles).hasSize(2)
-                .containsExactlyInAnyOrder(RoleEnum.ROLE_USER, RoleEnum.ROLE_ADMIN);
+        verify(filterChain).doFilter(request, response);
     }
 
     @Test
-    @DisplayName("Should return empty list when JWT token has no roles")
-    void extractRoles_WithEmptyRoles_ShouldReturnEmptyList() {
-        String validToken = generateValidToken(TEST_USER_ID, List.of(), 3600000);
-
-        List<RoleEnum> roles = jwtAuthenticationFilter.extractRoles(validToken);
-
-        assertThat(roles).isEmpty();
-    }
+    @DisplayName("Should fall back to JWT verification when identity headers have an invalid signature")
+    void doFilterInternal_WithForgedIdentityHeaders_ShouldUseJwtToken() throws Exception {
+        String identity = "999;ROLE_ADMIN;" + (System.currentTimeMillis() / 1000 + 3600);
+        String validToken = generateValidToken(TEST_USER_ID, List.of(RoleEnum.ROLE_USER), 3600000);
+        when(request.getHeader(IDENTITY_HEADER)).thenReturn(identity);
+        when(request.getHeader(IDENTITY_SIGNATURE_HEADER)).thenReturn(signIdentity(identity, "forged-edge-secret-key"));
+        when(request.getHeader(AUTHORIZATION_HEADER)).thenReturn(AUTHORIZATION_BEARER_PREFIX + validToken);
 
-    @Test
-    @DisplayName("Should return true when JWT token is valid and not expired")
-    void isTokenValid_WithNonExpiredToken_ShouldReturnTrue() {
-        String validToken = generateValidToken(TEST_USER_ID, TEST_ROLES, 3600000);
+        jwtAuthenticationFilter.doFilter(request, response, filterChain);
 
-        boolean isValid = jwtAuthenticationFilter.isTokenValid(validToken);
+        AuthUser authUser = (AuthUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertThat(authUser.getId()).isEqualTo(TEST_USER_ID);
+        assertThat(authUser.getAuthorities())
+                .extracting("authority")
+                .containsExactly(RoleEnum.ROLE_USER.name());
 
-        assertThat(isValid).isTrue();
+        verify(filterChain).doFilter(request, response);
     }
 
-    @Test
-    @DisplayName("Should throw JwtException when validating expired JWT token")
-    void isTokenValid_WithExpiredToken_ShouldThrowJwtException() {
-        String expiredToken = generateValidToken(TEST_USER_ID, TEST_ROLES, -3600000);
-
-        assertThatThrownBy(() -> jwtAuthenticationFilter.isTokenValid(expiredToken))
-                .isInstanceOf(JwtException.class);
+    private String signIdentity(String identity, String secret) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(identity.getBytes(StandardCharsets.UTF_8)));
     }
 
     private String generateValidToken(Long userId, List<RoleEnum> roles, long expirationOffset) {
@@ -1,6 +1,8 @@
 package com.innowise.userservice.unit.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.innowise.jwt.verification.JwtVerifier;
+import com.innowise.userservice.config.IdentityHeaderVerifier;
 import com.innowise.userservice.controller.CardInfoController;
 import com.innowise.userservice.exception.CardNotFoundException;
 import com.innowise.userservice.exception.UserNotFoundException;
@@ -39,6 +41,12 @@ class CardInfoControllerTest {
     @MockitoBean
     private CardInfoService cardInfoService;
 
+    @MockitoBean
+    private JwtVerifier jwtVerifier;
+
+    @MockitoBean
+    private IdentityHeaderVerifier identityHeaderVerifier;
+
     @Autowired
     private ObjectMapper objectMapper;
 
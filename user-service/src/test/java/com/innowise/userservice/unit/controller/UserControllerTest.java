@@ -1,6 +1,8 @@
 package com.innowise.userservice.unit.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.innowise.jwt.verification.JwtVerifier;
+import com.innowise.userservice.config.IdentityHeaderVerifier;
 import com.innowise.userservice.controller.UserController;
 import com.innowise.userservice.exception.MissingRequestParameterException;
 import com.innowise.userservice.exception.UserAlreadyExistException;
@@ -10,11 +12,14 @@ import com.innowise.userservice.model.dto.UserRequest;
 import com.innowise.userservice.model.dto.UserResponse;
 import com.innowise.userservice.service.UserService;
 import com.innowise.userservice.unit.util.UserUtil;
+import com.innowise.userservice.util.CursorCodec;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -22,6 +27,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.Arrays;
 import java.util.List;
 
+import static com.innowise.userservice.util.CursorCodec.NEXT_CURSOR_HEADER;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -32,6 +38,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -44,6 +51,12 @@ class UserControllerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private JwtVerifier jwtVerifier;
+
+    @MockitoBean
+    private IdentityHeaderVerifier identityHeaderVerifier;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -202,7 +215,7 @@ class UserControllerTest {
     void findByFilter_ShouldReturnUsers_WhenFilterIsPageable() throws Exception {
         List<UserResponse> usersResponse = UserUtil.usersResponse(3L);
 
-        when(userService.findAll(any(PageableFilter.class))).thenReturn(usersResponse);
+        when(userService.findAll(any(PageableFilter.class))).thenReturn(new SliceImpl<>(usersResponse));
 
         mockMvc.perform(get("/api/v1/users")
                         .param("filter", "pageable")
@@ -219,7 +232,7 @@ class UserControllerTest {
     void findByFilter_ShouldReturnUsers_WhenNoFilterSpecified() throws Exception {
         List<UserResponse> usersResponse = UserUtil.usersResponse(3L);
 
-        when(userService.findAll(any(PageableFilter.class))).thenReturn(usersResponse);
+        when(userService.findAll(any(PageableFilter.class))).thenReturn(new SliceImpl<>(usersResponse));
 
         mockMvc.perform(get("/api/v1/users"))
                 .andExpect(status().isOk())
@@ -228,6 +241,21 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.length()").value(3));
     }
 
+    @Test
+    @DisplayName("Should return next cursor header when more users are available")
+    void findByFilter_ShouldReturnNextCursor_WhenHasNext() throws Exception {
+        List<UserResponse> usersResponse = UserUtil.usersResponse(3L);
+
+        when(userService.findAll(any(PageableFilter.class)))
+                .thenReturn(new SliceImpl<>(usersResponse, PageRequest.of(0, 3), true));
+
+        mockMvc.perform(get("/api/v1/users")
+                        .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(NEXT_CURSOR_HEADER, CursorCodec.encode(usersResponse.getLast().getId())))
+                .andExpect(jsonPath("$.length()").value(3));
+    }
+
     @Test
     @DisplayName("Should update user successfully")
     void updateById_ShouldUpdateUser_WhenValidRequest() throws Exception {
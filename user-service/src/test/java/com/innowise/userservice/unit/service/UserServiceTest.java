@@ -1,5 +1,6 @@
 package com.innowise.userservice.unit.service;
 
+import com.innowise.userservice.exception.InvalidCursorException;
 import com.innowise.userservice.exception.UserAlreadyExistException;
 import com.innowise.userservice.exception.UserNotFoundException;
 import com.innowise.userservice.mapper.UserMapper;
@@ -10,15 +11,17 @@ import com.innowise.userservice.model.entity.User;
 import com.innowise.userservice.repository.UserRepository;
 import com.innowise.userservice.service.impl.UserServiceImpl;
 import com.innowise.userservice.unit.util.UserUtil;
+import com.innowise.userservice.util.CursorCodec;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 import java.util.Arrays;
 import java.util.List;
@@ -26,6 +29,8 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -173,21 +178,57 @@ class UserServiceTest {
                 .build();
         List<User> users = UserUtil.users(3L);
         List<UserResponse> usersResponse = UserUtil.usersResponse(3L);
-        Page<User> userPage = new PageImpl<>(users);
+        PageRequest pageRequest = PageRequest.of(pageableFilter.getPage(), pageableFilter.getSize(), Sort.by("id"));
+        Slice<User> userSlice = new SliceImpl<>(users, pageRequest, false);
 
-        when(userRepository.findAll(PageRequest.of(pageableFilter.getPage(), pageableFilter.getSize())))
-                .thenReturn(userPage);
+        when(userRepository.findAllBy(pageRequest)).thenReturn(userSlice);
         when(userMapper.usersToUsersResponseWithoutCards(users)).thenReturn(usersResponse);
 
-        List<UserResponse> actualUsersResponse = userService.findAll(pageableFilter);
+        Slice<UserResponse> actualUsersResponse = userService.findAll(pageableFilter);
 
-        assertThat(actualUsersResponse).isNotNull()
+        assertThat(actualUsersResponse.getContent()).isNotNull()
                 .hasSameSizeAs(usersResponse);
+        assertThat(actualUsersResponse.hasNext()).isFalse();
 
-        verify(userRepository).findAll(PageRequest.of(pageableFilter.getPage(), pageableFilter.getSize()));
+        verify(userRepository).findAllBy(pageRequest);
+        verify(userRepository, never()).findByIdGreaterThan(any(), any());
         verify(userMapper).usersToUsersResponseWithoutCards(users);
     }
 
+    @Test
+    @DisplayName("Should return users after the cursor with keyset pagination")
+    void findAll_ShouldUseKeysetPagination_WhenAfterCursorProvided() {
+        PageableFilter pageableFilter = PageableFilter.builder()
+                .page(5)
+                .size(3)
+                .after(CursorCodec.encode(10L))
+                .build();
+        List<User> users = UserUtil.users(3L);
+        List<UserResponse> usersResponse = UserUtil.usersResponse(3L);
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by("id"));
+
+        when(userRepository.findByIdGreaterThan(10L, pageRequest)).thenReturn(new SliceImpl<>(users, pageRequest, true));
+        when(userMapper.usersToUsersResponseWithoutCards(users)).thenReturn(usersResponse);
+
+        Slice<UserResponse> actualUsersResponse = userService.findAll(pageableFilter);
+
+        assertThat(actualUsersResponse.getContent()).hasSize(3);
+        assertThat(actualUsersResponse.hasNext()).isTrue();
+
+        verify(userRepository, never()).findAllBy(any());
+    }
+
+    @Test
+    @DisplayName("Should throw InvalidCursorException when after cursor is malformed")
+    void findAll_ShouldThrowException_WhenCursorMalformed() {
+        PageableFilter pageableFilter = PageableFilter.builder()
+                .after("not-a-cursor")
+                .build();
+
+        assertThatThrownBy(() -> userService.findAll(pageableFilter))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
     @Test
     @DisplayName("Should throw UserAlreadyExistException when email already exists")
     void save_ShouldThrowException_WhenEmailAlreadyExists() {